@@ -4,9 +4,15 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
@@ -21,13 +27,26 @@ import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.jedis.JedisClientConfiguration;
 import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import redis.clients.jedis.JedisPoolConfig;
+import uk.ac.ebi.protvar.cache.AccessFrequencySketch;
+import uk.ac.ebi.protvar.cache.CodecRedisSerializer;
+import uk.ac.ebi.protvar.cache.TieredCacheManager;
+import uk.ac.ebi.protvar.config.CacheCodecProperties;
+import uk.ac.ebi.protvar.config.L1CacheProperties;
 import uk.ac.ebi.protvar.config.RetentionProperties;
+import uk.ac.ebi.protvar.config.SingleFlightProperties;
+import uk.ac.ebi.protvar.config.WarmupProperties;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Configuration
@@ -133,8 +152,27 @@ public class RedisConfig implements CachingConfigurer {
     // Create a serializer with custom ObjectMapper
     @Bean
     public GenericJackson2JsonRedisSerializer redisJsonSerializer() {
-        // Create and configure ObjectMapper with polymorphic typing
-        ObjectMapper mapper = new ObjectMapper();
+        return new GenericJackson2JsonRedisSerializer(configureCacheMapper(new ObjectMapper()));
+    }
+
+    /**
+     * Binary (Smile) counterpart of redisJsonSerializer's mapper, used by
+     * CodecRedisSerializer for caches with {@code cache.codec.caches[...]=smile}.
+     * Shared string values are back-referenced, which pays off on repetitive
+     * lists (experimental methods, chain ids, score types).
+     *
+     * Deliberately not a bean: an ObjectMapper bean would make Boot's
+     * JacksonAutoConfiguration back off and switch the web layer to Smile.
+     */
+    public static ObjectMapper smileCacheMapper() {
+        SmileFactory factory = SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        return configureCacheMapper(new SmileMapper(factory));
+    }
+
+    /** Settings shared by the JSON and Smile cache mappers — keep them in step so both read the same values. */
+    public static ObjectMapper configureCacheMapper(ObjectMapper mapper) {
         // java.time.Instant etc. — without this Jackson throws on serialization
         mapper.registerModule(new JavaTimeModule());
         mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
@@ -143,13 +181,14 @@ public class RedisConfig implements CachingConfigurer {
         // cache-version key prefix; this stops the residual 500 if a flush is
         // missed). NB: a *renamed* field will silently null on the new shape.
         mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        // Polymorphic typing
         mapper.activateDefaultTyping(
                 BasicPolymorphicTypeValidator.builder()
                         .allowIfBaseType(Object.class)
                         .build(),
                 ObjectMapper.DefaultTyping.NON_FINAL
         );
-        return new GenericJackson2JsonRedisSerializer(mapper);
+        return mapper;
     }
 
     @Bean
@@ -171,11 +210,29 @@ public class RedisConfig implements CachingConfigurer {
      * Caches that hold user-submitted data ({@code inputs}, {@code inputBuilds}, {@code inputSummaries})
      * get a finite TTL from {@link RetentionProperties#getSubmissions()} so old submissions auto-expire;
      * everything else inherits the default config (no TTL, bounded by redis maxmemory + LRU at the cluster).
+     *
+     * The Redis manager is wrapped in a {@link TieredCacheManager}: hot per-accession caches listed under
+     * {@code cache.l1.caches[...]} (FUN_HEADER, STR, ...) get a bounded in-process L1 so repeat lookups for
+     * popular proteins skip the network round trip and JSON deserialisation.
+     *
+     * Values go through a {@link CodecRedisSerializer}: JSON by default, or compact (optionally deflated)
+     * Smile for caches listed under {@code cache.codec.caches[...]}. Either format is readable by both.
+     *
+     * Misses on @Cacheable(sync = true) methods are coalesced per key ({@link SingleFlightProperties}),
+     * so a cold cache after a deploy runs each DB load once per node rather than once per request.
+     * Lookups on the {@code cache.warmup.caches} are counted for the post-deploy warm-up.
      */
     @Bean
     public CacheManager cacheManager(RedisConnectionFactory connectionFactory,
                                      GenericJackson2JsonRedisSerializer redisJsonSerializer,
-                                     RetentionProperties retention) {
+                                     CacheCodecProperties codecProperties,
+                                     RetentionProperties retention,
+                                     L1CacheProperties l1Properties,
+                                     SingleFlightProperties singleFlightProperties,
+                                     WarmupProperties warmupProperties,
+                                     AccessFrequencySketch accessFrequencySketch,
+                                     ObjectProvider<MeterRegistry> meterRegistry) {
+        ObjectMapper redisSmileMapper = smileCacheMapper();
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
                 // Prefix every key with the cache version so a deploy with a
                 // bumped cache.version moves to a fresh namespace (old keys
@@ -183,18 +240,63 @@ public class RedisConfig implements CachingConfigurer {
                 // prefix is "{cacheName}::" — we wrap it to "{version}::{cacheName}::".
                 .computePrefixWith(name -> cacheVersion + "::" + name + "::")
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(redisJsonSerializer));
+                .serializeValuesWith(valueSerializer(codecProperties.getDefaultFormat(),
+                        redisJsonSerializer, redisSmileMapper, codecProperties));
 
         RedisCacheConfiguration submissionConfig = config.entryTtl(retention.getSubmissions());
-        Map<String, RedisCacheConfiguration> perCache = Map.of(
+        Map<String, RedisCacheConfiguration> perCache = new HashMap<>(Map.of(
                 "inputs", submissionConfig,
                 "inputBuilds", submissionConfig,
                 "inputSummaries", submissionConfig
-        );
+        ));
+        codecProperties.getCaches().forEach((name, format) -> {
+            perCache.put(name, perCache.getOrDefault(name, config)
+                    .serializeValuesWith(valueSerializer(format, redisJsonSerializer, redisSmileMapper, codecProperties)));
+            LOGGER.info("Cache {} values encoded as {}", name, format);
+        });
 
-        return RedisCacheManager.builder(connectionFactory)
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(config)
                 .withInitialCacheConfigurations(perCache)
                 .build();
+        // Not a bean itself, so initialise here — loads the per-cache
+        // configurations above (getMissingCache would only use the defaults).
+        redisCacheManager.afterPropertiesSet();
+
+        return new TieredCacheManager(redisCacheManager, l1Properties, singleFlightProperties,
+                meterRegistry.getIfAvailable(SimpleMeterRegistry::new),
+                new StringRedisTemplate(connectionFactory), cacheVersion,
+                accessFrequencySketch, warmupProperties.isEnabled() ? warmupProperties.getCaches() : List.of());
+    }
+
+    /** Accession lookup counts for CacheWarmupService, fed by the caches in cache.warmup.caches. */
+    @Bean
+    public AccessFrequencySketch accessFrequencySketch(WarmupProperties warmupProperties) {
+        return new AccessFrequencySketch(warmupProperties.getTrackedCapacity());
+    }
+
+    private static RedisSerializationContext.SerializationPair<Object> valueSerializer(
+            CacheCodecProperties.Format format, GenericJackson2JsonRedisSerializer json,
+            ObjectMapper smileMapper, CacheCodecProperties codecProperties) {
+        return RedisSerializationContext.SerializationPair.fromSerializer(
+                new CodecRedisSerializer(format, json, smileMapper, codecProperties.getCompressThreshold()));
+    }
+
+    /**
+     * Subscribes to the L1 invalidation channel so an evict/clear on one node
+     * drops the matching L1 entries on the others. Holds one pooled
+     * connection for the subscription.
+     */
+    @Bean
+    public RedisMessageListenerContainer l1InvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                         CacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        if (cacheManager instanceof TieredCacheManager tiered) {
+            container.addMessageListener(
+                    (message, pattern) -> tiered.onInvalidation(new String(message.getBody(), StandardCharsets.UTF_8)),
+                    new ChannelTopic(tiered.getInvalidationChannel()));
+        }
+        return container;
     }
 }
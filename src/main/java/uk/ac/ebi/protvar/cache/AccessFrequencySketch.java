@@ -0,0 +1,123 @@
+package uk.ac.ebi.protvar.cache;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Approximate per-accession access counts in fixed memory: a count-min
+ * sketch (4 x 16K int counters, 256KB) for the estimates, plus a bounded
+ * set of heavy-hitter candidates so the top keys can be listed without
+ * remembering every key seen.
+ *
+ * Counts are windowed: {@link #drain()} hands back the candidates with
+ * their estimates and resets, so the sketch only ever holds one flush
+ * interval of traffic (CacheWarmupService merges the windows in Redis).
+ *
+ * Accesses made inside {@link #untracked(Supplier)} — i.e. by the warm-up
+ * itself — are not recorded.
+ *
+ * record() sits on every tracked cache lookup, so it takes no lock: counters
+ * are atomic, candidates a ConcurrentHashMap, and pruning is done by
+ * whichever recorder wins a tryLock. drain() swaps in a fresh window; a
+ * record racing with the swap may land in either window.
+ */
+public class AccessFrequencySketch {
+    private static final int DEPTH = 4;
+    private static final int WIDTH = 1 << 14;
+    private static final int MASK = WIDTH - 1;
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+    private static final ThreadLocal<Boolean> UNTRACKED = ThreadLocal.withInitial(() -> false);
+
+    private static final class Window {
+        final AtomicIntegerArray counts = new AtomicIntegerArray(DEPTH * WIDTH);
+        final Map<String, Integer> candidates = new ConcurrentHashMap<>();
+    }
+
+    private final int capacity;
+    private final ReentrantLock pruneLock = new ReentrantLock();
+    private volatile Window window = new Window();
+
+    /** @param capacity number of heavy-hitter candidates kept between drains */
+    public AccessFrequencySketch(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public void record(String key) {
+        if (key == null || UNTRACKED.get()) return;
+        Window w = window;
+        int hash = key.hashCode();
+        int estimate = Integer.MAX_VALUE;
+        for (int d = 0; d < DEPTH; d++) {
+            estimate = Math.min(estimate, w.counts.incrementAndGet(d * WIDTH + index(hash, d)));
+        }
+        w.candidates.put(key, estimate);
+        if (w.candidates.size() > 2 * capacity && pruneLock.tryLock()) {
+            try {
+                prune(w.candidates);
+            } finally {
+                pruneLock.unlock();
+            }
+        }
+    }
+
+    public int estimate(String key) {
+        Window w = window;
+        int hash = key.hashCode();
+        int estimate = Integer.MAX_VALUE;
+        for (int d = 0; d < DEPTH; d++) {
+            estimate = Math.min(estimate, w.counts.get(d * WIDTH + index(hash, d)));
+        }
+        return estimate;
+    }
+
+    /** Returns the current candidates (at most capacity, highest first) with their estimates, and resets. */
+    public synchronized Map<String, Integer> drain() {
+        Window drained = window;
+        window = new Window();
+        pruneLock.lock();
+        try {
+            prune(drained.candidates);
+        } finally {
+            pruneLock.unlock();
+        }
+        Map<String, Integer> top = new LinkedHashMap<>();
+        drained.candidates.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .limit(capacity)
+                .forEach(e -> top.put(e.getKey(), e.getValue()));
+        return top;
+    }
+
+    /** Runs {@code action} without recording the cache accesses it makes on this thread. */
+    public static <T> T untracked(Supplier<T> action) {
+        boolean outer = UNTRACKED.get();
+        UNTRACKED.set(true);
+        try {
+            return action.get();
+        } finally {
+            UNTRACKED.set(outer);
+        }
+    }
+
+    // Keep the top `capacity` candidates by estimate
+    private void prune(Map<String, Integer> candidates) {
+        if (candidates.size() <= capacity) return;
+        int[] values = candidates.values().stream().mapToInt(Integer::intValue).sorted().toArray();
+        if (values.length <= capacity) return; // shrank since size()
+        int threshold = values[values.length - capacity];
+        candidates.values().removeIf(v -> v < threshold);
+        // ties at the threshold can leave a few over; drop arbitrarily
+        Iterator<Integer> it = candidates.values().iterator();
+        while (candidates.size() > capacity && it.hasNext()) {
+            if (it.next() == threshold) it.remove();
+        }
+    }
+
+    private static int index(int hash, int d) {
+        int h = (hash ^ SEEDS[d]) * 0x9E3779B1;
+        return (h ^ (h >>> 16)) & MASK;
+    }
+}
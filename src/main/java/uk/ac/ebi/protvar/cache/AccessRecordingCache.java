@@ -0,0 +1,69 @@
+package uk.ac.ebi.protvar.cache;
+
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Records each lookup key in an {@link AccessFrequencySketch} before
+ * delegating, so CacheWarmupService knows which accessions are popular.
+ * Applied by TieredCacheManager to the caches listed in
+ * {@code cache.warmup.caches}.
+ */
+class AccessRecordingCache implements CacheDecorator {
+    private final Cache delegate;
+    private final AccessFrequencySketch sketch;
+
+    public AccessRecordingCache(Cache delegate, AccessFrequencySketch sketch) {
+        this.delegate = delegate;
+        this.sketch = sketch;
+    }
+
+    @Override
+    public Cache getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        sketch.record(String.valueOf(key));
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        sketch.record(String.valueOf(key));
+        return delegate.get(key, type);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        sketch.record(String.valueOf(key));
+        return delegate.get(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+}
@@ -0,0 +1,207 @@
+package uk.ac.ebi.protvar.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Read-only sorted set of UniProt accessions, front-coded in blocks of
+ * {@link #BLOCK_SIZE}: the first accession of each block is stored whole,
+ * the rest as (shared prefix length, suffix). Sorted accessions share long
+ * prefixes (A0A0..., P0DP...), so ~250k accessions take a few MB of bytes
+ * instead of tens of MB of String/HashSet overhead.
+ *
+ * Lookup is a binary search over the block heads then a scan of at most
+ * one block: O(log n). Iteration is in sorted (accession) order.
+ *
+ * Layout (big-endian, also the snapshot body — see UniprotEntryCache):
+ *   [int count][int blockCount][int[blockCount] block offsets][entries]
+ * Entries are ASCII; heads are [len][bytes], others [shared][suffixLen][suffix].
+ * Reads use absolute gets only, so one (possibly memory-mapped) buffer is
+ * safely shared across threads.
+ */
+public final class AccessionIndex extends AbstractCollection<String> {
+    static final int BLOCK_SIZE = 16;
+    private static final int MAX_LENGTH = 255;
+
+    public static final AccessionIndex EMPTY = build(List.of());
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int blockCount;
+    private final int offsetsStart;
+    private final int entriesStart;
+
+    private AccessionIndex(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.count = buffer.getInt(0);
+        this.blockCount = buffer.getInt(4);
+        this.offsetsStart = 8;
+        this.entriesStart = offsetsStart + 4 * blockCount;
+    }
+
+    /** Wraps a serialized index (e.g. a mapped snapshot body) without copying. */
+    public static AccessionIndex read(ByteBuffer body) {
+        return new AccessionIndex(body.duplicate());
+    }
+
+    /** Builds an index from accessions in any order; duplicates and nulls are dropped. */
+    public static AccessionIndex build(Collection<String> accessions) {
+        String[] sorted = accessions.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .toArray(String[]::new);
+
+        int blockCount = (sorted.length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        int[] offsets = new int[blockCount];
+        ByteArrayOutputStream entries = new ByteArrayOutputStream(sorted.length * 6);
+        byte[] previous = new byte[0];
+        for (int i = 0; i < sorted.length; i++) {
+            byte[] current = sorted[i].getBytes(StandardCharsets.US_ASCII);
+            if (current.length > MAX_LENGTH) {
+                throw new IllegalArgumentException("Accession too long: " + sorted[i]);
+            }
+            if (i % BLOCK_SIZE == 0) {
+                offsets[i / BLOCK_SIZE] = entries.size();
+                entries.write(current.length);
+                entries.write(current, 0, current.length);
+            } else {
+                int shared = sharedPrefix(previous, current);
+                entries.write(shared);
+                entries.write(current.length - shared);
+                entries.write(current, shared, current.length - shared);
+            }
+            previous = current;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(8 + 4 * blockCount + entries.size());
+        buffer.putInt(sorted.length).putInt(blockCount);
+        for (int offset : offsets) buffer.putInt(offset);
+        buffer.put(entries.toByteArray());
+        buffer.flip();
+        return new AccessionIndex(buffer);
+    }
+
+    public void writeTo(DataOutputStream out) throws IOException {
+        ByteBuffer copy = buffer.duplicate();
+        copy.position(0);
+        byte[] chunk = new byte[64 * 1024];
+        while (copy.hasRemaining()) {
+            int n = Math.min(chunk.length, copy.remaining());
+            copy.get(chunk, 0, n);
+            out.write(chunk, 0, n);
+        }
+    }
+
+    /** Serialized size in bytes. */
+    public int byteSize() {
+        return buffer.limit();
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof String key) || count == 0 || key.length() > MAX_LENGTH) return false;
+
+        // last block whose head is <= key
+        int lo = 0, hi = blockCount - 1, block = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = compareHead(mid, key);
+            if (cmp == 0) return true;
+            if (cmp < 0) {
+                block = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        if (block < 0) return false;
+
+        int pos = entriesStart + buffer.getInt(offsetsStart + 4 * block);
+        byte[] current = new byte[MAX_LENGTH];
+        int length = buffer.get(pos++) & 0xFF;
+        buffer.get(pos, current, 0, length);
+        pos += length;
+        int entriesInBlock = Math.min(BLOCK_SIZE, count - block * BLOCK_SIZE);
+        for (int i = 1; i < entriesInBlock; i++) {
+            int shared = buffer.get(pos++) & 0xFF;
+            int suffix = buffer.get(pos++) & 0xFF;
+            buffer.get(pos, current, shared, suffix);
+            pos += suffix;
+            length = shared + suffix;
+            int cmp = compare(current, length, key);
+            if (cmp == 0) return true;
+            if (cmp > 0) return false;
+        }
+        return false;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<>() {
+            private final byte[] current = new byte[MAX_LENGTH];
+            private int index;
+            private int pos = entriesStart;
+
+            @Override
+            public boolean hasNext() {
+                return index < count;
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                int length;
+                if (index % BLOCK_SIZE == 0) {
+                    length = buffer.get(pos++) & 0xFF;
+                    buffer.get(pos, current, 0, length);
+                    pos += length;
+                } else {
+                    int shared = buffer.get(pos++) & 0xFF;
+                    int suffix = buffer.get(pos++) & 0xFF;
+                    buffer.get(pos, current, shared, suffix);
+                    pos += suffix;
+                    length = shared + suffix;
+                }
+                index++;
+                return new String(current, 0, length, StandardCharsets.US_ASCII);
+            }
+        };
+    }
+
+    private int compareHead(int block, String key) {
+        int pos = entriesStart + buffer.getInt(offsetsStart + 4 * block);
+        int length = buffer.get(pos) & 0xFF;
+        int n = Math.min(length, key.length());
+        for (int i = 0; i < n; i++) {
+            int diff = (buffer.get(pos + 1 + i) & 0xFF) - key.charAt(i);
+            if (diff != 0) return diff;
+        }
+        return length - key.length();
+    }
+
+    private static int compare(byte[] bytes, int length, String key) {
+        int n = Math.min(length, key.length());
+        for (int i = 0; i < n; i++) {
+            int diff = (bytes[i] & 0xFF) - key.charAt(i);
+            if (diff != 0) return diff;
+        }
+        return length - key.length();
+    }
+
+    private static int sharedPrefix(byte[] a, byte[] b) {
+        int n = Math.min(Math.min(a.length, b.length), MAX_LENGTH);
+        int i = 0;
+        while (i < n && a[i] == b[i]) i++;
+        return i;
+    }
+}
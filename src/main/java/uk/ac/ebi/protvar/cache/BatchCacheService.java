@@ -0,0 +1,190 @@
+package uk.ac.ebi.protvar.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.util.ByteUtils;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Bulk get/put for caches that are warmed many keys at a time (e.g. STR for
+ * every canonical accession in a download partition). A per-key
+ * Cache.get/put is one Redis round trip each; here lookups go out as MGET
+ * and writes as a single pipeline, in chunks of {@link #CHUNK_SIZE}.
+ *
+ * Entries are read and written exactly as RedisCache would (same
+ * cache.version key prefix, value codec, TTL and null marker), so @Cacheable
+ * methods see them as ordinary hits. For a {@link TieredCache} the L1 is
+ * consulted first and kept up to date. Any other Cache falls back to per-key
+ * calls.
+ *
+ * Redis failures degrade the same way as RedisConfig.LoggingCacheErrorHandler:
+ * a failed read is treated as all-miss, a failed write just isn't cached.
+ */
+@Service
+@RequiredArgsConstructor
+public class BatchCacheService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchCacheService.class);
+    static final int CHUNK_SIZE = 500;
+    // Same marker RedisCache stores for a cached null
+    private static final byte[] BINARY_NULL_VALUE = RedisSerializer.java().serialize(NullValue.INSTANCE);
+
+    private final CacheManager cacheManager;
+    private final RedisConnectionFactory connectionFactory;
+
+    /**
+     * Looks up the given keys in one pass.
+     *
+     * @return hits only, keyed as given; a cached null maps to null
+     */
+    @SuppressWarnings("unchecked")
+    public <V> Map<String, V> getAll(String cacheName, Collection<String> keys) {
+        Map<String, V> hits = new HashMap<>();
+        Cache cache = CacheDecorator.unwrap(cacheManager.getCache(cacheName));
+        if (cache == null || keys == null || keys.isEmpty()) return hits;
+
+        List<String> remoteKeys = new ArrayList<>(keys.size());
+        TieredCache tiered = cache instanceof TieredCache t ? t : null;
+        for (String key : new LinkedHashSet<>(keys)) {
+            Cache.ValueWrapper local = tiered != null ? tiered.getLocal(key) : null;
+            if (local != null) {
+                hits.put(key, (V) local.get());
+            } else {
+                remoteKeys.add(key);
+            }
+        }
+        if (remoteKeys.isEmpty()) return hits;
+
+        Cache remote = tiered != null ? tiered.getRemote() : cache;
+        Map<String, Object> remoteHits = remote instanceof RedisCache redisCache
+                ? multiGet(redisCache, remoteKeys)
+                : getEach(remote, remoteKeys);
+
+        remoteHits.forEach((key, value) ->
+                hits.put(key, (V) (tiered != null ? tiered.promote(key, value) : value)));
+        if (tiered != null) tiered.recordRemoteMisses(remoteKeys.size() - remoteHits.size());
+        return hits;
+    }
+
+    /** Writes all entries in one pass; a null value is cached as null (if the cache allows it). */
+    public void putAll(String cacheName, Map<String, ?> entries) {
+        Cache cache = CacheDecorator.unwrap(cacheManager.getCache(cacheName));
+        if (cache == null || entries == null || entries.isEmpty()) return;
+
+        Cache remote = cache;
+        if (cache instanceof TieredCache tiered) {
+            entries.forEach(tiered::putLocal);
+            remote = tiered.getRemote();
+        }
+        if (remote instanceof RedisCache redisCache) {
+            pipelinedSet(redisCache, entries);
+        } else {
+            entries.forEach(remote::put);
+        }
+    }
+
+    /**
+     * Returns values for all keys, loading the misses with a single
+     * {@code loader} call and caching what it returns. Keys the loader leaves
+     * out are neither returned nor cached.
+     */
+    public <V> Map<String, V> getAllOrLoad(String cacheName, Collection<String> keys,
+                                           Function<List<String>, Map<String, V>> loader) {
+        Map<String, V> values = getAll(cacheName, keys);
+        List<String> misses = new LinkedHashSet<>(keys).stream()
+                .filter(key -> !values.containsKey(key))
+                .toList();
+        if (!misses.isEmpty()) {
+            Map<String, V> loaded = loader.apply(misses);
+            putAll(cacheName, loaded);
+            values.putAll(loaded);
+        }
+        return values;
+    }
+
+    private Map<String, Object> multiGet(RedisCache cache, List<String> keys) {
+        RedisCacheConfiguration config = cache.getCacheConfiguration();
+        Map<String, Object> hits = new HashMap<>();
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            for (int from = 0; from < keys.size(); from += CHUNK_SIZE) {
+                List<String> chunk = keys.subList(from, Math.min(from + CHUNK_SIZE, keys.size()));
+                byte[][] redisKeys = chunk.stream().map(key -> redisKey(cache, key)).toArray(byte[][]::new);
+                List<byte[]> values = connection.stringCommands().mGet(redisKeys);
+                if (values == null) continue;
+                for (int i = 0; i < chunk.size(); i++) {
+                    byte[] value = values.get(i);
+                    if (value == null) continue;
+                    hits.put(chunk.get(i), Arrays.equals(value, BINARY_NULL_VALUE)
+                            ? null
+                            : config.getValueSerializationPair().read(ByteBuffer.wrap(value)));
+                }
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn("Redis cache MGET failed [{}] — treating {} keys as miss: {}",
+                    cache.getName(), keys.size(), e.getMessage());
+            return Collections.emptyMap();
+        }
+        return hits;
+    }
+
+    private void pipelinedSet(RedisCache cache, Map<String, ?> entries) {
+        RedisCacheConfiguration config = cache.getCacheConfiguration();
+        List<Map.Entry<String, ?>> list = new ArrayList<>(entries.entrySet());
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            for (int from = 0; from < list.size(); from += CHUNK_SIZE) {
+                connection.openPipeline();
+                try {
+                    for (Map.Entry<String, ?> entry : list.subList(from, Math.min(from + CHUNK_SIZE, list.size()))) {
+                        Object value = entry.getValue();
+                        if (value == null && !config.getAllowCacheNullValues()) continue;
+                        byte[] bytes = value == null
+                                ? BINARY_NULL_VALUE
+                                : ByteUtils.getBytes(config.getValueSerializationPair().write(value));
+                        Duration ttl = config.getTtlFunction().getTimeToLive(entry.getKey(), value);
+                        connection.stringCommands().set(redisKey(cache, entry.getKey()), bytes,
+                                ttl != null && !ttl.isZero() && !ttl.isNegative()
+                                        ? Expiration.from(ttl)
+                                        : Expiration.persistent(),
+                                RedisStringCommands.SetOption.upsert());
+                    }
+                } finally {
+                    connection.closePipeline();
+                }
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn("Redis cache pipelined SET failed [{}] — {} values not cached: {}",
+                    cache.getName(), entries.size(), e.getMessage());
+        }
+    }
+
+    private static Map<String, Object> getEach(Cache cache, List<String> keys) {
+        Map<String, Object> hits = new HashMap<>();
+        for (String key : keys) {
+            Cache.ValueWrapper wrapper = cache.get(key);
+            if (wrapper != null) hits.put(key, wrapper.get());
+        }
+        return hits;
+    }
+
+    // "{cache.version}::{cacheName}::{key}", as RedisCache.createCacheKey builds it
+    private static byte[] redisKey(RedisCache cache, String key) {
+        RedisCacheConfiguration config = cache.getCacheConfiguration();
+        String fullKey = config.usePrefix() ? config.getKeyPrefixFor(cache.getName()) + key : key;
+        return ByteUtils.getBytes(config.getKeySerializationPair().write(fullKey));
+    }
+}
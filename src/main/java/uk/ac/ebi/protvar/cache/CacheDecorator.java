@@ -0,0 +1,20 @@
+package uk.ac.ebi.protvar.cache;
+
+import org.springframework.cache.Cache;
+
+/**
+ * A Cache that wraps another one (see TieredCacheManager.createCache).
+ * Lets code that needs the underlying TieredCache/RedisCache — bulk ops,
+ * L1 invalidation — see through the wrappers.
+ */
+interface CacheDecorator extends Cache {
+
+    Cache getDelegate();
+
+    static Cache unwrap(Cache cache) {
+        while (cache instanceof CacheDecorator decorator) {
+            cache = decorator.getDelegate();
+        }
+        return cache;
+    }
+}
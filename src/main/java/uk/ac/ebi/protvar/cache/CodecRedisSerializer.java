@@ -0,0 +1,111 @@
+package uk.ac.ebi.protvar.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import uk.ac.ebi.protvar.config.CacheCodecProperties.Format;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Redis value serializer that writes either plain JSON (the existing
+ * GenericJackson2JsonRedisSerializer output) or a compact binary frame:
+ *
+ *   [MAGIC][CODEC_VERSION][flags][Smile payload, deflated if FLAG_DEFLATE]
+ *
+ * Smile is Jackson's binary JSON, so the same ObjectMapper settings
+ * (default typing, JavaTimeModule, lenient unknown fields) apply and model
+ * classes need no changes. Payloads at or above {@code compressThreshold}
+ * bytes are deflated (BEST_SPEED) — large UPEntry headers and structure
+ * lists shrink well, small values aren't worth the CPU.
+ *
+ * Reads always sniff the first byte: MAGIC can never start a UTF-8 JSON
+ * document, so entries written by either format (or by an older BE) decode
+ * correctly. Switching a cache's format therefore doesn't need a
+ * {@code cache.version} bump; bumping CODEC_VERSION does the same for the
+ * frame layout itself — unknown versions are rejected (-> cache miss via
+ * the CacheErrorHandler) and overwritten on the next put.
+ */
+public class CodecRedisSerializer implements RedisSerializer<Object> {
+    static final byte MAGIC = (byte) 0xB7;
+    static final byte CODEC_VERSION = 1;
+    static final byte FLAG_DEFLATE = 1;
+    private static final int HEADER_LENGTH = 3;
+
+    private final Format format;
+    private final RedisSerializer<Object> jsonSerializer;
+    private final ObjectMapper smileMapper;
+    private final int compressThreshold;
+
+    public CodecRedisSerializer(Format format, RedisSerializer<Object> jsonSerializer,
+                                ObjectMapper smileMapper, int compressThreshold) {
+        this.format = format;
+        this.jsonSerializer = jsonSerializer;
+        this.smileMapper = smileMapper;
+        this.compressThreshold = compressThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) return new byte[0];
+        if (format == Format.JSON) return jsonSerializer.serialize(value);
+        try {
+            byte[] payload = smileMapper.writeValueAsBytes(value);
+            byte flags = 0;
+            if (compressThreshold > 0 && payload.length >= compressThreshold) {
+                payload = deflate(payload);
+                flags |= FLAG_DEFLATE;
+            }
+            byte[] frame = new byte[HEADER_LENGTH + payload.length];
+            frame[0] = MAGIC;
+            frame[1] = CODEC_VERSION;
+            frame[2] = flags;
+            System.arraycopy(payload, 0, frame, HEADER_LENGTH, payload.length);
+            return frame;
+        } catch (IOException e) {
+            throw new SerializationException("Could not write Smile: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) return null;
+        if (bytes[0] != MAGIC) return jsonSerializer.deserialize(bytes);
+
+        if (bytes.length < HEADER_LENGTH || bytes[1] != CODEC_VERSION) {
+            throw new SerializationException("Unsupported cache codec version: "
+                    + (bytes.length > 1 ? bytes[1] : "none"));
+        }
+        try {
+            if ((bytes[2] & FLAG_DEFLATE) != 0) {
+                return smileMapper.readValue(inflate(bytes, HEADER_LENGTH), Object.class);
+            }
+            return smileMapper.readValue(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH, Object.class);
+        } catch (IOException e) {
+            throw new SerializationException("Could not read Smile: " + e.getMessage(), e);
+        }
+    }
+
+    private static byte[] deflate(byte[] data) throws IOException {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2);
+        try (DeflaterOutputStream dos = new DeflaterOutputStream(out, deflater)) {
+            dos.write(data);
+        } finally {
+            deflater.end();
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] inflate(byte[] data, int offset) throws IOException {
+        try (InflaterInputStream in = new InflaterInputStream(
+                new ByteArrayInputStream(data, offset, data.length - offset))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -18,6 +18,8 @@ public class InputSummary {
     int totalCount;
     @Builder.Default
     EnumMap<VariantType, Integer> inputCounts = new EnumMap<>(VariantType.class);
+    // Upload received to summary (and build) cached; null for summaries of a partition
+    Long readyMillis;
 
 
     @Override
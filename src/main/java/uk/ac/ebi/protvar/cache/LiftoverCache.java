@@ -0,0 +1,90 @@
+package uk.ac.ebi.protvar.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import uk.ac.ebi.protvar.repo.CrossmapRepo;
+import uk.ac.ebi.protvar.utils.SnapshotFile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * Loads the GRCh37/GRCh38 liftover index into CrossmapRepo, so build
+ * conversion and the assembly mapping endpoint stop sending VALUES lists
+ * to the crossmap table.
+ *
+ * Built once per release (one ordered scan of tbl.crossmap) and kept as a
+ * local snapshot stamped with the table name, like MappedPositionCache.
+ * Until the index is ready, or if it fails to build, CrossmapRepo queries
+ * the DB as before.
+ */
+@Component
+public class LiftoverCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LiftoverCache.class);
+    private static final int SNAPSHOT_MAGIC = 0x50564C4F; // "PVLO"
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private final CrossmapRepo crossmapRepo;
+    private final boolean enabled;
+    private final String crossmapTable;
+    private final String indexFolder;
+
+    public LiftoverCache(CrossmapRepo crossmapRepo,
+                         @Value("${liftover.index.enabled:true}") boolean enabled,
+                         @Value("${tbl.crossmap}") String crossmapTable,
+                         @Value("${app.index.folder:${app.data.folder}/index}") String indexFolder) {
+        this.crossmapRepo = crossmapRepo;
+        this.enabled = enabled;
+        this.crossmapTable = crossmapTable;
+        this.indexFolder = indexFolder;
+    }
+
+    @EventListener(classes = ApplicationStartedEvent.class)
+    public void loadIndex() {
+        if (!enabled) return;
+        Thread loader = new Thread(this::load, "liftover-index");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    void load() {
+        Path snapshot = Path.of(indexFolder, "liftover-" + crossmapTable + ".idx");
+        try {
+            ByteBuffer body = SnapshotFile.map(snapshot, SNAPSHOT_MAGIC, SNAPSHOT_VERSION, crossmapTable);
+            if (body != null) {
+                LiftoverIndex index = LiftoverIndex.read(body);
+                crossmapRepo.useLiftoverIndex(index);
+                LOGGER.info("{} liftover blocks ({} positions) read from snapshot {}",
+                        index.blockCount(), index.rowCount(), snapshot);
+                return;
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Liftover snapshot {} unreadable — rebuilding from DB: {}", snapshot, e.getMessage());
+        }
+
+        LiftoverIndex built;
+        try {
+            LOGGER.info("Building liftover index from {}", crossmapTable);
+            LiftoverIndex.Builder builder = new LiftoverIndex.Builder();
+            crossmapRepo.forEachCrossmap(builder);
+            built = builder.build();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Liftover index build failed — crossmap lookups stay on the DB: {}", e.getMessage());
+            return;
+        }
+        crossmapRepo.useLiftoverIndex(built);
+        LOGGER.info("{} liftover blocks ({} positions) loaded", built.blockCount(), built.rowCount());
+
+        try {
+            SnapshotFile.write(snapshot, SNAPSHOT_MAGIC, SNAPSHOT_VERSION, crossmapTable, built::writeTo);
+            LOGGER.info("Liftover snapshot written to {}", snapshot);
+        } catch (IOException e) {
+            LOGGER.warn("Could not write liftover snapshot {}: {}", snapshot, e.getMessage());
+        }
+    }
+}
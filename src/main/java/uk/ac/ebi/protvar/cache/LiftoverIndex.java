@@ -0,0 +1,264 @@
+package uk.ac.ebi.protvar.cache;
+
+import uk.ac.ebi.protvar.model.data.Crossmap;
+import uk.ac.ebi.protvar.utils.GenomicKey;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory copy of the crossmap (GRCh37 &lt;-&gt; GRCh38 liftover) table,
+ * answering lookups from either assembly without a DB round trip.
+ *
+ * Liftover is piecewise linear: along an exon consecutive GRCh37 positions
+ * map to consecutive GRCh38 positions. Rows are therefore stored per
+ * chromosome as blocks [start37, start38, length], a few hundred thousand
+ * for the whole table, plus one byte per position holding both reference
+ * bases (4-bit codes into a small dictionary of base strings). Blocks are
+ * sorted by start37; a permutation gives the GRCh38 order. A lookup is a
+ * binary search for the last block starting at or before the position,
+ * stepping back over blocks that may still cover it (at most the longest
+ * block length away), so positions mapped more than once are all found.
+ *
+ * Chromosomes are indexed like {@link GenomicKey} (1-22, X, Y, MT).
+ *
+ * Layout (big-endian, also the snapshot body - see LiftoverCache):
+ *   [int baseCount][UTF base strings...]
+ *   per chromosome index 0..25:
+ *     [int blockCount][int[] start37][int[] start38][int[] length][byte[sum(length)] bases]
+ */
+public final class LiftoverIndex {
+    private static final int CHROMOSOMES = 26;
+    // 4-bit base codes; code 0 is a null base
+    private static final int MAX_BASES = 15;
+
+    @FunctionalInterface
+    public interface RowConsumer {
+        void accept(String chromosome, int grch37Pos, String grch37Base, int grch38Pos, String grch38Base);
+    }
+
+    private final String[] baseNames;   // code -> base string, [0] = null
+    private final int[][] start37;
+    private final int[][] start38;
+    private final int[][] length;
+    private final byte[][] bases;       // per position in block order: (code37 << 4) | code38
+    // derived on load
+    private final int[][] baseOffset;   // block -> first position in bases
+    private final int[][] order38;      // blocks sorted by start38
+    private final int[][] sortedStart38;
+    private final int[] maxLength;
+
+    private LiftoverIndex(String[] baseNames, int[][] start37, int[][] start38, int[][] length, byte[][] bases) {
+        this.baseNames = baseNames;
+        this.start37 = start37;
+        this.start38 = start38;
+        this.length = length;
+        this.bases = bases;
+        this.baseOffset = new int[CHROMOSOMES][];
+        this.order38 = new int[CHROMOSOMES][];
+        this.sortedStart38 = new int[CHROMOSOMES][];
+        this.maxLength = new int[CHROMOSOMES];
+        for (int c = 0; c < CHROMOSOMES; c++) {
+            int blocks = start37[c].length;
+            int[] offsets = new int[blocks];
+            for (int b = 1; b < blocks; b++) offsets[b] = offsets[b - 1] + length[c][b - 1];
+            baseOffset[c] = offsets;
+            for (int len : length[c]) maxLength[c] = Math.max(maxLength[c], len);
+
+            int[] s38 = start38[c];
+            order38[c] = IntStream.range(0, blocks).boxed()
+                    .sorted((a, b) -> Integer.compare(s38[a], s38[b]))
+                    .mapToInt(Integer::intValue).toArray();
+            sortedStart38[c] = new int[blocks];
+            for (int i = 0; i < blocks; i++) sortedStart38[c][i] = s38[order38[c][i]];
+        }
+    }
+
+    public static LiftoverIndex read(ByteBuffer body) {
+        ByteBuffer buffer = body.duplicate();
+        String[] baseNames = new String[buffer.getInt() + 1];
+        for (int i = 1; i < baseNames.length; i++) {
+            byte[] utf = new byte[buffer.getShort() & 0xFFFF];
+            buffer.get(utf);
+            baseNames[i] = new String(utf, StandardCharsets.UTF_8);
+        }
+        int[][] start37 = new int[CHROMOSOMES][];
+        int[][] start38 = new int[CHROMOSOMES][];
+        int[][] length = new int[CHROMOSOMES][];
+        byte[][] bases = new byte[CHROMOSOMES][];
+        for (int c = 0; c < CHROMOSOMES; c++) {
+            int blocks = buffer.getInt();
+            start37[c] = readInts(buffer, blocks);
+            start38[c] = readInts(buffer, blocks);
+            length[c] = readInts(buffer, blocks);
+            bases[c] = new byte[Arrays.stream(length[c]).sum()];
+            buffer.get(bases[c]);
+        }
+        return new LiftoverIndex(baseNames, start37, start38, length, bases);
+    }
+
+    private static int[] readInts(ByteBuffer buffer, int n) {
+        int[] values = new int[n];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + 4 * n);
+        return values;
+    }
+
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(baseNames.length - 1);
+        for (int i = 1; i < baseNames.length; i++) out.writeUTF(baseNames[i]);
+        for (int c = 0; c < CHROMOSOMES; c++) {
+            out.writeInt(start37[c].length);
+            for (int v : start37[c]) out.writeInt(v);
+            for (int v : start38[c]) out.writeInt(v);
+            for (int v : length[c]) out.writeInt(v);
+            out.write(bases[c]);
+        }
+    }
+
+    /**
+     * Passes every crossmap row at {@code position} of {@code chromosome} in
+     * GRCh37 (or GRCh38 if {@code from37} is false) to {@code rows}.
+     */
+    public void lookup(String chromosome, int position, boolean from37, Consumer<Crossmap> rows) {
+        int c = GenomicKey.chromosomeIndex(chromosome);
+        if (c < 0) return;
+        int[] starts = from37 ? start37[c] : sortedStart38[c];
+        // last block starting at or before position, then back over any that may overlap it
+        for (int i = lastAtOrBefore(starts, position); i >= 0 && starts[i] > position - maxLength[c]; i--) {
+            int block = from37 ? i : order38[c][i];
+            int offset = position - starts[i];
+            if (offset < length[c][block]) rows.accept(row(c, block, offset));
+        }
+    }
+
+    /**
+     * True if the crossmap table has {@code base} at {@code position} of
+     * {@code chromosome} in GRCh37 (or GRCh38 if {@code in37} is false).
+     * Allocation-free, for build detection.
+     */
+    public boolean contains(String chromosome, int position, String base, boolean in37) {
+        int c = GenomicKey.chromosomeIndex(chromosome);
+        if (c < 0 || base == null) return false;
+        int[] starts = in37 ? start37[c] : sortedStart38[c];
+        for (int i = lastAtOrBefore(starts, position); i >= 0 && starts[i] > position - maxLength[c]; i--) {
+            int block = in37 ? i : order38[c][i];
+            int offset = position - starts[i];
+            if (offset >= length[c][block]) continue;
+            int code = bases[c][baseOffset[c][block] + offset] & 0xFF;
+            if (base.equals(baseNames[in37 ? code >>> 4 : code & 0x0F])) return true;
+        }
+        return false;
+    }
+
+    public List<Crossmap> lookup(String chromosome, int position, boolean from37) {
+        List<Crossmap> rows = new ArrayList<>(1);
+        lookup(chromosome, position, from37, rows::add);
+        return rows;
+    }
+
+    private Crossmap row(int c, int block, int offset) {
+        int code = bases[c][baseOffset[c][block] + offset] & 0xFF;
+        return new Crossmap(GenomicKey.chromosome((long) c << 32),
+                start38[c][block] + offset, baseNames[code & 0x0F],
+                start37[c][block] + offset, baseNames[code >>> 4]);
+    }
+
+    private static int lastAtOrBefore(int[] sorted, int value) {
+        int lo = 0, hi = sorted.length - 1, found = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] <= value) {
+                found = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    public int blockCount() {
+        int n = 0;
+        for (int[] s : start37) n += s.length;
+        return n;
+    }
+
+    public long rowCount() {
+        long n = 0;
+        for (byte[] b : bases) n += b.length;
+        return n;
+    }
+
+    /**
+     * Accepts rows per chromosome in ascending (grch37Pos, grch38Pos) order;
+     * chromosomes may come in any order. Rows on other chromosomes are
+     * ignored. Fails if the table holds more than 15 distinct base strings.
+     */
+    public static final class Builder implements RowConsumer {
+        private final List<String> baseNames = new ArrayList<>(List.of(""));
+        private final int[][] start37 = new int[CHROMOSOMES][16];
+        private final int[][] start38 = new int[CHROMOSOMES][16];
+        private final int[][] length = new int[CHROMOSOMES][16];
+        private final int[] blocks = new int[CHROMOSOMES];
+        private final byte[][] bases = new byte[CHROMOSOMES][256];
+        private final int[] positions = new int[CHROMOSOMES];
+
+        @Override
+        public void accept(String chromosome, int grch37Pos, String grch37Base, int grch38Pos, String grch38Base) {
+            int c = GenomicKey.chromosomeIndex(chromosome);
+            if (c < 0 || grch37Pos <= 0 || grch38Pos <= 0) return;
+            int n = blocks[c];
+            if (n > 0 && grch37Pos == start37[c][n - 1] + length[c][n - 1]
+                    && grch38Pos == start38[c][n - 1] + length[c][n - 1]) {
+                length[c][n - 1]++; // continues the previous block
+            } else {
+                if (n == start37[c].length) {
+                    start37[c] = Arrays.copyOf(start37[c], n << 1);
+                    start38[c] = Arrays.copyOf(start38[c], n << 1);
+                    length[c] = Arrays.copyOf(length[c], n << 1);
+                }
+                start37[c][n] = grch37Pos;
+                start38[c][n] = grch38Pos;
+                length[c][n] = 1;
+                blocks[c] = n + 1;
+            }
+            int p = positions[c];
+            if (p == bases[c].length) bases[c] = Arrays.copyOf(bases[c], p << 1);
+            bases[c][p] = (byte) (code(grch37Base) << 4 | code(grch38Base));
+            positions[c] = p + 1;
+        }
+
+        private int code(String base) {
+            if (base == null) return 0;
+            int code = baseNames.indexOf(base);
+            if (code > 0) return code;
+            if (baseNames.size() > MAX_BASES) throw new IllegalStateException("More than " + MAX_BASES + " distinct crossmap bases");
+            baseNames.add(base);
+            return baseNames.size() - 1;
+        }
+
+        public LiftoverIndex build() {
+            String[] names = baseNames.toArray(String[]::new);
+            names[0] = null;
+            int[][] s37 = new int[CHROMOSOMES][];
+            int[][] s38 = new int[CHROMOSOMES][];
+            int[][] len = new int[CHROMOSOMES][];
+            byte[][] b = new byte[CHROMOSOMES][];
+            for (int c = 0; c < CHROMOSOMES; c++) {
+                s37[c] = Arrays.copyOf(start37[c], blocks[c]);
+                s38[c] = Arrays.copyOf(start38[c], blocks[c]);
+                len[c] = Arrays.copyOf(length[c], blocks[c]);
+                b[c] = Arrays.copyOf(bases[c], positions[c]);
+            }
+            return new LiftoverIndex(names, s37, s38, len, b);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package uk.ac.ebi.protvar.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import uk.ac.ebi.protvar.repo.MappingRepo;
+import uk.ac.ebi.protvar.utils.SnapshotFile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * Coding-region prefilter for the core mapping load. Large VCF uploads are
+ * mostly non-coding, and each such position would otherwise go through the
+ * g2p and CADD unnest joins only to come back as "No mapping found".
+ *
+ * The index of mapped positions is built once per release (one scan of the
+ * mapping table) and kept as a local snapshot stamped with tbl.mapping, so
+ * later pods just map the file. Building runs in the background; until it
+ * is ready every position passes through to the DB as before.
+ */
+@Component
+public class MappedPositionCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MappedPositionCache.class);
+    private static final int SNAPSHOT_MAGIC = 0x50564D50; // "PVMP"
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private final MappingRepo mappingRepo;
+    private final boolean enabled;
+    private final String mappingTable;
+    private final String indexFolder;
+    private final Counter skipped;
+    private final Counter queried;
+
+    private volatile MappedPositionIndex index; // null until loaded
+
+    public MappedPositionCache(MappingRepo mappingRepo,
+                               @Value("${mapping.prefilter.enabled:true}") boolean enabled,
+                               @Value("${tbl.mapping}") String mappingTable,
+                               @Value("${app.index.folder:${app.data.folder}/index}") String indexFolder,
+                               MeterRegistry meterRegistry) {
+        this.mappingRepo = mappingRepo;
+        this.enabled = enabled;
+        this.mappingTable = mappingTable;
+        this.indexFolder = indexFolder;
+        // hit rate = skipped / (skipped + queried)
+        this.skipped = Counter.builder("protvar.mapping.prefilter")
+                .description("Genomic positions checked against the mapped-position index")
+                .tag("outcome", "skipped")
+                .register(meterRegistry);
+        this.queried = Counter.builder("protvar.mapping.prefilter")
+                .description("Genomic positions checked against the mapped-position index")
+                .tag("outcome", "queried")
+                .register(meterRegistry);
+    }
+
+    @EventListener(classes = ApplicationStartedEvent.class)
+    public void loadIndex() {
+        if (!enabled) return;
+        Thread loader = new Thread(this::load, "mapped-position-index");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    void load() {
+        Path snapshot = Path.of(indexFolder, "mapped-positions-" + mappingTable + ".idx");
+        try {
+            ByteBuffer body = SnapshotFile.map(snapshot, SNAPSHOT_MAGIC, SNAPSHOT_VERSION, mappingTable);
+            if (body != null) {
+                index = MappedPositionIndex.read(body);
+                LOGGER.info("{} mapped position runs read from snapshot {}", index.runCount(), snapshot);
+                return;
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Mapped position snapshot {} unreadable — rebuilding from DB: {}", snapshot, e.getMessage());
+        }
+
+        MappedPositionIndex built;
+        try {
+            LOGGER.info("Building mapped position index from {}", mappingTable);
+            MappedPositionIndex.Builder builder = new MappedPositionIndex.Builder();
+            mappingRepo.forEachMappedRun(builder);
+            built = builder.build();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Mapped position index build failed — prefilter disabled: {}", e.getMessage());
+            return;
+        }
+        index = built;
+        LOGGER.info("{} mapped position runs loaded", built.runCount());
+
+        try {
+            SnapshotFile.write(snapshot, SNAPSHOT_MAGIC, SNAPSHOT_VERSION, mappingTable, built::writeTo);
+            LOGGER.info("Mapped position snapshot written to {}", snapshot);
+        } catch (IOException e) {
+            LOGGER.warn("Could not write mapped position snapshot {}: {}", snapshot, e.getMessage());
+        }
+    }
+
+    /**
+     * Moves the first {@code n} GenomicKeys that may be mapped to the front
+     * of {@code keys}, keeping their order.
+     * @return number of keys kept ({@code n} if the index isn't loaded)
+     */
+    public int retainMapped(long[] keys, int n) {
+        MappedPositionIndex current = index;
+        if (current == null || n == 0) return n;
+        int kept = 0;
+        for (int i = 0; i < n; i++) {
+            if (current.contains(keys[i])) keys[kept++] = keys[i];
+        }
+        skipped.increment(n - kept);
+        queried.increment(kept);
+        return kept;
+    }
+}
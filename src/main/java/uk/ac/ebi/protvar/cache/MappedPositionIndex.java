@@ -0,0 +1,116 @@
+package uk.ac.ebi.protvar.cache;
+
+import uk.ac.ebi.protvar.utils.GenomicKey;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Per-chromosome set of genomic positions present in the g2p mapping table,
+ * stored as sorted runs of consecutive positions. Mapped positions are
+ * coding exons, so the run-length form is a compressed bitmap: a few
+ * hundred thousand [start, end] runs for the whole genome instead of one
+ * entry per position. Lookup is a binary search over the chromosome's runs.
+ *
+ * Chromosomes are indexed like {@link GenomicKey} (1-22, X, Y, MT).
+ *
+ * Layout (big-endian, also the snapshot body — see MappedPositionCache):
+ *   per chromosome index 0..25: [int runCount][int[runCount] starts][int[runCount] ends]
+ * Ends are inclusive.
+ */
+public final class MappedPositionIndex {
+    private static final int CHROMOSOMES = 26;
+
+    @FunctionalInterface
+    public interface RunConsumer {
+        void accept(String chromosome, int start, int end);
+    }
+
+    private final int[][] starts;
+    private final int[][] ends;
+
+    private MappedPositionIndex(int[][] starts, int[][] ends) {
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    public static MappedPositionIndex read(ByteBuffer body) {
+        ByteBuffer buffer = body.duplicate();
+        int[][] starts = new int[CHROMOSOMES][];
+        int[][] ends = new int[CHROMOSOMES][];
+        for (int c = 0; c < CHROMOSOMES; c++) {
+            int runs = buffer.getInt();
+            starts[c] = new int[runs];
+            ends[c] = new int[runs];
+            buffer.asIntBuffer().get(starts[c]);
+            buffer.position(buffer.position() + 4 * runs);
+            buffer.asIntBuffer().get(ends[c]);
+            buffer.position(buffer.position() + 4 * runs);
+        }
+        return new MappedPositionIndex(starts, ends);
+    }
+
+    public void writeTo(DataOutputStream out) throws IOException {
+        for (int c = 0; c < CHROMOSOMES; c++) {
+            out.writeInt(starts[c].length);
+            for (int start : starts[c]) out.writeInt(start);
+            for (int end : ends[c]) out.writeInt(end);
+        }
+    }
+
+    /** True if the position of a {@link GenomicKey} is in the mapping table. */
+    public boolean contains(long genomicKey) {
+        if (genomicKey == GenomicKey.NONE) return false;
+        int c = (int) (genomicKey >>> 32);
+        int pos = GenomicKey.position(genomicKey);
+        int[] s = starts[c];
+        // last run starting at or before pos
+        int i = Arrays.binarySearch(s, pos);
+        if (i < 0) i = -i - 2;
+        return i >= 0 && pos <= ends[c][i];
+    }
+
+    public int runCount() {
+        int n = 0;
+        for (int[] s : starts) n += s.length;
+        return n;
+    }
+
+    /** Accepts runs per chromosome in ascending start order; chromosomes may come in any order. */
+    public static final class Builder implements RunConsumer {
+        private final int[][] starts = new int[CHROMOSOMES][16];
+        private final int[][] ends = new int[CHROMOSOMES][16];
+        private final int[] counts = new int[CHROMOSOMES];
+
+        @Override
+        public void accept(String chromosome, int start, int end) {
+            int c = GenomicKey.chromosomeIndex(chromosome);
+            if (c < 0 || start < 0 || end < start) return;
+            int n = counts[c];
+            if (n > 0 && start <= ends[c][n - 1] + 1) {
+                // overlapping or adjacent: extend the previous run
+                ends[c][n - 1] = Math.max(ends[c][n - 1], end);
+                return;
+            }
+            if (n == starts[c].length) {
+                starts[c] = Arrays.copyOf(starts[c], n << 1);
+                ends[c] = Arrays.copyOf(ends[c], n << 1);
+            }
+            starts[c][n] = start;
+            ends[c][n] = end;
+            counts[c] = n + 1;
+        }
+
+        public MappedPositionIndex build() {
+            int[][] s = new int[CHROMOSOMES][];
+            int[][] e = new int[CHROMOSOMES][];
+            for (int c = 0; c < CHROMOSOMES; c++) {
+                s[c] = Arrays.copyOf(starts[c], counts[c]);
+                e[c] = Arrays.copyOf(ends[c], counts[c]);
+            }
+            return new MappedPositionIndex(s, e);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package uk.ac.ebi.protvar.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only RefSeq accession -> UniProt accessions index of the
+ * uniprot_refseq table (see UniprotRefseqCache).
+ *
+ * Versioned accessions (NP_000537.3) are found by an exact hash lookup,
+ * O(1). Other versions of an accession are found by a binary search over
+ * the accessions sorted by (accession without version, version number),
+ * O(log n): all versions of an accession are adjacent, and the last of
+ * them is the latest. Only whole accessions match, so NM_000546 never
+ * matches NM_0005461.1.
+ */
+public final class RefseqIndex {
+
+    public static final RefseqIndex EMPTY = new Builder().build();
+
+    /** The RefSeq accession matched (may differ from the one looked up) and its UniProt accessions. */
+    public record Match(String refseqAcc, List<String> uniprotAccs) {}
+
+    private final Map<String, List<String>> byRefseq;
+    private final String[] refseqs;      // sorted by (base, version)
+    private final String[] bases;        // refseqs without version, same order
+
+    private RefseqIndex(Map<String, List<String>> byRefseq) {
+        this.byRefseq = byRefseq;
+        this.refseqs = byRefseq.keySet().stream()
+                .sorted(Comparator.comparing(RefseqIndex::withoutVersion).thenComparingInt(RefseqIndex::version))
+                .toArray(String[]::new);
+        this.bases = Arrays.stream(refseqs).map(RefseqIndex::withoutVersion).toArray(String[]::new);
+    }
+
+    /** UniProt accessions of exactly this RefSeq accession, or an empty list. */
+    public List<String> get(String refseqAcc) {
+        return byRefseq.getOrDefault(refseqAcc, List.of());
+    }
+
+    /**
+     * The given RefSeq accession if indexed, else the latest indexed version
+     * of it (also for an accession given without version); null if none.
+     */
+    public Match lookup(String refseqAcc) {
+        if (refseqAcc == null) return null;
+        List<String> exact = byRefseq.get(refseqAcc);
+        if (exact != null) return new Match(refseqAcc, exact);
+
+        int last = lastIndexOf(withoutVersion(refseqAcc));
+        return last < 0 ? null : new Match(refseqs[last], byRefseq.get(refseqs[last]));
+    }
+
+    public int size() {
+        return refseqs.length;
+    }
+
+    // Index of the last accession with this base, or -1
+    private int lastIndexOf(String base) {
+        int lo = 0, hi = bases.length - 1, found = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = bases[mid].compareTo(base);
+            if (cmp <= 0) {
+                if (cmp == 0) found = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    static String withoutVersion(String refseqAcc) {
+        int dotIdx = refseqAcc.lastIndexOf('.');
+        return dotIdx == -1 ? refseqAcc : refseqAcc.substring(0, dotIdx);
+    }
+
+    // Unparseable or missing versions sort first
+    private static int version(String refseqAcc) {
+        int dotIdx = refseqAcc.lastIndexOf('.');
+        if (dotIdx == -1) return -1;
+        try {
+            return Integer.parseInt(refseqAcc.substring(dotIdx + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    public static final class Builder {
+        private final Map<String, List<String>> byRefseq = new HashMap<>();
+
+        /** Rows in any order; a UniProt accession is kept once per RefSeq accession. */
+        public void add(String refseqAcc, String uniprotAcc) {
+            if (refseqAcc == null || uniprotAcc == null) return;
+            List<String> accs = byRefseq.computeIfAbsent(refseqAcc, k -> new ArrayList<>(1));
+            if (!accs.contains(uniprotAcc)) accs.add(uniprotAcc);
+        }
+
+        public RefseqIndex build() {
+            Map<String, List<String>> frozen = new HashMap<>(byRefseq.size() * 4 / 3 + 1);
+            byRefseq.forEach((refseq, accs) -> frozen.put(refseq, List.copyOf(accs)));
+            return new RefseqIndex(frozen);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package uk.ac.ebi.protvar.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import uk.ac.ebi.protvar.config.SingleFlightProperties;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+/**
+ * Coalesces concurrent misses on the same key so only one loader runs.
+ * Applies to {@link #get(Object, Callable)}, i.e. @Cacheable(sync = true)
+ * methods; plain get/put/evict pass straight through.
+ *
+ * Per node: the first caller for a key becomes the leader and runs the
+ * loader; callers arriving while it's in flight wait on the same future,
+ * for up to {@code cache.single-flight.max-wait} before loading themselves.
+ * RedisCache's own sync path takes one lock for the whole cache, so this
+ * also stops unrelated keys queueing behind each other.
+ *
+ * Across nodes (optional, {@code cache.single-flight.lease.enabled}): the
+ * leader first takes a short Redis lease (SET NX PX) for the key. If a peer
+ * holds it, we poll the cache until the peer's value lands, the lease goes
+ * away, or {@code max-wait} passes — then load ourselves. The lease is only
+ * a hint; a Redis failure falls back to loading locally.
+ *
+ * Redis errors on the cache get/put are logged and treated as miss / not
+ * cached, so a loaded value is never thrown away (which would make the
+ * CacheErrorHandler run the loader a second time).
+ */
+public class SingleFlightCache implements CacheDecorator {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SingleFlightCache.class);
+    private static final RedisScript<Long> RELEASE_LEASE = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final Cache delegate;
+    private final Duration maxWait;
+    private final SingleFlightProperties.Lease lease;
+    private final StringRedisTemplate redis;
+    private final String leasePrefix;
+    private final ConcurrentMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter leaders;
+    private final Counter coalesced;
+    private final Counter leaseWaits;
+
+    public SingleFlightCache(Cache delegate, SingleFlightProperties properties, MeterRegistry meterRegistry,
+                             StringRedisTemplate redis, String cacheVersion) {
+        this.delegate = delegate;
+        this.maxWait = properties.getMaxWait();
+        this.lease = properties.getLease();
+        this.redis = redis;
+        this.leasePrefix = cacheVersion + "::lease::" + delegate.getName() + "::";
+
+        String name = delegate.getName();
+        this.leaders = counter(meterRegistry, name, "leader");
+        this.coalesced = counter(meterRegistry, name, "coalesced");
+        this.leaseWaits = counter(meterRegistry, name, "lease-wait");
+    }
+
+    private static Counter counter(MeterRegistry registry, String cache, String outcome) {
+        return Counter.builder("protvar.cache.single-flight")
+                .description("Cache misses by single-flight outcome; coalesced = loads saved")
+                .tag("cache", cache)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    @Override
+    public Cache getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(key, type);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = safeGet(key);
+        if (cached != null) return (T) cached.get();
+
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            return (T) await(key, existing, valueLoader);
+        }
+
+        leaders.increment();
+        try {
+            // A previous leader may have cached the value since our first look
+            cached = safeGet(key);
+            Object value = cached != null ? cached.get()
+                    : lease.isEnabled() ? loadUnderLease(key, valueLoader) : load(key, valueLoader);
+            flight.complete(value);
+            return (T) value;
+        } catch (ValueRetrievalException e) {
+            flight.completeExceptionally(e.getCause());
+            throw e;
+        } catch (Throwable t) {
+            // Errors and unwrapped runtime exceptions must release the waiters too
+            flight.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private Object load(Object key, Callable<?> valueLoader) {
+        Object value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        try {
+            delegate.put(key, value);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Cache PUT failed [{}::{}] — value not cached: {}", getName(), key, e.getMessage());
+        }
+        return value;
+    }
+
+    private Object loadUnderLease(Object key, Callable<?> valueLoader) {
+        String leaseKey = leasePrefix + key;
+        String token = UUID.randomUUID().toString();
+        Boolean acquired;
+        try {
+            acquired = redis.opsForValue().setIfAbsent(leaseKey, token, lease.getTtl());
+        } catch (RuntimeException e) {
+            LOGGER.warn("Lease acquire failed [{}::{}] — loading locally: {}", getName(), key, e.getMessage());
+            return load(key, valueLoader);
+        }
+        if (Boolean.TRUE.equals(acquired)) {
+            try {
+                return load(key, valueLoader);
+            } finally {
+                releaseLease(leaseKey, token);
+            }
+        }
+
+        // A peer is loading — wait for its value rather than hit the DB too
+        leaseWaits.increment();
+        long deadline = System.nanoTime() + lease.getMaxWait().toNanos();
+        try {
+            while (System.nanoTime() < deadline) {
+                Thread.sleep(lease.getPollInterval().toMillis());
+                ValueWrapper cached = safeGet(key);
+                if (cached != null) return cached.get();
+                if (!Boolean.TRUE.equals(redis.hasKey(leaseKey))) break;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Lease wait failed [{}::{}] — loading locally: {}", getName(), key, e.getMessage());
+        }
+        return load(key, valueLoader);
+    }
+
+    private void releaseLease(String leaseKey, String token) {
+        try {
+            redis.execute(RELEASE_LEASE, List.of(leaseKey), token);
+        } catch (RuntimeException e) {
+            // Expires on its own after lease.ttl
+            LOGGER.warn("Lease release failed [{}]: {}", leaseKey, e.getMessage());
+        }
+    }
+
+    private Object await(Object key, CompletableFuture<Object> flight, Callable<?> valueLoader) {
+        try {
+            return flight.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            LOGGER.warn("In-flight load [{}::{}] still running after {} — loading locally", getName(), key, maxWait);
+            return load(key, valueLoader);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } catch (ExecutionException e) {
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        }
+    }
+
+    private ValueWrapper safeGet(Object key) {
+        try {
+            return delegate.get(key);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Cache GET failed [{}::{}] — treating as miss: {}", getName(), key, e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+}
@@ -0,0 +1,177 @@
+package uk.ac.ebi.protvar.cache;
+
+import uk.ac.ebi.protvar.model.response.Structure;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Observed-region interval index over one accession's PDB structures (see
+ * StructureService). Answers "which structures resolve residue p" in
+ * O(log n + k) for n regions and k hits, instead of scanning every region
+ * of every chain.
+ *
+ * Regions are kept in arrays sorted by start and laid out as an implicit
+ * binary search tree (as in Heng Li's cgranges): leaves are the even
+ * indices, a node at level k has its k lowest bits set, and each node
+ * records the largest end in its subtree so whole subtrees ending before p
+ * are skipped. Small subtrees are scanned linearly.
+ *
+ * Structures are returned in the order they were given (coverage and
+ * resolution order from StructureRepo), each once however many of its
+ * regions contain p. Ends are inclusive; regions that are not a
+ * [start, end] pair are ignored.
+ *
+ * The index is also a read-only list of its structures, so it can stand in
+ * for the STR cache value: the STR L1 holds each entry in this form (see
+ * TieredCacheManager), built once per promotion and dropped with the entry.
+ */
+public final class StructureIndex extends AbstractList<Structure> implements RandomAccess {
+
+    public static final StructureIndex EMPTY = of(List.of());
+
+    private static final int SCAN_LEVEL = 3; // subtrees of <= 15 regions are scanned
+
+    private final List<Structure> structures;
+    private final int[] starts;     // sorted
+    private final int[] ends;
+    private final int[] maxEnds;    // largest end in the implicit subtree rooted here
+    private final int[] owners;     // index into structures
+    private final int rootLevel;
+
+    private StructureIndex(List<Structure> structures, int[] starts, int[] ends, int[] owners) {
+        this.structures = structures;
+        this.starts = starts;
+        this.ends = ends;
+        this.owners = owners;
+        this.maxEnds = new int[starts.length];
+        this.rootLevel = index();
+    }
+
+    public static StructureIndex of(List<Structure> structures) {
+        if (structures == null) structures = List.of();
+        List<long[]> regions = new ArrayList<>();
+        for (int s = 0; s < structures.size(); s++) {
+            List<List<Integer>> observed = structures.get(s).getObservedRegions();
+            if (observed == null) continue;
+            for (List<Integer> range : observed) {
+                if (range == null || range.size() != 2 || range.get(0) == null || range.get(1) == null)
+                    continue;
+                regions.add(new long[]{range.get(0), range.get(1), s});
+            }
+        }
+        regions.sort((a, b) -> Long.compare(a[0], b[0]));
+
+        int n = regions.size();
+        int[] starts = new int[n], ends = new int[n], owners = new int[n];
+        for (int i = 0; i < n; i++) {
+            long[] region = regions.get(i);
+            starts[i] = (int) region[0];
+            ends[i] = (int) region[1];
+            owners[i] = (int) region[2];
+        }
+        return new StructureIndex(List.copyOf(structures), starts, ends, owners);
+    }
+
+    /** L1 form of an STR cache value: the structure list as its index. */
+    @SuppressWarnings("unchecked")
+    static Object localForm(Object value) {
+        if (value instanceof StructureIndex || !(value instanceof List<?> list)) return value;
+        return of((List<Structure>) list);
+    }
+
+    public List<Structure> getStructures() {
+        return structures;
+    }
+
+    @Override
+    public Structure get(int i) {
+        return structures.get(i);
+    }
+
+    /** Structures with an observed region containing {@code position}, in given order. */
+    public List<Structure> structuresAt(int position) {
+        int n = starts.length;
+        if (n == 0) return List.of();
+
+        int[] hits = new int[8];
+        int hitCount = 0;
+        // stack entries: node, level, left child visited (0/1)
+        int[] stack = new int[3 * 64];
+        int top = 0;
+        stack[top++] = (1 << rootLevel) - 1;
+        stack[top++] = rootLevel;
+        stack[top++] = 0;
+        while (top > 0) {
+            int visited = stack[--top], level = stack[--top], node = stack[--top];
+            if (level <= SCAN_LEVEL) {
+                int from = node >> level << level;
+                int to = Math.min(n, from + (1 << (level + 1)) - 1);
+                for (int i = from; i < to && starts[i] <= position; i++) {
+                    if (ends[i] >= position) {
+                        if (hitCount == hits.length) hits = Arrays.copyOf(hits, hitCount * 2);
+                        hits[hitCount++] = owners[i];
+                    }
+                }
+            } else if (visited == 0) {
+                int left = node - (1 << (level - 1)); // may be >= n: its subtree can still hold regions
+                stack[top++] = node;
+                stack[top++] = level;
+                stack[top++] = 1;
+                if (left >= n || maxEnds[left] >= position) {
+                    stack[top++] = left;
+                    stack[top++] = level - 1;
+                    stack[top++] = 0;
+                }
+            } else if (node < n && starts[node] <= position) {
+                if (ends[node] >= position) {
+                    if (hitCount == hits.length) hits = Arrays.copyOf(hits, hitCount * 2);
+                    hits[hitCount++] = owners[node];
+                }
+                stack[top++] = node + (1 << (level - 1));
+                stack[top++] = level - 1;
+                stack[top++] = 0;
+            }
+        }
+        if (hitCount == 0) return List.of();
+
+        Arrays.sort(hits, 0, hitCount);
+        List<Structure> result = new ArrayList<>(hitCount);
+        for (int i = 0; i < hitCount; i++) {
+            if (i == 0 || hits[i] != hits[i - 1]) result.add(structures.get(hits[i]));
+        }
+        return result;
+    }
+
+    /** Number of structures indexed. */
+    @Override
+    public int size() {
+        return structures.size();
+    }
+
+    // Fills maxEnds bottom-up and returns the root level
+    private int index() {
+        int n = starts.length;
+        if (n == 0) return 0;
+        int lastIdx = 0, last = 0;
+        for (int i = 0; i < n; i += 2) {
+            lastIdx = i;
+            last = maxEnds[i] = ends[i];
+        }
+        int level = 1;
+        for (; 1 << level <= n; level++) {
+            int half = 1 << (level - 1);
+            for (int i = (half << 1) - 1; i < n; i += half << 2) {
+                int leftMax = maxEnds[i - half];
+                int rightMax = i + half < n ? maxEnds[i + half] : last;
+                maxEnds[i] = Math.max(ends[i], Math.max(leftMax, rightMax));
+            }
+            lastIdx = (lastIdx >> level & 1) != 0 ? lastIdx - half : lastIdx + half;
+            if (lastIdx < n && maxEnds[lastIdx] > last) last = maxEnds[lastIdx];
+        }
+        return level - 1;
+    }
+}
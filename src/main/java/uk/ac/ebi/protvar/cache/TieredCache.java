@@ -0,0 +1,227 @@
+package uk.ac.ebi.protvar.cache;
+
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import uk.ac.ebi.protvar.config.L1CacheProperties;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Two-tier cache: a bounded in-process Guava cache (L1) in front of the
+ * shared RedisCache (L2). Reads check L1 first and only go over the network
+ * (and through GenericJackson2JsonRedisSerializer) on an L1 miss; L2 hits
+ * are promoted into L1.
+ *
+ * Values held here are per-release reference data (FUN_HEADER, STR, ...),
+ * so a put on another node never makes our L1 copy stale — only evict/clear
+ * are broadcast (via {@code invalidationPublisher}) for the other nodes to
+ * drop their L1 entries. The L1 TTL bounds staleness if a broadcast is missed.
+ *
+ * Null values are held as {@link SimpleValueWrapper}(null), matching Redis'
+ * cached nulls (e.g. FunctionRepo.getHeader for a missing accession).
+ *
+ * L1 hands the same instance to every caller on this node, so cached values
+ * are read-only: callers that need to change one must copy it first.
+ *
+ * Puts go to L1 first; a Redis failure on put is logged and the value stays
+ * served from L1, rather than the loaded value being lost to the exception.
+ *
+ * A cache may hold its L1 entries in a derived form ({@code localForm}, e.g.
+ * STR values as their StructureIndex); Redis always gets the value as given.
+ */
+public class TieredCache implements Cache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TieredCache.class);
+    static final String ALL_KEYS = "*";
+
+    private final Cache redisCache;
+    private final com.google.common.cache.Cache<Object, ValueWrapper> localCache;
+    private final Consumer<String> invalidationPublisher;
+    private final UnaryOperator<Object> localForm;
+
+    private final Counter l1Hits;
+    private final Counter l1Misses;
+    private final Counter l2Hits;
+    private final Counter l2Misses;
+
+    public TieredCache(Cache redisCache, L1CacheProperties.Spec spec, MeterRegistry meterRegistry,
+                       Consumer<String> invalidationPublisher) {
+        this(redisCache, spec, meterRegistry, invalidationPublisher, UnaryOperator.identity());
+    }
+
+    /**
+     * @param localForm form a value is held (and returned) in from L1; must
+     *                  still be an instance of the cached value's type
+     */
+    public TieredCache(Cache redisCache, L1CacheProperties.Spec spec, MeterRegistry meterRegistry,
+                       Consumer<String> invalidationPublisher, UnaryOperator<Object> localForm) {
+        this.redisCache = redisCache;
+        this.invalidationPublisher = invalidationPublisher;
+        this.localForm = localForm;
+        this.localCache = CacheBuilder.newBuilder()
+                .maximumWeight(spec.getMaxWeight())
+                .weigher((Object key, ValueWrapper value) -> weigh(value.get()))
+                .expireAfterWrite(spec.getTtl())
+                .build();
+
+        String name = redisCache.getName();
+        this.l1Hits = counter(meterRegistry, name, "l1", "hit");
+        this.l1Misses = counter(meterRegistry, name, "l1", "miss");
+        this.l2Hits = counter(meterRegistry, name, "l2", "hit");
+        this.l2Misses = counter(meterRegistry, name, "l2", "miss");
+        Gauge.builder("protvar.cache.l1.size", localCache, com.google.common.cache.Cache::size)
+                .tag("cache", name)
+                .register(meterRegistry);
+    }
+
+    private static Counter counter(MeterRegistry registry, String cache, String tier, String result) {
+        return Counter.builder("protvar.cache.gets")
+                .description("Cache lookups by tier; hit ratio = hit / (hit + miss)")
+                .tag("cache", cache)
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    /** Approximate size in elements, so one big structure list doesn't count the same as a header. */
+    static int weigh(Object value) {
+        if (value instanceof Collection<?> c) return c.size() + 1;
+        if (value instanceof Map<?, ?> m) return m.size() + 1;
+        return 1;
+    }
+
+    @Override
+    public String getName() {
+        return redisCache.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return redisCache.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper local = localCache.getIfPresent(key);
+        if (local != null) {
+            l1Hits.increment();
+            return local;
+        }
+        l1Misses.increment();
+
+        ValueWrapper remote = redisCache.get(key);
+        if (remote == null) {
+            l2Misses.increment();
+            return null;
+        }
+        l2Hits.increment();
+        return holdLocal(key, remote.get());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                    "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) return (T) wrapper.get();
+
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        return (T) putBoth(key, value).get();
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        putBoth(key, value);
+    }
+
+    private ValueWrapper putBoth(Object key, Object value) {
+        ValueWrapper local = holdLocal(key, value);
+        try {
+            redisCache.put(key, value);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Cache PUT failed [{}::{}] — held in L1 only: {}", getName(), key, e.getMessage());
+        }
+        return local;
+    }
+
+    private ValueWrapper holdLocal(Object key, Object value) {
+        ValueWrapper local = new SimpleValueWrapper(value == null ? null : localForm.apply(value));
+        localCache.put(key, local);
+        return local;
+    }
+
+    @Override
+    public void evict(Object key) {
+        redisCache.evict(key);
+        localCache.invalidate(key);
+        invalidationPublisher.accept(String.valueOf(key));
+    }
+
+    @Override
+    public void clear() {
+        redisCache.clear();
+        localCache.invalidateAll();
+        invalidationPublisher.accept(ALL_KEYS);
+    }
+
+    // Hooks for BatchCacheService, which reads/writes the L2 in bulk itself
+    // but keeps the L1 and hit/miss counters consistent with get()/put().
+
+    Cache getRemote() {
+        return redisCache;
+    }
+
+    ValueWrapper getLocal(Object key) {
+        ValueWrapper local = localCache.getIfPresent(key);
+        (local != null ? l1Hits : l1Misses).increment();
+        return local;
+    }
+
+    /** @return the value as held in L1 */
+    Object promote(Object key, Object value) {
+        l2Hits.increment();
+        return holdLocal(key, value).get();
+    }
+
+    void recordRemoteMisses(int count) {
+        l2Misses.increment(count);
+    }
+
+    void putLocal(Object key, Object value) {
+        holdLocal(key, value);
+    }
+
+    /** Drops a local entry on behalf of another node; does not touch Redis or re-broadcast. */
+    void evictLocal(String key) {
+        if (ALL_KEYS.equals(key)) {
+            localCache.invalidateAll();
+        } else {
+            localCache.invalidate(key);
+        }
+    }
+}
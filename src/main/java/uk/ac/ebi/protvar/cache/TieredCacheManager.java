@@ -0,0 +1,123 @@
+package uk.ac.ebi.protvar.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import uk.ac.ebi.protvar.config.L1CacheProperties;
+import uk.ac.ebi.protvar.config.SingleFlightProperties;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Wraps the RedisCacheManager and puts a {@link TieredCache} (in-process L1)
+ * in front of each cache configured under {@code cache.l1.caches[...]}.
+ * Other caches are returned as plain RedisCaches. STR entries are held in
+ * L1 as their {@link StructureIndex}, so the position index shares the
+ * entry's size limit, TTL, metrics and invalidation.
+ *
+ * Every cache is then wrapped in a {@link SingleFlightCache} (unless
+ * {@code cache.single-flight.enabled=false}) so concurrent misses on the
+ * same key in @Cacheable(sync = true) methods run the loader once, and the
+ * caches named in {@code cache.warmup.caches} record their lookup keys in
+ * an {@link AccessFrequencySketch} for CacheWarmupService.
+ *
+ * Cross-node invalidation: evict/clear are published on a Redis pub/sub
+ * channel namespaced by {@code cache.version}, so nodes only ever hear from
+ * peers sharing the same key namespace. A version bump means a new process
+ * (empty L1) on a new channel; old-version nodes draining during a rollout
+ * don't disturb it. Messages from this node are ignored on receipt.
+ */
+public class TieredCacheManager implements CacheManager {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TieredCacheManager.class);
+    private static final String SEP = "|";
+    // L1 forms of cached values (see TieredCache), by cache name
+    private static final Map<String, UnaryOperator<Object>> LOCAL_FORMS = Map.of(
+            "STR", StructureIndex::localForm);
+
+    private final CacheManager redisCacheManager;
+    private final L1CacheProperties properties;
+    private final SingleFlightProperties singleFlightProperties;
+    private final MeterRegistry meterRegistry;
+    private final StringRedisTemplate publisher;
+    private final String cacheVersion;
+    private final AccessFrequencySketch accessSketch;
+    private final Set<String> trackedCaches;
+    private final String invalidationChannel;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<>();
+
+    public TieredCacheManager(CacheManager redisCacheManager, L1CacheProperties properties,
+                              SingleFlightProperties singleFlightProperties, MeterRegistry meterRegistry,
+                              StringRedisTemplate publisher, String cacheVersion,
+                              AccessFrequencySketch accessSketch, Collection<String> trackedCaches) {
+        this.redisCacheManager = redisCacheManager;
+        this.properties = properties;
+        this.singleFlightProperties = singleFlightProperties;
+        this.meterRegistry = meterRegistry;
+        this.publisher = publisher;
+        this.cacheVersion = cacheVersion;
+        this.accessSketch = accessSketch;
+        this.trackedCaches = Set.copyOf(trackedCaches);
+        this.invalidationChannel = cacheVersion + "::l1-invalidate";
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return redisCacheManager.getCacheNames();
+    }
+
+    public String getInvalidationChannel() {
+        return invalidationChannel;
+    }
+
+    private Cache createCache(String name) {
+        Cache cache = redisCacheManager.getCache(name);
+        if (cache == null) return null;
+
+        L1CacheProperties.Spec spec = properties.isEnabled() ? properties.getCaches().get(name) : null;
+        if (spec != null) {
+            LOGGER.info("L1 cache enabled for {} (maxWeight={}, ttl={})", name, spec.getMaxWeight(), spec.getTtl());
+            cache = new TieredCache(cache, spec, meterRegistry, key -> publish(name, key),
+                    LOCAL_FORMS.getOrDefault(name, UnaryOperator.identity()));
+        }
+        if (singleFlightProperties.isEnabled()) {
+            cache = new SingleFlightCache(cache, singleFlightProperties, meterRegistry, publisher, cacheVersion);
+        }
+        if (trackedCaches.contains(name)) {
+            cache = new AccessRecordingCache(cache, accessSketch);
+        }
+        return cache;
+    }
+
+    private void publish(String cacheName, String key) {
+        try {
+            publisher.convertAndSend(invalidationChannel, nodeId + SEP + cacheName + SEP + key);
+        } catch (Exception e) {
+            // Peers fall back to their L1 TTL
+            LOGGER.warn("L1 invalidation publish failed [{}::{}]: {}", cacheName, key, e.getMessage());
+        }
+    }
+
+    /** Handles a message from the invalidation channel: nodeId|cacheName|key (key "*" = clear). */
+    public void onInvalidation(String message) {
+        String[] parts = message.split("\\|", 3);
+        if (parts.length != 3 || nodeId.equals(parts[0])) return;
+        if (CacheDecorator.unwrap(caches.get(parts[1])) instanceof TieredCache tieredCache) {
+            tieredCache.evictLocal(parts[2]);
+        }
+    }
+}
@@ -3,49 +3,79 @@ package uk.ac.ebi.protvar.cache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationStartedEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Repository;
 import uk.ac.ebi.protvar.repo.UniprotEntryRepo;
+import uk.ac.ebi.protvar.utils.SnapshotFile;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.LinkedHashSet;
 
 @Repository
 public class UniprotEntryCache {
     private static final Logger LOGGER = LoggerFactory.getLogger(UniprotEntryCache.class);
+    private static final int SNAPSHOT_MAGIC = 0x50564149; // "PVAI"
+    private static final int SNAPSHOT_VERSION = 1;
 
     @Autowired
     private UniprotEntryRepo uniprotEntryRepo;
 
-    // LinkedHashSet: accessions are unique by definition, so a set models
-    // the data correctly and gives O(1) isValidEntry() (called per input
-    // variant by Pro2Gen). The "linked" variant preserves the SQL-side
-    // ORDER BY accession order so getEntries() iterates in sorted order.
-    private LinkedHashSet<String> uniprotEntries = new LinkedHashSet<>();
+    // Snapshot is stamped with the (release-prefixed) table name, so a new
+    // release or tbl.prefix is never served from an old file
+    @Value("${tbl.upentry}")
+    private String uniprotEntryTable;
+
+    @Value("${app.index.folder:${app.data.folder}/index}")
+    private String indexFolder;
+
+    // Sorted, front-coded accession set: O(log n) isValidEntry() (called per
+    // input variant by Pro2Gen) and iteration in accession order, matching
+    // the SQL-side ORDER BY the /mapping/accessions/* endpoints rely on.
+    private volatile AccessionIndex uniprotEntries = AccessionIndex.EMPTY;
 
     /**
-     * Load all UniProt accessions for current release. Repo returns them
-     * sorted by accession (ORDER BY in SQL), so iteration order is
-     * deterministic and aligns with the /mapping/accessions/* endpoints.
+     * Load all UniProt accessions for current release. Memory-maps the
+     * local snapshot for this release if there is one; otherwise reads the
+     * accessions from the DB and writes the snapshot for the next start.
      */
     @EventListener(classes = ApplicationStartedEvent.class )
     public void loadEntries() {
+        Path snapshot = Path.of(indexFolder, "accessions-" + uniprotEntryTable + ".idx");
+        try {
+            ByteBuffer body = SnapshotFile.map(snapshot, SNAPSHOT_MAGIC, SNAPSHOT_VERSION, uniprotEntryTable);
+            if (body != null) {
+                uniprotEntries = AccessionIndex.read(body);
+                LOGGER.info("{} entries mapped from snapshot {}", uniprotEntries.size(), snapshot);
+                return;
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Accession snapshot {} unreadable — falling back to DB: {}", snapshot, e.getMessage());
+        }
+
         LOGGER.info("Loading UniProt accessions into cache");
-        uniprotEntryRepo.findAll().stream()
-                .map(entry -> entry.getAccession())
-                .forEach(uniprotEntries::add);
+        AccessionIndex index = AccessionIndex.build(uniprotEntryRepo.findAllAccessions());
+        uniprotEntries = index;
+        LOGGER.info("{} entries loaded in cache ({} bytes)", index.size(), index.byteSize());
 
-        LOGGER.info("{} entries loaded in cache", uniprotEntries.size());
+        try {
+            SnapshotFile.write(snapshot, SNAPSHOT_MAGIC, SNAPSHOT_VERSION, uniprotEntryTable, index::writeTo);
+            LOGGER.info("Accession snapshot written to {}", snapshot);
+        } catch (IOException e) {
+            LOGGER.warn("Could not write accession snapshot {}: {}", snapshot, e.getMessage());
+        }
     }
 
     public boolean isValidEntry(String entry) {
         return uniprotEntries.contains(entry);
     }
 
+    /** All accessions in sorted order (read-only view). */
     public Collection<String> getEntries() {
-        return Collections.unmodifiableSet(uniprotEntries);
+        return uniprotEntries;
     }
 
 }
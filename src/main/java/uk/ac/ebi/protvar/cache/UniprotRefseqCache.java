@@ -0,0 +1,54 @@
+package uk.ac.ebi.protvar.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import uk.ac.ebi.protvar.repo.UniprotRefseqRepo;
+
+/**
+ * RefSeq -> UniProt accession index for HGVS p./c. inputs (Coding2Pro,
+ * Pro2Gen), in place of a uniprot_refseq query per request.
+ *
+ * The table is small, so it is read whole once per release (tbl.uprefseq is
+ * release-prefixed) at startup; a request arriving before that waits for
+ * the same load.
+ */
+@Component
+public class UniprotRefseqCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(UniprotRefseqCache.class);
+
+    private final UniprotRefseqRepo uniprotRefseqRepo;
+    private final String uniprotRefseqTable;
+
+    private volatile RefseqIndex index; // null until loaded
+
+    public UniprotRefseqCache(UniprotRefseqRepo uniprotRefseqRepo,
+                              @Value("${tbl.uprefseq}") String uniprotRefseqTable) {
+        this.uniprotRefseqRepo = uniprotRefseqRepo;
+        this.uniprotRefseqTable = uniprotRefseqTable;
+    }
+
+    @EventListener(classes = ApplicationStartedEvent.class)
+    public void loadIndex() {
+        get();
+    }
+
+    public RefseqIndex get() {
+        RefseqIndex current = index;
+        if (current != null) return current;
+        synchronized (this) {
+            if (index == null) {
+                long start = System.currentTimeMillis();
+                RefseqIndex.Builder builder = new RefseqIndex.Builder();
+                uniprotRefseqRepo.forEachRefseq(builder::add);
+                index = builder.build();
+                LOGGER.info("{} RefSeq accessions loaded from {} in {} ms",
+                        index.size(), uniprotRefseqTable, System.currentTimeMillis() - start);
+            }
+            return index;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package uk.ac.ebi.protvar.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-cache choice of value codec for the Redis caches (see
+ * RedisConfig.cacheManager() and CodecRedisSerializer). Caches not listed
+ * under {@code cache.codec.caches[...]} use {@code default-format}.
+ *
+ * Only the write format is selected here; reads detect the format from the
+ * stored bytes, so a cache can be switched either way without bumping
+ * {@code cache.version}.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "cache.codec")
+public class CacheCodecProperties {
+
+    public enum Format { JSON, SMILE }
+
+    private Format defaultFormat = Format.JSON;
+    private Map<String, Format> caches = new LinkedHashMap<>();
+    // Smile payloads at or above this many bytes are deflated; <= 0 disables
+    private int compressThreshold = 8192;
+
+    public Format formatFor(String cacheName) {
+        return caches.getOrDefault(cacheName, defaultFormat);
+    }
+}
@@ -0,0 +1,33 @@
+package uk.ac.ebi.protvar.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-cache settings for the in-process L1 tier that sits in front of the
+ * Redis caches (see RedisConfig.cacheManager()). Only caches listed under
+ * {@code cache.l1.caches[...]} get an L1; everything else goes straight to
+ * Redis as before.
+ *
+ * {@code max-weight} is in "elements": a collection/map value weighs its size
+ * (+1), anything else weighs 1 — see TieredCache.weigh().
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "cache.l1")
+public class L1CacheProperties {
+
+    private boolean enabled = true;
+    private Map<String, Spec> caches = new LinkedHashMap<>();
+
+    @Data
+    public static class Spec {
+        private long maxWeight = 10_000;
+        private Duration ttl = Duration.ofHours(1);
+    }
+}
@@ -0,0 +1,34 @@
+package uk.ac.ebi.protvar.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Miss coalescing for the @Cacheable(sync = true) caches (see
+ * SingleFlightCache). Per node it is always safe and on by default; the
+ * optional Redis lease extends it across nodes at the cost of one extra
+ * round trip per miss.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "cache.single-flight")
+public class SingleFlightProperties {
+
+    private boolean enabled = true;
+    // How long a caller waits on another thread's in-flight load before loading itself
+    private Duration maxWait = Duration.ofSeconds(30);
+    private Lease lease = new Lease();
+
+    @Data
+    public static class Lease {
+        private boolean enabled = false;
+        // Lease expiry — bounds how long a crashed holder can block others
+        private Duration ttl = Duration.ofSeconds(30);
+        // How long a node waits on a peer's lease before loading itself
+        private Duration maxWait = Duration.ofSeconds(10);
+        private Duration pollInterval = Duration.ofMillis(50);
+    }
+}
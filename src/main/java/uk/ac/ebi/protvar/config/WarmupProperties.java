@@ -0,0 +1,35 @@
+package uk.ac.ebi.protvar.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Frequency-driven cache warm-up (see CacheWarmupService). Accession
+ * lookups on {@code caches} are counted during normal operation; on
+ * startup the {@code top-n} most requested accessions are pre-loaded into
+ * each of those caches, and readiness stays DOWN until
+ * {@code ready-fraction} of that work is done (or {@code max-wait} passes).
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "cache.warmup")
+public class WarmupProperties {
+
+    private boolean enabled = true;
+    private List<String> caches = new ArrayList<>(List.of("FUN_HEADER", "STR", "pocketsByAccession", "scoresByAccession"));
+    private int topN = 5000;
+    private int concurrency = 4;
+    private int batchSize = 100;
+    private double readyFraction = 0.8;
+    private Duration maxWait = Duration.ofMinutes(10);
+    // Heavy-hitter candidates kept per flush window, and in Redis overall
+    private int trackedCapacity = 10_000;
+    private int maxTracked = 50_000;
+    // Age of an access at which it counts half as much in the ranking
+    private Duration halfLife = Duration.ofDays(7);
+}
@@ -1,8 +1,13 @@
 package uk.ac.ebi.protvar.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -13,12 +18,19 @@ import uk.ac.ebi.protvar.input.GenomicInput;
 import uk.ac.ebi.protvar.mapper.AnnotationData;
 import uk.ac.ebi.protvar.mapper.AnnotationFetcher;
 import uk.ac.ebi.protvar.mapper.FunctionalInfoEnricher;
+import uk.ac.ebi.protvar.model.AnnotationQuery;
 import uk.ac.ebi.protvar.model.response.FunctionalInfo;
 import uk.ac.ebi.protvar.model.response.PopulationObservation;
 import uk.ac.ebi.protvar.model.response.StructureResidue;
+import uk.ac.ebi.protvar.service.AnnotationService;
 import uk.ac.ebi.protvar.service.FunctionService;
 import uk.ac.ebi.protvar.service.StructureService;
 import uk.ac.ebi.protvar.types.AminoAcid;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @Tag(name = "Annotation")
@@ -27,11 +39,19 @@ import java.util.List;
 @RequiredArgsConstructor
 public class AnnotationController {
 
+  public static final int MAX_BATCH_SIZE = 10_000;
+  private static final String BATCH_EXAMPLE = """
+    [{"accession": "Q9NUW8", "position": 493, "variantAA": "R", "genomicVariant": "14-89993420-A-C"},
+     {"accession": "P22304", "position": 100}]""";
+  private static final String BATCH_FORMAT_DESC = "`json` (default): one JSON array; " +
+    "`ndjson`: one result per line. Both are written as each chunk of positions is annotated.";
 
   private final FunctionService functionService;
   private final AnnotationFetcher annotationFetcher;
   private final FunctionalInfoEnricher functionalInfoEnricher;
   private final StructureService structureService;
+  private final AnnotationService annotationService;
+  private final ObjectMapper objectMapper;
 
   /**
    * @param accession UniProt accession
@@ -112,4 +132,87 @@ public class AnnotationController {
     List<StructureResidue> object = structureService.getStr(accession, position);
     return new ResponseEntity<>(object, HttpStatus.OK);
   }
+
+  /**
+   * Batch form of the endpoint above: many positions in one request, each
+   * annotation source queried once per chunk of positions. Results are in
+   * request order; the two batch endpoints below work the same way.
+   *
+   * @param queries accession, position and optional variantAA; at most MAX_BATCH_SIZE
+   * @param format  `json` or `ndjson`
+   */
+  @Operation(summary = "Retrieve functional annotations for many amino acids",
+    description = "Accessions without a UniProt entry are left out of the results.")
+  @PostMapping(value = "/function", consumes = MediaType.APPLICATION_JSON_VALUE)
+  @io.swagger.v3.oas.annotations.parameters.RequestBody(content = @Content(examples = @ExampleObject(value = BATCH_EXAMPLE)))
+  public void getFunctions(
+    @RequestBody List<AnnotationQuery> queries,
+    @Parameter(description = BATCH_FORMAT_DESC, example = "json") @RequestParam(defaultValue = "json") String format,
+    HttpServletResponse response) throws IOException {
+    writeBatch(queries, format, response, annotationService::functions);
+  }
+
+  /**
+   * @param queries accession, position and optional genomicVariant; at most MAX_BATCH_SIZE
+   * @param format  `json` or `ndjson`
+   */
+  @Operation(summary = "Retrieve other variants co-located at many amino acid positions")
+  @PostMapping(value = "/population", consumes = MediaType.APPLICATION_JSON_VALUE)
+  @io.swagger.v3.oas.annotations.parameters.RequestBody(content = @Content(examples = @ExampleObject(value = BATCH_EXAMPLE)))
+  public void getPopulationObservations(
+    @RequestBody List<AnnotationQuery> queries,
+    @Parameter(description = BATCH_FORMAT_DESC, example = "json") @RequestParam(defaultValue = "json") String format,
+    HttpServletResponse response) throws IOException {
+    writeBatch(queries, format, response, annotationService::populations);
+  }
+
+  /**
+   * @param queries accession and position; at most MAX_BATCH_SIZE
+   * @param format  `json` or `ndjson`
+   */
+  @Operation(summary = "Returns the positions in PDB structures for many amino acid positions")
+  @PostMapping(value = "/structure", consumes = MediaType.APPLICATION_JSON_VALUE)
+  @io.swagger.v3.oas.annotations.parameters.RequestBody(content = @Content(examples = @ExampleObject(value = BATCH_EXAMPLE)))
+  public void getStructures(
+    @RequestBody List<AnnotationQuery> queries,
+    @Parameter(description = BATCH_FORMAT_DESC, example = "json") @RequestParam(defaultValue = "json") String format,
+    HttpServletResponse response) throws IOException {
+    writeBatch(queries, format, response, annotationService::structures);
+  }
+
+  @FunctionalInterface
+  private interface Batch<T> {
+    void run(List<AnnotationQuery> queries, AnnotationService.Sink<T> sink) throws IOException;
+  }
+
+  // Both formats are written out as results arrive rather than collected first
+  private <T> void writeBatch(List<AnnotationQuery> queries, String format, HttpServletResponse response,
+                              Batch<T> batch) throws IOException {
+    boolean ndjson = "ndjson".equalsIgnoreCase(format);
+    if (!ndjson && !"json".equalsIgnoreCase(format)) {
+      response.sendError(HttpStatus.BAD_REQUEST.value(), "Unknown format " + format);
+      return;
+    }
+    if (queries == null || queries.isEmpty() || queries.size() > MAX_BATCH_SIZE) {
+      response.sendError(HttpStatus.BAD_REQUEST.value(), "Between 1 and " + MAX_BATCH_SIZE + " positions required");
+      return;
+    }
+    // Invalid entries are rejected before the response is committed to a 200
+    List<AnnotationQuery> normalised;
+    try {
+      normalised = AnnotationService.normalise(queries);
+    } catch (IllegalArgumentException e) {
+      response.sendError(HttpStatus.BAD_REQUEST.value(), e.getMessage());
+      return;
+    }
+
+    response.setContentType(ndjson ? MediaType.APPLICATION_NDJSON_VALUE : MediaType.APPLICATION_JSON_VALUE);
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    try (Writer out = new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8);
+         SequenceWriter writer = ndjson
+           ? objectMapper.writer().withRootValueSeparator("\n").writeValues(out)
+           : objectMapper.writer().writeValuesAsArray(out)) {
+      batch.run(normalised, writer::write);
+    }
+  }
 }
@@ -5,14 +5,23 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import uk.ac.ebi.protvar.fetcher.AssemblyMappingFetcher;
+import uk.ac.ebi.protvar.service.LiftoverService;
 import uk.ac.ebi.protvar.types.Assembly;
 import uk.ac.ebi.protvar.model.response.AssemblyMappingResponse;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @Tag(name = "Assembly Mapping")
@@ -22,6 +31,7 @@ import java.util.List;
 public class AssemblyMappingController {
 
     private final AssemblyMappingFetcher assemblyMappingFetcher;
+    private final LiftoverService liftoverService;
 
     /**
      * @param inputs List of genomic coordinates
@@ -49,4 +59,48 @@ public class AssemblyMappingController {
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Streaming liftover of a whole file. The body is read line by line and
+     * lifted records are written as they are ready, so millions of sites
+     * can go in one request.
+     *
+     * @param from   From assembly e.g. `37`, `h37`, or `GRCh37`
+     * @param to     To assembly e.g. `38`, `h38`, or `GRCh38`
+     * @param format `ndjson` (default): one mapping per input line, as in the
+     *               JSON endpoint; `vcf`: records with the lifted position and
+     *               REF, headers passed through, unmapped records left out
+     */
+    @Operation(summary = "Stream a file of genomic coordinates or VCF records from GRCh37 to GRCh38 or vice versa")
+    @PostMapping(value = "/assembly/liftover/{from}/{to}",
+            consumes = {MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(content = {@Content(mediaType = MediaType.TEXT_PLAIN_VALUE, examples =
+    @ExampleObject(value = "1 12065827\n1\t12476789\t.\tG\tA\t.\t.\t."))})
+    public void liftover(
+            @Parameter(example = "37") @PathVariable("from") String from,
+            @Parameter(example = "38") @PathVariable("to") String to,
+            @Parameter(example = "ndjson") @RequestParam(value = "format", defaultValue = "ndjson") String format,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        Assembly fromAssembly = Assembly.of(from);
+        Assembly toAssembly = Assembly.of(to);
+        LiftoverService.Format outputFormat = switch (format.toLowerCase()) {
+            case "ndjson" -> LiftoverService.Format.NDJSON;
+            case "vcf" -> LiftoverService.Format.VCF;
+            default -> null;
+        };
+        if (fromAssembly == null || toAssembly == null || fromAssembly == toAssembly || outputFormat == null) {
+            response.sendError(HttpStatus.BAD_REQUEST.value());
+            return;
+        }
+
+        response.setContentType(outputFormat == LiftoverService.Format.NDJSON
+                ? MediaType.APPLICATION_NDJSON_VALUE : MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        try (InputStreamReader in = new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8);
+             Writer out = new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8)) {
+            liftoverService.lift(in, fromAssembly, toAssembly, outputFormat, out);
+        }
+    }
+}
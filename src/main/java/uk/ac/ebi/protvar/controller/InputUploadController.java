@@ -5,18 +5,25 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import uk.ac.ebi.protvar.cache.InputSummary;
 import uk.ac.ebi.protvar.model.MappingRequest;
 import uk.ac.ebi.protvar.model.InputRequest;
 import uk.ac.ebi.protvar.model.response.InputUploadResponse;
+import uk.ac.ebi.protvar.model.response.UploadSessionResponse;
 import uk.ac.ebi.protvar.service.InputService;
+import uk.ac.ebi.protvar.service.UploadCacheService;
+import uk.ac.ebi.protvar.service.UploadSessionService;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
+import java.util.Map;
 
 @Tag(
     name = "Input Upload",
@@ -28,6 +35,8 @@ import java.nio.charset.StandardCharsets;
 @RequiredArgsConstructor
 public class InputUploadController {
     private final InputService inputService;
+    private final UploadCacheService uploadCacheService;
+    private final UploadSessionService uploadSessionService;
 
     @Operation(
         summary = "Upload variant input file and receive a corresponding input ID",
@@ -39,12 +48,9 @@ public class InputUploadController {
             @RequestParam MultipartFile file,
             @Parameter(description = MappingRequest.ASSEMBLY_DESC)
             @RequestParam(required = false, defaultValue = "AUTO") String assembly) {
-        try {
-            String rawInput = new String(file.getBytes(), StandardCharsets.UTF_8);
-            String inputId = inputService.processInput(InputRequest.builder()
-                    .rawInput(rawInput)
-                    .assembly(assembly)
-                    .build());
+        // streamed: the file is never held in memory as a whole
+        try (InputStream input = file.getInputStream()) {
+            String inputId = inputService.processInput(input, assembly);
             //return ResponseEntity.ok(Map.of("inputId", inputId));
             return ResponseEntity.ok(new InputUploadResponse(inputId));
         } catch (IOException e) {
@@ -74,4 +80,95 @@ public class InputUploadController {
         return ResponseEntity.ok(new InputUploadResponse(inputId));
     }
 
+    @Operation(
+        summary = "Get the summary of an uploaded input",
+        description = "Returns the input type counts once the upload has been summarised (and its build detected, if AUTO), " +
+                "including readyMillis, the time the upload took to get there. 404 while still being processed or if unknown."
+    )
+    @GetMapping(value = "/{inputId}/summary", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<InputSummary> getSummary(
+            @Parameter(description = "Input ID returned by the upload endpoints.")
+            @PathVariable String inputId) {
+        InputSummary summary = uploadCacheService.getSummary(inputId);
+        return summary == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(summary);
+    }
+
+    @Operation(
+        summary = "Start a chunked upload session",
+        description = "For very large inputs: create a session, PUT its chunks in order (numbered from 0), then finalise " +
+                "to get the input ID. Chunks are processed as they arrive and may be retried; sessions expire after 6 idle hours."
+    )
+    @PostMapping(value = "/sessions", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<UploadSessionResponse> createSession(
+            @Parameter(description = MappingRequest.ASSEMBLY_DESC)
+            @RequestParam(required = false, defaultValue = "AUTO") String assembly) {
+        return ResponseEntity.ok(uploadSessionService.create(assembly));
+    }
+
+    @Operation(summary = "Get the state of an upload session, e.g. the next chunk expected after a failure")
+    @GetMapping(value = "/sessions/{sessionId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<UploadSessionResponse> getSession(@PathVariable String sessionId) {
+        UploadSessionResponse session = uploadSessionService.get(sessionId);
+        return session == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(session);
+    }
+
+    @Operation(
+        summary = "Append a chunk to an upload session",
+        description = "The body is the next piece of the input text (UTF-8, split on character boundaries; lines may span chunks). " +
+                "Re-sending an accepted chunk with the same content is a no-op. 409 if a chunk is missing, differs from the one " +
+                "accepted, or another request for the session is in progress."
+    )
+    @PutMapping(value = "/sessions/{sessionId}/chunks/{index}",
+            consumes = {MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE},
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> appendChunk(@PathVariable String sessionId, @PathVariable int index,
+                                         HttpServletRequest request) {
+        if (index < 0) return ResponseEntity.badRequest().body(Map.of("error", "Chunk index must be 0 or more"));
+        try (InputStream body = request.getInputStream()) {
+            UploadSessionService.ChunkResult result = uploadSessionService.append(sessionId, index, body);
+            return switch (result.status()) {
+                case APPENDED, DUPLICATE -> ResponseEntity.ok(result.session());
+                case UNKNOWN -> ResponseEntity.notFound().build();
+                case OUT_OF_ORDER -> conflict("Chunk " + index + " is ahead of the next chunk expected, " + result.session().getNextChunk());
+                case MISMATCH -> conflict("Chunk " + index + " was already received with different content");
+                case FINALISED -> conflict("Upload session is already finalised");
+                case BUSY -> conflict("Another request for this upload session is in progress");
+            };
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Chunk upload error: " + e.getMessage()));
+        }
+    }
+
+    @Operation(
+        summary = "Finalise an upload session and receive the input ID",
+        description = "Completes the input from the chunks received; repeating the call returns the same input ID. " +
+                "404 if the session is unknown or expired, 409 if another request for the session is in progress."
+    )
+    @PostMapping(value = "/sessions/{sessionId}/finalize", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> finalizeSession(@PathVariable String sessionId) {
+        UploadSessionService.FinaliseResult result = uploadSessionService.finalise(sessionId);
+        return switch (result.status()) {
+            case FINALISED -> ResponseEntity.ok(new InputUploadResponse(result.inputId()));
+            case UNKNOWN -> ResponseEntity.notFound().build();
+            case BUSY -> conflict("Another request for this upload session is in progress");
+        };
+    }
+
+    @Operation(
+        summary = "Abort an upload session, dropping the chunks received",
+        description = "404 if the session is unknown or expired, 409 if another request for the session is in progress."
+    )
+    @DeleteMapping("/sessions/{sessionId}")
+    public ResponseEntity<?> abortSession(@PathVariable String sessionId) {
+        return switch (uploadSessionService.abort(sessionId)) {
+            case ABORTED -> ResponseEntity.noContent().build();
+            case UNKNOWN -> ResponseEntity.notFound().build();
+            case BUSY -> conflict("Another request for this upload session is in progress");
+        };
+    }
+
+    private static ResponseEntity<Map<String, String>> conflict(String message) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", message));
+    }
+
 }
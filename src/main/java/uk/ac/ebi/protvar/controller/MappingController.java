@@ -13,7 +13,9 @@ import uk.ac.ebi.protvar.cache.UniprotEntryCache;
 import uk.ac.ebi.protvar.model.Identifier;
 import uk.ac.ebi.protvar.model.MappingRequest;
 import uk.ac.ebi.protvar.model.response.PagedMappingResponse;
+import uk.ac.ebi.protvar.model.response.PrecomputeStatus;
 import uk.ac.ebi.protvar.repo.MappingRepo;
+import uk.ac.ebi.protvar.service.MappingPrecomputeService;
 import uk.ac.ebi.protvar.service.MappingService;
 import uk.ac.ebi.protvar.types.IdentifierType;
 import uk.ac.ebi.protvar.utils.InputTypeResolver;
@@ -37,6 +39,7 @@ import static uk.ac.ebi.protvar.constants.PageUtils.*;
 public class MappingController {
 
     private final MappingService mappingService;
+    private final MappingPrecomputeService precomputeService;
     private final MappingRepo mappingRepo;
     private final UniprotEntryCache uniprotEntryCache;
 
@@ -128,6 +131,22 @@ public class MappingController {
         return new ResponseEntity<>(mappingService.get(request), HttpStatus.OK);
     }
 
+    /**
+     * Background mapping progress of an uploaded result: GET /mapping/{resultId}/status
+     */
+    @Operation(summary = "Progress of the background mapping of an uploaded result.",
+            description = "Only present when background mapping is enabled and the upload is within its size limit. " +
+                    "Once ready, result pages for this assembly are served from the precomputed mappings.")
+    @GetMapping(value = "/{resultId}/status", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<PrecomputeStatus> resultStatus(
+            @Parameter(description = "Uploaded result ID (32-character hex).", example = "abc123...")
+            @PathVariable("resultId") String resultId,
+            @Parameter(description = MappingRequest.ASSEMBLY_DESC)
+            @RequestParam(required = false, defaultValue = "AUTO") String assembly) {
+        PrecomputeStatus status = precomputeService.getStatus(resultId, assembly);
+        return status == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(status);
+    }
+
     @Operation(summary = "Retrieve mappings for identifiers or apply filters (POST, JSON body).")
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<?> mappingJson(@Valid @RequestBody MappingRequest request) {
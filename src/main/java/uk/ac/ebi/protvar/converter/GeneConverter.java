@@ -2,10 +2,10 @@ package uk.ac.ebi.protvar.converter;
 
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
+import uk.ac.ebi.protvar.mapper.ScoreIndex;
 import uk.ac.ebi.protvar.model.data.CaddPrediction;
 import uk.ac.ebi.protvar.model.data.GenomeToProteinMapping;
 import uk.ac.ebi.protvar.model.response.Gene;
-import uk.ac.ebi.protvar.model.score.Score;
 
 import java.util.Collections;
 import java.util.List;
@@ -23,7 +23,7 @@ public class GeneConverter {
 	public List<Gene> createGenes(Set<String> altBases,
 								List<GenomeToProteinMapping> mappings,
 								List<CaddPrediction> caddScores,
-								Map<String, List<Score>>  scoreMap) {
+								ScoreIndex scoreIndex) {
 		if (mappings == null || mappings.isEmpty()) return Collections.emptyList();
 		return filterEnsgMappings(mappings.stream()
 				.collect(Collectors.groupingBy(GenomeToProteinMapping::getEnsg)))
@@ -35,7 +35,7 @@ public class GeneConverter {
 					GenomeToProteinMapping representative = mappingList.get(0);
 
 					return altBases.stream().map(altBase -> {
-						var isoforms = isoformConverter.createIsoforms(altBase, mappingList, scoreMap);
+						var isoforms = isoformConverter.createIsoforms(altBase, mappingList, scoreIndex);
 						return Gene.builder()
 								.ensg(ensg)
 								.reverseStrand(representative.isReverseStrand())
@@ -4,20 +4,18 @@ import lombok.AllArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import uk.ac.ebi.protvar.mapper.ScoreIndex;
 import uk.ac.ebi.protvar.model.data.GenomeToProteinMapping;
 import uk.ac.ebi.protvar.model.response.Isoform;
 import uk.ac.ebi.protvar.model.response.Transcript;
 import uk.ac.ebi.protvar.model.score.AmScore;
 import uk.ac.ebi.protvar.model.score.PopEveScore;
-import uk.ac.ebi.protvar.model.score.Score;
 import uk.ac.ebi.protvar.model.score.ScoreType;
 import uk.ac.ebi.protvar.types.AminoAcid;
 import uk.ac.ebi.protvar.types.Codon;
-import uk.ac.ebi.protvar.utils.VariantKey;
+import uk.ac.ebi.protvar.types.CodonTable;
 
-import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
@@ -28,7 +26,7 @@ public class IsoformConverter {
 
 	public List<Isoform> createIsoforms(String altBase,
 			List<GenomeToProteinMapping> mappingList,
-			Map<String, List<Score>>  scoreMap) {
+			ScoreIndex scoreIndex) {
 		String canonicalAccession = mappingList.stream().filter(GenomeToProteinMapping::isCanonical)
 				.map(GenomeToProteinMapping::getAccession).findFirst().orElse(null);
 
@@ -36,14 +34,14 @@ public class IsoformConverter {
 				.collect(Collectors.groupingBy(GenomeToProteinMapping::getAccession))
 				.entrySet().stream()
 				.map(entry -> createIsoform(altBase, canonicalAccession, entry.getKey(), entry.getValue(),
-						scoreMap))
+						scoreIndex))
 				.filter(Objects::nonNull)
 				.sorted().collect(Collectors.toList());
 	}
 
 	private Isoform createIsoform(String altBase, String canonicalAccession, String accession,
 								  List<GenomeToProteinMapping> g2pAccessionMapping,
-								  Map<String, List<Score>>  scoreMap) {
+								  ScoreIndex scoreIndex) {
 		GenomeToProteinMapping mapping = g2pAccessionMapping.get(0);
 		// Guard against incomplete g2p_mapping rows. A null aa or codon would
 		// NPE on AminoAcid.fromOneLetter / altCodon.toUpperCase below.
@@ -55,9 +53,25 @@ public class IsoformConverter {
 			return null;
 		}
 		AminoAcid refAA = AminoAcid.fromOneLetter(mapping.getAa());
-		String altCodon = mapping.getAltCodon(altBase);
-		AminoAcid altAA = Codon.valueOf(altCodon.toUpperCase()).getAa();
-		String consequences = AminoAcid.getConsequence(refAA, altAA);
+		String altCodon;
+		AminoAcid altAA;
+		String consequences;
+		Codon refCodon = CodonTable.codon(mapping.getCodon());
+		CodonTable.Substitution substitution = altBase.length() == 1
+				? CodonTable.get(refCodon, mapping.getCodonPosition(), altBase.charAt(0), mapping.isReverseStrand())
+				: null;
+		if (substitution != null) {
+			// codon text is normally upper-case RNA, i.e. the enum name; keep any other spelling as is
+			altCodon = mapping.getCodon().equals(refCodon.name())
+					? substitution.altCodon().name() : mapping.getAltCodon(altBase);
+			altAA = substitution.altAA();
+			consequences = refAA == refCodon.getAa()
+					? substitution.consequence() : AminoAcid.getConsequence(refAA, altAA);
+		} else {
+			altCodon = mapping.getAltCodon(altBase);
+			altAA = Codon.valueOf(altCodon.toUpperCase()).getAa();
+			consequences = AminoAcid.getConsequence(refAA, altAA);
+		}
 		List<Transcript> transcripts = extractTranscripts(g2pAccessionMapping);
 
 		Isoform.IsoformBuilder builder = Isoform.builder()
@@ -76,13 +90,11 @@ public class IsoformConverter {
 
 		if (accession.equals(canonicalAccession)) {
 			// Add AlphaMissense score
-			String amScoreKey = VariantKey.protein(ScoreType.AM, accession, mapping.getIsoformPosition(), altAA.getOneLetter());
-			scoreMap.getOrDefault(amScoreKey, Collections.emptyList()).stream().findFirst()
+			scoreIndex.get(ScoreType.AM, accession, mapping.getIsoformPosition(), altAA.getOneLetter()).stream().findFirst()
 					.map(s -> ((AmScore) s).copySubclassFields()).ifPresent(builder::amScore);
 
 			// Add popEVE score
-			String popEveKey = VariantKey.protein(ScoreType.POPEVE, accession, mapping.getIsoformPosition(), altAA.getOneLetter());
-			scoreMap.getOrDefault(popEveKey, Collections.emptyList()).stream().findFirst()
+			scoreIndex.get(ScoreType.POPEVE, accession, mapping.getIsoformPosition(), altAA.getOneLetter()).stream().findFirst()
 					.map(s -> ((PopEveScore) s).copySubclassFields()).ifPresent(builder::popEveScore);
 
 			// Annotation URIs
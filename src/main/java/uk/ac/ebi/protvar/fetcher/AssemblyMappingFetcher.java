@@ -13,6 +13,7 @@ import uk.ac.ebi.protvar.utils.VariantKey;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,7 +26,6 @@ public class AssemblyMappingFetcher {
     public AssemblyMappingResponse getMappings(List<String> inputs, Assembly from, Assembly to) {
 
         List<AssemblyMapping> assemblyMappings = new ArrayList<>();
-        List<Coordinate> fromCoordinates = new ArrayList<>();
         inputs.stream().map(String::trim)
                 .forEach(input -> {
                     AssemblyMapping mapping = new AssemblyMapping();
@@ -36,15 +36,27 @@ public class AssemblyMappingFetcher {
                         mapping.setError("Error parsing input");
                     } else {
                         mapping.setFrom(fromCoordinate);
-                        fromCoordinates.add(fromCoordinate);
                     }
                 });
 
-        List<Object[]> positions = fromCoordinates.stream().map(i -> new Object[]{i.getPos()}).collect(Collectors.toList());
-        Map<String, List<Crossmap>> groupedCrossmaps = crossmapRepo.getCrossmaps(positions, from.version)
-                .stream().collect(Collectors.groupingBy(Crossmap::getGroupByChrAnd37Pos));
+        lift(assemblyMappings, from);
 
-        assemblyMappings.stream().filter(mapping -> mapping.getFrom() != null)
+        return new AssemblyMappingResponse(from.name, to.name, assemblyMappings);
+    }
+
+    /**
+     * Sets the target coordinate (or error) of each mapping with a parsed
+     * source coordinate, in one chromosome-aware crossmap lookup. Callers
+     * bound the batch size.
+     */
+    public void lift(List<AssemblyMapping> mappings, Assembly from) {
+        List<Object[]> chrPos = mappings.stream().map(AssemblyMapping::getFrom).filter(Objects::nonNull)
+                .map(i -> new Object[]{i.getChr(), i.getPos()}).collect(Collectors.toList());
+        Map<String, List<Crossmap>> groupedCrossmaps = crossmapRepo.getCrossmapsByChrPos(chrPos, from.version)
+                .stream().collect(Collectors.groupingBy(cm -> VariantKey.genomic(cm.getChr(),
+                        from == Assembly.GRCH37 ? cm.getGrch37Pos() : cm.getGrch38Pos())));
+
+        mappings.stream().filter(mapping -> mapping.getFrom() != null)
                 .forEach(mapping -> {
                     List<Crossmap> crossmap = groupedCrossmaps.get(VariantKey.genomic(mapping.getFrom().getChr(), mapping.getFrom().getPos()));
                     if (crossmap == null) {
@@ -67,8 +79,5 @@ public class AssemblyMappingFetcher {
                         }
                     }
                 });
-
-        return new AssemblyMappingResponse(from.name, to.name, assemblyMappings);
     }
 }
-
@@ -10,6 +10,11 @@ import uk.ac.ebi.uniprot.domain.features.Feature;
 import java.util.*;
 import java.util.stream.Collectors;
 
+/**
+ * Population variants from PopulationRepo. The Variants are the repo's
+ * cached, shared instances, so they are read-only, and the lists handed out
+ * here are unmodifiable.
+ */
 @Service
 @AllArgsConstructor
 public class VariantFetcher {
@@ -21,7 +26,7 @@ public class VariantFetcher {
 				.filter(Objects::nonNull)
 				.filter(f -> f instanceof Variant)
 				.map(f -> (Variant) f)
-				.collect(Collectors.toList());
+				.toList();
 		if (variants == null || variants.isEmpty())
 			return Map.of();
 		return Map.of(VariantKey.protein(accession, position), variants);
@@ -44,6 +49,6 @@ public class VariantFetcher {
 						.filter(Objects::nonNull)
 						.filter(f -> f instanceof Variant)
 						.map(f -> (Variant) f)
-						.collect(Collectors.toList())));
+						.toList()));
 	}
 }
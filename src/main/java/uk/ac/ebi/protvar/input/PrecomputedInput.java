@@ -0,0 +1,33 @@
+package uk.ac.ebi.protvar.input;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.fasterxml.jackson.databind.util.RawValue;
+
+/**
+ * A mapped input line read back from the precomputed mappings of an upload
+ * (MappingPrecomputeService). Holds the line's JSON as written by the web
+ * ObjectMapper and serialises as exactly that, so a page of them renders
+ * the same as a page mapped live. Serialisation only: the VariantInput
+ * fields are not populated.
+ */
+public class PrecomputedInput extends VariantInput {
+	private final RawValue json;
+
+	/**
+	 * @param originalIndex index of the line within the page
+	 * @param fields the stored JSON object without its originalIndex field
+	 */
+	public PrecomputedInput(int originalIndex, String fields) {
+		super(null, null);
+		setOriginalIndex(originalIndex);
+		// originalIndex is page-relative, so it is added back per page
+		this.json = new RawValue(fields.length() > 2
+				? "{\"originalIndex\":" + originalIndex + "," + fields.substring(1)
+				: "{\"originalIndex\":" + originalIndex + "}");
+	}
+
+	@JsonValue
+	public RawValue json() {
+		return json;
+	}
+}
@@ -2,11 +2,11 @@ package uk.ac.ebi.protvar.input.mapper;
 
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
+import uk.ac.ebi.protvar.cache.RefseqIndex;
 import uk.ac.ebi.protvar.input.ErrorConstants;
 import uk.ac.ebi.protvar.input.VariantType;
 import uk.ac.ebi.protvar.input.VariantInput;
 import uk.ac.ebi.protvar.input.HGVSCodingInput;
-import uk.ac.ebi.protvar.utils.FetcherUtils;
 
 import java.util.*;
 
@@ -25,31 +25,21 @@ import java.util.*;
 @AllArgsConstructor
 public class Coding2Pro {
 
-    public static List<String> getUniprotAccs(String refseqId, TreeMap<String, List<String>> refseqIdMap, VariantInput input) {
-        if (refseqIdMap.containsKey(refseqId))
-            return refseqIdMap.get(refseqId);
-        else {
-            int dotIdx = refseqId.lastIndexOf(".");
-            if (dotIdx != -1) {
-                String idWithoutVersion = refseqId.substring(0, dotIdx);
-                Map<String, List<String>> result = FetcherUtils.getByPrefix(refseqIdMap, idWithoutVersion);
-                if (!result.isEmpty()) {
-                    SortedSet<String> keys = new TreeSet<>(result.keySet());
-                    String firstKey = keys.first();
-                    input.addInfo(String.format(ErrorConstants.HGVS_USE_DIFF_REFSEQ_VERSION.toString(), firstKey));
-                    return result.get(firstKey);
-                }
-            }
-        }
-        return List.of();
+    public static List<String> getUniprotAccs(String refseqId, RefseqIndex refseqIndex, VariantInput input) {
+        RefseqIndex.Match match = refseqIndex.lookup(refseqId);
+        if (match == null)
+            return List.of();
+        if (!match.refseqAcc().equals(refseqId))
+            input.addInfo(String.format(ErrorConstants.HGVS_USE_DIFF_REFSEQ_VERSION.toString(), match.refseqAcc()));
+        return match.uniprotAccs();
     }
 
-    public void convert(Map<VariantType, List<VariantInput>> groupedInputs, TreeMap<String, List<String>> refseqIdMap) {
+    public void convert(Map<VariantType, List<VariantInput>> groupedInputs, RefseqIndex refseqIndex) {
         if (groupedInputs.containsKey(VariantType.CODING_DNA)) {
             List<VariantInput> codingInputs = groupedInputs.get(VariantType.CODING_DNA);
             codingInputs.stream().map(i -> (HGVSCodingInput) i).forEach(cDNAProt -> {
                 List<String> uniprotAccs = getUniprotAccs(cDNAProt.getRefseqId(),
-                        refseqIdMap, cDNAProt);
+                        refseqIndex, cDNAProt);
                 if (uniprotAccs != null && uniprotAccs.size() > 0) {
                     int[] protAndCodonPos = coding2ProteinPosition(cDNAProt.getPosition());
                     if (protAndCodonPos.length == 2) {
@@ -1,167 +1,192 @@
 package uk.ac.ebi.protvar.input.mapper;
 
-import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import uk.ac.ebi.protvar.cache.BatchCacheService;
 import uk.ac.ebi.protvar.input.*;
 import uk.ac.ebi.protvar.input.parser.variantid.ClinvarParser;
 import uk.ac.ebi.protvar.input.parser.variantid.CosmicParser;
-import uk.ac.ebi.protvar.model.data.ClinVarExtended;
-import uk.ac.ebi.protvar.model.data.Cosmic;
-import uk.ac.ebi.protvar.model.data.Dbsnp;
-import uk.ac.ebi.protvar.repo.ClinVarRepo;
-import uk.ac.ebi.protvar.repo.CosmicRepo;
-import uk.ac.ebi.protvar.repo.DbsnpRepo;
-
+import uk.ac.ebi.protvar.model.data.Base;
+import uk.ac.ebi.protvar.repo.VariantIdRepo;
+import uk.ac.ebi.protvar.repo.VariantIdRepo.Source;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
-
+import java.util.Set;
+
+/**
+ * Resolves variant ID inputs (dbSNP, ClinVar, COSMIC) to the genomic
+ * variants they stand for.
+ *
+ * All ID inputs of a batch are resolved together, whatever their source:
+ * the distinct IDs are looked up in the {@value #CACHE_NAME} cache in one
+ * pass (BatchCacheService) and the misses of every source go to the DB in
+ * one query (VariantIdRepo), so a mixed upload pays at most one round trip
+ * for its IDs.
+ *
+ * Cache keys are source table and ID, so a new data release (new table
+ * name) starts afresh. IDs with no mapping are cached too, as an empty
+ * list. Variants are cached as "chr\tpos\tref\talt" strings and every
+ * input gets its own GenomicVariant instances, as these are filled in by
+ * the mapping later.
+ */
 @Service
-@AllArgsConstructor
+@RequiredArgsConstructor
 public class Id2Gen {
-    private DbsnpRepo dbsnpRepo;
-    private ClinVarRepo clinVarRepo;
-    private CosmicRepo cosmicRepo;
+    static final String CACHE_NAME = "variantIds";
+
+    private final VariantIdRepo variantIdRepo;
+    private final BatchCacheService batchCacheService;
+
+    @Value("${tbl.dbsnp}")
+    private String dbsnpTable;
+
+    @Value("${tbl.clinvar.extended}")
+    private String clinvarTable;
+
+    @Value("${tbl.cosmic}")
+    private String cosmicTable;
+
+    private record IdKey(Source source, String id) {}
 
 
     /**
-     * Maps ID inputs (DBSNP) to their corresponding genomic coordinates.
+     * Maps ID inputs (DBSNP, ClinVar, COSMIC) to their corresponding genomic coordinates.
      * It is possible that an ID gives multiple variants - in which case they are added to the genomicInputList.
      * @param groupedInputs
      */
     public void map(Map<VariantType, List<VariantInput>> groupedInputs) {
         if (groupedInputs.containsKey(VariantType.VARIANT_ID)) {
-            List<VariantInput> idInputs = groupedInputs.get(VariantType.VARIANT_ID);
-            Map<VariantFormat, List<VariantInput>> idGroups = idInputs.stream().collect(Collectors.groupingBy(VariantInput::getFormat));
-
-            dbsnpLookup(idGroups.get(VariantFormat.DBSNP));
-            clinvarLookup(idGroups.get(VariantFormat.CLINVAR));
-            cosmicLookup(idGroups.get(VariantFormat.COSMIC));
+            lookup(groupedInputs.get(VariantType.VARIANT_ID));
         }
     }
 
-    public void dbsnpLookup(List<VariantInput> dbsnpIdInputs) {
-        if (dbsnpIdInputs == null || dbsnpIdInputs.isEmpty())
+    public void lookup(List<VariantInput> idInputs) {
+        if (idInputs == null || idInputs.isEmpty())
             return;
 
-        List<Object[]> dbsnpIds = dbsnpIdInputs.stream()
-                .map(i -> new Object[]{i.getInputStr()}).collect(Collectors.toList());
-
-        Map<String, List<Dbsnp>> dbsnpMap = dbsnpRepo.getById(dbsnpIds).stream().collect(Collectors.groupingBy(Dbsnp::getId));
-
-        dbsnpIdInputs.stream().forEach(input -> {
-                    String id = input.getInputStr();
-                    List<Dbsnp> dbsnps = dbsnpMap.get(id);
-                    if (dbsnps != null && !dbsnps.isEmpty()) {
-                        dbsnps.forEach(dbsnp -> {
-                            String[] alts = dbsnp.getAlt().split(",");
-                            for (String alt : alts) {
-                                GenomicVariant newVariant = new GenomicVariant(dbsnp.getChr(), dbsnp.getPos(),
-                                        dbsnp.getRef(), alt);
-                                if (!input.getDerivedGenomicVariants().contains(newVariant))
-                                    input.getDerivedGenomicVariants().add(newVariant);
-                            }
-                        });
-                    }
-                    else {
-                        input.addError(ErrorConstants.DBSNP_ID_NO_MAPPING);
-                    }
-                });
-    }
-
-    public void clinvarLookup(List<VariantInput> clinvarIdInputs) {
-        if (clinvarIdInputs == null || clinvarIdInputs.isEmpty())
-            return;
-
-        Map<String, List<VariantInput>> clinvarIdTypeMap = clinvarIdInputs.stream()
-                .collect(Collectors.groupingBy(VariantInput::getIdPrefix));
-
-        Map<String, List<ClinVarExtended>> clinvarRCVMap = null; // Changed to ClinVarExtended
-        Map<String, List<ClinVarExtended>> clinvarVCVMap = null; // Changed to ClinVarExtended
-
-        if (clinvarIdTypeMap.get(ClinvarParser.RCV) != null) {
-            //List<Object[]> rcvIds = clinvarIdTypeMap.get(ClinVarID.RCV).stream().map(i -> new Object[]{((ClinVarID) i).getId()}).collect(Collectors.toList());
-            //clinvarRCVMap = clinVarRepo.getByRCV(rcvIds).stream().collect(Collectors.groupingBy(ClinVar::getRcv));
-            List<String> rcvs = clinvarIdTypeMap.get(ClinvarParser.RCV).stream().map(VariantInput::getInputStr).collect(Collectors.toList());
-            clinvarRCVMap = clinVarRepo.getByRCVMap(rcvs.stream()
-                    .map(String::toUpperCase)
-                    .collect(Collectors.toList())); // todo move this capitalisation earlier on, or in db query
+        // cache key -> source and ID, for the distinct IDs of the batch
+        Map<String, IdKey> idKeys = new LinkedHashMap<>();
+        Map<VariantInput, String> inputKeys = new IdentityHashMap<>();
+        for (VariantInput input : idInputs) {
+            IdKey idKey = idKey(input);
+            if (idKey == null) continue;
+            String key = cacheKey(idKey);
+            idKeys.putIfAbsent(key, idKey);
+            inputKeys.put(input, key);
         }
 
-        if (clinvarIdTypeMap.get(ClinvarParser.VCV) != null) {
-            //List<Object[]> vcvIds = clinvarIdTypeMap.get(ClinVarID.VCV).stream().map(i -> new Object[]{((ClinVarID) i).getId()}).collect(Collectors.toList());
-            //clinvarVCVMap = clinVarRepo.getByVCV(vcvIds).stream().collect(Collectors.groupingBy(ClinVar::getVcv));
-            List<String> vcvs = clinvarIdTypeMap.get(ClinvarParser.VCV).stream().map(VariantInput::getInputStr).collect(Collectors.toList());
-            clinvarVCVMap = clinVarRepo.getByVCVMap(vcvs.stream()
-                    .map(String::toUpperCase)
-                    .collect(Collectors.toList())); // todo same here!
-        }
+        Map<String, List<String>> resolved = idKeys.isEmpty() ? Map.of()
+                : batchCacheService.getAllOrLoad(CACHE_NAME, idKeys.keySet(), misses -> load(misses, idKeys));
 
-        for (VariantInput input : clinvarIdInputs) {
-            String id = input.getInputStr();
-            if (input.getIdPrefix().equals(ClinvarParser.RCV) && clinvarRCVMap != null) {
-                addClinvarDerivedGenomicVariants(clinvarRCVMap.get(id), input);
-            } else if (input.getIdPrefix().equals(ClinvarParser.VCV) && clinvarVCVMap != null) {
-                addClinvarDerivedGenomicVariants(clinvarVCVMap.get(id), input);
-            }
-            if (input.getDerivedGenomicVariants().isEmpty()) {
-                input.addError(ErrorConstants.CLINVAR_ID_NO_MAPPING);
-            }
+        for (VariantInput input : idInputs) {
+            ErrorConstants noMapping = noMappingError(input.getFormat());
+            if (noMapping == null) continue;
+            String key = inputKeys.get(input);
+            if (!addDerivedGenomicVariants(key == null ? null : resolved.get(key), input))
+                input.addError(noMapping);
         }
     }
 
-    public void cosmicLookup(List<VariantInput> cosmicIdInputs) {
-        if (cosmicIdInputs == null || cosmicIdInputs.isEmpty())
-            return;
+    // ClinVar and COSMIC IDs are stored upper case; dbSNP IDs are matched as given
+    private static IdKey idKey(VariantInput input) {
+        String id = input.getInputStr();
+        return switch (input.getFormat()) {
+            case DBSNP -> new IdKey(Source.DBSNP, id);
+            case CLINVAR -> switch (input.getIdPrefix()) {
+                case ClinvarParser.RCV -> new IdKey(Source.RCV, id.toUpperCase());
+                case ClinvarParser.VCV -> new IdKey(Source.VCV, id.toUpperCase());
+                default -> null;
+            };
+            case COSMIC -> switch (input.getIdPrefix()) {
+                case CosmicParser.COSV -> new IdKey(Source.COSMIC, id.toUpperCase());
+                case CosmicParser.COSM, CosmicParser.COSN -> new IdKey(Source.COSMIC_LEGACY, id.toUpperCase());
+                default -> null;
+            };
+            default -> null;
+        };
+    }
 
-        Map<String, List<VariantInput>> cosmicIdTypeMap = cosmicIdInputs.stream().collect(Collectors.groupingBy(VariantInput::getIdPrefix));
+    private static ErrorConstants noMappingError(VariantFormat format) {
+        return switch (format) {
+            case CLINVAR -> ErrorConstants.CLINVAR_ID_NO_MAPPING;
+            case COSMIC -> ErrorConstants.COSMIC_ID_NO_MAPPING;
+            case DBSNP -> ErrorConstants.DBSNP_ID_NO_MAPPING;
+            default -> null;
+        };
+    }
 
-        List<Object[]> ids = cosmicIdTypeMap.get(CosmicParser.COSV) == null ? null :
-                cosmicIdTypeMap.get(CosmicParser.COSV).stream().map(i -> new Object[]{i.getInputStr().toUpperCase()}).collect(Collectors.toList());
-        List<Object[]> legacyIds = Stream.concat(cosmicIdTypeMap.get(CosmicParser.COSM) == null ? Stream.empty() : cosmicIdTypeMap.get(CosmicParser.COSM).stream(),
-                        cosmicIdTypeMap.get(CosmicParser.COSN) == null ? Stream.empty() : cosmicIdTypeMap.get(CosmicParser.COSN).stream())
-                .map(i -> new Object[]{i.getInputStr().toUpperCase()}).collect(Collectors.toList());
+    private String cacheKey(IdKey idKey) {
+        String table = switch (idKey.source()) {
+            case DBSNP -> dbsnpTable;
+            case RCV, VCV -> clinvarTable;
+            case COSMIC, COSMIC_LEGACY -> cosmicTable;
+        };
+        return table + ":" + idKey.id();
+    }
 
-        Map<String, List<Cosmic>> cosmicIdMap = cosmicRepo.getById(ids).stream().collect(Collectors.groupingBy(Cosmic::getId));
-        Map<String, List<Cosmic>> cosmicLegacyIdMap = cosmicRepo.getByLegacyId(legacyIds).stream().collect(Collectors.groupingBy(Cosmic::getLegacyId));
+    /**
+     * Variants of the missed IDs, all sources in one query. IDs with none
+     * get an empty list, so "no mapping" is cached as well.
+     */
+    private Map<String, List<String>> load(List<String> misses, Map<String, IdKey> idKeys) {
+        Map<Source, List<String>> ids = new EnumMap<>(Source.class);
+        misses.forEach(key -> ids.computeIfAbsent(idKeys.get(key).source(), s -> new ArrayList<>())
+                .add(idKeys.get(key).id()));
+        Map<Source, Map<String, List<Base>>> rows = variantIdRepo.getByIds(ids);
+
+        Map<String, List<String>> loaded = new HashMap<>();
+        for (String key : misses) {
+            IdKey idKey = idKeys.get(key);
+            List<Base> variants = rows.getOrDefault(idKey.source(), Map.of()).get(idKey.id());
+            loaded.put(key, encode(variants, idKey.source() == Source.DBSNP));
+        }
+        return loaded;
+    }
 
-        cosmicIdInputs.stream().forEach(input -> {
-            String id = input.getInputStr();
-            if (cosmicIdMap != null && input.getIdPrefix().equals(CosmicParser.COSV)) {
-                addCosmicDerivedGenomicVariants(cosmicIdMap.get(id), input);
-            } else if (cosmicLegacyIdMap != null && (input.getIdPrefix().equals(CosmicParser.COSM) || input.getIdPrefix().equals(CosmicParser.COSN))) {
-                addCosmicDerivedGenomicVariants(cosmicLegacyIdMap.get(id), input);
-            }
-            if (input.getDerivedGenomicVariants().isEmpty()) {
-                input.addError(ErrorConstants.COSMIC_ID_NO_MAPPING);
+    // Distinct variants, in order; a dbSNP row has one variant per alt allele
+    private static List<String> encode(List<Base> rows, boolean splitAlts) {
+        Set<String> encoded = new LinkedHashSet<>();
+        if (rows != null) {
+            for (Base row : rows) {
+                String[] alts = splitAlts && row.getAlt() != null ? row.getAlt().split(",") : new String[]{row.getAlt()};
+                for (String alt : alts) {
+                    encoded.add(String.join("\t", nullToEmpty(row.getChr()),
+                            row.getPos() == null ? "" : row.getPos().toString(),
+                            nullToEmpty(row.getRef()), nullToEmpty(alt)));
+                }
             }
-        });
-
-
+        }
+        return new ArrayList<>(encoded);
     }
 
-    // ClinVar changed to ClinVarExtended
-    private void addClinvarDerivedGenomicVariants(List<ClinVarExtended> clinVars, VariantInput input) {
-        if (clinVars != null && !clinVars.isEmpty()) {
-            clinVars.forEach(clinVar -> {
-                GenomicVariant newVariant = new GenomicVariant(clinVar.getChr(), clinVar.getPos(),
-                        clinVar.getRef(), clinVar.getAlt());
-                if (!input.getDerivedGenomicVariants().contains(newVariant))
-                    input.getDerivedGenomicVariants().add(newVariant);
-            });
+    /** @return false if there are none */
+    private static boolean addDerivedGenomicVariants(List<String> variants, VariantInput input) {
+        if (variants == null || variants.isEmpty())
+            return false;
+        Set<GenomicVariant> derived = new LinkedHashSet<>(input.getDerivedGenomicVariants());
+        for (String variant : variants) {
+            String[] f = variant.split("\t", -1);
+            derived.add(new GenomicVariant(emptyToNull(f[0]), f[1].isEmpty() ? null : Integer.valueOf(f[1]),
+                    emptyToNull(f[2]), emptyToNull(f[3])));
         }
+        input.getDerivedGenomicVariants().clear();
+        input.getDerivedGenomicVariants().addAll(derived);
+        return true;
     }
 
-    private void addCosmicDerivedGenomicVariants(List<Cosmic> cosmics, VariantInput input) {
-        if (cosmics != null && !cosmics.isEmpty()) {
-            cosmics.forEach(cosmic -> {
-                GenomicVariant newVariant = new GenomicVariant(cosmic.getChr(), cosmic.getPos(),
-                        cosmic.getRef(), cosmic.getAlt());
-                if (!input.getDerivedGenomicVariants().contains(newVariant))
-                    input.getDerivedGenomicVariants().add(newVariant);
-            });
-        }
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
     }
 
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
 }
@@ -5,6 +5,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import uk.ac.ebi.protvar.cache.RefseqIndex;
 import uk.ac.ebi.protvar.cache.UniprotEntryCache;
 import uk.ac.ebi.protvar.input.*;
 import uk.ac.ebi.protvar.model.data.GenomeToProteinMapping;
@@ -14,6 +15,7 @@ import uk.ac.ebi.protvar.repo.MappingRepo;
 import uk.ac.ebi.protvar.types.AminoAcid;
 import uk.ac.ebi.protvar.utils.Commons;
 import uk.ac.ebi.protvar.types.Codon;
+import uk.ac.ebi.protvar.types.CodonTable;
 import uk.ac.ebi.protvar.utils.VariantKey;
 
 import java.util.*;
@@ -31,17 +33,17 @@ public class Pro2Gen {
     @Autowired
     UniprotEntryCache uniprotEntryCache;
 
-    public void convert(Map<VariantType, List<VariantInput>> groupedInputs, TreeMap<String, List<String>> refseqIdMap) {
+    public void convert(Map<VariantType, List<VariantInput>> groupedInputs, RefseqIndex refseqIndex) {
         List<VariantInput> proteinInputs = new ArrayList<>();
         if (groupedInputs.get(VariantType.PROTEIN) != null)
             proteinInputs.addAll(groupedInputs.get(VariantType.PROTEIN));
         if (groupedInputs.get(VariantType.CODING_DNA) != null)
             proteinInputs.addAll(groupedInputs.get(VariantType.CODING_DNA));
         if (!proteinInputs.isEmpty())
-            convert(proteinInputs, refseqIdMap);
+            convert(proteinInputs, refseqIndex);
     }
 
-    private void convert(List<VariantInput> proteinInputs, TreeMap<String, List<String>> refseqIdMap) {
+    private void convert(List<VariantInput> proteinInputs, RefseqIndex refseqIndex) {
         // 1. get all the accessions and positions (deduplicated by AccessionPosition)
         Set<AccessionPosition> uniqueAccPos = new HashSet<>();
         for (VariantInput input : proteinInputs) {
@@ -49,7 +51,7 @@ public class Pro2Gen {
             if (input.getFormat() == VariantFormat.HGVS_PROTEIN) {
                 ProteinInput hgvsProt = (ProteinInput) input;
 
-                List<String> uniprotAccs = Coding2Pro.getUniprotAccs(hgvsProt.getRefseqId(), refseqIdMap, hgvsProt);
+                List<String> uniprotAccs = Coding2Pro.getUniprotAccs(hgvsProt.getRefseqId(), refseqIndex, hgvsProt);
                 if (uniprotAccs != null && uniprotAccs.size() > 0){
                     List<String> head =  uniprotAccs.subList(0, 1);
                     List<String> tail =  uniprotAccs.subList(1, uniprotAccs.size());
@@ -242,16 +244,14 @@ public class Pro2Gen {
                                 }
                             }
 
-                            String codonUC = gCoordCodon.toUpperCase();
+                            Codon refCodon = CodonTable.codon(gCoordCodon);
 
                             for (String altAllele : possibleAltAlleles) {
 
-                                String altCodon = codonUC.substring(0, gCoordCodonPos - 1) +
-                                        altAlleleIfReverse(altAllele, gCoordIsReverse) +
-                                        codonUC.substring(gCoordCodonPos);
-
-                                Codon altRnaCodon = Codon.valueOf(altCodon);
-                                AminoAcid altAA = altRnaCodon.getAa();
+                                CodonTable.Substitution substitution = CodonTable.get(refCodon, gCoordCodonPos,
+                                        altAllele.charAt(0), gCoordIsReverse);
+                                AminoAcid altAA = substitution != null ? substitution.altAA() : altAA(gCoordCodon,
+                                        gCoordCodonPos, altAllele, gCoordIsReverse);
 
                                 GenomicVariant genomicVariant = new GenomicVariant(gCoordChr, gCoordPos, gCoordRefAllele, altAllele);
 
@@ -328,6 +328,15 @@ public class Pro2Gen {
         });
     }
 
+    // Invalid codon text or position: as before, Codon.valueOf throws
+    private AminoAcid altAA(String codon, int codonPos, String altAllele, boolean isReverse) {
+        String codonUC = codon.toUpperCase();
+        String altCodon = codonUC.substring(0, codonPos - 1) +
+                altAlleleIfReverse(altAllele, isReverse) +
+                codonUC.substring(codonPos);
+        return Codon.valueOf(altCodon).getAa();
+    }
+
     private String altAlleleIfReverse(String altAllele, boolean isReverse) {
         //dna->rna codon
         if (isReverse) {
@@ -0,0 +1,318 @@
+package uk.ac.ebi.protvar.input.parser;
+
+/**
+ * Single-pass classifier for {@link VariantParser#parse(String)}.
+ *
+ * One scan of the input records its whitespace-separated tokens, whether
+ * it is a single \w word, and its colon and dash counts. That is enough to
+ * pick the one format whose structure the input can have, in the same
+ * precedence as the pattern chain ({@link VariantParser#parseByPatterns}):
+ * variant IDs, HGVS, protein, gnomAD, VCF, then internal genomic.
+ *
+ * For the genomic formats (the bulk of large uploads) the fields are also
+ * validated here and handed to the parser as strings, so a VCF line is
+ * parsed without running any regex. The other formats are handed to their
+ * parser's own parse(), which does the full validation.
+ *
+ * Only plain inputs are classified: printable ASCII plus space, tab, VT and
+ * FF, with no leading or trailing space. Anything else (line breaks, other
+ * control or non-ASCII characters) returns null from {@link #scan} and goes
+ * through the pattern chain, so regex corner cases ($ before a trailing
+ * newline, . not matching line terminators, trim()) keep their exact
+ * behaviour.
+ */
+final class VariantLexer {
+
+    enum Shape {
+        DBSNP, CLINVAR, COSMIC,
+        HGVS_P, HGVS_C, HGVS_G, HGVS_OTHER,
+        PROTEIN,
+        GNOMAD, VCF, GENOMIC,
+        UNSUPPORTED
+    }
+
+    // VCF needs the first five; further tokens are only counted
+    private static final int MAX_TOKENS = 5;
+
+    private final String input;
+    private final int[] starts = new int[MAX_TOKENS];
+    private final int[] ends = new int[MAX_TOKENS];
+    private int tokenCount;
+    private boolean word = true;
+    private int colons;
+    private int firstColon = -1;
+    private int dashes;
+
+    // Genomic fields, set when classify() returns GNOMAD, VCF or GENOMIC
+    String chromosome;
+    String position;
+    String id;
+    String ref;
+    String alt;
+
+    private VariantLexer(String input) {
+        this.input = input;
+    }
+
+    /**
+     * Scans a trimmed, non-blank input, or returns null if it isn't plain
+     * (see class doc) and must go through the pattern chain.
+     */
+    static VariantLexer scan(String input) {
+        int n = input.length();
+        // untrimmed input: leave ^/$ anchoring and trim() to the patterns
+        if (n == 0 || isSpace(input.charAt(0)) || isSpace(input.charAt(n - 1))) return null;
+        VariantLexer lexer = new VariantLexer(input);
+        int tokenStart = -1;
+        for (int i = 0; i < n; i++) {
+            char c = input.charAt(i);
+            if (isSpace(c)) {
+                lexer.word = false;
+                if (tokenStart >= 0) {
+                    lexer.addToken(tokenStart, i);
+                    tokenStart = -1;
+                }
+                continue;
+            }
+            if (c < 0x20 || c >= 0x7F) return null;
+            if (tokenStart < 0) tokenStart = i;
+            if (c == ':') {
+                if (lexer.colons++ == 0) lexer.firstColon = i;
+            } else if (c == '-') {
+                lexer.dashes++;
+            }
+            if (!isWordChar(c)) lexer.word = false;
+        }
+        if (tokenStart >= 0) lexer.addToken(tokenStart, n);
+        return lexer;
+    }
+
+    Shape classify() {
+        if (word) {
+            if (idPrefix("rs")) return Shape.DBSNP;
+            if (idPrefix("RCV") || idPrefix("VCV")) return Shape.CLINVAR;
+            if (idPrefix("COSV") || idPrefix("COSM") || idPrefix("COSN")) return Shape.COSMIC;
+        }
+
+        // refseq:[spaces]x.desc — exactly one colon, non-empty on both sides
+        if (colons == 1 && firstColon > 0) {
+            Shape hgvs = hgvsScheme();
+            if (hgvs != null) return hgvs;
+        }
+
+        if (tokenCount >= 2 && isAccession(starts[0], ends[0])) return Shape.PROTEIN;
+
+        if (tokenCount == 1) {
+            // CHR-POS-REF-ALT
+            if (dashes == 3 && genomicParts(starts[0], ends[0], '-')) return Shape.GNOMAD;
+            // CHR:POS[:REF[:ALT]]
+            if (colons >= 1 && colons <= 3 && genomicParts(starts[0], ends[0], ':')) return Shape.GENOMIC;
+            return Shape.UNSUPPORTED;
+        }
+
+        if (tokenCount >= 5) {
+            // CHROM POS ID REF ALT [ignored...]
+            if (isChromosome(0) && isPosition(1) && isBase(starts[3], ends[3]) && isBase(starts[4], ends[4])) {
+                chromosome = token(0);
+                position = token(1);
+                id = token(2);
+                ref = token(3);
+                alt = token(4);
+                return Shape.VCF;
+            }
+            return Shape.UNSUPPORTED;
+        }
+
+        // CHR POS [REF [ALT|/ALT|>ALT]]
+        if (!isChromosome(0) || !isPosition(1)) return Shape.UNSUPPORTED;
+        if (tokenCount == 3) {
+            int s = starts[2], e = ends[2];
+            if (isBase(s, e)) {
+                ref = token(2);
+            } else if (e - s == 3 && isBase(s, s + 1) && isBase(s + 2, e)
+                    && (input.charAt(s + 1) == '/' || input.charAt(s + 1) == '>')) {
+                ref = input.substring(s, s + 1);
+                alt = input.substring(s + 2, e);
+            } else {
+                return Shape.UNSUPPORTED;
+            }
+        } else if (tokenCount == 4) {
+            if (!isBase(starts[2], ends[2]) || !isBase(starts[3], ends[3])) return Shape.UNSUPPORTED;
+            ref = token(2);
+            alt = token(3);
+        }
+        chromosome = token(0);
+        position = token(1);
+        return Shape.GENOMIC;
+    }
+
+    private void addToken(int start, int end) {
+        if (tokenCount < MAX_TOKENS) {
+            starts[tokenCount] = start;
+            ends[tokenCount] = end;
+        }
+        tokenCount++;
+    }
+
+    private String token(int i) {
+        return input.substring(starts[i], ends[i]);
+    }
+
+    /** Case-insensitive prefix followed by a digit. */
+    private boolean idPrefix(String prefix) {
+        int len = prefix.length();
+        return input.length() > len
+                && input.regionMatches(true, 0, prefix, 0, len)
+                && isDigit(input.charAt(len));
+    }
+
+    private Shape hgvsScheme() {
+        int n = input.length();
+        int i = firstColon + 1;
+        while (i < n && isSpace(input.charAt(i))) i++;
+        if (i + 2 >= n || input.charAt(i + 1) != '.') return null;
+        return switch (input.charAt(i)) {
+            case 'p', 'P' -> Shape.HGVS_P;
+            case 'c', 'C' -> Shape.HGVS_C;
+            case 'g', 'G' -> Shape.HGVS_G;
+            default -> isLetter(input.charAt(i)) ? Shape.HGVS_OTHER : null;
+        };
+    }
+
+    /**
+     * Splits one token on {@code separator} into CHR, POS and optional REF,
+     * ALT (at most four parts) and validates them.
+     */
+    private boolean genomicParts(int start, int end, char separator) {
+        int[] bounds = new int[5];
+        int parts = 0;
+        bounds[0] = start;
+        for (int i = start; i < end; i++) {
+            if (input.charAt(i) == separator) {
+                if (++parts > 3) return false;
+                bounds[parts] = i + 1;
+            }
+        }
+        parts++;
+        bounds[parts] = end + 1;
+        if (parts < 2) return false;
+
+        if (!isChromosome(bounds[0], bounds[1] - 1) || !isPosition(bounds[1], bounds[2] - 1)) return false;
+        if (parts >= 3 && !isBase(bounds[2], bounds[3] - 1)) return false;
+        if (parts == 4 && !isBase(bounds[3], bounds[4] - 1)) return false;
+
+        chromosome = input.substring(bounds[0], bounds[1] - 1);
+        position = input.substring(bounds[1], bounds[2] - 1);
+        if (parts >= 3) ref = input.substring(bounds[2], bounds[3] - 1);
+        if (parts == 4) alt = input.substring(bounds[3], bounds[4] - 1);
+        return true;
+    }
+
+    private boolean isChromosome(int token) {
+        return isChromosome(starts[token], ends[token]);
+    }
+
+    private boolean isPosition(int token) {
+        return isPosition(starts[token], ends[token]);
+    }
+
+    /** VariantParser.VALID_CHROMOSOME, case-insensitive. */
+    private boolean isChromosome(int start, int end) {
+        if (matches(start, end, "mit") || matches(start, end, "mtDNA")
+                || matches(start, end, "mitochondria") || matches(start, end, "mitochondrion"))
+            return true;
+        if (end - start > 3 && input.regionMatches(true, start, "chr", 0, 3)) start += 3;
+        if (matches(start, end, "X") || matches(start, end, "Y")
+                || matches(start, end, "M") || matches(start, end, "MT"))
+            return true;
+        // 0*(1-22)
+        while (start < end && input.charAt(start) == '0') start++;
+        int len = end - start;
+        if (len == 0 || len > 2) return false;
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = input.charAt(i);
+            if (!isDigit(c)) return false;
+            value = value * 10 + (c - '0');
+        }
+        return value >= 1 && value <= 22;
+    }
+
+    /** VariantParser.VALID_POSITION: digits, at least one non-zero. */
+    private boolean isPosition(int start, int end) {
+        if (start >= end) return false;
+        boolean nonZero = false;
+        for (int i = start; i < end; i++) {
+            char c = input.charAt(i);
+            if (!isDigit(c)) return false;
+            if (c != '0') nonZero = true;
+        }
+        return nonZero;
+    }
+
+    /** VariantParser.VALID_BASE, case-insensitive. */
+    private boolean isBase(int start, int end) {
+        if (end - start != 1) return false;
+        return switch (input.charAt(start)) {
+            case 'A', 'C', 'G', 'T', 'a', 'c', 'g', 't' -> true;
+            default -> false;
+        };
+    }
+
+    /** ProteinParser.VALID_UNIPROT, case-insensitive. */
+    private boolean isAccession(int start, int end) {
+        int dash = input.indexOf('-', start);
+        int baseEnd = dash < 0 || dash >= end ? end : dash;
+        if (baseEnd < end) {
+            // isoform suffix -[1-9][0-9]*
+            if (baseEnd + 1 >= end) return false;
+            char c = input.charAt(baseEnd + 1);
+            if (c < '1' || c > '9') return false;
+            for (int i = baseEnd + 2; i < end; i++) {
+                if (!isDigit(input.charAt(i))) return false;
+            }
+        }
+
+        int len = baseEnd - start;
+        char first = Character.toUpperCase(input.charAt(start));
+        if (first == 'O' || first == 'P' || first == 'Q') {
+            // [OPQ][0-9][A-Z0-9]{3}[0-9]
+            return len == 6 && isDigit(input.charAt(start + 1))
+                    && isAlnum(input.charAt(start + 2)) && isAlnum(input.charAt(start + 3))
+                    && isAlnum(input.charAt(start + 4)) && isDigit(input.charAt(start + 5));
+        }
+        // [A-NR-Z]([0-9][A-Z][A-Z0-9]{2}){1,2}[0-9]
+        if (first < 'A' || first > 'Z' || (len != 6 && len != 10)) return false;
+        for (int g = start + 1; g < baseEnd - 1; g += 4) {
+            if (!isDigit(input.charAt(g)) || !isLetter(input.charAt(g + 1))
+                    || !isAlnum(input.charAt(g + 2)) || !isAlnum(input.charAt(g + 3)))
+                return false;
+        }
+        return isDigit(input.charAt(baseEnd - 1));
+    }
+
+    private boolean matches(int start, int end, String expected) {
+        return end - start == expected.length() && input.regionMatches(true, start, expected, 0, expected.length());
+    }
+
+    // \s without UNICODE_CHARACTER_CLASS, minus the line terminators (not plain)
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\u000B' || c == '\f';
+    }
+
+    private static boolean isWordChar(char c) {
+        return isLetter(c) || isDigit(c) || c == '_';
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isAlnum(char c) {
+        return isLetter(c) || isDigit(c);
+    }
+}
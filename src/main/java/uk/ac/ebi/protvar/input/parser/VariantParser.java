@@ -86,6 +86,45 @@ public class VariantParser {
         if (inputStr == null || inputStr.isBlank()) // prior checks will not make this be true
             return invalid(inputStr, "Empty input");
 
+        // One scan picks the format (see VariantLexer); same precedence and
+        // results as the pattern chain below, which remains the fallback
+        // for inputs the lexer doesn't classify.
+        VariantLexer lexer = VariantLexer.scan(inputStr);
+        if (lexer == null)
+            return parseByPatterns(inputStr);
+
+        try {
+            return switch (lexer.classify()) {
+                case DBSNP -> DbsnpParser.parse(inputStr);
+                case CLINVAR -> ClinvarParser.parse(inputStr);
+                case COSMIC -> CosmicParser.parse(inputStr);
+                case HGVS_P -> HGVSpParser.parse(inputStr);
+                case HGVS_C -> HGVScParser.parse(inputStr);
+                case HGVS_G -> HGVSgParser.parse(inputStr);
+                case HGVS_OTHER -> HGVS.invalid(inputStr);
+                case PROTEIN -> ProteinParser.parse(inputStr);
+                case GNOMAD -> GnomadParser.fromFields(inputStr,
+                        lexer.chromosome, lexer.position, lexer.ref, lexer.alt);
+                case VCF -> VCFParser.fromFields(inputStr,
+                        lexer.chromosome, lexer.position, lexer.id, lexer.ref, lexer.alt);
+                case GENOMIC -> GenomicParser.fromFields(inputStr,
+                        lexer.chromosome, lexer.position, lexer.ref, lexer.alt);
+                case UNSUPPORTED -> invalid(inputStr, "Unsupported format");
+            };
+        } catch (Exception e) {
+            return invalid(inputStr, ErrorConstants.INVALID_GENERIC_INPUT); // todo review this error message
+        }
+    }
+
+    /**
+     * Original classification: tries each format's structure pattern in
+     * turn. Used for inputs VariantLexer leaves unclassified (non-ASCII,
+     * embedded line breaks, untrimmed) and as the benchmark baseline.
+     */
+    public static VariantInput parseByPatterns(String inputStr) {
+        if (inputStr == null || inputStr.isBlank())
+            return invalid(inputStr, "Empty input");
+
         /** General Pattern
          * regex:
          *   ^XXX -> starts with XXX
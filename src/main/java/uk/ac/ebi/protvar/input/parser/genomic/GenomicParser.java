@@ -66,42 +66,41 @@ public class GenomicParser extends VariantParser {
     }
 
     public static GenomicInput parse(String inputStr) {
-        try {
-            // Try space-separated format first
-            Matcher spaceMatcher = SPACE_PATTERN.matcher(inputStr);
-            if (spaceMatcher.matches()) {
-                GenomicInput parsedInput = new GenomicInput(inputStr);
-                parsedInput.setChromosome(normalizeChr(spaceMatcher.group(1)));
-                parsedInput.setPosition(Integer.parseInt(spaceMatcher.group(2)));
-                parsedInput.setRefBase(normalizeBase(spaceMatcher.group(3)));
-                String alt = null;
+        // Try space-separated format first
+        Matcher spaceMatcher = SPACE_PATTERN.matcher(inputStr);
+        if (spaceMatcher.matches()) {
+            String alt = spaceMatcher.group(4) != null ? spaceMatcher.group(4)
+                    : spaceMatcher.group(5) != null ? spaceMatcher.group(5)
+                    : spaceMatcher.group(6);
+            return fromFields(inputStr, spaceMatcher.group(1), spaceMatcher.group(2),
+                    spaceMatcher.group(3), alt);
+        }
+
+        // Try colon-separated format
+        Matcher colonMatcher = COLON_PATTERN.matcher(inputStr);
+        if (colonMatcher.matches()) {
+            return fromFields(inputStr, colonMatcher.group(1), colonMatcher.group(2),
+                    colonMatcher.group(3), colonMatcher.group(4));
+        }
 
-                if (spaceMatcher.group(4) != null) {
-                    alt = normalizeBase(spaceMatcher.group(4));
-                } else if (spaceMatcher.group(5) != null) {
-                    alt = normalizeBase(spaceMatcher.group(5));
-                } else if (spaceMatcher.group(6) != null) {
-                    alt = normalizeBase(spaceMatcher.group(6));
-                }
-                parsedInput.setAltBase(alt);
-                return parsedInput;
-            }
+        return GenomicInput.invalid(inputStr); // No match
+    }
 
-            // Try colon-separated format
-            Matcher colonMatcher = COLON_PATTERN.matcher(inputStr);
-            if (colonMatcher.matches()) {
-                GenomicInput parsedInput = new GenomicInput(inputStr);
-                parsedInput.setChromosome(normalizeChr(colonMatcher.group(1)));
-                parsedInput.setPosition(Integer.parseInt(colonMatcher.group(2)));
-                parsedInput.setRefBase(normalizeBase(colonMatcher.group(3)));
-                parsedInput.setAltBase(normalizeBase(colonMatcher.group(4)));
-                return parsedInput;
-            }
+    /**
+     * Builds the input from fields already validated against the patterns
+     * above (by the matcher, or by VariantLexer); ref and alt may be null.
+     */
+    public static GenomicInput fromFields(String inputStr, String chr, String pos, String ref, String alt) {
+        try {
+            GenomicInput parsedInput = new GenomicInput(inputStr);
+            parsedInput.setChromosome(normalizeChr(chr));
+            parsedInput.setPosition(Integer.parseInt(pos));
+            parsedInput.setRefBase(normalizeBase(ref));
+            parsedInput.setAltBase(normalizeBase(alt));
+            return parsedInput;
         } catch (NumberFormatException e) {
             // Position parsing failed, return invalid
             return GenomicInput.invalid(inputStr);
         }
-
-        return GenomicInput.invalid(inputStr); // No match
     }
 }
@@ -45,22 +45,30 @@ public class GnomadParser extends VariantParser {
      * @return GenomicInput object with parsed and normalized data, or invalid if parsing fails
      */
     public static GenomicInput parse(String inputStr) {
+        Matcher matcher = GNOMAD_PATTERN.matcher(inputStr);
+        if (matcher.matches()) {
+            return fromFields(inputStr, matcher.group(1), matcher.group(2), matcher.group(3), matcher.group(4));
+        }
+
+        return GenomicInput.invalid(inputStr); // No match
+    }
+
+    /**
+     * Builds the input from fields already validated against GNOMAD_PATTERN
+     * (by the matcher, or by VariantLexer).
+     */
+    public static GenomicInput fromFields(String inputStr, String chr, String pos, String ref, String alt) {
         try {
-            Matcher matcher = GNOMAD_PATTERN.matcher(inputStr);
-            if (matcher.matches()) {
-                GenomicInput parsedInput = new GenomicInput(inputStr);
-                parsedInput.setFormat(VariantFormat.GNOMAD);
-                parsedInput.setChromosome(normalizeChr(matcher.group(1)));
-                parsedInput.setPosition(Integer.parseInt(matcher.group(2)));
-                parsedInput.setRefBase(normalizeBase(matcher.group(3)));
-                parsedInput.setAltBase(normalizeBase(matcher.group(4)));
-                return parsedInput;
-            }
+            GenomicInput parsedInput = new GenomicInput(inputStr);
+            parsedInput.setFormat(VariantFormat.GNOMAD);
+            parsedInput.setChromosome(normalizeChr(chr));
+            parsedInput.setPosition(Integer.parseInt(pos));
+            parsedInput.setRefBase(normalizeBase(ref));
+            parsedInput.setAltBase(normalizeBase(alt));
+            return parsedInput;
         } catch (NumberFormatException e) {
             // Position parsing failed, return invalid
             return GenomicInput.invalid(inputStr);
         }
-
-        return GenomicInput.invalid(inputStr); // No match
     }
 }
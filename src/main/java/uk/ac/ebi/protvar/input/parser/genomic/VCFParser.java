@@ -73,24 +73,32 @@ public class VCFParser extends VariantParser {
      * @return GenomicInput object with parsed and normalized data, or invalid if parsing fails
      */
     public static GenomicInput parse(String inputStr) {
+        Matcher matcher = VCF_PATTERN.matcher(inputStr);
+        if (matcher.matches()) {
+            return fromFields(inputStr, matcher.group(1), matcher.group(2), matcher.group(3),
+                    matcher.group(4), matcher.group(5));
+        }
+
+        return GenomicInput.invalid(inputStr); // No match
+    }
 
+    /**
+     * Builds the input from fields already validated against VCF_PATTERN
+     * (by the matcher, or by VariantLexer).
+     */
+    public static GenomicInput fromFields(String inputStr, String chr, String pos, String id, String ref, String alt) {
         try {
-            Matcher matcher = VCF_PATTERN.matcher(inputStr);
-            if (matcher.matches()) {
-                GenomicInput parsedInput = new GenomicInput(inputStr);
-                parsedInput.setFormat(VariantFormat.VCF);
-                parsedInput.setChromosome(normalizeChr(matcher.group(1)));
-                parsedInput.setPosition(Integer.parseInt(matcher.group(2)));
-                parsedInput.setId(matcher.group(3));
-                parsedInput.setRefBase(normalizeBase(matcher.group(4)));
-                parsedInput.setAltBase(normalizeBase(matcher.group(5)));
-                return parsedInput;
-            }
-        } catch (NumberFormatException e) { // will not happen if matches
-            // Position parsing failed, return invalid
+            GenomicInput parsedInput = new GenomicInput(inputStr);
+            parsedInput.setFormat(VariantFormat.VCF);
+            parsedInput.setChromosome(normalizeChr(chr));
+            parsedInput.setPosition(Integer.parseInt(pos));
+            parsedInput.setId(id);
+            parsedInput.setRefBase(normalizeBase(ref));
+            parsedInput.setAltBase(normalizeBase(alt));
+            return parsedInput;
+        } catch (NumberFormatException e) {
+            // Position parsing failed (e.g. overflow), return invalid
             return GenomicInput.invalid(inputStr);
         }
-
-        return GenomicInput.invalid(inputStr); // No match
     }
 }
@@ -7,9 +7,7 @@ import uk.ac.ebi.protvar.input.ErrorConstants;
 import uk.ac.ebi.protvar.input.VariantFormat;
 import uk.ac.ebi.protvar.input.VariantType;
 import uk.ac.ebi.protvar.input.VariantInput;
-import uk.ac.ebi.protvar.input.parser.genomic.GenomicParser;
-import uk.ac.ebi.protvar.input.parser.genomic.GnomadParser;
-import uk.ac.ebi.protvar.input.parser.genomic.VCFParser;
+import uk.ac.ebi.protvar.input.parser.VariantParser;
 import uk.ac.ebi.protvar.input.GenomicInput;
 import uk.ac.ebi.protvar.model.data.Crossmap;
 import uk.ac.ebi.protvar.model.response.Message;
@@ -18,14 +16,13 @@ import uk.ac.ebi.protvar.types.Assembly;
 import uk.ac.ebi.protvar.utils.VariantKey;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.stream.Collectors;
 
 @Service
 public class BuildProcessor {
-    public static final int AUTO_DETECT_MIN_SIZE = 10;
     public static final int AUTO_DETECT_SAMPLE_SIZE = 100;
 
     @Autowired
@@ -39,21 +36,20 @@ public class BuildProcessor {
      */
     public List<VariantInput> filterGenomicInputs(List<String> inputs) {
         return inputs.stream()
-                .map(inputStr -> {
-                    if (GnomadParser.matchesPattern(inputStr)) // ^chr-pos-ref-alt$
-                        return GnomadParser.parse(inputStr);
-
-                    if (VCFParser.matchesPattern(inputStr)) // ^chr pos id ref alt...
-                        return VCFParser.parse(inputStr);
-
-                    if (GenomicParser.matchesPattern(inputStr)) // ^chr pos( ref( alt)?)?$
-                        return GenomicParser.parse(inputStr);
-                    return GenomicInput.invalid(inputStr);
-                })
-                .filter(VariantInput::isValid)
+                .map(VariantParser::parse)
+                .filter(BuildProcessor::isBuildSample)
                 .collect(Collectors.toList());
     }
 
+    /** Valid VCF, gnomAD or internal genomic input, i.e. one whose build is not implicit. */
+    public static boolean isBuildSample(VariantInput input) {
+        if (!input.isValid()) return false;
+        return switch (input.getFormat()) {
+            case VCF, GNOMAD, INTERNAL_GENOMIC -> true;
+            default -> false;
+        };
+    }
+
 
     /**
      * TODO review and maybe incorporate following.
@@ -77,13 +73,18 @@ public class BuildProcessor {
      * @return
      */
     public InputBuild detect(List<VariantInput> genomicInputs) {
-        List<VariantInput> sampleGenomicInputs;
-        if (genomicInputs.size() < AUTO_DETECT_MIN_SIZE) {
-            sampleGenomicInputs = genomicInputs;
-        } else {
-            sampleGenomicInputs = randomSublist(genomicInputs, AUTO_DETECT_SAMPLE_SIZE);
-        }
+        GenomicSample sample = new GenomicSample();
+        sample.addAll(genomicInputs);
+        return detect(sample);
+    }
 
+    /**
+     * As {@link #detect(List)}, on a sample built while streaming the input.
+     * Membership is checked against the liftover index (see
+     * CrossmapRepo.getPercentageMatch), so no DB access once it is loaded.
+     */
+    public InputBuild detect(GenomicSample sample) {
+        List<VariantInput> sampleGenomicInputs = sample.items();
         double match38 = buildPercentageMatch(sampleGenomicInputs, "38");
         double match37 = buildPercentageMatch(sampleGenomicInputs, "37");
         String match38Str = String.format("%.2f", match38);
@@ -187,14 +188,37 @@ public class BuildProcessor {
         return crossmapRepo.getPercentageMatch(chrPosRefList, build);
     }
 
-    public <T> List<T> randomSublist(List<T> originalList, int sublistSize) {
-        // Create a copy of the original list
-        List<T> copyList = new ArrayList<>(originalList);
-        // Shuffle the copy list
-        Collections.shuffle(copyList);
-        // Ensure the sublist size is within the bounds of the original list
-        sublistSize = Math.min(sublistSize, copyList.size());
-        // Return the sublist of the specified size
-        return copyList.subList(0, sublistSize);
+    /**
+     * Uniform random sample (reservoir) of the genomic inputs seen, capped
+     * at AUTO_DETECT_SAMPLE_SIZE, so detection needs one pass and O(sample)
+     * memory however large the input. Inputs with up to
+     * AUTO_DETECT_SAMPLE_SIZE genomic lines are kept whole.
+     */
+    public static class GenomicSample {
+        private final List<VariantInput> items = new ArrayList<>();
+        private final Random random = new Random();
+        private long seen;
+
+        public void add(VariantInput input) {
+            seen++;
+            if (items.size() < AUTO_DETECT_SAMPLE_SIZE) {
+                items.add(input);
+            } else {
+                long slot = random.nextLong(seen);
+                if (slot < items.size()) items.set((int) slot, input);
+            }
+        }
+
+        public void addAll(List<VariantInput> genomicInputs) {
+            genomicInputs.forEach(this::add);
+        }
+
+        public List<VariantInput> items() {
+            return items;
+        }
+
+        public boolean isEmpty() {
+            return items.isEmpty();
+        }
     }
 }
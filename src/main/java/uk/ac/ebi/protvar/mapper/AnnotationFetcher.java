@@ -24,7 +24,7 @@ import java.util.stream.Collectors;
 
 /**
  * This is used in two places
- * - AnnotationController for API calls (1 at a time, paged)
+ * - AnnotationController for API calls (1 at a time, paged, or batches via AnnotationService)
  * - DownloadProcessor for download requests with annotations (multiple at a time, can be paged or unpaged i.e. full download)
  *
  * It fetches annotations from various sources and builds the AnnotationData object.
@@ -132,6 +132,17 @@ public class AnnotationFetcher {
 				.build();
 	}
 
+	// Batch API form: all variantAAs' foldx rows are returned, keyed as in the single form
+	public AnnotationData getAPIFunctionalData(String[] accessions, Integer[] positions) {
+		List<Score> scores = scoreRepo.getAnnotationScores(accessions, positions);
+		return AnnotationData.builder()
+				.pocketMap(pocketRepo.getPockets(accessions, positions))
+				.interactMap(interactionRepo.getInteractions(accessions, positions))
+				.foldxMap(foldxRepo.getFoldxs(accessions, positions))
+				.scoreMap(scores.stream().collect(Collectors.groupingBy(Score::getVariantKey)))
+				.build();
+	}
+
 	public AnnotationData getAPIPopulationData(String accession, Integer position,
 											   String chromosome, Integer genomicPosition) {
 		Map<String, List<Variant>> variantMap = variantFetcher.getVariants(accession, position);
@@ -147,4 +158,16 @@ public class AnnotationFetcher {
 				.freqMap(freqMap)
 				.build();
 	}
+
+	// Batch API form: chromosomes/genomicPositions may be empty
+	public AnnotationData getAPIPopulationData(String[] accessions, Integer[] positions,
+											   String[] chromosomes, Integer[] genomicPositions) {
+		Map<String, List<AlleleFreq>> freqMap = alleleFreqRepo.getAlleleFreqs(chromosomes, genomicPositions)
+				.stream().collect(Collectors.groupingBy(AlleleFreq::getVariantKey));
+
+		return AnnotationData.builder()
+				.variantMap(variantFetcher.getVariantMap(accessions, positions))
+				.freqMap(freqMap)
+				.build();
+	}
 }
\ No newline at end of file
@@ -0,0 +1,107 @@
+package uk.ac.ebi.protvar.mapper;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.ac.ebi.protvar.input.VariantInput;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Micro-batches the core mapping load for concurrent single-variant
+ * lookups (/mapping?q=). Each such request would otherwise run its own
+ * loadCoreMappingAndScores round trips (g2p, CADD, scores) for one position.
+ *
+ * The first request to arrive opens a batch and waits up to
+ * {@code mapping.batch.window-ms}; requests arriving meanwhile add their
+ * inputs to it. The first request then runs one combined load and every
+ * waiter gets the same MappingData — it's keyed by chr/pos and
+ * accession/position and only read afterwards, so each request's
+ * processInput picks out its own rows. A batch closes early at
+ * {@code max-size} requests.
+ *
+ * The load runs on the first request's thread, so an idle server adds at
+ * most one window of latency and there is no extra thread pool.
+ */
+@Component
+public class CoreMappingBatcher {
+
+    private static final class Batch {
+        final List<VariantInput> inputs = new ArrayList<>();
+        final CompletableFuture<MappingData> result = new CompletableFuture<>();
+        final CountDownLatch full = new CountDownLatch(1);
+        int requests;
+    }
+
+    private final boolean enabled;
+    private final long windowMicros;
+    private final int maxSize;
+    private final DistributionSummary batchSize;
+
+    private Batch open; // guarded by this
+
+    public CoreMappingBatcher(@Value("${mapping.batch.enabled:true}") boolean enabled,
+                              @Value("${mapping.batch.window-ms:3}") double windowMs,
+                              @Value("${mapping.batch.max-size:64}") int maxSize,
+                              MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.windowMicros = Math.round(windowMs * 1000);
+        this.maxSize = maxSize;
+        this.batchSize = DistributionSummary.builder("protvar.mapping.batch.size")
+                .description("Single-variant requests served per core mapping load")
+                .register(meterRegistry);
+    }
+
+    public MappingData load(List<VariantInput> inputs, Function<List<VariantInput>, MappingData> loader) {
+        if (!enabled || windowMicros <= 0) return loader.apply(inputs);
+
+        Batch batch;
+        boolean first;
+        synchronized (this) {
+            first = open == null;
+            if (first) open = new Batch();
+            batch = open;
+            batch.inputs.addAll(inputs);
+            if (++batch.requests >= maxSize) {
+                open = null;
+                batch.full.countDown();
+            }
+        }
+
+        if (first) {
+            try {
+                batch.full.await(windowMicros, TimeUnit.MICROSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            List<VariantInput> combined;
+            synchronized (this) {
+                if (open == batch) open = null;
+                combined = batch.inputs;
+                batchSize.record(batch.requests);
+            }
+            try {
+                batch.result.complete(loader.apply(combined));
+            } catch (Throwable t) {
+                // Errors too (e.g. OOM on a large batch): waiters would otherwise block in join()
+                batch.result.completeExceptionally(t);
+                throw t;
+            }
+        }
+
+        try {
+            return batch.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw e;
+        }
+    }
+}
@@ -5,6 +5,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import uk.ac.ebi.protvar.cache.InputBuild;
+import uk.ac.ebi.protvar.cache.MappedPositionCache;
+import uk.ac.ebi.protvar.cache.RefseqIndex;
+import uk.ac.ebi.protvar.cache.UniprotRefseqCache;
 import uk.ac.ebi.protvar.converter.GeneConverter;
 import uk.ac.ebi.protvar.input.*;
 import uk.ac.ebi.protvar.input.mapper.Coding2Pro;
@@ -15,12 +18,11 @@ import uk.ac.ebi.protvar.model.data.CaddPrediction;
 import uk.ac.ebi.protvar.model.data.GenomeToProteinMapping;
 import uk.ac.ebi.protvar.model.response.Gene;
 import uk.ac.ebi.protvar.model.response.MappingResponse;
-import uk.ac.ebi.protvar.model.score.Score;
-import uk.ac.ebi.protvar.record.AccessionPosition;
 import uk.ac.ebi.protvar.record.ArrayPair;
-import uk.ac.ebi.protvar.record.ChromosomePosition;
 import uk.ac.ebi.protvar.repo.*;
 import uk.ac.ebi.protvar.utils.Commons;
+import uk.ac.ebi.protvar.utils.GenomicKey;
+import uk.ac.ebi.protvar.utils.LongKeyMap;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -40,12 +42,14 @@ public class InputMapper {
 	private final MappingRepo mappingRepo;
 	private final CaddPredictionRepo caddPredictionRepo;
 	private final ScoreNewRepo scoreRepo;
-	private final UniprotRefseqRepo uniprotRefseqRepo;
+	private final UniprotRefseqCache uniprotRefseqCache;
 	private final BuildProcessor buildProcessor;
 	private final Id2Gen id2Gen;
 	private final Coding2Pro coding2Pro;
 	private final Pro2Gen pro2Gen;
 	private final GeneConverter geneConverter;
+	private final CoreMappingBatcher coreMappingBatcher;
+	private final MappedPositionCache mappedPositionCache;
 
 	public void preprocess(List<VariantInput> inputs, String requestAssembly, InputBuild detectedBuild) {
 		Map<VariantType, List<VariantInput>> groupedInputs = inputs.stream()
@@ -57,36 +61,14 @@ public class InputMapper {
 		// Variant ID mapping
 		id2Gen.map(groupedInputs);
 
-		// RefSeq-UniProt accession mapping
-		Set<String> refseqIds = inputs.stream()
-				.filter(input -> input.getFormat() == VariantFormat.HGVS_PROTEIN ||
-						input.getFormat() == VariantFormat.HGVS_CODING)
-				.map(input -> {
-					String refseqId = null;
-					if (input instanceof ProteinInput) {
-						refseqId = ((ProteinInput) input).getRefseqId();
-					} else if (input instanceof HGVSCodingInput) {
-						refseqId = ((HGVSCodingInput) input).getRefseqId();
-					}
-
-					if (refseqId != null && !refseqId.isEmpty()) {
-						int dotIdx = refseqId.lastIndexOf(".");
-						if (dotIdx != -1)
-							refseqId = refseqId.substring(0, dotIdx);
-						return refseqId;
-					}
-					return null;
-				})
-				.filter(Objects::nonNull)
-				.collect(Collectors.toSet());
-
-		TreeMap<String, List<String>> refseqIdMap = uniprotRefseqRepo.getRefSeqNoVerUniprotMap(refseqIds);
+		// RefSeq-UniProt accession mapping (in-memory, loaded once per release)
+		RefseqIndex refseqIndex = uniprotRefseqCache.get();
 
 		// cDNA to protein inputs conversion
-		coding2Pro.convert(groupedInputs, refseqIdMap);
+		coding2Pro.convert(groupedInputs, refseqIndex);
 
 		// protein to genomic inputs conversion
-		pro2Gen.convert(groupedInputs, refseqIdMap);
+		pro2Gen.convert(groupedInputs, refseqIndex);
 	}
 
 	public MappingResponse getMapping(List<VariantInput> inputs, String requestAssembly,
@@ -99,7 +81,11 @@ public class InputMapper {
 		// Preprocess mixed inputs
 		if (multiFormat) preprocess(inputs, requestAssembly, build);
 
-		MappingData core = loadCoreMappingAndScores(inputs);
+		// Single-variant lookups (/mapping?q=) share one core load with
+		// whatever other single lookups arrive within the batch window
+		MappingData core = inputs.size() == 1
+				? coreMappingBatcher.load(inputs, this::loadCoreMappingAndScores)
+				: loadCoreMappingAndScores(inputs);
 		if (core == null) return response;
 
 		//AnnotationData ann = preloadOptionalAnnotations(params, core);
@@ -117,67 +103,119 @@ public class InputMapper {
 	// each partition's core load uses 1 connection rather than 5–9.
 	@org.springframework.transaction.annotation.Transactional(readOnly = true)
 	public MappingData loadCoreMappingAndScores(List<VariantInput> inputs) {
-		// Collect unique ChromosomePosition objects
-		Set<ChromosomePosition> uniqueChrPos = inputs.stream()
-				.peek(input -> {
-					if (input instanceof GenomicInput genomicInput
-							&& (genomicInput.getDerivedGenomicVariants() == null ||
-							genomicInput.getDerivedGenomicVariants().isEmpty())) {
-						genomicInput.getDerivedGenomicVariants()
-								.add(genomicInput.toGenomicVariant());
-					}
-				})
-				.flatMap(input -> input.getChrPosList().stream())
-				.map(objArray -> new ChromosomePosition((String) objArray[0], (Integer) objArray[1]))
-				.collect(Collectors.toSet());
-
-		// Convert to aligned arrays from Set
-		String[] chromosomes = uniqueChrPos.stream().map(ChromosomePosition::chromosome).toArray(String[]::new);
-		Integer[] gpositions = uniqueChrPos.stream().map(ChromosomePosition::position).toArray(Integer[]::new);
+		// Collect unique chr/pos as packed GenomicKeys (sorted + deduplicated
+		// in place) instead of a Set of boxed ChromosomePosition records
+		long[] chrPosKeys = new long[Math.max(16, inputs.size())];
+		int n = 0;
+		for (VariantInput input : inputs) {
+			if (input instanceof GenomicInput genomicInput
+					&& genomicInput.getDerivedGenomicVariants().isEmpty()) {
+				genomicInput.getDerivedGenomicVariants()
+						.add(genomicInput.toGenomicVariant());
+			}
+			for (GenomicVariant genomicVariant : input.getDerivedGenomicVariants()) {
+				long key = GenomicKey.of(genomicVariant.getChromosome(), genomicVariant.getPosition());
+				if (key == GenomicKey.NONE) continue;
+				if (n == chrPosKeys.length) chrPosKeys = Arrays.copyOf(chrPosKeys, n << 1);
+				chrPosKeys[n++] = key;
+			}
+		}
+		int uniqueCount = distinct(chrPosKeys, n);
+		if (uniqueCount == 0)
+			return null;
+
+		// Convert to aligned arrays for SQL unnest
+		String[] chromosomes = new String[uniqueCount];
+		Integer[] gpositions = new Integer[uniqueCount];
+		for (int i = 0; i < uniqueCount; i++) {
+			chromosomes[i] = GenomicKey.chromosome(chrPosKeys[i]);
+			gpositions[i] = GenomicKey.position(chrPosKeys[i]);
+		}
 
 		// Create the tuple
 		ArrayPair<String, Integer> chrPosArrays = new ArrayPair<>(chromosomes, gpositions);
 
-		if (chromosomes == null || chromosomes.length == 0)
-			return null;
+		// Only positions in the mapping table can produce a mapping (or a
+		// CADD score we'd show); the rest skip the unnest joins below.
+		// chrPosArrays keeps every position for the annotation fetchers.
+		String[] queryChromosomes = chromosomes;
+		Integer[] queryPositions = gpositions;
+		int queryCount = mappedPositionCache.retainMapped(chrPosKeys, uniqueCount);
+		if (queryCount < uniqueCount) {
+			queryChromosomes = new String[queryCount];
+			queryPositions = new Integer[queryCount];
+			for (int i = 0; i < queryCount; i++) {
+				queryChromosomes[i] = GenomicKey.chromosome(chrPosKeys[i]);
+				queryPositions[i] = GenomicKey.position(chrPosKeys[i]);
+			}
+		}
 
 		// Core prediction and mapping
-		var caddPredictionMap = caddPredictionRepo.getCADDByChrPos(chromosomes, gpositions)
-				.stream().collect(Collectors.groupingBy(CaddPrediction::getVariantKey));
+		LongKeyMap<List<CaddPrediction>> caddPredictionMap = new LongKeyMap<>(uniqueCount);
+		caddPredictionRepo.getCADDByChrPos(queryChromosomes, queryPositions).forEach(c -> {
+			long key = GenomicKey.of(c.getChromosome(), c.getPosition());
+			if (key != GenomicKey.NONE)
+				caddPredictionMap.computeIfAbsent(key, k -> new ArrayList<>()).add(c);
+		});
 
-		var g2pMappings = mappingRepo.getMappingsByChrPos(chromosomes, gpositions);
-		Map<String, List<GenomeToProteinMapping>> g2pMap = new HashMap<>();
-		Set<String> canonicalAccessions = new HashSet<>();
-		Set<AccessionPosition> uniqueProtCoords = new HashSet<>();
+		var g2pMappings = mappingRepo.getMappingsByChrPos(queryChromosomes, queryPositions);
+		LongKeyMap<List<GenomeToProteinMapping>> g2pMap = new LongKeyMap<>(uniqueCount);
+		// canonical accession -> protein positions; a BitSet per accession
+		// dedups positions without boxing an AccessionPosition per row
+		Map<String, BitSet> canonicalPositions = new HashMap<>();
 
 		g2pMappings.forEach(m -> {
-			g2pMap.computeIfAbsent(m.getVariantKeyGenomic(), k -> new ArrayList<>()).add(m);
+			long key = GenomicKey.of(m.getChromosome(), m.getGenomeLocation());
+			if (key != GenomicKey.NONE)
+				g2pMap.computeIfAbsent(key, k -> new ArrayList<>()).add(m);
 
 			if (m.isCanonical() && !Commons.nullOrEmpty(m.getAccession())) {
-				canonicalAccessions.add(m.getAccession());
-				if (Commons.notNull(m.getIsoformPosition())) {
-					uniqueProtCoords.add(new AccessionPosition(m.getAccession(), m.getIsoformPosition()));
+				BitSet positions = canonicalPositions.computeIfAbsent(m.getAccession(), acc -> new BitSet());
+				if (m.getIsoformPosition() >= 0) {
+					positions.set(m.getIsoformPosition());
 				}
 			}
 		});
+		Set<String> canonicalAccessions = new HashSet<>(canonicalPositions.keySet());
 
 		// Convert to aligned arrays for SQL unnest
-		List<AccessionPosition> accPosList = new ArrayList<>(uniqueProtCoords);
-		String[] accessions = accPosList.stream().map(AccessionPosition::accession).toArray(String[]::new);
-		Integer[] ppositions = accPosList.stream().map(AccessionPosition::position).toArray(Integer[]::new);
+		int protCount = canonicalPositions.values().stream().mapToInt(BitSet::cardinality).sum();
+		String[] accessions = new String[protCount];
+		Integer[] ppositions = new Integer[protCount];
+		int i = 0;
+		for (Map.Entry<String, BitSet> entry : canonicalPositions.entrySet()) {
+			BitSet positions = entry.getValue();
+			for (int pos = positions.nextSetBit(0); pos >= 0; pos = positions.nextSetBit(pos + 1)) {
+				accessions[i] = entry.getKey();
+				ppositions[i++] = pos;
+			}
+		}
 
 		var accPosArrays = new ArrayPair<>(accessions, ppositions);
 
-		var scoreMap = scoreRepo.getMappingScores(accessions, ppositions)
-				.stream().collect(Collectors.groupingBy(Score::getVariantKey));
+		ScoreIndex scoreIndex = ScoreIndex.of(scoreRepo.getMappingScores(accessions, ppositions));
+
+		return new MappingData(chrPosArrays, g2pMap, caddPredictionMap, accPosArrays, canonicalAccessions, scoreIndex);
+	}
 
-		return new MappingData(chrPosArrays, g2pMap, caddPredictionMap, accPosArrays, canonicalAccessions, scoreMap);
+	/**
+	 * Sorts the first {@code n} keys and moves the distinct ones to the front.
+	 * @return number of distinct keys
+	 */
+	private static int distinct(long[] keys, int n) {
+		if (n == 0) return 0;
+		Arrays.sort(keys, 0, n);
+		int unique = 1;
+		for (int i = 1; i < n; i++) {
+			if (keys[i] != keys[unique - 1]) keys[unique++] = keys[i];
+		}
+		return unique;
 	}
 
 	public void processInput(VariantInput input, MappingData core) {
 		input.getDerivedGenomicVariants().forEach(genomicVariant -> {
 			try {
-				var chrPos = genomicVariant.getVariantKey();
+				long chrPos = GenomicKey.of(genomicVariant.getChromosome(), genomicVariant.getPosition());
 				var mappingList = core.getG2pMap().get(chrPos);
 				var caddScores = core.getCaddMap().get(chrPos);
 
@@ -192,7 +230,7 @@ public class InputMapper {
 							.map(mappingList.get(0)::getAltCodon)
 							.collect(Collectors.toSet());*/
 
-					ensgMappingList = geneConverter.createGenes(altBases, mappingList, caddScores, core.getScoreMap());
+					ensgMappingList = geneConverter.createGenes(altBases, mappingList, caddScores, core.getScoreIndex());
 				}
 
 				genomicVariant.getGenes().addAll(ensgMappingList);
@@ -4,20 +4,24 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import uk.ac.ebi.protvar.model.data.CaddPrediction;
 import uk.ac.ebi.protvar.model.data.GenomeToProteinMapping;
-import uk.ac.ebi.protvar.model.score.Score;
 import uk.ac.ebi.protvar.record.ArrayPair;
+import uk.ac.ebi.protvar.utils.LongKeyMap;
 
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
+/**
+ * Core mapping data for one batch of inputs. g2p and CADD rows are keyed by
+ * {@link uk.ac.ebi.protvar.utils.GenomicKey} (packed chr/pos), scores by
+ * {@link ScoreIndex}.
+ */
 @Data
 @AllArgsConstructor
 public class MappingData {
     private final ArrayPair<String, Integer> chrPosArrays;
-    private final Map<String, List<GenomeToProteinMapping>> g2pMap;
-    private final Map<String, List<CaddPrediction>> caddMap;
+    private final LongKeyMap<List<GenomeToProteinMapping>> g2pMap;
+    private final LongKeyMap<List<CaddPrediction>> caddMap;
     private final ArrayPair<String, Integer> accPosArrays;
     private final Set<String> canonicalAccessions;
-    private final Map<String, List<Score>> scoreMap;
+    private final ScoreIndex scoreIndex;
 }
@@ -0,0 +1,55 @@
+package uk.ac.ebi.protvar.mapper;
+
+import uk.ac.ebi.protvar.model.score.Score;
+import uk.ac.ebi.protvar.model.score.ScoreType;
+import uk.ac.ebi.protvar.utils.LongKeyMap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mapping scores grouped by accession, then by a packed
+ * (position, score type, mutated AA) key. Replaces the
+ * {@code Map<String, List<Score>>} keyed by
+ * {@link uk.ac.ebi.protvar.utils.VariantKey#protein(ScoreType, String, Integer, String)},
+ * which joined a four-part string for every score row and every isoform lookup.
+ *
+ *   bits 47..16   position
+ *   bits 15..8    score type ordinal
+ *   bits 7..0     mutated AA (one-letter code, 0 when not set e.g. conservation)
+ */
+public class ScoreIndex {
+    private final Map<String, LongKeyMap<List<Score>>> byAccession = new HashMap<>();
+
+    public static ScoreIndex of(List<Score> scores) {
+        ScoreIndex index = new ScoreIndex();
+        scores.forEach(index::add);
+        return index;
+    }
+
+    public void add(Score score) {
+        if (score.getAcc() == null || score.getPos() == null) return;
+        byAccession.computeIfAbsent(score.getAcc(), acc -> new LongKeyMap<>())
+                .computeIfAbsent(key(score.getType(), score.getPos(), score.getMt()), k -> new ArrayList<>())
+                .add(score);
+    }
+
+    public List<Score> get(ScoreType type, String accession, Integer position, String mt) {
+        if (accession == null || position == null) return Collections.emptyList();
+        LongKeyMap<List<Score>> scores = byAccession.get(accession);
+        if (scores == null) return Collections.emptyList();
+        return scores.getOrDefault(key(type, position, mt), Collections.emptyList());
+    }
+
+    public boolean isEmpty() {
+        return byAccession.isEmpty();
+    }
+
+    static long key(ScoreType type, int position, String mt) {
+        int aa = (mt == null || mt.isEmpty()) ? 0 : (mt.charAt(0) & 0xFF);
+        return ((long) position << 16) | ((long) type.ordinal() << 8) | aa;
+    }
+}
@@ -0,0 +1,23 @@
+package uk.ac.ebi.protvar.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * One amino acid position in a batch annotation request (POST /function,
+ * /population, /structure). Each endpoint reads the optional fields it
+ * needs and ignores the rest.
+ */
+@Schema(description = "An amino acid position to annotate. Optional fields apply to some endpoints only.")
+public record AnnotationQuery(
+    @Schema(description = "UniProt accession", example = "Q9NUW8")
+    String accession,
+
+    @Schema(description = "Amino acid position", example = "493")
+    Integer position,
+
+    @Schema(description = "Function only: 1- or 3-letter symbol for variant amino acid", example = "R", nullable = true)
+    String variantAA,
+
+    @Schema(description = "Population only: genomic variant used for allele frequencies", example = "14-89993420-A-C", nullable = true)
+    String genomicVariant
+) {}
@@ -0,0 +1,22 @@
+package uk.ac.ebi.protvar.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Structure residues of one (accession, position) in a batch structure
+ * response; the single-position endpoint returns the residue list alone.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class PositionStructure {
+    private String accession;
+    private Integer position;
+    private List<StructureResidue> structures;
+}
@@ -0,0 +1,49 @@
+package uk.ac.ebi.protvar.model.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonValue;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Progress of the background mapping of an uploaded input, for one
+ * assembly. Persisted in Redis next to the precomputed mappings (see
+ * MappingPrecomputeService) with the submissions TTL.
+ *
+ * <p>{@code mappedLines} grows by one partition at a time up to
+ * {@code totalLines}; pages are served from the precomputed mappings only
+ * once state=READY. {@code updatedAt} is the last write, renewed per
+ * partition while RUNNING.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PrecomputeStatus {
+    private State state;
+    private String assembly;
+    private Long totalLines;
+    private Long mappedLines;
+    private String message;
+    private Instant queuedAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private Instant updatedAt;
+
+    public enum State {
+        QUEUED,   // waiting for the precompute worker
+        RUNNING,  // partitions being mapped (see mappedLines)
+        READY,    // all lines mapped, pages are cache reads
+        FAILED;   // aborted; pages keep using the live mapping
+
+        @JsonValue
+        public String value() {
+            return this.name().toLowerCase();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package uk.ac.ebi.protvar.model.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+@Schema(description = "State of a chunked upload session.")
+public class UploadSessionResponse {
+
+    @Schema(description = "The upload session ID, used to append chunks and finalise.")
+    private String sessionId;
+
+    @Schema(description = "Index of the next chunk expected (chunks are numbered from 0).", example = "0")
+    private int nextChunk;
+
+    @Schema(description = "Number of normalised input lines received so far.", example = "0")
+    private long lineCount;
+
+}
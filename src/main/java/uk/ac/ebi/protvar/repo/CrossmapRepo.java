@@ -7,32 +7,67 @@ import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import uk.ac.ebi.protvar.cache.LiftoverIndex;
 import uk.ac.ebi.protvar.model.data.Crossmap;
+import uk.ac.ebi.protvar.types.Assembly;
+import uk.ac.ebi.protvar.utils.VariantKey;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Repository
 @RequiredArgsConstructor
 public class CrossmapRepo {
-    private static final String CROSSMAPS_IN_GRCHX_POS = """
-			SELECT * FROM %s AS cm 
-			INNER JOIN (VALUES :positions) AS t(pos)
-			ON t.pos=cm.grch%s_pos
-			""";
-
-    private static final String CROSSMAPS_IN_CHR_GRCH37_POS = """
-   			SELECT * FROM %s AS cm 
-   			INNER JOIN (VALUES :chrPos37) AS t(chr,pos)
-   			ON t.chr=cm.chr AND t.pos=cm.grch37_pos
+    private static final String CROSSMAPS_IN_CHR_GRCHX_POS = """
+   			SELECT cm.* FROM %s AS cm 
+   			INNER JOIN (VALUES :chrPos) AS t(chr,pos)
+   			ON t.chr=cm.chr AND t.pos=cm.grch%s_pos
    			""";
+    // Rows per round trip when streaming the whole table
+    static final int SCAN_FETCH_SIZE = 10_000;
 
     private final NamedParameterJdbcTemplate jdbcTemplate;
 
     @Value("${tbl.crossmap}")
     private String crossmapTable;
 
+    // Set by LiftoverCache once loaded; lookups go to the DB until then
+    private volatile LiftoverIndex liftoverIndex;
+
+    public void useLiftoverIndex(LiftoverIndex index) {
+        this.liftoverIndex = index;
+    }
+
+    /**
+     * Percentage (rounded down) of the distinct (chr, pos, base) tuples in
+     * {@code chrPosRefList} found in GRCh{@code ver} of the crossmap table,
+     * over the list size. From the liftover index if loaded, else the DB.
+     */
     public double getPercentageMatch(List<Object[]> chrPosRefList, String ver) {
+        LiftoverIndex index = liftoverIndex;
+        if (index != null) {
+            if (chrPosRefList.isEmpty())
+                return 0;
+            boolean in37 = Assembly.GRCH37.version.equals(ver);
+            Set<String> matched = new HashSet<>();
+            for (Object[] cpr : chrPosRefList) {
+                String chr = (String) cpr[0];
+                Integer pos = (Integer) cpr[1];
+                String base = (String) cpr[2];
+                if (pos != null && index.contains(chr, pos, base, in37))
+                    matched.add(VariantKey.genomic(chr, pos, base));
+            }
+            // integer division, as in the query below
+            return 100 * matched.size() / chrPosRefList.size();
+        }
+
         String sql = String.format("""
     		SELECT 100 * COUNT (DISTINCT (chr, grchVER_pos, grchVER_base)) / :num 
     		FROM %s
@@ -48,22 +83,60 @@ public class CrossmapRepo {
         return jdbcTemplate.queryForObject(sql, parameters, Integer.class);
     }
 
-    public List<Crossmap> getCrossmaps(List<Object[]> positions, String grch) {
-        if (positions.isEmpty())
+    /**
+     * Crossmap rows at the given (chr, pos) pairs of GRCh{@code grch} (37 or
+     * 38), from the liftover index if loaded, else from the DB.
+     */
+    public List<Crossmap> getCrossmapsByChrPos(List<Object[]> chrPos, String grch) {
+        if (chrPos.isEmpty())
             return new ArrayList<>();
-        String sql = String.format(CROSSMAPS_IN_GRCHX_POS, crossmapTable, grch);
-        SqlParameterSource parameters = new MapSqlParameterSource("positions", positions);
-        return jdbcTemplate.query(sql, parameters, new BeanPropertyRowMapper<>(Crossmap.class));
-    }
+        Map<String, Object[]> distinct = new LinkedHashMap<>();
+        for (Object[] cp : chrPos)
+            distinct.putIfAbsent(VariantKey.genomic((String) cp[0], (Integer) cp[1]), cp);
 
-    public List<Crossmap> getCrossmapsByChrPos37(List<Object[]> chrPos37) {
-        if (chrPos37.isEmpty())
-            return new ArrayList<>();
-        SqlParameterSource parameters = new MapSqlParameterSource("chrPos37", chrPos37);
+        LiftoverIndex index = liftoverIndex;
+        if (index != null) {
+            boolean from37 = Assembly.GRCH37.version.equals(grch);
+            List<Crossmap> crossmaps = new ArrayList<>();
+            for (Object[] cp : distinct.values()) {
+                if (cp[1] != null) index.lookup((String) cp[0], (Integer) cp[1], from37, crossmaps::add);
+            }
+            return crossmaps;
+        }
+        SqlParameterSource parameters = new MapSqlParameterSource("chrPos", new ArrayList<>(distinct.values()));
         return jdbcTemplate.query(
-                String.format(CROSSMAPS_IN_CHR_GRCH37_POS, crossmapTable),
+                String.format(CROSSMAPS_IN_CHR_GRCHX_POS, crossmapTable, grch),
                 parameters,
                 new BeanPropertyRowMapper<>(Crossmap.class));
     }
 
+    public List<Crossmap> getCrossmapsByChrPos37(List<Object[]> chrPos37) {
+        return getCrossmapsByChrPos(chrPos37, Assembly.GRCH37.version);
+    }
+
+    /**
+     * Streams the whole crossmap table to {@code consumer}, ordered by
+     * chromosome then GRCh37 and GRCh38 position (see LiftoverIndex.Builder).
+     * The PostgreSQL driver only fetches through a cursor inside a
+     * transaction with a fetch size set; otherwise it reads the whole
+     * result into memory before the first row is handed over.
+     */
+    @Transactional(readOnly = true)
+    public void forEachCrossmap(LiftoverIndex.RowConsumer consumer) {
+        String sql = String.format("""
+                SELECT chr, grch37_pos, grch37_base, grch38_pos, grch38_base
+                FROM %s
+                WHERE grch37_pos IS NOT NULL AND grch38_pos IS NOT NULL
+                ORDER BY chr, grch37_pos, grch38_pos
+                """, crossmapTable);
+        jdbcTemplate.getJdbcTemplate().query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(SCAN_FETCH_SIZE);
+            return ps;
+        }, rs -> {
+            consumer.accept(rs.getString("chr"), rs.getInt("grch37_pos"), rs.getString("grch37_base"),
+                    rs.getInt("grch38_pos"), rs.getString("grch38_base"));
+        });
+    }
+
 }
@@ -10,6 +10,7 @@ import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
+import uk.ac.ebi.protvar.utils.VariantKey;
 import uk.ac.ebi.uniprot.domain.entry.UPEntry;
 import uk.ac.ebi.uniprot.domain.features.Evidence;
 import uk.ac.ebi.uniprot.domain.features.Feature;
@@ -17,8 +18,11 @@ import uk.ac.ebi.uniprot.domain.features.FeatureCategory;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -51,7 +55,7 @@ public class FunctionRepo {
      * Per-protein header (everything except features[]). Result is cached;
      * `null` results are cached too so a missing accession isn't re-queried.
      */
-    @Cacheable(value = "FUN_HEADER", key = "#accession")
+    @Cacheable(value = "FUN_HEADER", key = "#accession", sync = true)
     public UPEntry getHeader(String accession) {
         if (accession == null) return null;
 
@@ -111,6 +115,38 @@ public class FunctionRepo {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Features at many (accession, position) pairs in one query, keyed by
+     * VariantKey.protein(accession, position); same range match and
+     * DISULFID filter as {@link #getFeatures(String, int)}. Pairs without
+     * features are left out.
+     */
+    public Map<String, List<Feature>> getFeatures(String[] accessions, Integer[] positions) {
+        if (accessions == null || accessions.length == 0) return Collections.emptyMap();
+
+        String sql = String.format("""
+            SELECT t.acc, t.pos, %s FROM %s f
+            JOIN (
+                SELECT unnest(:accessions) AS acc, unnest(:positions) AS pos
+            ) AS t ON f.accession = t.acc AND t.pos BETWEEN f.begin_pos AND f.end_pos
+            ORDER BY t.acc, t.pos, f.feature_index
+            """, FEATURE_COLS, functionFeatureTable);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("accessions", accessions)
+                .addValue("positions", positions);
+
+        Map<String, List<Feature>> featureMap = new HashMap<>();
+        jdbcTemplate.query(sql, params, rs -> {
+            Feature f = mapFeature(rs, 0);
+            String posStr = rs.getString("pos");
+            if (!"DISULFID".equals(f.getType()) || posStr.equals(f.getBegin()) || posStr.equals(f.getEnd())) {
+                featureMap.computeIfAbsent(VariantKey.protein(rs.getString("acc"), posStr), k -> new ArrayList<>())
+                        .add(f);
+            }
+        });
+        return featureMap;
+    }
+
     /**
      * Build a Feature from the structured columns merged with the raw_json
      * remnant. Columns are authoritative — we overwrite from cols regardless
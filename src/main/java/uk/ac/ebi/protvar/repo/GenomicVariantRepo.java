@@ -760,7 +760,7 @@ public class GenomicVariantRepo {
             parameters.addValue("pdbIds", pdbIds.toArray(new String[0]));
             // Match the position against observed_regions (residues actually resolved),
             // not the full unp_start..unp_end span — consistent with the 3D structure tab
-            // (StructureService.filterByPosition) and the identifier path in MappingRepo.
+            // (StructureService.getStr) and the identifier path in MappingRepo.
             unionBranches.add("""
                 SELECT m.*
                 FROM %s m
@@ -98,7 +98,7 @@ public class InteractionRepo {
      * @param accession
      * @return accession-residue mapping
      */
-    @Cacheable(value = "interactionsByAccession", key = "#accession")
+    @Cacheable(value = "interactionsByAccession", key = "#accession", sync = true)
     public Map<String, List<Interaction>> getInteractions(String accession) {
         String sql = """
             SELECT a, a_residues, b, b_residues, pdockq
@@ -13,6 +13,7 @@ import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.stereotype.Repository;
+import uk.ac.ebi.protvar.cache.MappedPositionIndex;
 import uk.ac.ebi.protvar.constants.PageUtils;
 import uk.ac.ebi.protvar.input.VariantInput;
 import uk.ac.ebi.protvar.input.GenomicInput;
@@ -266,7 +267,7 @@ public class MappingRepo {
 	 * with no TTL and invalidated by the cache.version bump that accompanies
 	 * each release deploy.
 	 */
-	@Cacheable(value = "mappedAccessions", key = "'all'")
+	@Cacheable(value = "mappedAccessions", key = "'all'", sync = true)
 	public List<String> getMappedAccessions() {
 		String sql = String.format(
 				"SELECT DISTINCT accession FROM %s WHERE is_canonical = true ORDER BY accession",
@@ -274,6 +275,28 @@ public class MappingRepo {
 		return jdbcTemplate.queryForList(sql, new MapSqlParameterSource(), String.class);
 	}
 
+	/**
+	 * Streams the mapped genomic positions as runs of consecutive positions
+	 * per chromosome (gaps-and-islands over the distinct positions), in
+	 * ascending start order within each chromosome. One full scan of the
+	 * mapping table — only used to build the per-release MappedPositionIndex.
+	 */
+	public void forEachMappedRun(MappedPositionIndex.RunConsumer consumer) {
+		String sql = String.format("""
+				SELECT chromosome, MIN(genomic_position) AS start_pos, MAX(genomic_position) AS end_pos
+				FROM (
+				  SELECT chromosome, genomic_position,
+				    genomic_position - ROW_NUMBER() OVER (PARTITION BY chromosome ORDER BY genomic_position) AS grp
+				  FROM (SELECT DISTINCT chromosome, genomic_position FROM %s) p
+				) runs
+				GROUP BY chromosome, grp
+				ORDER BY chromosome, start_pos
+				""", mappingTable);
+		jdbcTemplate.query(sql, new MapSqlParameterSource(), rs -> {
+			consumer.accept(rs.getString("chromosome"), rs.getInt("start_pos"), rs.getInt("end_pos"));
+		});
+	}
+
 	public List<GenomeToProteinMapping> getMappingsByChrPos(List<Object[]> chrPosList) {
 		if (chrPosList == null || chrPosList.isEmpty())
 			return List.of();
@@ -986,7 +1009,7 @@ public class MappingRepo {
 				// PDB is stored in lowercase in the db table.
 				// Match the position against the structure's observed_regions (the residues
 				// actually resolved), not the full unp_start..unp_end span. This mirrors
-				// StructureService.filterByPosition so a PDB search only returns rows where
+				// StructureService.getStr so a PDB search only returns rows where
 				// that structure is actually viewable in the 3D structure tab.
 				// The INNER JOIN shape (materialise the tiny per-pdb structure set, then
 				// nested-loop into mapping by accession) is ~300x faster than an
@@ -126,7 +126,7 @@ public class PocketRepo {
      * @param accession
      * @return accession-residue mapping
      */
-    @Cacheable(value = "pocketsByAccession", key = "#accession")
+    @Cacheable(value = "pocketsByAccession", key = "#accession", sync = true)
     public Map<String, List<Pocket>> getPockets(String accession) {
         String sql = String.format("SELECT " + POCKET_FIELDS + """
         FROM %s p
@@ -3,16 +3,23 @@ package uk.ac.ebi.protvar.repo;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.NoOpCache;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.stereotype.Repository;
+import uk.ac.ebi.protvar.cache.TieredCache;
+import uk.ac.ebi.protvar.config.L1CacheProperties;
 import uk.ac.ebi.protvar.types.AminoAcid;
 import uk.ac.ebi.protvar.utils.VariantKey;
 import uk.ac.ebi.uniprot.domain.features.Feature;
@@ -22,8 +29,12 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Reads variants from rel_{R}_population. raw_json holds the UniProt
@@ -36,25 +47,68 @@ import java.util.Map;
  * support SQL-side filtering by advanced search. Indexes: (accession,
  * position) for the lookups here, plus source_type, consequence and GIN
  * clin_sig for advanced search.
+ *
+ * Parsing raw_json dominates these lookups, so parsed variants are kept
+ * in-process per (accession, position), positions without variants
+ * included, and only uncached positions go to the DB. The cache is an L1
+ * TieredCache configured by cache.l1.caches[populationVariants] and off
+ * with cache.l1.enabled=false. It has no Redis tier (a NoOpCache stands
+ * in, so every L1 miss also counts as an l2 miss).
+ *
+ * Cached lists are unmodifiable, and the Variants in them are shared by
+ * every request on the node, so they are read-only: mapVariant is the only
+ * place they are set, before caching, and callers copy one before changing it.
  */
 @Repository
-@RequiredArgsConstructor
 public class PopulationRepo {
     private static final Logger LOGGER = LoggerFactory.getLogger(PopulationRepo.class);
-    private static final ObjectMapper objectMapper = new ObjectMapper()
-            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private static final String CACHE_NAME = "populationVariants";
+    private static final ObjectReader variantReader = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .readerFor(Variant.class);
 
     private static final String VARIANT_COLS = "accession, position, wild_type, alt, raw_json";
 
     private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final Cache variantCache; // null without an L1
+    private final Counter parsedRows;
+    private final Timer parseTimer;
 
     @Value("${tbl.ann.pop}")
     private String populationTable;
 
+    public PopulationRepo(NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                          L1CacheProperties l1CacheProperties, MeterRegistry meterRegistry) {
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        L1CacheProperties.Spec spec = l1CacheProperties.isEnabled() ? l1CacheProperties.getCaches().get(CACHE_NAME) : null;
+        this.variantCache = spec == null ? null
+                : new TieredCache(new NoOpCache(CACHE_NAME), spec, meterRegistry, key -> {});
+        this.parsedRows = Counter.builder("protvar.population.parsed")
+                .description("Population raw_json rows parsed into variants")
+                .register(meterRegistry);
+        this.parseTimer = Timer.builder("protvar.population.parse")
+                .description("Time spent parsing raw_json per population lookup that reached the DB")
+                .register(meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Feature> getCached(String key) {
+        Cache.ValueWrapper cached = variantCache == null ? null : variantCache.get(key);
+        return cached == null ? null : (List<Feature>) cached.get();
+    }
+
+    private void putCached(String key, List<Feature> variants) {
+        if (variantCache != null) variantCache.put(key, variants);
+    }
+
     /** Variants at a single (accession, position). */
     public List<Feature> getFeatures(String accession, int position) {
         if (accession == null) return List.of();
 
+        String key = VariantKey.protein(accession, position);
+        List<Feature> cached = getCached(key);
+        if (cached != null) return cached;
+
         String sql = String.format("""
             SELECT %s FROM %s
             WHERE accession = :accession AND position = :position
@@ -62,13 +116,36 @@ public class PopulationRepo {
         MapSqlParameterSource params = new MapSqlParameterSource()
                 .addValue("accession", accession)
                 .addValue("position", position);
-        return namedParameterJdbcTemplate.query(sql, params, (rs, rowNum) -> mapVariant(rs));
+        RowParser parser = new RowParser();
+        List<Feature> variants = namedParameterJdbcTemplate.query(sql, params, (rs, rowNum) -> parser.mapVariant(rs));
+        parser.record();
+        variants.removeIf(Objects::isNull);
+        List<Feature> loaded = List.copyOf(variants);
+        putCached(key, loaded);
+        return loaded;
     }
 
     /** Variants for many (accession, position) pairs, grouped by VariantKey. */
     public Map<String, List<Feature>> getFeatureMap(String[] accessions, Integer[] positions) {
         if (accessions == null || accessions.length == 0) return Map.of();
 
+        Map<String, List<Feature>> featureMap = new HashMap<>();
+        Set<String> toLoad = new HashSet<>();
+        List<String> loadAccessions = new ArrayList<>();
+        List<Integer> loadPositions = new ArrayList<>();
+        for (int i = 0; i < accessions.length; i++) {
+            if (accessions[i] == null || positions[i] == null) continue; // never matched by the join
+            String key = VariantKey.protein(accessions[i], positions[i]);
+            List<Feature> cached = toLoad.contains(key) ? null : getCached(key);
+            if (cached != null) {
+                if (!cached.isEmpty()) featureMap.put(key, cached);
+            } else if (toLoad.add(key)) {
+                loadAccessions.add(accessions[i]);
+                loadPositions.add(positions[i]);
+            }
+        }
+        if (toLoad.isEmpty()) return featureMap;
+
         String sql = String.format("""
             WITH coord_list (acc, pos) AS (
               SELECT * FROM unnest(:accessions::VARCHAR[], :positions::INT[])
@@ -78,9 +155,20 @@ public class PopulationRepo {
               AND position = coord_list.pos
             """, VARIANT_COLS, populationTable);
         MapSqlParameterSource params = new MapSqlParameterSource()
-                .addValue("accessions", accessions)
-                .addValue("positions", positions);
-        return queryFeatureMap(sql, params);
+                .addValue("accessions", loadAccessions.toArray(new String[0]))
+                .addValue("positions", loadPositions.toArray(new Integer[0]));
+        Map<String, List<Feature>> loaded = queryFeatureMap(sql, params);
+        for (String key : toLoad) {
+            List<Feature> variants = loaded.get(key);
+            if (variants == null) {
+                putCached(key, List.of());
+            } else {
+                variants = List.copyOf(variants);
+                putCached(key, variants);
+                featureMap.put(key, variants);
+            }
+        }
+        return featureMap;
     }
 
     /** All variants for an accession, grouped by VariantKey. */
@@ -90,18 +178,22 @@ public class PopulationRepo {
         String sql = String.format("SELECT %s FROM %s WHERE accession = :accession",
                 VARIANT_COLS, populationTable);
         MapSqlParameterSource params = new MapSqlParameterSource("accession", accession);
-        return queryFeatureMap(sql, params);
+        Map<String, List<Feature>> featureMap = queryFeatureMap(sql, params);
+        featureMap.replaceAll((key, variants) -> List.copyOf(variants));
+        featureMap.forEach(this::putCached);
+        return featureMap;
     }
 
     private Map<String, List<Feature>> queryFeatureMap(String sql, SqlParameterSource params) {
-        return namedParameterJdbcTemplate.query(sql, params, new ResultSetExtractor<Map<String, List<Feature>>>() {
+        RowParser parser = new RowParser();
+        Map<String, List<Feature>> result = namedParameterJdbcTemplate.query(sql, params, new ResultSetExtractor<>() {
             @Override
             public Map<String, List<Feature>> extractData(ResultSet rs) throws SQLException, DataAccessException {
                 Map<String, List<Feature>> featureMap = new HashMap<>();
                 while (rs.next()) {
                     String acc = rs.getString("accession");
                     int pos = rs.getInt("position");
-                    Feature v = mapVariant(rs);
+                    Feature v = parser.mapVariant(rs);
                     if (v != null) {
                         String key = VariantKey.protein(acc, pos);
                         featureMap.computeIfAbsent(key, k -> new ArrayList<>()).add(v);
@@ -110,29 +202,49 @@ public class PopulationRepo {
                 return featureMap;
             }
         });
+        parser.record();
+        return result;
     }
 
-    private Feature mapVariant(ResultSet rs) throws SQLException {
-        String rawJson = rs.getString("raw_json");
-        if (rawJson == null) return null;
-        try {
-            Variant v = objectMapper.readValue(rawJson, Variant.class);
-            // Residue identity and position come from the structured columns —
-            // raw_json carries mutatedType/locations but not wildType/
-            // alternativeSequence/begin/end. Columns are 1-letter; the FE
-            // expects the 3-letter convention.
-            String position = String.valueOf(rs.getInt("position"));
-            v.setWildType(toThreeLetterAminoAcid(rs.getString("wild_type")));
-            v.setAlternativeSequence(toThreeLetterAminoAcid(rs.getString("alt")));
-            v.setBegin(position);
-            v.setEnd(position);
-            return v;
-        } catch (JsonProcessingException e) {
-            LOGGER.error("Error mapping variant raw_json: {}", e.getMessage());
-            return null;
+    // Maps rows of one lookup, totting up the raw_json parse time for the parse timer
+    private class RowParser {
+        private long parseNanos;
+        private int rows;
+
+        Feature mapVariant(ResultSet rs) throws SQLException {
+            String rawJson = rs.getString("raw_json");
+            if (rawJson == null) return null;
+            long start = System.nanoTime();
+            try {
+                return PopulationRepo.this.mapVariant(rs, variantReader.readValue(rawJson));
+            } catch (JsonProcessingException e) {
+                LOGGER.error("Error mapping variant raw_json: {}", e.getMessage());
+                return null;
+            } finally {
+                parseNanos += System.nanoTime() - start;
+                rows++;
+            }
+        }
+
+        void record() {
+            parseTimer.record(parseNanos, TimeUnit.NANOSECONDS);
+            parsedRows.increment(rows);
         }
     }
 
+    private Feature mapVariant(ResultSet rs, Variant v) throws SQLException {
+        // Residue identity and position come from the structured columns —
+        // raw_json carries mutatedType/locations but not wildType/
+        // alternativeSequence/begin/end. Columns are 1-letter; the FE
+        // expects the 3-letter convention.
+        String position = String.valueOf(rs.getInt("position"));
+        v.setWildType(toThreeLetterAminoAcid(rs.getString("wild_type")));
+        v.setAlternativeSequence(toThreeLetterAminoAcid(rs.getString("alt")));
+        v.setBegin(position);
+        v.setEnd(position);
+        return v;
+    }
+
     private String toThreeLetterAminoAcid(String letter) {
         try {
             return AminoAcid.fromOneLetter(letter).getThreeLetter();
@@ -419,7 +419,7 @@ public class ScoreNewRepo {
      *          \_used in DownloadProcessor.processAndWriteCsv()
      */
     @Transactional(readOnly = true)
-    @Cacheable(value = "scoresByAccession", key = "#accession")
+    @Cacheable(value = "scoresByAccession", key = "#accession", sync = true)
     public List<Score> getScores(String accession) {
         if (accession == null || accession.isBlank()) {
             return Collections.emptyList();
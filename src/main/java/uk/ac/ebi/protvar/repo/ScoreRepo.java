@@ -124,7 +124,7 @@ public class ScoreRepo {
     /**
      * Returns all scores for a given accession.
      */
-    @Cacheable(value = "scoresByAccession", key = "#accession")
+    @Cacheable(value = "scoresByAccession", key = "#accession", sync = true)
     public List<Score> getScores(String accession) {// Set<ScoreType> types) {
         if (accession == null || accession.isBlank()) return List.of();
 
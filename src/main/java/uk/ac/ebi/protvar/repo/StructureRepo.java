@@ -26,7 +26,7 @@ public class StructureRepo {
      * {@code observedRegionsRef} — a structure's observed_regions, the residues actually resolved.
      * observed_regions is a 2-D int array {{s1,e1},{s2,e2},...}, iterated via the built-in
      * {@code generate_subscripts}. Used by the PDB identifier search (MappingRepo / GenomicVariantRepo)
-     * so it stays consistent with the 3D structure tab (StructureService.filterByPosition) — matching
+     * so it stays consistent with the 3D structure tab (StructureService.getStr) — matching
      * the resolved residues rather than the full unp_start..unp_end span.
      *
      * @param observedRegionsRef SQL reference to the observed_regions column (e.g. "s.observed_regions")
@@ -41,7 +41,7 @@ public class StructureRepo {
     }
 
 
-    @Cacheable(value = "STR", key = "#accession")
+    @Cacheable(value = "STR", key = "#accession", sync = true)
     public List<Structure> getStr(String accession) {
         return getStr(List.of(accession));
     }
@@ -59,7 +59,7 @@ public class StructureRepo {
 
     // NOTE: currently unused — StructureService.getStr(accession, position) fetches all
     // structures for the accession via getStr(accession) (cached) and filters by position in
-    // Java (filterByPosition). Kept for a possible DB-side position filter; fixed to use
+    // Java (StructureIndex). Kept for a possible DB-side position filter; fixed to use
     // observedRegionsContain (the previous unnest(...)[1] form errored on the 2-D array and
     // never bound :position).
     public List<Structure> getStr(String accession, Integer position) {
@@ -22,4 +22,9 @@ public class UniprotEntryRepo {
         String sql = "SELECT * FROM " + uniprotEntryTable + " ORDER BY accession";
         return jdbcTemplate.query(sql, new BeanPropertyRowMapper(UniprotEntry.class));
     }
+
+    public List<String> findAllAccessions() {
+        String sql = "SELECT accession FROM " + uniprotEntryTable + " ORDER BY accession";
+        return jdbcTemplate.queryForList(sql, String.class);
+    }
 }
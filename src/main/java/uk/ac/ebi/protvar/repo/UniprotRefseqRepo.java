@@ -12,6 +12,7 @@ import org.springframework.stereotype.Repository;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.function.BiConsumer;
 
 @Repository
 @RequiredArgsConstructor
@@ -52,25 +53,11 @@ public class UniprotRefseqRepo {
         });
     }
 
-    public TreeMap<String, List<String>> getRefSeqNoVerUniprotMap(Set<String> refseqIds) {
-        if (refseqIds == null || refseqIds.isEmpty())
-            return new TreeMap<>();
-        String sql = String.format("SELECT * FROM %s WHERE split_part(refseq_acc, '.', 1) IN (:ids)",
-                uniprotRefseqTable);
-        SqlParameterSource parameters = new MapSqlParameterSource("ids", refseqIds);
-        return namedParameterJdbcTemplate.query(sql, parameters, new ResultSetExtractor<TreeMap>() {
-            @Override
-            public TreeMap extractData(ResultSet rs) throws SQLException, DataAccessException {
-                TreeMap<String, List<String>> resultMap = new TreeMap<>();
-                while(rs.next()){
-                    String uniprotAcc = rs.getString("uniprot_acc");
-                    String refseqId = rs.getString("refseq_acc");
-                    if (!resultMap.containsKey(refseqId))
-                        resultMap.put(refseqId, new ArrayList<>());
-                    resultMap.get(refseqId).add(uniprotAcc);
-                }
-                return resultMap;
-            }
+    /** Streams every (refseq_acc, uniprot_acc) row of the table to {@code consumer}. */
+    public void forEachRefseq(BiConsumer<String, String> consumer) {
+        String sql = String.format("SELECT refseq_acc, uniprot_acc FROM %s", uniprotRefseqTable);
+        namedParameterJdbcTemplate.query(sql, new MapSqlParameterSource(), rs -> {
+            consumer.accept(rs.getString("refseq_acc"), rs.getString("uniprot_acc"));
         });
     }
 }
\ No newline at end of file
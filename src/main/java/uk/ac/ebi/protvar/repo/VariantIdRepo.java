@@ -0,0 +1,101 @@
+package uk.ac.ebi.protvar.repo;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import uk.ac.ebi.protvar.model.data.Base;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Genomic variants of dbSNP, ClinVar (RCV/VCV) and COSMIC (COSV and legacy
+ * COSM/COSN) IDs in one UNION ALL query, one branch per source present in
+ * the batch, so a mixed batch of IDs costs a single round trip. The branches match those of
+ * DbsnpRepo.getById, ClinVarRepo.getByRCVMap/getByVCVMap and
+ * CosmicRepo.getById/getByLegacyId; a dbSNP alt may list several alleles.
+ */
+@Repository
+@RequiredArgsConstructor
+public class VariantIdRepo {
+
+    public enum Source { DBSNP, RCV, VCV, COSMIC, COSMIC_LEGACY }
+
+    // One branch per source, each selecting source, id, chr, pos, ref, alt
+    private static String branch(Source source) {
+        return switch (source) {
+            case DBSNP -> """
+                    SELECT DISTINCT 'DBSNP' AS source, d.id AS id, d.chr, d.pos, d.ref, d.alt
+                    FROM %1$s d WHERE d.id = ANY(:DBSNP)
+                    """;
+            case RCV -> """
+                    SELECT DISTINCT 'RCV' AS source, r.rcv AS id, c.chr, c.pos, c.ref, c.alt
+                    FROM %2$s c CROSS JOIN LATERAL unnest(c.rcvs) AS r(rcv) WHERE r.rcv = ANY(:RCV)
+                    """;
+            case VCV -> """
+                    SELECT DISTINCT 'VCV' AS source, c.vcv AS id, c.chr, c.pos, c.ref, c.alt
+                    FROM %2$s c WHERE c.vcv = ANY(:VCV)
+                    """;
+            case COSMIC -> """
+                    SELECT DISTINCT 'COSMIC' AS source, c.id AS id, c.chr, c.pos, c.ref, c.alt
+                    FROM %3$s c WHERE c.id = ANY(:COSMIC)
+                    """;
+            case COSMIC_LEGACY -> """
+                    SELECT DISTINCT 'COSMIC_LEGACY' AS source, c.legacy_id AS id, c.chr, c.pos, c.ref, c.alt
+                    FROM %3$s c WHERE c.legacy_id = ANY(:COSMIC_LEGACY)
+                    """;
+        };
+    }
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Value("${tbl.dbsnp}")
+    private String dbsnpTable;
+
+    @Value("${tbl.clinvar.extended}")
+    private String clinvarExtendedTable;
+
+    @Value("${tbl.cosmic}")
+    private String cosmicTable;
+
+    /**
+     * @param ids IDs per source; sources left out are not queried
+     * @return rows per source and ID; IDs without rows are left out
+     */
+    public Map<Source, Map<String, List<Base>>> getByIds(Map<Source, ? extends Collection<String>> ids) {
+        Map<Source, Map<String, List<Base>>> result = new EnumMap<>(Source.class);
+        // Only sources with IDs get a branch: an empty ANY() would still scan,
+        // e.g. the RCV branch unnests every ClinVar row
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+        List<String> branches = new ArrayList<>();
+        for (Source source : Source.values()) {
+            Collection<String> sourceIds = ids.getOrDefault(source, List.of());
+            if (sourceIds.isEmpty()) continue;
+            parameters.addValue(source.name(), sourceIds.toArray(new String[0]), Types.ARRAY);
+            branches.add(branch(source));
+        }
+        if (branches.isEmpty())
+            return result;
+
+        String sql = String.format(String.join("UNION ALL\n", branches), dbsnpTable, clinvarExtendedTable, cosmicTable);
+        namedParameterJdbcTemplate.query(sql, parameters, rs -> {
+            Base variant = Base.builder()
+                    .chr(rs.getString("chr"))
+                    .pos(rs.getObject("pos", Integer.class))
+                    .ref(rs.getString("ref"))
+                    .alt(rs.getString("alt"))
+                    .build();
+            result.computeIfAbsent(Source.valueOf(rs.getString("source")), s -> new HashMap<>())
+                    .computeIfAbsent(rs.getString("id"), id -> new ArrayList<>())
+                    .add(variant);
+        });
+        return result;
+    }
+}
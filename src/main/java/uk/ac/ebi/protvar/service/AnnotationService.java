@@ -0,0 +1,170 @@
+package uk.ac.ebi.protvar.service;
+
+import com.google.common.collect.Lists;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import uk.ac.ebi.protvar.converter.FunctionalInfoConverter;
+import uk.ac.ebi.protvar.input.GenomicInput;
+import uk.ac.ebi.protvar.input.parser.VariantParser;
+import uk.ac.ebi.protvar.mapper.AnnotationData;
+import uk.ac.ebi.protvar.mapper.AnnotationFetcher;
+import uk.ac.ebi.protvar.mapper.FunctionalInfoEnricher;
+import uk.ac.ebi.protvar.model.AnnotationQuery;
+import uk.ac.ebi.protvar.model.response.FunctionalInfo;
+import uk.ac.ebi.protvar.model.response.PopulationObservation;
+import uk.ac.ebi.protvar.model.response.PositionStructure;
+import uk.ac.ebi.protvar.record.ChromosomePosition;
+import uk.ac.ebi.protvar.repo.FunctionRepo;
+import uk.ac.ebi.protvar.types.AminoAcid;
+import uk.ac.ebi.protvar.utils.VariantKey;
+import uk.ac.ebi.uniprot.domain.entry.UPEntry;
+import uk.ac.ebi.uniprot.domain.features.Feature;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Batch form of the /function, /population and /structure position
+ * endpoints. Queries are handled a chunk at a time: each chunk's positions
+ * go to the repos' array queries (one round trip per annotation source),
+ * and each result is handed to the sink in query order before the next
+ * chunk is read, so a streamed response never holds the whole batch.
+ *
+ * Results match the single-position endpoints; function queries for an
+ * accession without a UniProt entry are left out, as the single endpoint
+ * returns 404 for them. Queries are expected to have been through
+ * {@link #normalise(List)}, so nothing fails once output has started.
+ */
+@Service
+@RequiredArgsConstructor
+public class AnnotationService {
+
+    /** Receives results in query order; may write to the response. */
+    @FunctionalInterface
+    public interface Sink<T> {
+        void accept(T result) throws IOException;
+    }
+
+    private final FunctionRepo functionRepo;
+    private final FunctionalInfoConverter functionalInfoConverter;
+    private final FunctionalInfoEnricher functionalInfoEnricher;
+    private final AnnotationFetcher annotationFetcher;
+    private final StructureService structureService;
+
+    @Value("${annotation.batch.chunk-size:500}")
+    private int chunkSize;
+
+    /**
+     * Checks every query up front: accession and position are required,
+     * variantAA must name an amino acid and genomicVariant must parse as a
+     * genomic variant; blank optional fields count as absent.
+     *
+     * @return the queries with variantAA as its one-letter symbol
+     * @throws IllegalArgumentException for the first invalid query
+     */
+    public static List<AnnotationQuery> normalise(List<AnnotationQuery> queries) {
+        List<AnnotationQuery> normalised = new ArrayList<>(queries.size());
+        for (int i = 0; i < queries.size(); i++) {
+            AnnotationQuery query = queries.get(i);
+            if (query == null || query.accession() == null || query.position() == null)
+                throw new IllegalArgumentException("Each entry must have an accession and position");
+
+            String variantAA = blankToNull(query.variantAA());
+            if (variantAA != null) {
+                variantAA = AminoAcid.oneLetter(variantAA.trim());
+                if (variantAA == null)
+                    throw new IllegalArgumentException("Entry " + i + ": invalid variantAA " + query.variantAA());
+            }
+            String genomicVariant = blankToNull(query.genomicVariant());
+            if (genomicVariant != null) {
+                genomicVariant = genomicVariant.trim();
+                if (VariantParser.parseValidGenomicInput(genomicVariant) == null)
+                    throw new IllegalArgumentException("Entry " + i + ": invalid genomicVariant " + query.genomicVariant());
+            }
+            normalised.add(new AnnotationQuery(query.accession(), query.position(), variantAA, genomicVariant));
+        }
+        return normalised;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    public void functions(List<AnnotationQuery> queries, Sink<FunctionalInfo> sink) throws IOException {
+        for (List<AnnotationQuery> chunk : Lists.partition(queries, chunkSize)) {
+            AccPosArrays accPos = AccPosArrays.of(chunk);
+            Map<String, List<Feature>> featureMap = functionRepo.getFeatures(accPos.accessions, accPos.positions);
+            AnnotationData annData = annotationFetcher.getAPIFunctionalData(accPos.accessions, accPos.positions);
+
+            Map<String, UPEntry> headers = new HashMap<>();
+            for (AnnotationQuery query : chunk) {
+                UPEntry header = headers.computeIfAbsent(query.accession(), functionRepo::getHeader); // cached
+                if (header == null) continue;
+                FunctionalInfo info = functionalInfoConverter.convert(header, featureMap.getOrDefault(
+                        VariantKey.protein(query.accession(), query.position()), Collections.emptyList()));
+                info.setPosition(query.position());
+                functionalInfoEnricher.enrich(info, annData, query.variantAA());
+                sink.accept(info);
+            }
+        }
+    }
+
+    public void populations(List<AnnotationQuery> queries, Sink<PopulationObservation> sink) throws IOException {
+        for (List<AnnotationQuery> chunk : Lists.partition(queries, chunkSize)) {
+            AccPosArrays accPos = AccPosArrays.of(chunk);
+            List<GenomicInput> genomicInputs = new ArrayList<>(chunk.size());
+            Set<ChromosomePosition> chrPos = new LinkedHashSet<>();
+            for (AnnotationQuery query : chunk) {
+                GenomicInput genomicInput = VariantParser.parseValidGenomicInput(query.genomicVariant());
+                genomicInputs.add(genomicInput);
+                if (genomicInput != null)
+                    chrPos.add(new ChromosomePosition(genomicInput.getChromosome(), genomicInput.getPosition()));
+            }
+            AnnotationData annData = annotationFetcher.getAPIPopulationData(accPos.accessions, accPos.positions,
+                    chrPos.stream().map(ChromosomePosition::chromosome).toArray(String[]::new),
+                    chrPos.stream().map(ChromosomePosition::position).toArray(Integer[]::new));
+
+            for (int i = 0; i < chunk.size(); i++) {
+                AnnotationQuery query = chunk.get(i);
+                GenomicInput genomicInput = genomicInputs.get(i);
+                sink.accept(annData.get(query.accession(), query.position(),
+                        genomicInput == null ? null : genomicInput.getChromosome(),
+                        genomicInput == null ? null : genomicInput.getPosition(), null));
+            }
+        }
+    }
+
+    public void structures(List<AnnotationQuery> queries, Sink<PositionStructure> sink) throws IOException {
+        for (List<AnnotationQuery> chunk : Lists.partition(queries, chunkSize)) {
+            structureService.preloadStructureCache(chunk.stream().map(AnnotationQuery::accession).distinct().toList());
+            for (AnnotationQuery query : chunk) {
+                sink.accept(new PositionStructure(query.accession(), query.position(),
+                        structureService.getStr(query.accession(), query.position())));
+            }
+        }
+    }
+
+    // Distinct (accession, position) pairs of a chunk, as the repos' array parameters
+    private record AccPosArrays(String[] accessions, Integer[] positions) {
+        static AccPosArrays of(List<AnnotationQuery> chunk) {
+            Set<String> seen = new HashSet<>();
+            List<String> accessions = new ArrayList<>(chunk.size());
+            List<Integer> positions = new ArrayList<>(chunk.size());
+            for (AnnotationQuery query : chunk) {
+                if (seen.add(VariantKey.protein(query.accession(), query.position()))) {
+                    accessions.add(query.accession());
+                    positions.add(query.position());
+                }
+            }
+            return new AccPosArrays(accessions.toArray(new String[0]), positions.toArray(new Integer[0]));
+        }
+    }
+}
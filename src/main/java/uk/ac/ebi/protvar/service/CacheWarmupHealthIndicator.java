@@ -0,0 +1,29 @@
+package uk.ac.ebi.protvar.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * "cacheWarmup" health contributor, included in the readiness group so a
+ * freshly deployed pod only takes traffic once its caches are warm enough
+ * (see CacheWarmupService.isWarmEnough). Liveness is unaffected.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheWarmupHealthIndicator implements HealthIndicator {
+
+    private final CacheWarmupService warmupService;
+
+    @Override
+    public Health health() {
+        CacheWarmupService.Progress progress = warmupService.getProgress();
+        Health.Builder builder = warmupService.isWarmEnough() ? Health.up() : Health.outOfService();
+        return builder
+                .withDetail("state", progress.state())
+                .withDetail("warmed", progress.warmed())
+                .withDetail("total", progress.total())
+                .build();
+    }
+}
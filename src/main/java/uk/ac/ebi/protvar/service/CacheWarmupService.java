@@ -0,0 +1,226 @@
+package uk.ac.ebi.protvar.service;
+
+import com.google.common.collect.Lists;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import uk.ac.ebi.protvar.cache.AccessFrequencySketch;
+import uk.ac.ebi.protvar.cache.BatchCacheService;
+import uk.ac.ebi.protvar.config.WarmupProperties;
+import uk.ac.ebi.protvar.repo.FunctionRepo;
+import uk.ac.ebi.protvar.repo.InteractionRepo;
+import uk.ac.ebi.protvar.repo.PocketRepo;
+import uk.ac.ebi.protvar.repo.ScoreNewRepo;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Pre-populates the per-accession caches with the most requested
+ * accessions after a deploy, so a cache.version bump or new uniprot.release
+ * doesn't mean minutes of cold-cache latency.
+ *
+ * Recording: the caches in {@code cache.warmup.caches} count lookups in an
+ * {@link AccessFrequencySketch}; every flush interval the window's heavy
+ * hitters are ZINCRBY'd into one Redis sorted set shared by all nodes and
+ * trimmed to {@code max-tracked}. The set is deliberately not under
+ * cache.version — popularity carries over across cache namespaces and
+ * releases, which is exactly when it's needed.
+ *
+ * Counts are decayed with {@code half-life} by forward decay: each window's
+ * counts are scaled by 2^(time since the decay epoch / half-life) before
+ * the ZINCRBY, so older increments weigh relatively less without any node
+ * having to rewrite the set. Only the ranking is meaningful, not the scores.
+ * The epoch is kept in Redis next to the set; once the weight passes
+ * RESCALE_WEIGHT the set is scaled down by it and the epoch moved to now,
+ * so scores stay finite whatever the half-life. The flush is one script,
+ * so a rescale and another node's increments never interleave.
+ *
+ * Warming: on ApplicationReadyEvent, the top-N accessions are loaded
+ * hottest-first, in batches, on {@code concurrency} background threads,
+ * through the normal @Cacheable methods (misses found via one MGET per
+ * batch). Already-cached entries cost nothing, so a plain restart is cheap.
+ * CacheWarmupHealthIndicator keeps readiness OUT_OF_SERVICE until
+ * {@code ready-fraction} is done.
+ */
+@Service
+@RequiredArgsConstructor
+public class CacheWarmupService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CacheWarmupService.class);
+    static final String FREQUENCY_KEY = "protvar::warmup::accessions";
+    static final String DECAY_EPOCH_KEY = FREQUENCY_KEY + "::epoch";
+    // Decay epoch until one is stored; scores written before DECAY_EPOCH_KEY are relative to it
+    static final long INITIAL_DECAY_EPOCH = 1_735_689_600_000L; // 2025-01-01T00:00Z
+    // 20 half-lives; far from double overflow
+    static final double RESCALE_WEIGHT = 1 << 20;
+    // KEYS: frequency set, decay epoch; ARGV: now ms, half-life ms,
+    // RESCALE_WEIGHT, max-tracked, INITIAL_DECAY_EPOCH, then accession/count pairs
+    private static final RedisScript<Long> FLUSH = new DefaultRedisScript<>("""
+            local now = tonumber(ARGV[1])
+            local epoch = tonumber(redis.call('GET', KEYS[2])) or tonumber(ARGV[5])
+            local weight = 2 ^ ((now - epoch) / tonumber(ARGV[2]))
+            if weight > tonumber(ARGV[3]) then
+              redis.call('ZUNIONSTORE', KEYS[1], 1, KEYS[1], 'WEIGHTS', 1 / weight)
+              redis.call('SET', KEYS[2], ARGV[1])
+              weight = 1
+            end
+            for i = 6, #ARGV, 2 do
+              redis.call('ZINCRBY', KEYS[1], tonumber(ARGV[i + 1]) * weight, ARGV[i])
+            end
+            -- keep the top max-tracked
+            return redis.call('ZREMRANGEBYRANK', KEYS[1], 0, -(tonumber(ARGV[4]) + 1))
+            """, Long.class);
+    private static final AtomicInteger THREADS = new AtomicInteger();
+
+    public enum State { PENDING, RUNNING, DONE }
+
+    public record Progress(State state, long warmed, long total) {}
+
+    private final WarmupProperties properties;
+    private final AccessFrequencySketch accessSketch;
+    private final StringRedisTemplate redis;
+    private final BatchCacheService batchCacheService;
+    private final StructureService structureService;
+    private final FunctionRepo functionRepo;
+    private final PocketRepo pocketRepo;
+    private final InteractionRepo interactionRepo;
+    private final ScoreNewRepo scoreRepo;
+
+    private final long createdAt = System.nanoTime();
+    private volatile State state = State.PENDING;
+    private final AtomicLong warmed = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+
+    public Progress getProgress() {
+        return new Progress(state, warmed.get(), total.get());
+    }
+
+    /** True once enough of the warm-up is done to take traffic (or it's disabled / timed out). */
+    public boolean isWarmEnough() {
+        if (!properties.isEnabled() || state == State.DONE) return true;
+        if (System.nanoTime() - createdAt > properties.getMaxWait().toNanos()) return true;
+        long t = total.get();
+        return state == State.RUNNING && t > 0 && (double) warmed.get() / t >= properties.getReadyFraction();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (!properties.isEnabled()) return;
+        Thread.ofPlatform().daemon().name("cache-warmup").start(this::warm);
+    }
+
+    void warm() {
+        long start = System.currentTimeMillis();
+        try {
+            List<String> accessions = topAccessions();
+            List<String> caches = properties.getCaches().stream()
+                    .filter(name -> "STR".equals(name) || loaderFor(name) != null)
+                    .toList();
+            total.set((long) accessions.size() * caches.size());
+            state = State.RUNNING;
+            LOGGER.info("Cache warm-up: {} accessions x {}", accessions.size(), caches);
+
+            ExecutorService pool = Executors.newFixedThreadPool(properties.getConcurrency(), r -> {
+                Thread t = new Thread(r, "cache-warmup-" + THREADS.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+            // Hottest batch first across all caches, so the fraction that
+            // gates readiness is the most requested part
+            for (List<String> batch : Lists.partition(accessions, properties.getBatchSize())) {
+                for (String cache : caches) {
+                    pool.submit(() -> warmBatch(cache, batch));
+                }
+            }
+            pool.shutdown();
+            if (!pool.awaitTermination(1, TimeUnit.HOURS)) {
+                pool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Cache warm-up aborted: {}", e.getMessage());
+        } finally {
+            state = State.DONE;
+            LOGGER.info("Cache warm-up finished: {}/{} in {}ms", warmed.get(), total.get(),
+                    System.currentTimeMillis() - start);
+        }
+    }
+
+    private void warmBatch(String cacheName, List<String> batch) {
+        try {
+            AccessFrequencySketch.untracked(() -> {
+                if ("STR".equals(cacheName)) {
+                    structureService.preloadStructureCache(batch);
+                } else {
+                    Consumer<String> loader = loaderFor(cacheName);
+                    Set<String> cached = batchCacheService.getAll(cacheName, batch).keySet();
+                    batch.stream().filter(acc -> !cached.contains(acc)).forEach(loader);
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            LOGGER.warn("Cache warm-up batch failed [{}]: {}", cacheName, e.getMessage());
+        } finally {
+            warmed.addAndGet(batch.size());
+        }
+    }
+
+    // Per-accession @Cacheable loaders (STR is bulk-loaded via StructureService)
+    private Consumer<String> loaderFor(String cacheName) {
+        return switch (cacheName) {
+            case "FUN_HEADER" -> functionRepo::getHeader;
+            case "pocketsByAccession" -> pocketRepo::getPockets;
+            case "interactionsByAccession" -> interactionRepo::getInteractions;
+            case "scoresByAccession" -> scoreRepo::getScores;
+            default -> null;
+        };
+    }
+
+    private List<String> topAccessions() {
+        try {
+            Set<String> top = redis.opsForZSet().reverseRange(FREQUENCY_KEY, 0, properties.getTopN() - 1L);
+            return top == null ? List.of() : new ArrayList<>(top);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not read accession frequencies — skipping warm-up: {}", e.getMessage());
+            return List.of();
+        }
+    }
+
+    /** Merges the sketch's current window into the shared frequency set. */
+    @Scheduled(fixedDelayString = "${cache.warmup.flush-interval-ms:300000}",
+            initialDelayString = "${cache.warmup.flush-interval-ms:300000}")
+    @PreDestroy
+    public void flushFrequencies() {
+        Map<String, Integer> window = accessSketch.drain();
+        if (window.isEmpty()) return;
+        List<String> args = new ArrayList<>(5 + 2 * window.size());
+        args.add(String.valueOf(System.currentTimeMillis()));
+        args.add(String.valueOf(properties.getHalfLife().toMillis()));
+        args.add(String.valueOf(RESCALE_WEIGHT));
+        args.add(String.valueOf(properties.getMaxTracked()));
+        args.add(String.valueOf(INITIAL_DECAY_EPOCH));
+        window.forEach((accession, count) -> {
+            args.add(accession);
+            args.add(String.valueOf(count));
+        });
+        try {
+            redis.execute(FLUSH, List.of(FREQUENCY_KEY, DECAY_EPOCH_KEY), args.toArray());
+        } catch (RuntimeException e) {
+            LOGGER.warn("Accession frequency flush failed ({} keys dropped): {}", window.size(), e.getMessage());
+        }
+    }
+}
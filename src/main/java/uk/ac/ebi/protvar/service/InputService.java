@@ -1,6 +1,9 @@
 package uk.ac.ebi.protvar.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import uk.ac.ebi.protvar.cache.InputBuild;
 import uk.ac.ebi.protvar.cache.InputSummary;
@@ -8,60 +11,263 @@ import uk.ac.ebi.protvar.input.VariantType;
 import uk.ac.ebi.protvar.input.VariantInput;
 import uk.ac.ebi.protvar.input.parser.VariantParser;
 import uk.ac.ebi.protvar.input.processor.BuildProcessor;
+import uk.ac.ebi.protvar.input.processor.BuildProcessor.GenomicSample;
 import uk.ac.ebi.protvar.model.InputRequest;
 import uk.ac.ebi.protvar.types.Assembly;
 import uk.ac.ebi.protvar.utils.ChecksumUtils;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
 public class InputService {
+    // Lines per RPUSH while an upload is read; bounds the lines held in heap
+    private static final int WRITE_CHUNK_SIZE = 10_000;
+    // Lines parsed by one fork-join leaf task
+    private static final int PARSE_LEAF_SIZE = 1_000;
+
     private final ExecutorService executorService = Executors.newFixedThreadPool(5);
+    // Separate from the common pool so large uploads don't hold up parallel streams elsewhere
+    private final ForkJoinPool parsePool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
 
     private final UploadCacheService cacheService;
     private final BuildProcessor buildProcessor;
+    private final MappingPrecomputeService precomputeService;
+    private final MeterRegistry meterRegistry;
 
-    private String checksumFromLines(List<String> lines) {
-        String joined = String.join("\n", lines);
-        return ChecksumUtils.checksum(joined.getBytes(StandardCharsets.UTF_8));
-    }
+    // Uploads with at least this many lines are parsed in parallel
+    @Value("${upload.parallel.threshold:20000}")
+    private int parallelThreshold;
 
     public String processInput(InputRequest request) {
-        List<String> normalizedLines = normalizeInput(request.getRawInput()); // ensure consistent checksums across semantically identical inputs
-        String id = checksumFromLines(normalizedLines);
-        // Launch async job to cache, determine build and summarise input
-        executorService.submit(() -> {
-            cacheService.cacheInput(id, normalizedLines); // cache the normalized input lines
-
-            if (request.isAutoDetectBuild()) {
-                InputBuild build = detectBuild(normalizedLines);
-                cacheService.cacheBuild(id, build);
-            }
+        try {
+            return processInput(new StringReader(request.getRawInput()), request.getAssembly());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // not thrown by StringReader
+        }
+    }
 
-            List<VariantInput> parsed = normalizedLines.stream()
-                    .map(VariantParser::parse)
-                    .collect(Collectors.toList());
+    /**
+     * Streaming upload: the input is read, normalised, checksummed and
+     * written to the cache in chunks, so memory use doesn't grow with the
+     * upload size. Gives the same id as {@link #processInput(InputRequest)}
+     * for the same content.
+     */
+    public String processInput(InputStream input, String assembly) throws IOException {
+        Reader reader = new InputStreamReader(input, StandardCharsets.UTF_8);
+        return processInput(reader, assembly);
+    }
 
-            InputSummary summary = summarize(parsed);
-            cacheService.cacheSummary(id, summary);
+    private String processInput(Reader reader, String assembly) throws IOException {
+        long start = System.currentTimeMillis();
+        // id is the checksum of the normalised lines joined with "\n" -
+        // consistent across semantically identical inputs
+        ChecksumUtils.LineChecksum checksum = new ChecksumUtils.LineChecksum();
+        String id;
+        long lineCount;
+        try (UploadCacheService.InputWriter writer = cacheService.openInput()) {
+            List<String> chunk = new ArrayList<>(WRITE_CHUNK_SIZE);
+            normalizeInput(reader, line -> {
+                checksum.add(line);
+                chunk.add(line);
+                if (chunk.size() == WRITE_CHUNK_SIZE) {
+                    writer.append(chunk);
+                    chunk.clear();
+                }
+            });
+            writer.append(chunk);
+            id = checksum.checksum();
+            lineCount = writer.size();
+            writer.commit(id);
+        }
+        summariseAsync(id, lineCount, assembly, start);
+        return id;
+    }
+
+    /**
+     * Launches the async job that determines the build and summarises a
+     * cached input.
+     * @param start when the upload began (epoch millis), for the time to ready
+     */
+    public void summariseAsync(String id, long lineCount, String assembly, long start) {
+        executorService.submit(() -> summarise(id, lineCount, assembly, start));
+    }
 
+    /**
+     * Reads the cached input back in chunks to build the summary and, if
+     * requested, detect the build from a bounded sample of genomic inputs.
+     * Chunks of uploads above the parallel threshold are parsed by fork-join
+     * on {@link #parsePool}. The time from upload to summary cached is
+     * recorded in the summary (readyMillis) and as protvar.upload.ready.
+     * The optional background mapping of the upload is queued last.
+     */
+    private void summarise(String id, long lineCount, String assembly, long start) {
+        boolean autoDetectBuild = Assembly.autodetect(assembly);
+        boolean parallel = lineCount >= parallelThreshold;
+        ParsedLines parsed = new ParsedLines();
+        GenomicSample sample = new GenomicSample();
+        cacheService.forEachInputChunk(id, chunk -> {
+            ParsedLines chunkParsed = parallel
+                    ? parsePool.invoke(new ParseTask(chunk, autoDetectBuild))
+                    : parse(chunk, autoDetectBuild);
+            parsed.addCounts(chunkParsed); // genomic inputs only go to the bounded sample
+            if (autoDetectBuild) sample.addAll(chunkParsed.genomicInputs);
         });
-        return id;
+
+        if (autoDetectBuild) {
+            cacheService.cacheBuild(id, detectBuild(sample));
+        }
+        long readyMillis = System.currentTimeMillis() - start;
+        cacheService.cacheSummary(id, InputSummary.builder()
+                .totalCount(parsed.totalCount)
+                .inputCounts(parsed.inputCounts())
+                .readyMillis(readyMillis)
+                .build());
+        Timer.builder("protvar.upload.ready")
+                .description("Time from upload received to summary and build cached")
+                .tag("mode", parallel ? "parallel" : "sequential")
+                .register(meterRegistry)
+                .record(readyMillis, TimeUnit.MILLISECONDS);
+
+        precomputeService.schedule(id, assembly, parsed.totalCount);
+    }
+
+    private ParsedLines parse(List<String> lines, boolean genomic) {
+        ParsedLines parsed = new ParsedLines();
+        for (String line : lines) {
+            VariantInput input = VariantParser.parse(line);
+            parsed.count(input);
+            if (genomic && BuildProcessor.isBuildSample(input)) parsed.genomicInputs.add(input);
+        }
+        parsed.totalCount = lines.size();
+        return parsed;
+    }
+
+    /** Type counts, and the genomic inputs if detecting the build, of some input lines. */
+    private static class ParsedLines {
+        private final int[] counts = new int[VariantType.values().length];
+        private final List<VariantInput> genomicInputs = new ArrayList<>();
+        private int totalCount;
+
+        void count(VariantInput input) {
+            VariantType type = input.isValid() && input.getType() != null ? input.getType() : VariantType.INVALID;
+            counts[type.ordinal()]++;
+        }
+
+        ParsedLines add(ParsedLines other) {
+            addCounts(other);
+            genomicInputs.addAll(other.genomicInputs);
+            return this;
+        }
+
+        void addCounts(ParsedLines other) {
+            for (int i = 0; i < counts.length; i++) counts[i] += other.counts[i];
+            totalCount += other.totalCount;
+        }
+
+        EnumMap<VariantType, Integer> inputCounts() {
+            EnumMap<VariantType, Integer> inputCounts = new EnumMap<>(VariantType.class);
+            for (VariantType type : VariantType.values()) {
+                inputCounts.put(type, counts[type.ordinal()]);
+            }
+            return inputCounts;
+        }
+    }
+
+    /** Splits a chunk of lines in halves down to PARSE_LEAF_SIZE and merges the results. */
+    private class ParseTask extends RecursiveTask<ParsedLines> {
+        private final List<String> lines;
+        private final boolean genomic;
+
+        ParseTask(List<String> lines, boolean genomic) {
+            this.lines = lines;
+            this.genomic = genomic;
+        }
+
+        @Override
+        protected ParsedLines compute() {
+            if (lines.size() <= PARSE_LEAF_SIZE) return parse(lines, genomic);
+            int mid = lines.size() / 2;
+            ParseTask right = new ParseTask(lines.subList(mid, lines.size()), genomic);
+            right.fork();
+            ParsedLines left = new ParseTask(lines.subList(0, mid), genomic).compute();
+            return left.add(right.join());
+        }
     }
 
     public static List<String> normalizeInput(String rawInput) {
-        return Arrays.stream(rawInput.split("\\R|,")) // split on any line break, pipe and comma
-                .map(String::trim)          // trim each line
-                .filter(line -> !line.isEmpty())      // remove blank lines
-                .filter(line -> !line.startsWith("#")) // ignore comment lines
-                .collect(Collectors.toList());
+        List<String> lines = new ArrayList<>();
+        try {
+            normalizeInput(new StringReader(rawInput), lines::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // not thrown by StringReader
+        }
+        return lines;
+    }
+
+    /**
+     * Streaming form of {@link #normalizeInput(String)}: splits on any line
+     * break (as regex \R) and comma, trims each line, and passes on the
+     * non-blank, non-comment ones. Holds one line at a time.
+     */
+    public static void normalizeInput(Reader reader, Consumer<String> lines) throws IOException {
+        emitLine(normalizeLines("", reader, lines), lines);
+    }
+
+    /**
+     * As {@link #normalizeInput(Reader, Consumer)} for one piece of a larger
+     * input: {@code carry} (the unterminated last line of the previous
+     * piece) is continued, and this piece's unterminated last line is
+     * returned instead of being passed on.
+     */
+    public static String normalizeLines(String carry, Reader reader, Consumer<String> lines) throws IOException {
+        char[] buffer = new char[8192];
+        StringBuilder line = new StringBuilder(carry);
+        int n;
+        while ((n = reader.read(buffer)) != -1) {
+            for (int i = 0; i < n; i++) {
+                char c = buffer[i];
+                if (isSeparator(c)) {
+                    emitLine(line, lines);
+                    line.setLength(0);
+                } else {
+                    line.append(c);
+                }
+            }
+        }
+        return line.toString();
+    }
+
+    private static boolean isSeparator(char c) {
+        return switch (c) {
+            case ',', '\n', '\u000B', '\f', '\r', '\u0085', '\u2028', '\u2029' -> true;
+            default -> false;
+        };
+    }
+
+    /** Trims and passes on {@code line} unless blank or a comment. */
+    public static void emitLine(CharSequence line, Consumer<String> lines) {
+        // String.trim() semantics: strip chars <= ' ' at both ends
+        int start = 0, end = line.length();
+        while (start < end && line.charAt(start) <= ' ') start++;
+        while (end > start && line.charAt(end - 1) <= ' ') end--;
+        if (start == end || line.charAt(start) == '#') return; // blank or comment line
+        lines.accept(line.subSequence(start, end).toString());
     }
 
     /** Accepted values: The assembly can be one of the following:
@@ -105,17 +311,16 @@ public class InputService {
             if (id != null &&
                     cacheService.getBuild(id) == null) {
 
-                List<String> inputs = cacheService.getInput(id);
-                InputBuild build = detectBuild(inputs);
-                cacheService.cacheBuild(id, build);
+                GenomicSample sample = new GenomicSample();
+                cacheService.forEachInputChunk(id, chunk -> sample.addAll(buildProcessor.filterGenomicInputs(chunk)));
+                cacheService.cacheBuild(id, detectBuild(sample));
             }
         }
     }
 
-    private InputBuild detectBuild(List<String> allInputs) {
-        List<VariantInput> genomicInputs = buildProcessor.filterGenomicInputs(allInputs);
-        if (!genomicInputs.isEmpty()) {
-            return buildProcessor.detect(genomicInputs); // returns a default (AUTO_DETECT_UNKNOWN)
+    private InputBuild detectBuild(GenomicSample sample) {
+        if (!sample.isEmpty()) {
+            return buildProcessor.detect(sample); // returns a default (AUTO_DETECT_UNKNOWN)
         }
         return new InputBuild(Assembly.GRCH38, null);
         // default to GRCh38 if no genomic inputs found
@@ -128,21 +333,11 @@ public class InputService {
      * @return
      */
     public static InputSummary summarize(List<VariantInput> inputs) {
-        EnumMap<VariantType, Integer> inputCounts = new EnumMap<>(VariantType.class);
-        for (VariantType type : VariantType.values()) {
-            inputCounts.put(type, 0);
-        }
-
-        inputs.stream().forEach(input -> {
-            if (input.isValid() && input.getType() != null) {
-                inputCounts.put(input.getType(), inputCounts.get(input.getType()) + 1);
-            } else {
-                inputCounts.put(VariantType.INVALID, inputCounts.get(VariantType.INVALID) + 1);
-            }
-        });
+        ParsedLines parsed = new ParsedLines();
+        inputs.forEach(parsed::count);
         return InputSummary.builder()
                 .totalCount(inputs.size())
-                .inputCounts(inputCounts)
+                .inputCounts(parsed.inputCounts())
                 .build();
     }
 
@@ -0,0 +1,140 @@
+package uk.ac.ebi.protvar.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import uk.ac.ebi.protvar.fetcher.AssemblyMappingFetcher;
+import uk.ac.ebi.protvar.input.parser.VariantParser;
+import uk.ac.ebi.protvar.model.Coordinate;
+import uk.ac.ebi.protvar.model.response.AssemblyMapping;
+import uk.ac.ebi.protvar.types.Assembly;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming liftover of whole files: reads "chr pos" lines or VCF records,
+ * lifts them a batch at a time and writes each batch out before reading on,
+ * so memory stays bounded by the batch size however large the input.
+ *
+ * Output is NDJSON, one AssemblyMapping per input line (as in the JSON
+ * endpoint's mappings), or VCF: header lines are passed through with a
+ * ##liftover line added, and records get the target position. Records
+ * that cannot be lifted are left out of VCF output; NDJSON says why.
+ * Crossmap rows never change chromosome, so CHROM is kept as sent.
+ *
+ * Where the reference base differs between assemblies, a VCF record's REF
+ * is set to the target base; if that base is one of its ALT alleles, or
+ * the REF has more than one base, the record is left out, as its alleles
+ * cannot be restated from the crossmap base alone.
+ */
+@Service
+@RequiredArgsConstructor
+public class LiftoverService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LiftoverService.class);
+
+    public enum Format { NDJSON, VCF }
+
+    private final AssemblyMappingFetcher assemblyMappingFetcher;
+    private final ObjectMapper objectMapper;
+
+    @Value("${liftover.stream.batch-size:5000}")
+    private int batchSize;
+
+    /** @return number of records lifted */
+    public long lift(Reader in, Assembly from, Assembly to, Format format, Writer out) throws IOException {
+        BufferedReader reader = new BufferedReader(in);
+        List<AssemblyMapping> batch = new ArrayList<>(batchSize);
+        List<String[]> columns = new ArrayList<>(batchSize);
+        long records = 0, lifted = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) continue;
+            if (line.startsWith("#")) {
+                lifted += write(batch, columns, from, format, out);
+                if (format == Format.VCF) {
+                    if (line.startsWith("#CHROM")) out.write("##liftover=" + from.name + ">" + to.name + "\n");
+                    out.write(line);
+                    out.write('\n');
+                }
+                continue;
+            }
+            String[] cols = line.indexOf('\t') >= 0 ? line.split("\t") : line.trim().split("\\s+");
+            batch.add(parse(line.trim(), cols));
+            columns.add(cols);
+            records++;
+            if (batch.size() == batchSize) lifted += write(batch, columns, from, format, out);
+        }
+        lifted += write(batch, columns, from, format, out);
+        LOGGER.info("Lifted {} of {} records from {} to {} ({})", lifted, records, from.name, to.name, format);
+        return lifted;
+    }
+
+    private static AssemblyMapping parse(String line, String[] cols) {
+        AssemblyMapping mapping = new AssemblyMapping();
+        mapping.setInput(line);
+        String chr = cols.length >= 2 ? VariantParser.normalizeChr(cols[0]) : null;
+        if (chr != null) {
+            try {
+                Coordinate coordinate = new Coordinate(chr);
+                coordinate.setPos(Integer.parseInt(cols[1]));
+                mapping.setFrom(coordinate);
+            } catch (NumberFormatException ex) {
+                // error set below
+            }
+        }
+        if (mapping.getFrom() == null) mapping.setError("Error parsing input");
+        return mapping;
+    }
+
+    // Lifts and writes out the batch, then clears it
+    private int write(List<AssemblyMapping> batch, List<String[]> columns, Assembly from, Format format,
+                      Writer out) throws IOException {
+        if (batch.isEmpty()) return 0;
+        assemblyMappingFetcher.lift(batch, from);
+        int lifted = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            AssemblyMapping mapping = batch.get(i);
+            if (mapping.getTo() != null) lifted++;
+            if (format == Format.NDJSON) {
+                out.write(objectMapper.writeValueAsString(mapping));
+                out.write('\n');
+            } else if (mapping.getTo() != null) {
+                String[] cols = columns.get(i);
+                if (!liftRef(cols, mapping.getTo().getBase())) {
+                    lifted--;
+                    continue;
+                }
+                cols[1] = String.valueOf(mapping.getTo().getPos());
+                out.write(String.join("\t", cols));
+                out.write('\n');
+            }
+        }
+        out.flush();
+        batch.clear();
+        columns.clear();
+        return lifted;
+    }
+
+    // Restates REF (cols[3]) on the target base; false if the record has to be dropped
+    static boolean liftRef(String[] cols, String targetBase) {
+        if (cols.length < 4 || targetBase == null || targetBase.isEmpty()) return true;
+        String ref = cols[3];
+        if (ref.regionMatches(true, 0, targetBase, 0, targetBase.length())) return true;
+        if (ref.length() != 1 || targetBase.length() != 1) return false;
+        if (cols.length >= 5) {
+            for (String alt : cols[4].split(",")) {
+                if (alt.equalsIgnoreCase(targetBase)) return false;
+            }
+        }
+        cols[3] = targetBase.toUpperCase();
+        return true;
+    }
+}
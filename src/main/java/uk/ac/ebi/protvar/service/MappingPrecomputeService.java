@@ -0,0 +1,243 @@
+package uk.ac.ebi.protvar.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import uk.ac.ebi.protvar.cache.InputBuild;
+import uk.ac.ebi.protvar.config.RetentionProperties;
+import uk.ac.ebi.protvar.input.PrecomputedInput;
+import uk.ac.ebi.protvar.input.VariantInput;
+import uk.ac.ebi.protvar.input.parser.VariantParser;
+import uk.ac.ebi.protvar.mapper.InputMapper;
+import uk.ac.ebi.protvar.model.response.PrecomputeStatus;
+import uk.ac.ebi.protvar.model.response.PrecomputeStatus.State;
+import uk.ac.ebi.protvar.types.Assembly;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * Optional background mapping of uploaded inputs (mapping.precompute.enabled).
+ *
+ * Once an upload has been summarised (and its build detected), the whole
+ * input is run through the same pipeline as a page view - parse,
+ * preprocess, core mapping - in partitions, and each mapped line is stored
+ * as its API JSON in a Redis list, {cacheVersion}::inputMappings::{id}::{assembly}.
+ * Page views of a READY result then read their lines from that list instead
+ * of mapping them again.
+ *
+ * Results are per assembly as the request assembly changes the mapping; only
+ * the assembly given at upload is precomputed. Progress is kept in a
+ * {@link PrecomputeStatus} next to the list. Both expire with the upload.
+ *
+ * The queue is in-process, so a restart loses queued and running work. A
+ * QUEUED or RUNNING status not updated within mapping.precompute.lease-minutes
+ * is treated as lost: it is queued again when read or rescheduled. Each run
+ * stages into its own list, so a run taken for lost that is in fact still
+ * going cannot interleave with its replacement.
+ */
+@Service
+@RequiredArgsConstructor
+public class MappingPrecomputeService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MappingPrecomputeService.class);
+    private static final String KEY_PREFIX = "inputMappings";
+
+    private final UploadCacheService uploadCacheService;
+    private final InputMapper inputMapper;
+    private final StringRedisTemplate redis;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RetentionProperties retention;
+    private final ObjectMapper objectMapper;
+
+    // One upload at a time per node: a precompute is a DB pass over the whole input
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @Value("${cache.version:v1}")
+    private String cacheVersion;
+
+    @Value("${mapping.precompute.enabled:false}")
+    private boolean enabled;
+
+    @Value("${mapping.precompute.partition-size:1000}")
+    private int partitionSize;
+
+    // Larger uploads keep mapping per page
+    @Value("${mapping.precompute.max-lines:100000}")
+    private long maxLines;
+
+    @Value("${mapping.precompute.lease-minutes:60}")
+    private long leaseMinutes;
+
+    /** Request assembly as stored: AUTO, 37 or 38 (the default). */
+    static String assemblyKey(String assembly) {
+        if (Assembly.autodetect(assembly)) return "AUTO";
+        return Assembly.is37(assembly) ? Assembly.GRCH37.version : Assembly.GRCH38.version;
+    }
+
+    private String key(String inputId, String assembly) {
+        return cacheVersion + "::" + KEY_PREFIX + "::" + inputId + "::" + assemblyKey(assembly);
+    }
+
+    private String statusKey(String inputId, String assembly) {
+        return key(inputId, assembly) + "::status";
+    }
+
+    /**
+     * Queues the background mapping of an upload, unless disabled, the
+     * upload is over mapping.precompute.max-lines, or it is already queued,
+     * running (and not lost, see lost()) or done for this assembly.
+     */
+    public void schedule(String inputId, String assembly, long lineCount) {
+        if (!enabled || lineCount > maxLines) return;
+        PrecomputeStatus current = readStatus(inputId, assembly);
+        if (current != null && current.getState() != State.FAILED && !lost(current)) return;
+        queue(inputId, assembly, lineCount);
+    }
+
+    private PrecomputeStatus queue(String inputId, String assembly, long lineCount) {
+        PrecomputeStatus queued = PrecomputeStatus.builder()
+                .state(State.QUEUED)
+                .assembly(assemblyKey(assembly))
+                .totalLines(lineCount)
+                .mappedLines(0L)
+                .queuedAt(Instant.now())
+                .build();
+        putStatus(inputId, assembly, queued);
+        executor.submit(() -> precompute(inputId, assembly));
+        return queued;
+    }
+
+    // Queued or running, but not updated within the lease
+    private boolean lost(PrecomputeStatus status) {
+        if (status.getState() != State.QUEUED && status.getState() != State.RUNNING) return false;
+        return lastUpdate(status).isBefore(Instant.now().minus(lease()));
+    }
+
+    // updatedAt is missing from statuses written before it was added
+    private static Instant lastUpdate(PrecomputeStatus status) {
+        return Stream.of(status.getUpdatedAt(), status.getStartedAt(), status.getQueuedAt())
+                .filter(Objects::nonNull).findFirst().orElse(Instant.EPOCH);
+    }
+
+    private Duration lease() {
+        return Duration.ofMinutes(leaseMinutes);
+    }
+
+    private void precompute(String inputId, String assembly) {
+        String key = key(inputId, assembly);
+        String stagingKey = key + "::staging::" + UUID.randomUUID();
+        PrecomputeStatus.PrecomputeStatusBuilder status = PrecomputeStatus.builder()
+                .state(State.RUNNING)
+                .assembly(assemblyKey(assembly))
+                .totalLines(uploadCacheService.getInputSize(inputId))
+                .startedAt(Instant.now());
+        long start = System.currentTimeMillis();
+        try {
+            putStatus(inputId, assembly, status.mappedLines(0L).build());
+            // Cached by the upload's summary job for AUTO; null otherwise
+            InputBuild build = uploadCacheService.getBuild(inputId);
+
+            long mapped = 0;
+            try (Stream<List<String>> partitions = uploadCacheService.streamInputChunks(inputId, partitionSize)) {
+                for (List<String> lines : (Iterable<List<String>>) partitions::iterator) {
+                    List<VariantInput> inputs = VariantParser.parse(lines);
+                    inputMapper.getMapping(inputs, assembly, build, true);
+                    List<String> json = new ArrayList<>(inputs.size());
+                    for (VariantInput input : inputs) {
+                        json.add(toJson(input));
+                    }
+                    if (!json.isEmpty()) {
+                        redis.opsForList().rightPushAll(stagingKey, json);
+                        redis.expire(stagingKey, lease()); // left by a run lost to a restart
+                    }
+                    mapped += lines.size();
+                    putStatus(inputId, assembly, status.mappedLines(mapped).build());
+                }
+            }
+            if (mapped > 0) {
+                redis.rename(stagingKey, key);
+                redis.expire(key, retention.getSubmissions());
+            }
+            putStatus(inputId, assembly, status.state(State.READY).finishedAt(Instant.now()).build());
+            LOGGER.info("[{}] Precomputed mapping of {} lines ({}) in {} ms",
+                    inputId, mapped, assemblyKey(assembly), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            LOGGER.error("[{}] Precomputed mapping failed: {}", inputId, e.getMessage(), e);
+            redis.delete(stagingKey);
+            putStatus(inputId, assembly, status.state(State.FAILED)
+                    .message("Background mapping failed; results are mapped per page instead.")
+                    .finishedAt(Instant.now())
+                    .build());
+        }
+    }
+
+    // API JSON of the line minus originalIndex, which is per page (see PrecomputedInput)
+    private String toJson(VariantInput input) throws Exception {
+        ObjectNode node = objectMapper.valueToTree(input);
+        node.remove("originalIndex");
+        return objectMapper.writeValueAsString(node);
+    }
+
+    /**
+     * A page (0-based) of a READY precompute, or null if this upload and
+     * assembly has none (yet) or the page is past the end.
+     */
+    public Page<VariantInput> getPage(String inputId, String assembly, int page, int pageSize) {
+        PrecomputeStatus status = getStatus(inputId, assembly);
+        if (status == null || status.getState() != State.READY || status.getTotalLines() == null) return null;
+        long from = (long) page * pageSize;
+        if (from >= status.getTotalLines()) return null;
+
+        List<String> lines = redis.opsForList().range(key(inputId, assembly), from, from + pageSize - 1);
+        if (lines == null || lines.isEmpty()) return null;
+        List<VariantInput> inputs = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            inputs.add(new PrecomputedInput(i, lines.get(i)));
+        }
+        return new PageImpl<>(inputs, PageRequest.of(page, pageSize), status.getTotalLines());
+    }
+
+    /** Progress for this upload and assembly; a lost precompute (see lost()) is queued again. */
+    public PrecomputeStatus getStatus(String inputId, String assembly) {
+        PrecomputeStatus status = readStatus(inputId, assembly);
+        if (status == null || !enabled || !lost(status)) return status;
+        LOGGER.warn("[{}] Precompute {} since {}, queued again", inputId, status.getState(), lastUpdate(status));
+        long lineCount = status.getTotalLines() != null ? status.getTotalLines() : uploadCacheService.getInputSize(inputId);
+        return queue(inputId, assembly, lineCount);
+    }
+
+    private PrecomputeStatus readStatus(String inputId, String assembly) {
+        try {
+            Object raw = redisTemplate.opsForValue().get(statusKey(inputId, assembly));
+            return raw instanceof PrecomputeStatus status ? status : null;
+        } catch (Exception e) {
+            LOGGER.warn("Failed to read precompute status for {}: {}", inputId, e.getMessage());
+            return null;
+        }
+    }
+
+    private void putStatus(String inputId, String assembly, PrecomputeStatus status) {
+        status.setUpdatedAt(Instant.now());
+        try {
+            redisTemplate.opsForValue().set(statusKey(inputId, assembly), status, retention.getSubmissions());
+        } catch (Exception e) {
+            LOGGER.warn("Failed to write precompute status for {}: {}", inputId, e.getMessage());
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package uk.ac.ebi.protvar.service;
 
-import com.google.common.collect.Iterables;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,7 +28,6 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
 
 @Service
 @RequiredArgsConstructor
@@ -38,6 +36,7 @@ public class MappingService {
 
     private final InputService inputService;
     private final UploadCacheService uploadCacheService;
+    private final MappingPrecomputeService precomputeService;
     private final MappingRepo mappingRepo;
     private final GenomicVariantRepo genomicVariantRepo;
     private final InputMapper inputMapper;
@@ -107,8 +106,7 @@ public class MappingService {
             return 1L;
         }
         if (isResultId(request)) {
-            List<String> cached = uploadCacheService.getInput(request.getResultId());
-            return cached == null ? 0L : cached.size();
+            return uploadCacheService.getInputSize(request.getResultId());
         }
         if (hasIds(request)) {
             return mappingRepo.getGenomicVariantsForInput(request, PageRequest.of(0, 1)).getTotalElements();
@@ -141,42 +139,42 @@ public class MappingService {
     }
 
     private Page<VariantInput> cachedUploadPage(MappingRequest request) {
-        String cacheKey = request.getResultId();
-        List<String> fullList = uploadCacheService.getInput(cacheKey);
-        if (fullList == null || fullList.isEmpty()) return Page.empty();
-
         int page = request.getPage() - 1;
         int pageSize = request.getPageSize();
-        int total = fullList.size();
-        int fromIndex = page * pageSize;
-        if (fromIndex >= total) return Page.empty();
+        long fromIndex = (long) page * pageSize;
+        // only the requested page is read from Redis, along with the total
+        UploadCacheService.InputRange range = uploadCacheService.getInputRange(request.getResultId(), fromIndex, pageSize);
+        if (range.lines().isEmpty()) return Page.empty();
 
-        List<String> subList = fullList.subList(fromIndex, Math.min(fromIndex + pageSize, total));
-        List<VariantInput> parsed = VariantParser.parse(subList);
+        List<VariantInput> parsed = VariantParser.parse(range.lines());
         Pageable pageable = PageRequest.of(page, pageSize);
-        return new PageImpl<>(parsed, pageable, total);
+        return new PageImpl<>(parsed, pageable, range.total());
     }
 
     private Stream<List<VariantInput>> cachedUploadStream(MappingRequest request, int chunkSize) {
         String cacheKey = request.getResultId();
-        List<String> fullInput = uploadCacheService.getInput(cacheKey);
-        if (fullInput == null || fullInput.isEmpty()) return Stream.empty();
+        long size = uploadCacheService.getInputSize(cacheKey);
+        if (size == 0) return Stream.empty();
 
-        if (fullInput.size() > 1_000_000) {
-            LOGGER.warn("Cached input size is very large: {}", fullInput.size());
+        if (size > 1_000_000) {
+            LOGGER.warn("Cached input size is very large: {}", size);
         }
-        return StreamSupport.stream(
-                Iterables.partition(fullInput, chunkSize).spliterator(), false
-        ).map(VariantParser::parse);
+        // chunks are read from Redis lazily, as the download consumes them
+        return uploadCacheService.streamInputChunks(cacheKey, chunkSize).map(VariantParser::parse);
     }
 
     /**
      * Dispatches a MappingRequest and assembles the PagedMappingResponse for
      * the API. Wraps {@link #getInputs} with build detection (for resultId)
-     * and mapping/annotation enrichment.
+     * and mapping/annotation enrichment. A resultId page with a READY
+     * precompute (see {@link MappingPrecomputeService}) is read as mapped.
      */
     public PagedMappingResponse get(MappingRequest request) {
-        Page<VariantInput> page = getInputs(request);
+        Page<VariantInput> page = isResultId(request)
+                ? precomputeService.getPage(request.getResultId(), request.getAssembly(), request.getPage() - 1, request.getPageSize())
+                : null;
+        boolean precomputed = page != null;
+        if (!precomputed) page = getInputs(request);
         boolean filterOnly = isFilterOnly(request);
         boolean multiFormat = isMultiFormat(request);
 
@@ -191,7 +189,9 @@ public class MappingService {
             build = uploadCacheService.getBuild(request.getResultId());
         }
 
-        MappingResponse mapping = inputMapper.getMapping(inputs, request.getAssembly(), build, multiFormat);
+        MappingResponse mapping = precomputed
+                ? new MappingResponse(inputs)
+                : inputMapper.getMapping(inputs, request.getAssembly(), build, multiFormat);
 
         if (mapping != null && posRangeIgnored(request)) {
             mapping.getMessages().add(new Message(Message.MessageType.WARN,
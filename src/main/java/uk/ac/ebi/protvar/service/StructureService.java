@@ -3,25 +3,32 @@ package uk.ac.ebi.protvar.service;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.Cache;
-import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
+import uk.ac.ebi.protvar.cache.BatchCacheService;
+import uk.ac.ebi.protvar.cache.StructureIndex;
 import uk.ac.ebi.protvar.model.response.Structure;
 import uk.ac.ebi.protvar.model.response.StructureResidue;
 import uk.ac.ebi.protvar.repo.StructureRepo;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+/**
+ * Position lookups go through the accession's StructureIndex, which is how
+ * the STR L1 holds its entries (TieredCacheManager). Repeat positions on a
+ * heavily covered protein then don't rescan every chain's observed regions.
+ * Without an STR L1 (cache.l1.enabled=false) the index is built per lookup.
+ */
 @Service
 @RequiredArgsConstructor
 public class StructureService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(StructureService.class);
     private final StructureRepo structureRepo;
-    private final CacheManager cacheManager;
+    private final BatchCacheService batchCacheService;
 
     /**
      * Preloads the structure cache with structures for the given accessions.
@@ -29,40 +36,32 @@ public class StructureService {
      * 1. Call structureService.preloadStructureCache(accessions) early in the workflow.
      * 2. Later calls to structureRepo.getStr(accession) will hit the cache.
      *
+     * Cache lookups and writes go through BatchCacheService (MGET / pipelined
+     * SET) rather than one Redis round trip per accession; the STR L1 holds
+     * them as position indexes.
+     *
      * @param accessions List of accession strings to preload.
      */
     public void preloadStructureCache(List<String> accessions) {
         if (accessions == null || accessions.isEmpty()) return;
 
-        Cache cache = cacheManager.getCache("STR");
-        if (cache == null) return;
-
-        List<String> toFetch = accessions.stream()
-                .filter(acc -> cache.get(acc) == null)
-                .toList();
-
-        if (!toFetch.isEmpty()) {
+        batchCacheService.getAllOrLoad("STR", accessions, toFetch -> {
             LOGGER.info("Fetching structures for {} accessions", toFetch.size());
-            List<Structure> fetched = structureRepo.getStr(toFetch);
-
-            Map<String, List<Structure>> grouped = fetched.stream()
+            Map<String, List<Structure>> grouped = structureRepo.getStr(toFetch).stream()
                     .collect(Collectors.groupingBy(Structure::getAccession));
 
+            Map<String, List<Structure>> loaded = new HashMap<>();
             for (String acc : toFetch) {
-                List<Structure> list = grouped.getOrDefault(acc, Collections.emptyList());
-                cache.put(acc, list);
+                loaded.put(acc, grouped.getOrDefault(acc, Collections.emptyList()));
             }
-        }
+            return loaded;
+        });
     }
 
     public List<StructureResidue> getStr(String accession, Integer position) {
-        return filterByPosition(structureRepo.getStr(accession), position);
-    }
-
-    public List<StructureResidue> filterByPosition(List<Structure> structures, int position) {
-        return structures.stream()
-                .filter(structure -> structure.getObservedRegions().stream()
-                        .anyMatch(range -> range.size() == 2 && position >= range.get(0) && position <= range.get(1)))
+        List<Structure> structures = structureRepo.getStr(accession);
+        StructureIndex index = structures instanceof StructureIndex cached ? cached : StructureIndex.of(structures);
+        return index.structuresAt(position).stream()
                 .map(structure -> toStructureResidue(structure, position))
                 .toList();
     }
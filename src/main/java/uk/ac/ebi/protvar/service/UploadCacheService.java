@@ -1,14 +1,31 @@
 package uk.ac.ebi.protvar.service;
 
+import com.google.common.collect.Iterables;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 import uk.ac.ebi.protvar.cache.InputBuild;
 import uk.ac.ebi.protvar.cache.InputSummary;
+import uk.ac.ebi.protvar.config.RetentionProperties;
 import uk.ac.ebi.protvar.model.CachedInputData;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * todo rethink user cache
@@ -20,16 +37,183 @@ import java.util.List;
  *       1, raw, HGVS, [chr-pos-ref-alt, ...],
  *       ...
  *       ]
+ *
+ * Input lines are kept as a Redis list ({cacheVersion}::inputLines::{id},
+ * one element per normalised line) rather than one JSON array value, so an
+ * upload is written in chunks as it is read and read back in chunks. Builds
+ * and summaries stay in their @Cacheable caches. Entries written before the
+ * list format are still read from the "inputs" cache.
  */
 @Service
+@RequiredArgsConstructor
 public class UploadCacheService {
-    @Cacheable(value = "inputs", key = "#inputId")
-    //public List<VariantInput> getInput(String inputId) { return null; }
-    public List<String> getInput(String inputId) { return null; }
+    private static final Logger LOGGER = LoggerFactory.getLogger(UploadCacheService.class);
+    private static final String INPUT_LINES = "inputLines";
+    // Staging lists of uploads still being read; renamed on commit
+    private static final Duration STAGING_TTL = Duration.ofHours(6);
+    private static final int READ_CHUNK_SIZE = 10_000;
 
-    @CachePut(value = "inputs", key = "#inputId")
-    //public List<VariantInput> cacheInput(String inputId, List<VariantInput> inputs) { return inputs; }
-    public List<String> cacheInput(String inputId, List<String> inputs) { return inputs; }
+    private final StringRedisTemplate redis;
+    private final CacheManager cacheManager;
+    private final RetentionProperties retention;
+
+    // Versioned namespace, as for the @Cacheable keys (see RedisConfig)
+    @Value("${cache.version:v1}")
+    private String cacheVersion;
+
+    private String inputKey(String inputId) {
+        return cacheVersion + "::" + INPUT_LINES + "::" + inputId;
+    }
+
+    /**
+     * Writer for one upload: lines are appended to a staging list while the
+     * input is read (its id, the checksum, is only known at the end), then
+     * {@link #commit} moves the list under the input id. Closing without a
+     * commit drops the staging list. An upload spread over several requests
+     * (upload sessions) resumes its writer by staging key.
+     */
+    public class InputWriter implements AutoCloseable {
+        private final String stagingKey;
+        private long size;
+        private boolean committed;
+
+        private InputWriter(String stagingKey, long size) {
+            this.stagingKey = stagingKey;
+            this.size = size;
+        }
+
+        public void append(List<String> lines) {
+            if (lines.isEmpty()) return;
+            redis.opsForList().rightPushAll(stagingKey, lines);
+            redis.expire(stagingKey, STAGING_TTL); // from the last append
+            size += lines.size();
+        }
+
+        public long size() {
+            return size;
+        }
+
+        public String getStagingKey() {
+            return stagingKey;
+        }
+
+        public void commit(String inputId) {
+            committed = true;
+            if (size == 0) return; // nothing to store, same as a missing entry
+            String key = inputKey(inputId);
+            redis.rename(stagingKey, key);
+            redis.expire(key, retention.getSubmissions());
+        }
+
+        @Override
+        public void close() {
+            if (!committed && size > 0) {
+                try {
+                    redis.delete(stagingKey);
+                } catch (Exception e) {
+                    LOGGER.warn("Failed to drop staging input {}: {}", stagingKey, e.getMessage());
+                }
+            }
+        }
+    }
+
+    public InputWriter openInput() {
+        return new InputWriter(cacheVersion + "::" + INPUT_LINES + "::staging::" + UUID.randomUUID(), 0);
+    }
+
+    /** Writer for a staging list started by an earlier {@link #openInput()}, holding {@code size} lines. */
+    public InputWriter resumeInput(String stagingKey, long size) {
+        return new InputWriter(stagingKey, size);
+    }
+
+    /**
+     * All input lines, or null if the input is unknown or expired. Prefer
+     * {@link #getInputRange} or {@link #streamInputChunks} for large inputs.
+     */
+    public List<String> getInput(String inputId) {
+        List<String> lines = redis.opsForList().range(inputKey(inputId), 0, -1);
+        if (lines != null && !lines.isEmpty()) return lines;
+        return getLegacyInput(inputId);
+    }
+
+    /** Whether lines are stored under {@code inputId} (one EXISTS; legacy entries not checked). */
+    public boolean hasInput(String inputId) {
+        return Boolean.TRUE.equals(redis.hasKey(inputKey(inputId)));
+    }
+
+    /** Number of input lines (one LLEN), or 0 if the input is unknown or expired. */
+    public long getInputSize(String inputId) {
+        Long size = redis.opsForList().size(inputKey(inputId));
+        if (size != null && size > 0) return size;
+        List<String> legacy = getLegacyInput(inputId);
+        return legacy == null ? 0 : legacy.size();
+    }
+
+    /** Lines from {@code from} (at most {@code count}) and the total line count. */
+    public record InputRange(List<String> lines, long total) {
+        static final InputRange EMPTY = new InputRange(List.of(), 0);
+    }
+
+    /**
+     * One page of input lines: LLEN and LRANGE pipelined in one round trip,
+     * so only the page is transferred. A page past the end is empty.
+     */
+    @SuppressWarnings("unchecked")
+    public InputRange getInputRange(String inputId, long from, int count) {
+        // LRANGE from..from-1 would be read as a negative (from the end) index
+        if (from < 0 || count <= 0) return new InputRange(List.of(), getInputSize(inputId));
+        byte[] key = inputKey(inputId).getBytes(StandardCharsets.UTF_8);
+        List<Object> results = redis.executePipelined((RedisCallback<Object>) connection -> {
+            connection.listCommands().lLen(key);
+            connection.listCommands().lRange(key, from, from + count - 1);
+            return null;
+        });
+        Long total = (Long) results.get(0);
+        if (total != null && total > 0) return new InputRange((List<String>) results.get(1), total);
+
+        List<String> legacy = getLegacyInput(inputId);
+        if (legacy == null) return InputRange.EMPTY;
+        int to = (int) Math.min(from + count, legacy.size());
+        return new InputRange(from >= to ? List.of() : legacy.subList((int) from, to), legacy.size());
+    }
+
+    /**
+     * The input lines in chunks of at most {@code chunkSize}, read lazily
+     * with one LRANGE per chunk.
+     */
+    public Stream<List<String>> streamInputChunks(String inputId, int chunkSize) {
+        String key = inputKey(inputId);
+        Long size = redis.opsForList().size(key);
+        if (size == null || size == 0) {
+            List<String> legacy = getLegacyInput(inputId);
+            if (legacy == null) return Stream.empty();
+            return StreamSupport.stream(Iterables.partition(legacy, chunkSize).spliterator(), false);
+        }
+        return LongStream.iterate(0, from -> from < size, from -> from + chunkSize)
+                .mapToObj(from -> redis.opsForList().range(key, from, Math.min(from + chunkSize, size) - 1));
+    }
+
+    public void forEachInputChunk(String inputId, int chunkSize, Consumer<List<String>> consumer) {
+        streamInputChunks(inputId, chunkSize).forEach(consumer);
+    }
+
+    public void forEachInputChunk(String inputId, Consumer<List<String>> consumer) {
+        forEachInputChunk(inputId, READ_CHUNK_SIZE, consumer);
+    }
+
+    public List<String> cacheInput(String inputId, List<String> inputs) {
+        try (InputWriter writer = openInput()) {
+            writer.append(inputs);
+            writer.commit(inputId);
+        }
+        return inputs;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> getLegacyInput(String inputId) {
+        Cache cache = cacheManager.getCache("inputs");
+        return cache == null ? null : cache.get(inputId, List.class);
+    }
 
     // Rename InputBuild to GenomeBuild
     @Cacheable(value = "inputBuilds", key = "#inputId")
@@ -49,6 +233,8 @@ public class UploadCacheService {
     }
 
     @CacheEvict(value = {"inputs", "inputBuilds", "inputSummaries"}, key = "#inputId")
-    public void clearCache(String inputId) {}
+    public void clearCache(String inputId) {
+        redis.delete(inputKey(inputId));
+    }
 
 }
@@ -0,0 +1,323 @@
+package uk.ac.ebi.protvar.service;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import uk.ac.ebi.protvar.model.response.UploadSessionResponse;
+import uk.ac.ebi.protvar.utils.ChecksumUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Upload sessions: a large input sent as numbered chunks over several
+ * requests, so no single request holds a Tomcat thread (or the heap) for
+ * the whole file and a failed chunk can be retried on its own.
+ *
+ * Each chunk is normalised and written to the session's staging list as it
+ * arrives (see UploadCacheService.InputWriter); the unterminated last line
+ * of a chunk is carried over to the next. The input id is a chain of
+ * per-chunk line checksums, updated per chunk, so finalising only emits the
+ * carried line and renames the list. Session state lives in a Redis hash,
+ * so chunks may land on any node.
+ *
+ * Chunks must be sent in order and split on UTF-8 character boundaries
+ * (e.g. on line breaks). Re-sending an accepted chunk is a no-op if its
+ * bytes are unchanged. Ids of session uploads depend on the chunking, so
+ * they differ from the id of the same content sent in one request.
+ */
+@Service
+@RequiredArgsConstructor
+public class UploadSessionService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(UploadSessionService.class);
+    private static final String KEY_PREFIX = "uploadSessions";
+    // Idle sessions (and their staging lists, see UploadCacheService) expire
+    private static final Duration SESSION_TTL = Duration.ofHours(6);
+    // A finalised session is kept a little so a retried finalise gets the same id
+    private static final Duration FINALISED_TTL = Duration.ofHours(1);
+    private static final Duration LOCK_TTL = Duration.ofMinutes(5);
+    private static final int WRITE_CHUNK_SIZE = 10_000;
+    // Deletes the lock only if it still holds our token, so a request that
+    // outlived LOCK_TTL cannot release a lock since taken by another
+    private static final RedisScript<Long> UNLOCK = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private static final String ASSEMBLY = "assembly";
+    private static final String CREATED = "created";
+    private static final String STAGING = "staging";
+    private static final String NEXT = "next";
+    private static final String LINES = "lines";
+    private static final String DIGEST = "digest";
+    private static final String CARRY = "carry";
+    private static final String INPUT_ID = "inputId";
+    private static final String CHUNK = "chunk:";
+
+    public enum ChunkStatus {
+        APPENDED,      // chunk accepted
+        DUPLICATE,     // chunk already accepted with the same bytes
+        MISMATCH,      // chunk already accepted with different bytes
+        OUT_OF_ORDER,  // an earlier chunk is missing
+        BUSY,          // another request for this session is in progress
+        FINALISED,     // session already finalised
+        UNKNOWN        // no such session, or expired
+    }
+
+    public record ChunkResult(ChunkStatus status, UploadSessionResponse session) {}
+
+    public enum FinaliseStatus {
+        FINALISED,     // input id issued (now or by an earlier call)
+        BUSY,          // another request for this session is in progress
+        UNKNOWN        // no such session, or expired
+    }
+
+    /** inputId is set only when FINALISED. */
+    public record FinaliseResult(FinaliseStatus status, String inputId) {}
+
+    public enum AbortStatus {
+        ABORTED,       // session and staged lines dropped
+        BUSY,          // another request for this session is in progress
+        UNKNOWN        // no such session, or expired
+    }
+
+    private final StringRedisTemplate redis;
+    private final UploadCacheService cacheService;
+    private final InputService inputService;
+
+    @Value("${cache.version:v1}")
+    private String cacheVersion;
+
+    private String key(String sessionId) {
+        return cacheVersion + "::" + KEY_PREFIX + "::" + sessionId;
+    }
+
+    private HashOperations<String, String, String> hash() {
+        return redis.opsForHash();
+    }
+
+    public UploadSessionResponse create(String assembly) {
+        String sessionId = UUID.randomUUID().toString().replace("-", "");
+        String key = key(sessionId);
+        hash().putAll(key, Map.of(
+                ASSEMBLY, assembly == null ? "" : assembly,
+                CREATED, String.valueOf(System.currentTimeMillis()),
+                STAGING, cacheService.openInput().getStagingKey(),
+                NEXT, "0",
+                LINES, "0",
+                CARRY, ""));
+        redis.expire(key, SESSION_TTL);
+        return new UploadSessionResponse(sessionId, 0, 0);
+    }
+
+    public UploadSessionResponse get(String sessionId) {
+        Map<String, String> session = hash().entries(key(sessionId));
+        if (session.isEmpty()) return null;
+        return response(sessionId, session);
+    }
+
+    /** Normalises, checksums and stores chunk {@code index} of the session. */
+    public ChunkResult append(String sessionId, int index, InputStream body) throws IOException {
+        String key = key(sessionId);
+        if (!Boolean.TRUE.equals(redis.hasKey(key))) return new ChunkResult(ChunkStatus.UNKNOWN, null);
+        String lock = lock(key);
+        if (lock == null) return new ChunkResult(ChunkStatus.BUSY, null);
+        try {
+            Map<String, String> session = hash().entries(key);
+            if (session.isEmpty()) return new ChunkResult(ChunkStatus.UNKNOWN, null);
+            if (session.containsKey(INPUT_ID)) return new ChunkResult(ChunkStatus.FINALISED, response(sessionId, session));
+
+            int next = Integer.parseInt(session.get(NEXT));
+            if (index > next) return new ChunkResult(ChunkStatus.OUT_OF_ORDER, response(sessionId, session));
+            MessageDigest raw = md5();
+            DigestInputStream in = new DigestInputStream(body, raw);
+            if (index < next) {
+                in.transferTo(OutputStream.nullOutputStream());
+                boolean same = hex(raw.digest()).equals(session.get(CHUNK + index));
+                return new ChunkResult(same ? ChunkStatus.DUPLICATE : ChunkStatus.MISMATCH, response(sessionId, session));
+            }
+
+            long lines = Long.parseLong(session.get(LINES));
+            String stagingKey = session.get(STAGING);
+            discardPartialAppend(stagingKey, lines);
+            UploadCacheService.InputWriter writer = cacheService.resumeInput(stagingKey, lines);
+            ChecksumUtils.LineChecksum chunkLines = new ChecksumUtils.LineChecksum();
+            boolean[] anyLine = {false};
+            List<String> batch = new ArrayList<>(WRITE_CHUNK_SIZE);
+            String carry = InputService.normalizeLines(session.get(CARRY),
+                    new InputStreamReader(in, StandardCharsets.UTF_8), line -> {
+                        chunkLines.add(line);
+                        anyLine[0] = true;
+                        batch.add(line);
+                        if (batch.size() == WRITE_CHUNK_SIZE) {
+                            writer.append(batch);
+                            batch.clear();
+                        }
+                    });
+            writer.append(batch);
+
+            String digest = anyLine[0] ? chain(session.get(DIGEST), chunkLines.checksum()) : session.get(DIGEST);
+            Map<String, String> update = new HashMap<>(Map.of(
+                    NEXT, String.valueOf(index + 1),
+                    LINES, String.valueOf(writer.size()),
+                    CARRY, carry,
+                    CHUNK + index, hex(raw.digest())));
+            if (digest != null) update.put(DIGEST, digest);
+            hash().putAll(key, update);
+            redis.expire(key, SESSION_TTL);
+            return new ChunkResult(ChunkStatus.APPENDED, new UploadSessionResponse(sessionId, index + 1, writer.size()));
+        } finally {
+            unlock(key, lock);
+        }
+    }
+
+    /**
+     * Completes the session and returns the input id: the carried last
+     * line is added and the staging list moved under the id. Repeating
+     * the call returns the same id.
+     *
+     * The hash is left unchanged until INPUT_ID is written, so a retry after
+     * a failure part-way derives the same id: a list already moved under it
+     * is kept as it is, and a carried line pushed without the move is
+     * trimmed before it is added again.
+     */
+    public FinaliseResult finalise(String sessionId) {
+        String key = key(sessionId);
+        Map<String, String> session = hash().entries(key);
+        if (session.isEmpty()) return new FinaliseResult(FinaliseStatus.UNKNOWN, null);
+        if (session.containsKey(INPUT_ID)) return finalised(session);
+        String lock = lock(key);
+        if (lock == null) return new FinaliseResult(FinaliseStatus.BUSY, null);
+        try {
+            session = hash().entries(key);
+            // expired while we waited for the lock
+            if (session.isEmpty()) return new FinaliseResult(FinaliseStatus.UNKNOWN, null);
+            if (session.containsKey(INPUT_ID)) return finalised(session);
+
+            long lines = Long.parseLong(session.get(LINES));
+            String stagingKey = session.get(STAGING);
+            List<String> last = new ArrayList<>(1);
+            InputService.emitLine(session.get(CARRY), last::add);
+            String digest = session.get(DIGEST);
+            for (String line : last) {
+                ChecksumUtils.LineChecksum lastLine = new ChecksumUtils.LineChecksum();
+                lastLine.add(line);
+                digest = chain(digest, lastLine.checksum());
+            }
+            // no lines at all: same id as an empty single-request upload
+            String inputId = digest != null ? digest : ChecksumUtils.checksum(new byte[0]);
+            long size = lines + last.size();
+
+            if (size > 0 && cacheService.hasInput(inputId)) {
+                // moved by an earlier attempt (or the same content uploaded before)
+                redis.delete(stagingKey);
+            } else {
+                discardPartialAppend(stagingKey, lines);
+                UploadCacheService.InputWriter writer = cacheService.resumeInput(stagingKey, lines);
+                writer.append(last);
+                writer.commit(inputId);
+            }
+
+            hash().put(key, INPUT_ID, inputId);
+            redis.expire(key, FINALISED_TTL);
+            inputService.summariseAsync(inputId, size, blankToNull(session.get(ASSEMBLY)),
+                    Long.parseLong(session.get(CREATED)));
+            LOGGER.info("Upload session {} finalised as {} ({} lines)", sessionId, inputId, size);
+            return new FinaliseResult(FinaliseStatus.FINALISED, inputId);
+        } finally {
+            unlock(key, lock);
+        }
+    }
+
+    private static FinaliseResult finalised(Map<String, String> session) {
+        return new FinaliseResult(FinaliseStatus.FINALISED, session.get(INPUT_ID));
+    }
+
+    /** Drops the session and any lines staged so far. */
+    public AbortStatus abort(String sessionId) {
+        String key = key(sessionId);
+        if (!Boolean.TRUE.equals(redis.hasKey(key))) return AbortStatus.UNKNOWN;
+        String lock = lock(key);
+        if (lock == null) return AbortStatus.BUSY;
+        try {
+            Map<String, String> session = hash().entries(key);
+            if (session.isEmpty()) return AbortStatus.UNKNOWN;
+            // staged lines, including any pushed by a chunk that failed mid-way
+            if (!session.containsKey(INPUT_ID)) redis.delete(session.get(STAGING));
+            redis.delete(key);
+            return AbortStatus.ABORTED;
+        } finally {
+            unlock(key, lock);
+        }
+    }
+
+    // A chunk that failed mid-way may have pushed some lines; trim back to
+    // the last accepted chunk before it is retried
+    private void discardPartialAppend(String stagingKey, long lines) {
+        Long staged = redis.opsForList().size(stagingKey);
+        if (staged == null || staged == lines) return;
+        if (lines == 0) redis.delete(stagingKey);
+        else redis.opsForList().trim(stagingKey, 0, lines - 1);
+    }
+
+    // id so far = md5(previous id || chunk line checksum)
+    private static String chain(String previous, String chunkChecksum) {
+        MessageDigest md5 = md5();
+        if (previous != null) md5.update(previous.getBytes(StandardCharsets.US_ASCII));
+        md5.update(chunkChecksum.getBytes(StandardCharsets.US_ASCII));
+        return ChecksumUtils.hex(md5.digest());
+    }
+
+    // The lock's owner token, or null if another request holds it
+    private String lock(String key) {
+        String token = UUID.randomUUID().toString();
+        return Boolean.TRUE.equals(redis.opsForValue().setIfAbsent(key + "::lock", token, LOCK_TTL)) ? token : null;
+    }
+
+    private void unlock(String key, String token) {
+        try {
+            redis.execute(UNLOCK, List.of(key + "::lock"), token);
+        } catch (RuntimeException e) {
+            // left to expire with LOCK_TTL
+            LOGGER.warn("Failed to release upload session lock {}: {}", key, e.getMessage());
+        }
+    }
+
+    private static UploadSessionResponse response(String sessionId, Map<String, String> session) {
+        return new UploadSessionResponse(sessionId, Integer.parseInt(session.get(NEXT)), Long.parseLong(session.get(LINES)));
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    private static String hex(byte[] digest) {
+        return HexFormat.of().formatHex(digest);
+    }
+
+    private static MessageDigest md5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
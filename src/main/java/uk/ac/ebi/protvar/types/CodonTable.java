@@ -0,0 +1,84 @@
+package uk.ac.ebi.protvar.types;
+
+/**
+ * Precomputed single-base substitutions of every RNA codon, indexed by
+ * (ref codon, codon position 1-3, genomic alt base ACGT, strand). Each entry
+ * holds the alt codon, its amino acid and the consequence against the ref
+ * codon's amino acid, so a lookup allocates nothing; the 1536 entries are
+ * built once from Codon and AminoAcid.getConsequence.
+ *
+ * Alt bases are genomic (forward strand) DNA letters; on the reverse strand
+ * the complement is applied, as in GenomeToProteinMapping.getAltCodon.
+ */
+public final class CodonTable {
+
+    public record Substitution(Codon altCodon, AminoAcid altAA, String consequence) {}
+
+    private static final Codon[] CODONS = Codon.values(); // ACGU order: ordinal = 16*b1 + 4*b2 + b3
+    private static final Substitution[] TABLE = new Substitution[CODONS.length * 3 * 4 * 2];
+
+    static {
+        for (Codon ref : CODONS) {
+            for (int pos = 1; pos <= 3; pos++) {
+                for (int alt = 0; alt < 4; alt++) {
+                    for (int strand = 0; strand < 2; strand++) {
+                        int rnaBase = strand == 0 ? alt : 3 - alt; // A<->U, C<->G
+                        int shift = 2 * (3 - pos);
+                        int altOrdinal = (ref.ordinal() & ~(3 << shift)) | (rnaBase << shift);
+                        Codon altCodon = CODONS[altOrdinal];
+                        TABLE[index(ref.ordinal(), pos, alt, strand == 1)] = new Substitution(altCodon,
+                                altCodon.getAa(), AminoAcid.getConsequence(ref.getAa(), altCodon.getAa()));
+                    }
+                }
+            }
+        }
+    }
+
+    private CodonTable() {
+    }
+
+    /**
+     * @param codonPosition 1-3
+     * @param altBase genomic alt base, A, C, G or T (either case)
+     * @return the substitution, or null if the position or base is invalid
+     */
+    public static Substitution get(Codon ref, int codonPosition, char altBase, boolean reverseStrand) {
+        int alt = baseIndex(altBase);
+        if (ref == null || alt < 0 || codonPosition < 1 || codonPosition > 3)
+            return null;
+        return TABLE[index(ref.ordinal(), codonPosition, alt, reverseStrand)];
+    }
+
+    /** Substitution of a codon given as text (e.g. g2p codon column), or null if invalid. */
+    public static Substitution get(CharSequence refCodon, int codonPosition, char altBase, boolean reverseStrand) {
+        return get(codon(refCodon), codonPosition, altBase, reverseStrand);
+    }
+
+    /** RNA or DNA codon text, either case, to its Codon without allocating; null if not a codon. */
+    public static Codon codon(CharSequence seq) {
+        if (seq == null || seq.length() != 3)
+            return null;
+        int ordinal = 0;
+        for (int i = 0; i < 3; i++) {
+            int b = baseIndex(seq.charAt(i));
+            if (b < 0) return null;
+            ordinal = ordinal << 2 | b;
+        }
+        return CODONS[ordinal];
+    }
+
+    // A, C, G, T/U -> 0-3, else -1
+    private static int baseIndex(char base) {
+        switch (base) {
+            case 'A': case 'a': return 0;
+            case 'C': case 'c': return 1;
+            case 'G': case 'g': return 2;
+            case 'T': case 't': case 'U': case 'u': return 3;
+            default: return -1;
+        }
+    }
+
+    private static int index(int codonOrdinal, int codonPosition, int altBase, boolean reverseStrand) {
+        return ((codonOrdinal * 3 + codonPosition - 1) * 4 + altBase) * 2 + (reverseStrand ? 1 : 0);
+    }
+}
@@ -1,7 +1,9 @@
 package uk.ac.ebi.protvar.utils;
 
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
 public class ChecksumUtils {
     /**
@@ -11,11 +13,42 @@ public class ChecksumUtils {
      */
     public static String checksum(byte[] data) {
         try {
-            byte[] hash = MessageDigest.getInstance("MD5").digest(data);
-            String checksum = new BigInteger(1, hash).toString(16);
-            return checksum;
+            return hex(MessageDigest.getInstance("MD5").digest(data));
         } catch (Exception e) {
             return null;
         }
     }
+
+    /** Same hex form as {@link #checksum} (no leading zeros). */
+    public static String hex(byte[] hash) {
+        return new BigInteger(1, hash).toString(16);
+    }
+
+    /**
+     * Incremental {@link #checksum} of lines joined with "\n", without
+     * building the joined string: add the lines in order, then call
+     * {@link #checksum()}.
+     */
+    public static class LineChecksum {
+        private final MessageDigest digest;
+        private boolean first = true;
+
+        public LineChecksum() {
+            try {
+                digest = MessageDigest.getInstance("MD5");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        public void add(String line) {
+            if (!first) digest.update((byte) '\n');
+            first = false;
+            digest.update(line.getBytes(StandardCharsets.UTF_8));
+        }
+
+        public String checksum() {
+            return hex(digest.digest());
+        }
+    }
 }
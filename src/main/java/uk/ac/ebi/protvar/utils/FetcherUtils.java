@@ -45,10 +45,4 @@ public class FetcherUtils {
     List<List<String>> partitions = Lists.partition(inputList, partitionSize);
     return new ArrayList<>(partitions);
   }
-
-  public static SortedMap<String, List<String>> getByPrefix(
-          NavigableMap<String, List<String>> myMap,
-          String prefix ) {
-    return myMap.subMap( prefix, prefix + Character.MAX_VALUE );
-  }
 }
@@ -0,0 +1,72 @@
+package uk.ac.ebi.protvar.utils;
+
+/**
+ * Packs a (chromosome, position) pair into a single {@code long} so per-row
+ * lookups don't build a {@link VariantKey#genomic(String, Integer)} string.
+ *
+ *   bits 63..32   chromosome index (1-22, X=23, Y=24, MT=25)
+ *   bits 31..0    genomic position
+ *
+ * Chromosome names are expected in the normalised form produced by
+ * VariantParser.normalizeChr (and stored in the mapping tables); matching is
+ * case-insensitive like {@link uk.ac.ebi.protvar.record.ChromosomePosition}.
+ * Anything else encodes to {@link #NONE}, which is never stored in a map.
+ */
+public class GenomicKey {
+
+    public static final long NONE = -1L;
+
+    // index -> canonical name; index 0 unused so a valid key is never 0
+    private static final String[] CHROMOSOMES = {
+            null,
+            "1", "2", "3", "4", "5", "6", "7", "8", "9", "10", "11",
+            "12", "13", "14", "15", "16", "17", "18", "19", "20", "21", "22",
+            "X", "Y", "MT"
+    };
+
+    private GenomicKey() {
+        // utility class; prevent instantiation
+    }
+
+    public static long of(String chromosome, Integer position) {
+        if (position == null || position < 0) return NONE;
+        int idx = chromosomeIndex(chromosome);
+        if (idx < 0) return NONE;
+        return ((long) idx << 32) | position;
+    }
+
+    public static String chromosome(long key) {
+        return CHROMOSOMES[(int) (key >>> 32)];
+    }
+
+    public static int position(long key) {
+        return (int) key;
+    }
+
+    /**
+     * Index of a normalised chromosome name, or -1 if not one of 1-22, X, Y, MT.
+     * Hand-rolled rather than a map lookup so the hot path stays allocation-free.
+     */
+    public static int chromosomeIndex(String chromosome) {
+        if (chromosome == null) return -1;
+        int len = chromosome.length();
+        if (len == 1 || len == 2) {
+            char c0 = chromosome.charAt(0);
+            if (c0 >= '1' && c0 <= '9') {
+                if (len == 1) return c0 - '0';
+                char c1 = chromosome.charAt(1);
+                if (c1 < '0' || c1 > '9') return -1;
+                int n = (c0 - '0') * 10 + (c1 - '0');
+                return n <= 22 ? n : -1;
+            }
+            if (len == 1) {
+                if (c0 == 'X' || c0 == 'x') return 23;
+                if (c0 == 'Y' || c0 == 'y') return 24;
+                return -1;
+            }
+            if ((c0 == 'M' || c0 == 'm') && (chromosome.charAt(1) == 'T' || chromosome.charAt(1) == 't'))
+                return 25;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,70 @@
+package uk.ac.ebi.protvar.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Release-stamped local snapshot files for per-release lookup structures
+ * that are expensive to rebuild from the DB at every pod start.
+ *
+ * Layout: [int magic][int format version][UTF stamp][body]. The stamp is
+ * whatever identifies the data the body was built from (typically the
+ * release-prefixed table name), so a snapshot from another release or
+ * format is ignored rather than misread. Files are written to a temp file
+ * and atomically moved into place, so concurrent pods sharing the data
+ * volume never map a half-written snapshot.
+ */
+public final class SnapshotFile {
+
+    @FunctionalInterface
+    public interface BodyWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * Maps the snapshot read-only and returns its body (big-endian, position
+     * 0 at the start of the body), or null if the file is missing or was
+     * written for a different magic/version/stamp.
+     */
+    public static ByteBuffer map(Path path, int magic, int version, String stamp) throws IOException {
+        if (!Files.isRegularFile(path)) return null;
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.remaining() < 10 || buffer.getInt() != magic || buffer.getInt() != version) return null;
+        int stampLength = Short.toUnsignedInt(buffer.getShort());
+        if (stampLength > buffer.remaining()) return null;
+        byte[] stampBytes = new byte[stampLength];
+        buffer.get(stampBytes);
+        if (!stamp.equals(new String(stampBytes, StandardCharsets.UTF_8))) return null;
+        return buffer.slice();
+    }
+
+    public static void write(Path path, int magic, int version, String stamp, BodyWriter body) throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Path tmp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(magic);
+                out.writeInt(version);
+                out.writeUTF(stamp);
+                body.write(out);
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+}
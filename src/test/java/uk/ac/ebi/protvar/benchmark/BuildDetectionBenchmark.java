@@ -0,0 +1,98 @@
+package uk.ac.ebi.protvar.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import uk.ac.ebi.protvar.cache.LiftoverIndex;
+import uk.ac.ebi.protvar.input.VariantInput;
+import uk.ac.ebi.protvar.input.parser.genomic.GenomicParser;
+import uk.ac.ebi.protvar.input.processor.BuildProcessor;
+import uk.ac.ebi.protvar.repo.CrossmapRepo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Build auto-detection on a 1M-line genomic upload, membership answered by
+ * the in-memory liftover index in both cases: the former copy-and-shuffle
+ * sample of the whole input list vs the one-pass reservoir sample used by
+ * BuildProcessor.detect.
+ *
+ * The index holds 200k crossmap positions on each of 8 chromosomes; 90% of
+ * the input lines are GRCh38 positions (and bases) from it.
+ *
+ *   mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=uk.ac.ebi.protvar.benchmark.BuildDetectionBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BuildDetectionBenchmark {
+
+    private static final int LINES = 1_000_000;
+    private static final int POSITIONS = 200_000;
+    private static final int START37 = 1_000_000;
+    private static final int SHIFT38 = 54_321;
+    private static final String[] CHRS = {"1", "2", "7", "11", "17", "19", "X", "MT"};
+    private static final String[] BASES = {"A", "C", "G", "T"};
+
+    private BuildProcessor buildProcessor;
+    private List<VariantInput> inputs;
+
+    @Setup
+    public void setup() {
+        LiftoverIndex.Builder builder = new LiftoverIndex.Builder();
+        for (String chr : CHRS) {
+            for (int i = 0; i < POSITIONS; i++) {
+                String base = BASES[i & 3];
+                builder.accept(chr, START37 + i, base, START37 + SHIFT38 + i, base);
+            }
+        }
+        CrossmapRepo crossmapRepo = new CrossmapRepo(null);
+        crossmapRepo.useLiftoverIndex(builder.build());
+        buildProcessor = new BuildProcessor();
+        ReflectionTestUtils.setField(buildProcessor, "crossmapRepo", crossmapRepo);
+
+        Random random = new Random(42);
+        inputs = new ArrayList<>(LINES);
+        for (int i = 0; i < LINES; i++) {
+            String chr = CHRS[random.nextInt(CHRS.length)];
+            int offset = random.nextInt(POSITIONS);
+            String line = random.nextInt(10) < 9
+                    ? chr + " " + (START37 + SHIFT38 + offset) + " " + BASES[offset & 3] + " A"
+                    : chr + " " + (1 + random.nextInt(100_000_000)) + " " + BASES[random.nextInt(4)] + " A";
+            inputs.add(GenomicParser.parse(line));
+        }
+    }
+
+    @Benchmark
+    public void copyShuffleSample(Blackhole bh) {
+        List<VariantInput> copy = new ArrayList<>(inputs);
+        Collections.shuffle(copy);
+        bh.consume(buildProcessor.detect(copy.subList(0, BuildProcessor.AUTO_DETECT_SAMPLE_SIZE)));
+    }
+
+    @Benchmark
+    public void reservoirSample(Blackhole bh) {
+        bh.consume(buildProcessor.detect(inputs));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(BuildDetectionBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,117 @@
+package uk.ac.ebi.protvar.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import uk.ac.ebi.protvar.RedisConfig;
+import uk.ac.ebi.protvar.cache.CodecRedisSerializer;
+import uk.ac.ebi.protvar.config.CacheCodecProperties.Format;
+import uk.ac.ebi.protvar.model.response.Structure;
+import uk.ac.ebi.uniprot.domain.entry.UPEntry;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis value codecs on real cached model classes: a FUN_HEADER UPEntry
+ * (src/test/resources/protein.json) and an STR structure list sized like a
+ * well-studied protein. Compares the current JSON serializer with Smile and
+ * Smile+deflate as configured via cache.codec.*.
+ *
+ *   mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=uk.ac.ebi.protvar.benchmark.CacheCodecBenchmark
+ *
+ * Payload sizes (bytes on the wire / in Redis) are printed before the run.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CacheCodecBenchmark {
+
+    private static final int STRUCTURES = 800;
+    private static final String[] METHODS = {"X-ray diffraction", "Electron Microscopy", "Solution NMR"};
+
+    public enum Codec { JSON, SMILE, SMILE_DEFLATE }
+
+    @Param({"FUN_HEADER", "STR"})
+    public String cache;
+
+    @Param({"JSON", "SMILE", "SMILE_DEFLATE"})
+    public Codec codec;
+
+    private CodecRedisSerializer serializer;
+    private Object value;
+    private byte[] bytes;
+
+    @Setup
+    public void setup() throws IOException {
+        serializer = serializer(codec);
+        value = value(cache);
+        bytes = serializer.serialize(value);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(value);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(bytes);
+    }
+
+    static CodecRedisSerializer serializer(Codec codec) {
+        GenericJackson2JsonRedisSerializer json =
+                new GenericJackson2JsonRedisSerializer(RedisConfig.configureCacheMapper(new ObjectMapper()));
+        ObjectMapper smile = RedisConfig.smileCacheMapper();
+        return switch (codec) {
+            case JSON -> new CodecRedisSerializer(Format.JSON, json, smile, 0);
+            case SMILE -> new CodecRedisSerializer(Format.SMILE, json, smile, 0);
+            case SMILE_DEFLATE -> new CodecRedisSerializer(Format.SMILE, json, smile, 1);
+        };
+    }
+
+    static Object value(String cache) throws IOException {
+        if ("FUN_HEADER".equals(cache)) {
+            String data = Files.readString(Path.of("src/test/resources/protein.json"));
+            return new Gson().fromJson(data, UPEntry[].class)[0];
+        }
+        Random random = new Random(42);
+        List<Structure> structures = new ArrayList<>(STRUCTURES);
+        for (int i = 0; i < STRUCTURES; i++) {
+            int start = 1 + random.nextInt(500);
+            int end = start + random.nextInt(400);
+            structures.add(new Structure("P04637", METHODS[random.nextInt(METHODS.length)],
+                    1.5 + random.nextInt(30) / 10.0, String.format("%d%s%02d", 1 + random.nextInt(9), "ab", i % 100),
+                    String.valueOf((char) ('A' + random.nextInt(8))),
+                    new ArrayList<>(List.of(new ArrayList<>(List.of(start, end)))), start, end, start, end));
+        }
+        return structures;
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        for (String cache : List.of("FUN_HEADER", "STR")) {
+            Object value = value(cache);
+            for (Codec codec : Codec.values()) {
+                System.out.printf("%-10s %-13s %8d bytes%n", cache, codec, serializer(codec).serialize(value).length);
+            }
+        }
+        Options options = new OptionsBuilder()
+                .include(CacheCodecBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,91 @@
+package uk.ac.ebi.protvar.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import uk.ac.ebi.protvar.model.data.GenomeToProteinMapping;
+import uk.ac.ebi.protvar.types.AminoAcid;
+import uk.ac.ebi.protvar.types.Codon;
+import uk.ac.ebi.protvar.types.CodonTable;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Alt codon, alt amino acid and consequence of one g2p mapping and alt base,
+ * as in IsoformConverter.createIsoform: the former getAltCodon (StringBuilder,
+ * complement map) + Codon.valueOf(toUpperCase()) + getConsequence vs a
+ * CodonTable lookup. Tests for the table itself are in CodonTest.
+ *
+ * One invocation = 4096 (mapping, alt base) pairs over random codons,
+ * positions and strands:
+ *
+ *   mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=uk.ac.ebi.protvar.benchmark.CodonSubstitutionBenchmark
+ *
+ * and compare gc.alloc.rate.norm (bytes/op) between the two benchmarks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CodonSubstitutionBenchmark {
+
+    private static final int PAIRS = 4096;
+    private static final String[] DNA_BASES = {"A", "C", "G", "T"};
+
+    private GenomeToProteinMapping[] mappings;
+    private String[] altBases;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        Codon[] codons = Codon.values();
+        mappings = new GenomeToProteinMapping[PAIRS];
+        altBases = new String[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            mappings[i] = GenomeToProteinMapping.builder()
+                    .codon(codons[random.nextInt(codons.length)].name())
+                    .codonPosition(1 + random.nextInt(3))
+                    .reverseStrand(random.nextBoolean())
+                    .build();
+            altBases[i] = DNA_BASES[random.nextInt(4)];
+        }
+    }
+
+    @Benchmark
+    public void stringSubstitution(Blackhole bh) {
+        for (int i = 0; i < PAIRS; i++) {
+            GenomeToProteinMapping mapping = mappings[i];
+            String altCodon = mapping.getAltCodon(altBases[i]);
+            AminoAcid altAA = Codon.valueOf(altCodon.toUpperCase()).getAa();
+            bh.consume(altCodon);
+            bh.consume(AminoAcid.getConsequence(Codon.valueOf(mapping.getCodon()).getAa(), altAA));
+        }
+    }
+
+    @Benchmark
+    public void codonTable(Blackhole bh) {
+        for (int i = 0; i < PAIRS; i++) {
+            GenomeToProteinMapping mapping = mappings[i];
+            CodonTable.Substitution substitution = CodonTable.get(mapping.getCodon(), mapping.getCodonPosition(),
+                    altBases[i].charAt(0), mapping.isReverseStrand());
+            bh.consume(substitution.altCodon().name());
+            bh.consume(substitution.consequence());
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CodonSubstitutionBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
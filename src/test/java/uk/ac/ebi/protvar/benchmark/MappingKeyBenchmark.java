@@ -0,0 +1,126 @@
+package uk.ac.ebi.protvar.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import uk.ac.ebi.protvar.model.data.GenomeToProteinMapping;
+import uk.ac.ebi.protvar.record.ChromosomePosition;
+import uk.ac.ebi.protvar.utils.GenomicKey;
+import uk.ac.ebi.protvar.utils.LongKeyMap;
+import uk.ac.ebi.protvar.utils.VariantKey;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-partition cost of building and probing the g2p lookup in
+ * InputMapper.loadCoreMappingAndScores/processInput: the previous
+ * String-keyed HashMap (VariantKey.genomic per row and per lookup, boxed
+ * ChromosomePosition dedup) vs packed GenomicKey + LongKeyMap.
+ *
+ * One invocation = one 4000-input partition (csv.partition.size default),
+ * ~3 g2p rows per position. Run with the GC profiler to see allocation:
+ *
+ *   mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=uk.ac.ebi.protvar.benchmark.MappingKeyBenchmark
+ *
+ * and compare gc.alloc.rate.norm (bytes/op) between the two benchmarks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MappingKeyBenchmark {
+
+    private static final int PARTITION_SIZE = 4000;
+    private static final int ROWS_PER_POSITION = 3;
+    private static final String[] CHRS = {"1", "2", "7", "11", "17", "19", "X"};
+
+    private String[] inputChrs;
+    private Integer[] inputPositions;
+    private List<GenomeToProteinMapping> rows;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        inputChrs = new String[PARTITION_SIZE];
+        inputPositions = new Integer[PARTITION_SIZE];
+        rows = new ArrayList<>(PARTITION_SIZE * ROWS_PER_POSITION);
+        for (int i = 0; i < PARTITION_SIZE; i++) {
+            String chr = CHRS[random.nextInt(CHRS.length)];
+            int pos = 1_000_000 + random.nextInt(100_000_000);
+            inputChrs[i] = chr;
+            inputPositions[i] = pos;
+            for (int r = 0; r < ROWS_PER_POSITION; r++) {
+                rows.add(GenomeToProteinMapping.builder()
+                        .chromosome(chr)
+                        .genomeLocation(pos)
+                        .accession("P" + (10000 + random.nextInt(80000)))
+                        .isoformPosition(1 + random.nextInt(2000))
+                        .isCanonical(r == 0)
+                        .build());
+            }
+        }
+    }
+
+    @Benchmark
+    public void stringKeys(Blackhole bh) {
+        Set<ChromosomePosition> unique = new HashSet<>();
+        for (int i = 0; i < PARTITION_SIZE; i++) {
+            unique.add(new ChromosomePosition(inputChrs[i], inputPositions[i]));
+        }
+        bh.consume(unique.stream().map(ChromosomePosition::chromosome).toArray(String[]::new));
+        bh.consume(unique.stream().map(ChromosomePosition::position).toArray(Integer[]::new));
+
+        Map<String, List<GenomeToProteinMapping>> g2pMap = new HashMap<>();
+        for (GenomeToProteinMapping m : rows) {
+            g2pMap.computeIfAbsent(m.getVariantKeyGenomic(), k -> new ArrayList<>()).add(m);
+        }
+        for (int i = 0; i < PARTITION_SIZE; i++) {
+            bh.consume(g2pMap.get(VariantKey.genomic(inputChrs[i], inputPositions[i])));
+        }
+    }
+
+    @Benchmark
+    public void packedKeys(Blackhole bh) {
+        long[] keys = new long[PARTITION_SIZE];
+        for (int i = 0; i < PARTITION_SIZE; i++) {
+            keys[i] = GenomicKey.of(inputChrs[i], inputPositions[i]);
+        }
+        Arrays.sort(keys);
+        int unique = 1;
+        for (int i = 1; i < keys.length; i++) {
+            if (keys[i] != keys[unique - 1]) keys[unique++] = keys[i];
+        }
+        String[] chromosomes = new String[unique];
+        Integer[] positions = new Integer[unique];
+        for (int i = 0; i < unique; i++) {
+            chromosomes[i] = GenomicKey.chromosome(keys[i]);
+            positions[i] = GenomicKey.position(keys[i]);
+        }
+        bh.consume(chromosomes);
+        bh.consume(positions);
+
+        LongKeyMap<List<GenomeToProteinMapping>> g2pMap = new LongKeyMap<>(unique);
+        for (GenomeToProteinMapping m : rows) {
+            g2pMap.computeIfAbsent(GenomicKey.of(m.getChromosome(), m.getGenomeLocation()), k -> new ArrayList<>()).add(m);
+        }
+        for (int i = 0; i < PARTITION_SIZE; i++) {
+            bh.consume(g2pMap.get(GenomicKey.of(inputChrs[i], inputPositions[i])));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(MappingKeyBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
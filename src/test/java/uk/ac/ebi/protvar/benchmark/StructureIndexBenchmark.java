@@ -0,0 +1,101 @@
+package uk.ac.ebi.protvar.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import uk.ac.ebi.protvar.cache.StructureIndex;
+import uk.ac.ebi.protvar.model.response.Structure;
+import uk.ac.ebi.protvar.model.response.StructureResidue;
+import uk.ac.ebi.protvar.service.StructureService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StructureService.getStr(accession, position) on a heavily covered protein:
+ * a linear scan over every chain's observed regions (as getStr did before
+ * the index) vs a StructureIndex lookup. Both build the same StructureResidue list.
+ *
+ * The protein is 3000 residues with 800 chains of 1-3 observed regions
+ * (short fragments and near-full-length models, like P04637 or P00533 in
+ * PDB). One invocation = 1000 random positions:
+ *
+ *   mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=uk.ac.ebi.protvar.benchmark.StructureIndexBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StructureIndexBenchmark {
+
+    private static final int LENGTH = 3000;
+    private static final int CHAINS = 800;
+    private static final int QUERIES = 1000;
+
+    private List<Structure> structures;
+    private StructureIndex index;
+    private int[] positions;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        structures = new ArrayList<>(CHAINS);
+        for (int s = 0; s < CHAINS; s++) {
+            List<List<Integer>> regions = new ArrayList<>();
+            int start = 1 + random.nextInt(LENGTH);
+            int span = random.nextInt(10) == 0 ? LENGTH : 20 + random.nextInt(300);
+            for (int r = 1 + random.nextInt(3); r > 0 && start <= LENGTH; r--) {
+                int end = Math.min(LENGTH, start + random.nextInt(span));
+                regions.add(List.of(start, end));
+                start = end + 2 + random.nextInt(10); // unresolved gap
+            }
+            structures.add(new Structure("P04637", "X-ray", 2.0, "pdb" + s, "A", regions, 1, LENGTH, 1, LENGTH));
+        }
+        index = StructureIndex.of(structures);
+
+        positions = new int[QUERIES];
+        for (int i = 0; i < QUERIES; i++) positions[i] = 1 + random.nextInt(LENGTH);
+    }
+
+    @Benchmark
+    public void linearScan(Blackhole bh) {
+        for (int position : positions) {
+            bh.consume(filterByPosition(structures, position));
+        }
+    }
+
+    @Benchmark
+    public void intervalIndex(Blackhole bh) {
+        for (int position : positions) {
+            List<StructureResidue> residues = index.structuresAt(position).stream()
+                    .map(structure -> StructureService.toStructureResidue(structure, position))
+                    .toList();
+            bh.consume(residues);
+        }
+    }
+
+    static List<StructureResidue> filterByPosition(List<Structure> structures, int position) {
+        return structures.stream()
+                .filter(structure -> structure.getObservedRegions().stream()
+                        .anyMatch(range -> range.size() == 2 && position >= range.get(0) && position <= range.get(1)))
+                .map(structure -> StructureService.toStructureResidue(structure, position))
+                .toList();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(StructureIndexBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,91 @@
+package uk.ac.ebi.protvar.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import uk.ac.ebi.protvar.input.parser.VariantParser;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Classification + parse cost of VariantParser on a mixed upload: the
+ * pattern chain (parseByPatterns — WORD, ID prefixes, HGVS structure,
+ * protein, gnomAD, VCF, genomic regexes in turn) vs the single-pass
+ * VariantLexer dispatch (parse).
+ *
+ * One invocation = 10k lines drawn from a mix resembling real uploads:
+ * mostly VCF rows, then internal genomic, gnomAD, dbSNP IDs, HGVS (g./c./p.),
+ * protein, and a few invalid lines.
+ *
+ *   mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=uk.ac.ebi.protvar.benchmark.VariantParserBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class VariantParserBenchmark {
+
+    private static final int LINES = 10_000;
+    private static final String[] CHRS = {"1", "2", "7", "11", "17", "chr19", "X", "MT"};
+    private static final String[] BASES = {"A", "C", "G", "T"};
+
+    private String[] corpus;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        corpus = new String[LINES];
+        for (int i = 0; i < LINES; i++) {
+            String chr = CHRS[random.nextInt(CHRS.length)];
+            int pos = 1_000_000 + random.nextInt(100_000_000);
+            String ref = BASES[random.nextInt(4)];
+            String alt = BASES[random.nextInt(4)];
+            int pick = random.nextInt(100);
+            if (pick < 55) {
+                corpus[i] = chr + "\t" + pos + "\trs" + random.nextInt(1_000_000) + "\t" + ref + "\t" + alt + "\t50\tPASS\t.";
+            } else if (pick < 70) {
+                corpus[i] = chr + " " + pos + " " + ref + (random.nextBoolean() ? "/" : " ") + alt;
+            } else if (pick < 77) {
+                corpus[i] = chr + "-" + pos + "-" + ref + "-" + alt;
+            } else if (pick < 84) {
+                corpus[i] = "rs" + random.nextInt(100_000_000);
+            } else if (pick < 88) {
+                corpus[i] = "NC_000017.11:g." + pos + ref + ">" + alt;
+            } else if (pick < 91) {
+                corpus[i] = "NM_000546.6:c." + (1 + random.nextInt(1200)) + ref + ">" + alt;
+            } else if (pick < 93) {
+                corpus[i] = "NP_000537.3:p.Pro" + (1 + random.nextInt(390)) + "Arg";
+            } else if (pick < 97) {
+                corpus[i] = "P22304 A" + (1 + random.nextInt(500)) + "P";
+            } else {
+                corpus[i] = "not a variant " + i;
+            }
+        }
+    }
+
+    @Benchmark
+    public void patternChain(Blackhole bh) {
+        for (String line : corpus) bh.consume(VariantParser.parseByPatterns(line));
+    }
+
+    @Benchmark
+    public void singlePassLexer(Blackhole bh) {
+        for (String line : corpus) bh.consume(VariantParser.parse(line));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(VariantParserBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,71 @@
+package uk.ac.ebi.protvar.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccessFrequencySketchTest {
+
+    @Test
+    void heavyHittersSurviveLongTail() {
+        AccessFrequencySketch sketch = new AccessFrequencySketch(10);
+        for (int i = 0; i < 20_000; i++) {
+            sketch.record("Q" + i);                 // long tail, seen once
+            if (i % 10 == 0) sketch.record("P04637");
+            if (i % 20 == 0) sketch.record("P38398");
+        }
+        Map<String, Integer> top = sketch.drain();
+        List<String> keys = new ArrayList<>(top.keySet());
+
+        assertTrue(top.size() <= 10);
+        assertEquals("P04637", keys.get(0));
+        assertEquals("P38398", keys.get(1));
+        assertTrue(top.get("P04637") >= 2000);
+    }
+
+    @Test
+    void drainResetsAndUntrackedIsIgnored() {
+        AccessFrequencySketch sketch = new AccessFrequencySketch(10);
+        sketch.record("P04637");
+        sketch.drain();
+        assertEquals(0, sketch.estimate("P04637"));
+
+        AccessFrequencySketch.untracked(() -> {
+            sketch.record("P04637");
+            // a nested call leaves the outer one untracked
+            AccessFrequencySketch.untracked(() -> null);
+            sketch.record("P04637");
+            return null;
+        });
+        assertTrue(sketch.drain().isEmpty());
+
+        sketch.record("P04637");
+        assertEquals(1, sketch.estimate("P04637"));
+    }
+
+    @Test
+    void concurrentRecordsAreAllCounted() throws Exception {
+        AccessFrequencySketch sketch = new AccessFrequencySketch(10);
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            int thread = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    sketch.record("Q" + thread + "_" + i);
+                    if (i % 10 == 0) sketch.record("P04637");
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) thread.join();
+
+        Map<String, Integer> top = sketch.drain();
+        assertEquals("P04637", top.keySet().iterator().next());
+        assertTrue(top.get("P04637") >= 8 * 1000); // count-min never under-counts
+        assertTrue(top.size() <= 10);
+    }
+}
@@ -0,0 +1,62 @@
+package uk.ac.ebi.protvar.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.ac.ebi.protvar.utils.SnapshotFile;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccessionIndexTest {
+
+    private static final List<String> ACCESSIONS = List.of(
+            "Q9NUW8", "P04637", "A0A024R1R8", "A0A024RBG1", "A0A075B6H5", "P04637", "O00141", "P38398");
+
+    @Test
+    void containsAndSortedIteration() {
+        AccessionIndex index = AccessionIndex.build(ACCESSIONS);
+
+        assertEquals(7, index.size());
+        assertEquals(ACCESSIONS.stream().distinct().sorted().toList(), new ArrayList<>(index));
+        for (String acc : ACCESSIONS) assertTrue(index.contains(acc), acc);
+        assertFalse(index.contains("P0463"));
+        assertFalse(index.contains("P046370"));
+        assertFalse(index.contains("A0A024R1R9"));
+        assertFalse(index.contains("0"));
+        assertFalse(index.contains(null));
+        assertFalse(AccessionIndex.EMPTY.contains("P04637"));
+    }
+
+    @Test
+    void spansManyBlocks() {
+        List<String> accessions = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) accessions.add(String.format("A0A0%06d", i * 7));
+        AccessionIndex index = AccessionIndex.build(accessions);
+
+        assertEquals(accessions, new ArrayList<>(index));
+        for (int i = 0; i < 7000; i++) {
+            assertEquals(i % 7 == 0, index.contains(String.format("A0A0%06d", i)));
+        }
+    }
+
+    @Test
+    void snapshotRoundTripIsStampChecked(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("accessions.idx");
+        AccessionIndex index = AccessionIndex.build(ACCESSIONS);
+        SnapshotFile.write(file, 1, 1, "rel_2025_01_uniprot_entry", index::writeTo);
+
+        ByteBuffer body = SnapshotFile.map(file, 1, 1, "rel_2025_01_uniprot_entry");
+        assertNotNull(body);
+        AccessionIndex mapped = AccessionIndex.read(body);
+        assertEquals(new ArrayList<>(index), new ArrayList<>(mapped));
+        assertTrue(mapped.contains("O00141"));
+
+        assertNull(SnapshotFile.map(file, 1, 1, "rel_2025_02_uniprot_entry"));
+        assertNull(SnapshotFile.map(file, 1, 2, "rel_2025_01_uniprot_entry"));
+        assertNull(SnapshotFile.map(dir.resolve("missing.idx"), 1, 1, "rel_2025_01_uniprot_entry"));
+    }
+}
@@ -0,0 +1,79 @@
+package uk.ac.ebi.protvar.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import uk.ac.ebi.protvar.RedisConfig;
+import uk.ac.ebi.protvar.config.CacheCodecProperties.Format;
+import uk.ac.ebi.protvar.model.response.Structure;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CodecRedisSerializerTest {
+
+    private final GenericJackson2JsonRedisSerializer json =
+            new GenericJackson2JsonRedisSerializer(RedisConfig.configureCacheMapper(new ObjectMapper()));
+    private final ObjectMapper smile = RedisConfig.smileCacheMapper();
+
+    // Mutable lists, as the repos return — default typing records the
+    // concrete class and List.of()'s internal classes don't deserialize
+    private static List<List<Integer>> regions() {
+        List<List<Integer>> regions = new ArrayList<>();
+        regions.add(new ArrayList<>(List.of(94, 312)));
+        return regions;
+    }
+
+    private List<Structure> structures(int n) {
+        List<Structure> list = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            list.add(new Structure("P04637", "X-ray diffraction", 2.1, "1tup", "A",
+                    regions(), 94, 312, 94, 312));
+        }
+        return list;
+    }
+
+    @Test
+    void smileRoundTripWithAndWithoutDeflate() {
+        for (int threshold : new int[]{0, 1}) {
+            CodecRedisSerializer serializer = new CodecRedisSerializer(Format.SMILE, json, smile, threshold);
+            byte[] bytes = serializer.serialize(structures(50));
+            assertEquals(CodecRedisSerializer.MAGIC, bytes[0]);
+            assertEquals(threshold > 0 ? CodecRedisSerializer.FLAG_DEFLATE : 0, bytes[2]);
+
+            List<?> read = (List<?>) serializer.deserialize(bytes);
+            assertEquals(50, read.size());
+            Structure first = (Structure) read.get(0);
+            assertEquals("1tup", first.getPdbId());
+            assertEquals(List.of(List.of(94, 312)), first.getObservedRegions());
+        }
+    }
+
+    @Test
+    void smileIsSmallerThanJson() {
+        CodecRedisSerializer smileSerializer = new CodecRedisSerializer(Format.SMILE, json, smile, 0);
+        assertTrue(smileSerializer.serialize(structures(50)).length < json.serialize(structures(50)).length);
+    }
+
+    @Test
+    void eitherFormatReadsTheOther() {
+        CodecRedisSerializer jsonSerializer = new CodecRedisSerializer(Format.JSON, json, smile, 0);
+        CodecRedisSerializer smileSerializer = new CodecRedisSerializer(Format.SMILE, json, smile, 1);
+
+        byte[] jsonBytes = jsonSerializer.serialize(structures(3));
+        byte[] smileBytes = smileSerializer.serialize(structures(3));
+
+        assertEquals(3, ((List<?>) smileSerializer.deserialize(jsonBytes)).size());
+        assertEquals(3, ((List<?>) jsonSerializer.deserialize(smileBytes)).size());
+    }
+
+    @Test
+    void unknownCodecVersionIsRejected() {
+        CodecRedisSerializer serializer = new CodecRedisSerializer(Format.SMILE, json, smile, 0);
+        byte[] bytes = serializer.serialize(structures(1));
+        bytes[1] = (byte) (CodecRedisSerializer.CODEC_VERSION + 1);
+        assertThrows(RuntimeException.class, () -> serializer.deserialize(bytes));
+    }
+}
@@ -0,0 +1,86 @@
+package uk.ac.ebi.protvar.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.ac.ebi.protvar.model.data.Crossmap;
+import uk.ac.ebi.protvar.utils.SnapshotFile;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LiftoverIndexTest {
+
+    private static LiftoverIndex sample() {
+        LiftoverIndex.Builder builder = new LiftoverIndex.Builder();
+        builder.accept("1", 100, "A", 1100, "A");
+        builder.accept("1", 101, "C", 1101, "C");   // same offset: one block
+        builder.accept("1", 102, "G", 1102, "T");
+        builder.accept("1", 200, "T", 900, "T");    // 38 order differs from 37 order
+        builder.accept("1", 201, "T", 5000, "T");   // same position mapped twice
+        builder.accept("1", 201, "T", 5001, "T");
+        builder.accept("10", 7, "A", 8, null);      // chromosomes in SQL string order
+        builder.accept("X", 5, "G", 6, "G");
+        builder.accept("chrUn", 1, "A", 1, "A");    // ignored
+        return builder.build();
+    }
+
+    private static void assertRow(Crossmap row, String chr, int pos37, String base37, int pos38, String base38) {
+        assertEquals(chr, row.getChr());
+        assertEquals(pos37, row.getGrch37Pos());
+        assertEquals(base37, row.getGrch37Base());
+        assertEquals(pos38, row.getGrch38Pos());
+        assertEquals(base38, row.getGrch38Base());
+    }
+
+    @Test
+    void looksUpBothDirections() {
+        LiftoverIndex index = sample();
+
+        assertEquals(6, index.blockCount());
+        assertEquals(8, index.rowCount());
+        assertRow(index.lookup("1", 102, true).get(0), "1", 102, "G", 1102, "T");
+        assertRow(index.lookup("1", 1101, false).get(0), "1", 101, "C", 1101, "C");
+        assertRow(index.lookup("1", 900, false).get(0), "1", 200, "T", 900, "T");
+        assertRow(index.lookup("10", 8, false).get(0), "10", 7, "A", 8, null);
+        assertRow(index.lookup("X", 5, true).get(0), "X", 5, "G", 6, "G");
+
+        List<Crossmap> multiple = index.lookup("1", 201, true);
+        assertEquals(2, multiple.size());
+
+        assertTrue(index.lookup("1", 103, true).isEmpty());
+        assertTrue(index.lookup("1", 102, false).isEmpty());
+        assertTrue(index.lookup("2", 100, true).isEmpty());
+        assertTrue(index.lookup("chrUn", 1, true).isEmpty());
+    }
+
+    @Test
+    void containsMatchesPositionAndBase() {
+        LiftoverIndex index = sample();
+
+        assertTrue(index.contains("1", 102, "G", true));
+        assertTrue(index.contains("1", 1102, "T", false));
+        assertFalse(index.contains("1", 102, "T", true));
+        assertFalse(index.contains("1", 1102, "G", false));
+        assertTrue(index.contains("1", 5001, "T", false));
+        assertFalse(index.contains("10", 8, null, false));
+        assertFalse(index.contains("2", 102, "G", true));
+    }
+
+    @Test
+    void snapshotRoundTrip(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("liftover.idx");
+        LiftoverIndex index = sample();
+        SnapshotFile.write(file, 3, 1, "rel_2025_01_crossmap", index::writeTo);
+
+        ByteBuffer body = SnapshotFile.map(file, 3, 1, "rel_2025_01_crossmap");
+        assertNotNull(body);
+        LiftoverIndex mapped = LiftoverIndex.read(body);
+        assertEquals(index.blockCount(), mapped.blockCount());
+        assertRow(mapped.lookup("1", 101, true).get(0), "1", 101, "C", 1101, "C");
+        assertRow(mapped.lookup("1", 5001, false).get(0), "1", 201, "T", 5001, "T");
+        assertRow(mapped.lookup("10", 7, true).get(0), "10", 7, "A", 8, null);
+    }
+}
@@ -0,0 +1,57 @@
+package uk.ac.ebi.protvar.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.ac.ebi.protvar.utils.GenomicKey;
+import uk.ac.ebi.protvar.utils.SnapshotFile;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedPositionIndexTest {
+
+    private static MappedPositionIndex sample() {
+        MappedPositionIndex.Builder builder = new MappedPositionIndex.Builder();
+        builder.accept("1", 100, 199);
+        builder.accept("1", 200, 250);    // adjacent: merged with the previous run
+        builder.accept("1", 1000, 1002);
+        builder.accept("X", 5, 5);
+        builder.accept("10", 7, 9);       // chromosomes in SQL string order
+        builder.accept("chrUn", 1, 10);   // ignored
+        return builder.build();
+    }
+
+    @Test
+    void containsOnlyMappedPositions() {
+        MappedPositionIndex index = sample();
+
+        assertEquals(4, index.runCount());
+        assertTrue(index.contains(GenomicKey.of("1", 100)));
+        assertTrue(index.contains(GenomicKey.of("1", 225)));
+        assertTrue(index.contains(GenomicKey.of("1", 1002)));
+        assertTrue(index.contains(GenomicKey.of("X", 5)));
+        assertTrue(index.contains(GenomicKey.of("10", 8)));
+        assertFalse(index.contains(GenomicKey.of("1", 99)));
+        assertFalse(index.contains(GenomicKey.of("1", 251)));
+        assertFalse(index.contains(GenomicKey.of("1", 1003)));
+        assertFalse(index.contains(GenomicKey.of("2", 150)));
+        assertFalse(index.contains(GenomicKey.NONE));
+    }
+
+    @Test
+    void snapshotRoundTrip(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("mapped-positions.idx");
+        MappedPositionIndex index = sample();
+        SnapshotFile.write(file, 2, 1, "rel_2025_01_genomic_protein_mapping", index::writeTo);
+
+        ByteBuffer body = SnapshotFile.map(file, 2, 1, "rel_2025_01_genomic_protein_mapping");
+        assertNotNull(body);
+        MappedPositionIndex mapped = MappedPositionIndex.read(body);
+        assertEquals(index.runCount(), mapped.runCount());
+        assertTrue(mapped.contains(GenomicKey.of("1", 150)));
+        assertTrue(mapped.contains(GenomicKey.of("10", 9)));
+        assertFalse(mapped.contains(GenomicKey.of("1", 500)));
+    }
+}
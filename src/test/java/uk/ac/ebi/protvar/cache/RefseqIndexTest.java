@@ -0,0 +1,50 @@
+package uk.ac.ebi.protvar.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RefseqIndexTest {
+
+    private static RefseqIndex sample() {
+        RefseqIndex.Builder builder = new RefseqIndex.Builder();
+        builder.add("NP_000537.3", "P04637");
+        builder.add("NP_000537.3", "P04637");        // duplicate row
+        builder.add("NP_000537.10", "P04637-2");     // numerically latest
+        builder.add("NP_000537.9", "P04637-3");
+        builder.add("NP_0005371.1", "Q00000");       // longer accession, same prefix
+        builder.add("NM_000546.6", "P04637");
+        builder.add("NM_000546.6", "P04637-4");
+        return builder.build();
+    }
+
+    @Test
+    void exactAccession() {
+        RefseqIndex index = sample();
+        assertEquals(List.of("P04637"), index.get("NP_000537.3"));
+        assertEquals(List.of("P04637", "P04637-4"), index.get("NM_000546.6"));
+        assertEquals(new RefseqIndex.Match("NP_000537.3", List.of("P04637")), index.lookup("NP_000537.3"));
+        assertEquals(5, index.size());
+    }
+
+    @Test
+    void otherVersionResolvesToLatest() {
+        RefseqIndex index = sample();
+        assertEquals("NP_000537.10", index.lookup("NP_000537.1").refseqAcc());
+        assertEquals("NP_000537.10", index.lookup("NP_000537").refseqAcc());
+        assertEquals("NP_0005371.1", index.lookup("NP_0005371.7").refseqAcc());
+        assertEquals("NM_000546.6", index.lookup("NM_000546.5").refseqAcc());
+    }
+
+    @Test
+    void noMatch() {
+        RefseqIndex index = sample();
+        assertNull(index.lookup("NP_00053.1"));
+        assertNull(index.lookup("NM_999999.1"));
+        assertNull(index.lookup(null));
+        assertEquals(List.of(), index.get("NP_000537"));
+        assertNull(RefseqIndex.EMPTY.lookup("NP_000537.3"));
+    }
+}
@@ -0,0 +1,103 @@
+package uk.ac.ebi.protvar.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import uk.ac.ebi.protvar.config.SingleFlightProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightCacheTest {
+
+    private final SingleFlightCache cache = new SingleFlightCache(new ConcurrentMapCache("STR"),
+            new SingleFlightProperties(), new SimpleMeterRegistry(), null, "v1");
+
+    @Test
+    void concurrentMissesRunLoaderOnce() throws Exception {
+        int callers = 8;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> cache.get("P04637", () -> {
+                    loads.incrementAndGet();
+                    release.await();
+                    return "loaded";
+                })));
+            }
+            // let every caller reach the in-flight load before it completes
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("loaded", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+        assertEquals("loaded", cache.get("P04637").get());
+    }
+
+    @Test
+    void loaderFailureReachesAllWaitersAndIsNotCached() {
+        assertThrows(Cache.ValueRetrievalException.class,
+                () -> cache.get("Q9NUW8", () -> { throw new IllegalStateException("db down"); }));
+        assertNull(cache.get("Q9NUW8"));
+        assertEquals("ok", cache.get("Q9NUW8", () -> "ok"));
+    }
+
+    @Test
+    void leaderErrorReleasesWaiters() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = executor.submit(() -> cache.get("P22304", () -> {
+                release.await();
+                throw new StackOverflowError("loader blew up");
+            }));
+            Thread.sleep(100);
+            Future<String> follower = executor.submit(() -> cache.get("P22304", () -> "follower"));
+            Thread.sleep(100);
+            release.countDown();
+
+            ExecutionException leaderFailure = assertThrows(ExecutionException.class,
+                    () -> leader.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(StackOverflowError.class, leaderFailure.getCause());
+            ExecutionException followerFailure = assertThrows(ExecutionException.class,
+                    () -> follower.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(Cache.ValueRetrievalException.class, followerFailure.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void waiterLoadsItselfAfterMaxWait() throws Exception {
+        SingleFlightProperties properties = new SingleFlightProperties();
+        properties.setMaxWait(Duration.ofMillis(100));
+        SingleFlightCache shortWait = new SingleFlightCache(new ConcurrentMapCache("STR"),
+                properties, new SimpleMeterRegistry(), null, "v1");
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> shortWait.get("O15393", () -> {
+                release.await();
+                return "leader";
+            }));
+            Thread.sleep(100);
+            assertEquals("follower", shortWait.get("O15393", () -> "follower"));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package uk.ac.ebi.protvar.cache;
+
+import org.junit.jupiter.api.Test;
+import uk.ac.ebi.protvar.model.response.Structure;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StructureIndexTest {
+
+    private static Structure structure(String pdbId, List<List<Integer>> observedRegions) {
+        return new Structure("P04637", "X-ray", 2.0, pdbId, "A", observedRegions, 1, 100, 1, 100);
+    }
+
+    private static List<String> pdbIds(List<Structure> structures) {
+        return structures.stream().map(Structure::getPdbId).toList();
+    }
+
+    @Test
+    void structuresAtPosition() {
+        StructureIndex index = StructureIndex.of(List.of(
+                structure("1a", List.of(List.of(50, 60), List.of(10, 20))),
+                structure("2b", List.of(List.of(15, 15))),
+                structure("3c", List.of(List.of(1, 100), List.of(55, 58))),   // two regions hit at 56: listed once
+                structure("4d", List.of(List.of(30))),                        // not a [start, end] pair
+                structure("5e", null)));
+
+        assertEquals(List.of("1a", "2b", "3c"), pdbIds(index.structuresAt(15)));
+        assertEquals(List.of("1a", "3c"), pdbIds(index.structuresAt(56)));
+        assertEquals(List.of("3c"), pdbIds(index.structuresAt(30)));
+        assertEquals(List.of("3c"), pdbIds(index.structuresAt(100)));
+        assertEquals(List.of(), index.structuresAt(101));
+        assertEquals(List.of(), index.structuresAt(0));
+        assertEquals(5, index.size());
+        assertEquals(List.of(), StructureIndex.EMPTY.structuresAt(1));
+        assertEquals(List.of(), StructureIndex.of(null).structuresAt(1));
+    }
+
+    @Test
+    void matchesLinearScan() {
+        Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            List<Structure> structures = new ArrayList<>();
+            int count = random.nextInt(300);
+            for (int s = 0; s < count; s++) {
+                List<List<Integer>> regions = new ArrayList<>();
+                for (int r = random.nextInt(4); r > 0; r--) {
+                    int start = 1 + random.nextInt(2000);
+                    regions.add(Arrays.asList(start, start + random.nextInt(random.nextBoolean() ? 30 : 1500)));
+                }
+                structures.add(structure("s" + s, regions));
+            }
+            StructureIndex index = StructureIndex.of(structures);
+            for (int q = 0; q < 100; q++) {
+                int position = random.nextInt(3600);
+                List<Structure> expected = structures.stream()
+                        .filter(st -> st.getObservedRegions().stream()
+                                .anyMatch(range -> position >= range.get(0) && position <= range.get(1)))
+                        .toList();
+                assertEquals(expected, index.structuresAt(position), "position " + position);
+            }
+        }
+    }
+}
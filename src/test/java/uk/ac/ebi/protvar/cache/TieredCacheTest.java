@@ -0,0 +1,69 @@
+package uk.ac.ebi.protvar.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import uk.ac.ebi.protvar.config.L1CacheProperties;
+import uk.ac.ebi.protvar.model.response.Structure;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TieredCacheTest {
+
+    // Stands in for Redis being unreachable on writes
+    private static class FailingPutCache extends ConcurrentMapCache {
+        FailingPutCache() {
+            super("STR");
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            throw new IllegalStateException("redis down");
+        }
+    }
+
+    private final TieredCache cache = new TieredCache(new FailingPutCache(), new L1CacheProperties.Spec(),
+            new SimpleMeterRegistry(), key -> {});
+
+    @Test
+    void redisPutFailureStillFillsL1() {
+        cache.put("P04637", List.of("1abc"));
+        assertEquals(List.of("1abc"), cache.get("P04637").get());
+    }
+
+    @Test
+    void loadedValueServedFromL1WhenRedisPutFails() {
+        assertEquals("loaded", cache.get("Q9NUW8", () -> "loaded"));
+        assertEquals("loaded", cache.get("Q9NUW8", () -> fail("loader should not run again")));
+    }
+
+    @Test
+    void structuresHeldInL1AsIndex() {
+        ConcurrentMapCache redis = new ConcurrentMapCache("STR");
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        TieredCache str = new TieredCache(redis, new L1CacheProperties.Spec(), registry, key -> {},
+                StructureIndex::localForm);
+        List<Structure> structures = List.of(
+                new Structure("P04637", "X-ray", 2.0, "1abc", "A", List.of(List.of(10, 20)), 1, 100, 1, 100));
+
+        assertInstanceOf(StructureIndex.class, str.get("P04637", () -> structures));
+        assertSame(structures, redis.get("P04637").get()); // Redis gets the list as loaded
+
+        redis.put("P00533", structures);
+        Object promoted = str.get("P00533").get();
+        assertInstanceOf(StructureIndex.class, promoted);
+        assertEquals(structures, promoted);
+        assertSame(promoted, str.get("P00533").get()); // built once, then an L1 hit
+        assertEquals(1, ((StructureIndex) promoted).structuresAt(15).size());
+
+        assertEquals(1, registry.get("protvar.cache.gets").tags("cache", "STR", "tier", "l1", "result", "hit")
+                .counter().count());
+        assertEquals(2, registry.get("protvar.cache.gets").tags("cache", "STR", "tier", "l1", "result", "miss")
+                .counter().count());
+
+        str.evict("P00533");
+        assertNull(str.get("P00533"));
+    }
+}
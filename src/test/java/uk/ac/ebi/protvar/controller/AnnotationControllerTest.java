@@ -0,0 +1,139 @@
+package uk.ac.ebi.protvar.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import uk.ac.ebi.protvar.mapper.AnnotationFetcher;
+import uk.ac.ebi.protvar.mapper.FunctionalInfoEnricher;
+import uk.ac.ebi.protvar.model.AnnotationQuery;
+import uk.ac.ebi.protvar.model.response.PositionStructure;
+import uk.ac.ebi.protvar.service.AnnotationService;
+import uk.ac.ebi.protvar.service.FunctionService;
+import uk.ac.ebi.protvar.service.StructureService;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AnnotationControllerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AnnotationService annotationService = mock(AnnotationService.class);
+    private final AnnotationController controller = new AnnotationController(mock(FunctionService.class),
+            mock(AnnotationFetcher.class), mock(FunctionalInfoEnricher.class), mock(StructureService.class),
+            annotationService, objectMapper);
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    private final List<AnnotationQuery> queries = List.of(
+            new AnnotationQuery("Q9NUW8", 493, null, null),
+            new AnnotationQuery("P22304", 100, null, null),
+            new AnnotationQuery("Q9NUW8", 1, null, null));
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        doAnswer(call -> {
+            AnnotationService.Sink<PositionStructure> sink = call.getArgument(1);
+            for (AnnotationQuery query : (List<AnnotationQuery>) call.getArgument(0)) {
+                sink.accept(new PositionStructure(query.accession(), query.position(), List.of()));
+            }
+            return null;
+        }).when(annotationService).structures(anyList(), any());
+    }
+
+    @Test
+    void jsonArrayInRequestOrder() throws Exception {
+        controller.getStructures(queries, "json", response);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(MediaType.APPLICATION_JSON_VALUE, response.getContentType().split(";")[0]);
+        JsonNode results = objectMapper.readTree(response.getContentAsString());
+        assertTrue(results.isArray());
+        assertEquals(3, results.size());
+        for (int i = 0; i < queries.size(); i++) {
+            assertEquals(queries.get(i).accession(), results.get(i).get("accession").asText());
+            assertEquals(queries.get(i).position().intValue(), results.get(i).get("position").asInt());
+        }
+    }
+
+    @Test
+    void ndjsonLinePerResult() throws Exception {
+        controller.getStructures(queries, "NDJSON", response);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(MediaType.APPLICATION_NDJSON_VALUE, response.getContentType().split(";")[0]);
+        String[] lines = response.getContentAsString().split("\n");
+        assertEquals(3, lines.length);
+        for (int i = 0; i < queries.size(); i++) {
+            JsonNode result = objectMapper.readTree(lines[i]);
+            assertEquals(queries.get(i).accession(), result.get("accession").asText());
+            assertEquals(queries.get(i).position().intValue(), result.get("position").asInt());
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void functionQueriesNormalisedBeforeStreaming() throws Exception {
+        List<List<AnnotationQuery>> received = new ArrayList<>();
+        doAnswer(call -> {
+            received.add(call.getArgument(0));
+            return null;
+        }).when(annotationService).functions(anyList(), any());
+
+        controller.getFunctions(List.of(new AnnotationQuery("Q9NUW8", 493, "Arg", null)), "json", response);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(List.of(List.of(new AnnotationQuery("Q9NUW8", 493, "R", null))), received);
+        assertEquals("[]", response.getContentAsString());
+    }
+
+    @Test
+    void invalidVariantAARejectedBeforeStreaming() throws Exception {
+        List<AnnotationQuery> batch = new ArrayList<>(queries);
+        batch.add(new AnnotationQuery("Q9NUW8", 493, "Xyz", null));
+        controller.getFunctions(batch, "json", response);
+
+        assertEquals(400, response.getStatus());
+        assertTrue(response.getErrorMessage().contains("variantAA"));
+        assertEquals("", response.getContentAsString());
+        verify(annotationService, never()).functions(anyList(), any());
+    }
+
+    @Test
+    void invalidGenomicVariantRejectedBeforeStreaming() throws Exception {
+        controller.getPopulationObservations(List.of(new AnnotationQuery("Q9NUW8", 493, null, "not a variant")),
+                "ndjson", response);
+
+        assertEquals(400, response.getStatus());
+        assertTrue(response.getErrorMessage().contains("genomicVariant"));
+        verify(annotationService, never()).populations(anyList(), any());
+    }
+
+    @Test
+    void badRequests() throws Exception {
+        controller.getStructures(queries, "xml", response);
+        assertEquals(400, response.getStatus());
+
+        MockHttpServletResponse empty = new MockHttpServletResponse();
+        controller.getStructures(List.of(), "json", empty);
+        assertEquals(400, empty.getStatus());
+
+        MockHttpServletResponse tooMany = new MockHttpServletResponse();
+        controller.getStructures(Collections.nCopies(AnnotationController.MAX_BATCH_SIZE + 1, queries.get(0)),
+                "json", tooMany);
+        assertEquals(400, tooMany.getStatus());
+
+        MockHttpServletResponse noPosition = new MockHttpServletResponse();
+        controller.getStructures(List.of(new AnnotationQuery("Q9NUW8", null, null, null)), "json", noPosition);
+        assertEquals(400, noPosition.getStatus());
+
+        verify(annotationService, never()).structures(anyList(), any());
+    }
+}
@@ -0,0 +1,94 @@
+package uk.ac.ebi.protvar.input.mapper;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import uk.ac.ebi.protvar.cache.BatchCacheService;
+import uk.ac.ebi.protvar.input.ErrorConstants;
+import uk.ac.ebi.protvar.input.GenomicVariant;
+import uk.ac.ebi.protvar.input.VariantInput;
+import uk.ac.ebi.protvar.input.parser.VariantParser;
+import uk.ac.ebi.protvar.model.data.Base;
+import uk.ac.ebi.protvar.repo.VariantIdRepo;
+import uk.ac.ebi.protvar.repo.VariantIdRepo.Source;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class Id2GenTest {
+
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(Id2Gen.CACHE_NAME);
+    private final VariantIdRepo repo = mock(VariantIdRepo.class);
+    private final Id2Gen id2Gen = new Id2Gen(repo,
+            new BatchCacheService(cacheManager, mock(RedisConnectionFactory.class)));
+    private Cache cache;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(id2Gen, "dbsnpTable", "dbsnp");
+        ReflectionTestUtils.setField(id2Gen, "clinvarTable", "clinvar");
+        ReflectionTestUtils.setField(id2Gen, "cosmicTable", "cosmic");
+        cache = cacheManager.getCache(Id2Gen.CACHE_NAME);
+    }
+
+    private static Base base(String chr, int pos, String ref, String alt) {
+        return Base.builder().chr(chr).pos(pos).ref(ref).alt(alt).build();
+    }
+
+    @Test
+    void unknownIdCachedAsEmpty() {
+        when(repo.getByIds(anyMap())).thenReturn(Map.of());
+
+        VariantInput first = VariantParser.parse("rs999");
+        id2Gen.lookup(List.of(first));
+        assertTrue(first.getDerivedGenomicVariants().isEmpty());
+        assertTrue(first.getMessages().stream().anyMatch(m ->
+                m.getText().equals(ErrorConstants.DBSNP_ID_NO_MAPPING.toString())));
+        assertEquals(List.of(), cache.get("dbsnp:rs999").get());
+
+        VariantInput again = VariantParser.parse("rs999");
+        id2Gen.lookup(List.of(again));
+        assertFalse(again.isValid());
+        verify(repo, times(1)).getByIds(anyMap());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void mixedBatchLoadsOnlyMisses() {
+        cache.put("dbsnp:rs1", List.of("1\t100\tA\tG"));
+        when(repo.getByIds(anyMap())).thenReturn(Map.of(
+                Source.RCV, Map.of("RCV000123456", List.of(base("2", 200, "C", "T"))),
+                Source.COSMIC, Map.of("COSV55555555", List.of(base("3", 300, "G", "A"), base("3", 300, "G", "A")))));
+
+        List<VariantInput> inputs = VariantParser.parse(List.of(
+                "rs1", "RCV000123456", "rcv000123456", "COSV55555555", "rs1", "COSV12345678"));
+        id2Gen.lookup(inputs);
+
+        ArgumentCaptor<Map<Source, List<String>>> ids = ArgumentCaptor.forClass(Map.class);
+        verify(repo, times(1)).getByIds(ids.capture());
+        assertEquals(Map.of(
+                Source.RCV, List.of("RCV000123456"),
+                Source.COSMIC, List.of("COSV55555555", "COSV12345678")), ids.getValue());
+
+        assertEquals(List.of(new GenomicVariant("1", 100, "A", "G")), inputs.get(0).getDerivedGenomicVariants());
+        assertEquals(List.of(new GenomicVariant("2", 200, "C", "T")), inputs.get(1).getDerivedGenomicVariants());
+        assertEquals(List.of(new GenomicVariant("2", 200, "C", "T")), inputs.get(2).getDerivedGenomicVariants());
+        assertEquals(List.of(new GenomicVariant("3", 300, "G", "A")), inputs.get(3).getDerivedGenomicVariants());
+        assertEquals(inputs.get(0).getDerivedGenomicVariants(), inputs.get(4).getDerivedGenomicVariants());
+        assertNotSame(inputs.get(0).getDerivedGenomicVariants().get(0), inputs.get(4).getDerivedGenomicVariants().get(0));
+        assertFalse(inputs.get(5).isValid());
+
+        // now all cached, including the miss
+        assertEquals(List.of(), cache.get("cosmic:COSV12345678").get());
+        id2Gen.lookup(VariantParser.parse(List.of("rs1", "RCV000123456", "COSV12345678")));
+        verifyNoMoreInteractions(repo);
+    }
+}
@@ -0,0 +1,120 @@
+package uk.ac.ebi.protvar.input.parser;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import uk.ac.ebi.protvar.input.VariantInput;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * VariantParser.parse (VariantLexer) must give the same result as the
+ * pattern chain it replaced (parseByPatterns): same input class and the
+ * same serialised fields, format and messages.
+ */
+class VariantLexerTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // Inputs from the parser tests
+    private static final List<String> FIXTURES = List.of(
+            "rs123456", "rs1", "rs", "RS123456", "ss123456", "000123456", "123456",
+            "RCV000123456", "VCV000123456", "SCV000123456", "rcv000123456", "RCV", "RCVABC",
+            "COSV55555555", "COSV12345678", "COSM3312345", "COSN1234567", "COSM123456", "COSN123456",
+            "COSV", "COS123456", "COSX123456", "cosv12345678",
+            "NP_123456.1:p.R490S", "NP_123456.1:p.(R490S)", "NP_123456.1:p.Arg490Ser", "NP_123456.1:p.INVALID",
+            "NP_123456.1:p.M1V", "NP_123456.1:p.Met1?", "NP_123456.1:p.R490*", "NP_123456.1:p.R490=",
+            "NP_123456.1:p.R9999S", "NP_123456.1: p.R490S", "INVALID_123:p.R490S",
+            "NM_000001.1:c.123A>T", "NM_000001.1:c.*128A>G", "NM_000001.1:c.-128A>G", "NM_000001.1:c.128+1G>A",
+            "NM_000001.1:c.128-1G>A", "NM_000001.1:c.INVALID", "NM_000001.1 (GENE1):c.123A>T",
+            "NM_000001.1:c.123A>A p.(Arg41=)", "NM_000001.1:c.123A>T (p.Arg41*)", "INVALID_123:c.123A>T",
+            "NM_017547.4 (FOXRED1):c.1289A>G p.(Asn430Ser)", "NM_017547.4(FOXRED1):c.1289A>G p.(Asn430Ser)",
+            "NM_017547.4(FOXRED1):c.1289A>Gp.(Asn430Ser)", "NM_017547.4:c.1289A>G (p.Asn430Ser)",
+            "NC_000001.11:g.123A>T", "NC_000001.11: g.123A>T", "NC_000001.11:g.INVALID", "NG_123456.1:g.123A>T",
+            "INVALID_123:g.123A>T",
+            "P22304", "P22304 205", "P22304 205 A", "P22304 205 A P", "P22304 205 Ala Pro", "P22304 205 A/P",
+            "P22304 205 A ?", "P22304 205 #", "P22304 205 A B C", "P22304 A205P", "P22304 A205?",
+            "P22304 p.Ala205Pro", "P22304 abc", "P07949 asn783thr", "Q9BXN1 1 M", "Q9BXN1 M1?",
+            "Q9UBX0-1 501 K R", "InvalidAcc 205", "205",
+            "1 12345 . A T", "1 12345 . A T 60 PASS DP=100", "1 12345 . A", "1 12345 . ATCG T", "1 0 . A T",
+            "12345 . A T", "MT 16569 . T C", "X 54321 . G C", "chr1 12345 rs123 A T",
+            "1-12345-A-T", "1-12345-A-TCGC", "1-12345-ATCG-T", "1-12345-A", "1-0-A-T", "1-12345-.-A-T",
+            "12345-A-T", "MT-16569-T-C", "X-54321-C-A", "chr1-12345-G-C", "mitochondria-302-A-G",
+            "1:12345:A:T", "1:12345:.:A:T",
+            "1 12345 A T", "1 12345 A/T", "1 12345 A>T", "1 12345 A", "1 12345", "19 1010539 G C",
+            "completely_invalid_format", "completely_invalid_format_12345");
+
+    // HGVS-like inputs with a broken reference, scheme or description
+    private static final List<String> MALFORMED_HGVS = List.of(
+            "NM_000001.1:c.", ":c.123A>T", "NM_000001.1::c.123A>G", "NM_000001.1:x.123A>G",
+            "NC_000001.11:g.123A>", "NC_000001.11:g.>T", "NP_123456.1:p.", "NC_000001.11:g.123_124del",
+            "NM_000001.1:n.12A>G", "NC_012920.1:m.3243A>G", "NM_000001.1:r.123a>g", "a:b.c", "1:g.1A>T",
+            "NC_000001.11:g.123A>T extra", "NM_000001.1:c.123A>T:p.R41S", "NC_000001.11:G.123A>T",
+            "NM_000001.1:c.123A>T)", "NP_123456.1:p.(R490S", "NC_000001.11 :g.123A>T", "NP_123456.1:p.R-1S");
+
+    static Stream<String> inputs() {
+        Set<String> inputs = new LinkedHashSet<>();
+        for (String fixture : FIXTURES) {
+            inputs.add(fixture);
+            inputs.add(fixture.toLowerCase());
+            inputs.add(fixture.toUpperCase());
+            inputs.add(fixture.replace(" ", "  "));
+            inputs.add(fixture.replace(" ", "\t"));
+            inputs.add(" " + fixture);
+            inputs.add(fixture + " ");
+            inputs.add(fixture + "\n");
+            for (String prefix : List.of("chr", "CHR", "Chr", "chr0")) inputs.add(prefix + fixture);
+        }
+        inputs.addAll(MALFORMED_HGVS);
+        return inputs.stream();
+    }
+
+    @ParameterizedTest
+    @MethodSource("inputs")
+    void lexerMatchesPatterns(String input) throws JsonProcessingException {
+        assertSameResult(input);
+    }
+
+    @Test
+    void plainInputsAreClassifiedByLexer() {
+        // otherwise the equivalence above would only be testing the fallback
+        for (String fixture : FIXTURES) {
+            assertNotNull(VariantLexer.scan(fixture), fixture);
+        }
+    }
+
+    // Random inputs built from format fragments, to reach the boundaries between formats
+    @Test
+    void lexerMatchesPatternsOnGeneratedInputs() throws JsonProcessingException {
+        String[] fragments = {"1", "22", "23", "X", "y", "MT", "chr", "mit", "12345", "0", "007", ".", "-", ":",
+                "A", "c", "G", "t", "N", "ATCG", "/", ">", "rs", "RCV", "000123456", "COSV", "P22304", "Q9UBX0-1",
+                "Ala", "Ter", "*", "=", "?", "p.", "c.", "g.", "NM_000001.1", "NC_000001.11", "(", ")", "_", "+"};
+        String[] separators = {"", "", "", " ", " ", "  ", "\t", "-", ":"};
+        Random random = new Random(35);
+        for (int i = 0; i < 20_000; i++) {
+            StringBuilder input = new StringBuilder();
+            int parts = 1 + random.nextInt(6);
+            for (int p = 0; p < parts; p++) {
+                if (p > 0) input.append(separators[random.nextInt(separators.length)]);
+                input.append(fragments[random.nextInt(fragments.length)]);
+            }
+            String trimmed = input.toString().trim();
+            if (!trimmed.isEmpty()) assertSameResult(trimmed);
+        }
+    }
+
+    private static void assertSameResult(String input) throws JsonProcessingException {
+        VariantInput expected = VariantParser.parseByPatterns(input);
+        VariantInput actual = VariantParser.parse(input);
+        assertEquals(expected.getClass(), actual.getClass(), input);
+        assertEquals(MAPPER.writeValueAsString(expected), MAPPER.writeValueAsString(actual), input);
+    }
+}
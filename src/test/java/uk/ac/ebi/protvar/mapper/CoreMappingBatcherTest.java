@@ -0,0 +1,130 @@
+package uk.ac.ebi.protvar.mapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import uk.ac.ebi.protvar.input.GenomicInput;
+import uk.ac.ebi.protvar.input.VariantInput;
+import uk.ac.ebi.protvar.model.data.GenomeToProteinMapping;
+import uk.ac.ebi.protvar.utils.GenomicKey;
+import uk.ac.ebi.protvar.utils.LongKeyMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoreMappingBatcherTest {
+
+    private static MappingData data() {
+        return new MappingData(null, null, null, null, null, null);
+    }
+
+    @Test
+    void concurrentLookupsShareOneLoad() throws Exception {
+        CoreMappingBatcher batcher = new CoreMappingBatcher(true, 200, 64, new SimpleMeterRegistry());
+        AtomicInteger loads = new AtomicInteger();
+        List<Integer> loadedSizes = new CopyOnWriteArrayList<>();
+        MappingData shared = data();
+
+        int n = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(n);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<MappingData>> results = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            List<VariantInput> inputs = List.of(new GenomicInput("1 " + (1000 + i) + " A G", "1", 1000 + i, "A", "G"));
+            results.add(pool.submit(() -> {
+                start.await();
+                return batcher.load(inputs, combined -> {
+                    loads.incrementAndGet();
+                    loadedSizes.add(combined.size());
+                    return shared;
+                });
+            }));
+        }
+        start.countDown();
+        for (Future<MappingData> result : results) assertSame(shared, result.get(5, TimeUnit.SECONDS));
+        pool.shutdown();
+
+        assertEquals(1, loads.get());
+        assertEquals(List.of(n), loadedSizes);
+    }
+
+    @Test
+    void fullBatchClosesEarlyAndFailuresReachEveryWaiter() throws Exception {
+        CoreMappingBatcher batcher = new CoreMappingBatcher(true, 60_000, 2, new SimpleMeterRegistry());
+        List<VariantInput> inputs = List.of(new GenomicInput("1 1000 A G", "1", 1000, "A", "G"));
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        Future<?> first = pool.submit(() -> batcher.load(inputs, combined -> {
+            throw new IllegalStateException("db down");
+        }));
+        Thread.sleep(50);
+        Future<?> second = pool.submit(() -> batcher.load(inputs, combined -> data()));
+
+        for (Future<?> result : List.of(first, second)) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    void leaderErrorReachesEveryWaiter() throws Exception {
+        CoreMappingBatcher batcher = new CoreMappingBatcher(true, 60_000, 2, new SimpleMeterRegistry());
+        List<VariantInput> inputs = List.of(new GenomicInput("1 1000 A G", "1", 1000, "A", "G"));
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        Future<?> first = pool.submit(() -> batcher.load(inputs, combined -> {
+            throw new OutOfMemoryError("batch too big");
+        }));
+        Thread.sleep(50);
+        Future<?> second = pool.submit(() -> batcher.load(inputs, combined -> data()));
+
+        for (Future<?> result : List.of(first, second)) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(OutOfMemoryError.class, e.getCause());
+        }
+        pool.shutdown();
+    }
+
+    // The shared MappingData holds every caller's rows; keyed lookups by a
+    // caller's own chr/pos (as InputMapper.processInput does) see only its own.
+    @Test
+    void keyedLookupsOnSharedDataSeeOnlyOwnRows() throws Exception {
+        CoreMappingBatcher batcher = new CoreMappingBatcher(true, 60_000, 2, new SimpleMeterRegistry());
+        Function<List<VariantInput>, MappingData> loader = combined -> {
+            LongKeyMap<List<GenomeToProteinMapping>> g2pMap = new LongKeyMap<>();
+            for (VariantInput input : combined) {
+                GenomicInput genomic = (GenomicInput) input;
+                g2pMap.put(GenomicKey.of(genomic.getChromosome(), genomic.getPosition()),
+                        List.of(GenomeToProteinMapping.builder().accession("ACC" + genomic.getPosition()).build()));
+            }
+            return new MappingData(null, g2pMap, null, null, null, null);
+        };
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        List<Future<String>> results = new ArrayList<>();
+        for (int position : new int[]{1000, 2000}) {
+            GenomicInput input = new GenomicInput("1 " + position + " A G", "1", position, "A", "G");
+            results.add(pool.submit(() -> {
+                MappingData core = batcher.load(List.of(input), loader);
+                assertEquals(2, core.getG2pMap().size()); // both requests' rows were loaded together
+                return core.getG2pMap().get(GenomicKey.of("1", input.getPosition())).get(0).getAccession();
+            }));
+            Thread.sleep(50);
+        }
+        assertEquals("ACC1000", results.get(0).get(5, TimeUnit.SECONDS));
+        assertEquals("ACC2000", results.get(1).get(5, TimeUnit.SECONDS));
+        pool.shutdown();
+    }
+
+    @Test
+    void disabledLoadsDirectly() {
+        CoreMappingBatcher batcher = new CoreMappingBatcher(false, 3, 64, new SimpleMeterRegistry());
+        MappingData data = data();
+        assertSame(data, batcher.load(List.of(), combined -> data));
+    }
+}
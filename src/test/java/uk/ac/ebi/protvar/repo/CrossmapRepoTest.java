@@ -0,0 +1,54 @@
+package uk.ac.ebi.protvar.repo;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CrossmapRepoTest {
+
+    private final NamedParameterJdbcTemplate namedJdbc = mock(NamedParameterJdbcTemplate.class);
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+    private final CrossmapRepo repo = new CrossmapRepo(namedJdbc);
+
+    @Test
+    void scanStreamsWithFetchSize() throws Exception {
+        ReflectionTestUtils.setField(repo, "crossmapTable", "crossmap");
+        when(namedJdbc.getJdbcTemplate()).thenReturn(jdbc);
+        ArgumentCaptor<PreparedStatementCreator> creator = ArgumentCaptor.forClass(PreparedStatementCreator.class);
+        doAnswer(call -> {
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getString("chr")).thenReturn("1");
+            when(rs.getInt("grch37_pos")).thenReturn(100);
+            when(rs.getString("grch37_base")).thenReturn("A");
+            when(rs.getInt("grch38_pos")).thenReturn(1100);
+            when(rs.getString("grch38_base")).thenReturn("G");
+            ((RowCallbackHandler) call.getArgument(1)).processRow(rs);
+            return null;
+        }).when(jdbc).query(creator.capture(), any(RowCallbackHandler.class));
+
+        List<String> rows = new ArrayList<>();
+        repo.forEachCrossmap((chr, pos37, base37, pos38, base38) ->
+                rows.add(chr + ":" + pos37 + base37 + ">" + pos38 + base38));
+        assertEquals(List.of("1:100A>1100G"), rows);
+
+        Connection con = mock(Connection.class);
+        PreparedStatement ps = mock(PreparedStatement.class);
+        when(con.prepareStatement(contains("FROM crossmap"), anyInt(), anyInt())).thenReturn(ps);
+        assertSame(ps, creator.getValue().createPreparedStatement(con));
+        verify(ps).setFetchSize(CrossmapRepo.SCAN_FETCH_SIZE);
+    }
+}
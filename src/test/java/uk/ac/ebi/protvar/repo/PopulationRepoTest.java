@@ -0,0 +1,166 @@
+package uk.ac.ebi.protvar.repo;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import uk.ac.ebi.protvar.config.L1CacheProperties;
+import uk.ac.ebi.uniprot.domain.features.Feature;
+import uk.ac.ebi.uniprot.domain.variation.Variant;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PopulationRepoTest {
+
+    private final NamedParameterJdbcTemplate jdbc = mock(NamedParameterJdbcTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ArgumentCaptor<SqlParameterSource> parameters = ArgumentCaptor.forClass(SqlParameterSource.class);
+    // rows in the table: accession, position, wild_type, alt
+    private final List<Object[]> table = List.of(
+            new Object[]{"P1", 5, "A", "G"},
+            new Object[]{"P1", 5, "A", "V"},
+            new Object[]{"P2", 7, "R", "W"});
+
+    private PopulationRepo repo(boolean l1Enabled) {
+        L1CacheProperties l1 = new L1CacheProperties();
+        l1.setEnabled(l1Enabled);
+        l1.getCaches().put("populationVariants", new L1CacheProperties.Spec());
+        PopulationRepo repo = new PopulationRepo(jdbc, l1, meterRegistry);
+        ReflectionTestUtils.setField(repo, "populationTable", "rel_2025_01_population");
+        return repo;
+    }
+
+    private static ResultSet row(Object[] row) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getString("accession")).thenReturn((String) row[0]);
+        when(rs.getInt("position")).thenReturn((Integer) row[1]);
+        when(rs.getString("wild_type")).thenReturn((String) row[2]);
+        when(rs.getString("alt")).thenReturn((String) row[3]);
+        when(rs.getString("raw_json")).thenReturn("{}");
+        return rs;
+    }
+
+    private List<Object[]> matching(SqlParameterSource params) {
+        if (params.hasValue("accession")) {
+            return table.stream().filter(r -> r[0].equals(params.getValue("accession"))
+                    && (!params.hasValue("position") || r[1].equals(params.getValue("position")))).toList();
+        }
+        String[] accessions = (String[]) params.getValue("accessions");
+        Integer[] positions = (Integer[]) params.getValue("positions");
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < accessions.length; i++) {
+            for (Object[] r : table) {
+                if (r[0].equals(accessions[i]) && r[1].equals(positions[i])) rows.add(r);
+            }
+        }
+        return rows;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubQueries() throws Exception {
+        when(jdbc.query(anyString(), parameters.capture(), any(RowMapper.class))).thenAnswer(call -> {
+            RowMapper<Feature> mapper = call.getArgument(2);
+            List<Feature> features = new ArrayList<>();
+            for (Object[] r : matching(call.getArgument(1))) features.add(mapper.mapRow(row(r), features.size()));
+            return features;
+        });
+        when(jdbc.query(anyString(), parameters.capture(), any(ResultSetExtractor.class))).thenAnswer(call -> {
+            ResultSetExtractor<?> extractor = call.getArgument(2);
+            List<ResultSet> rows = new ArrayList<>();
+            for (Object[] r : matching(call.getArgument(1))) rows.add(row(r));
+            Iterator<ResultSet> next = rows.iterator();
+            ResultSet[] current = new ResultSet[1];
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.next()).thenAnswer(n -> next.hasNext() && (current[0] = next.next()) != null);
+            when(rs.getString(anyString())).thenAnswer(get -> current[0].getString(get.getArgument(0)));
+            when(rs.getInt(anyString())).thenAnswer(get -> current[0].getInt(get.getArgument(0)));
+            return extractor.extractData(rs);
+        });
+    }
+
+    private double gets(String tier, String result) {
+        return meterRegistry.get("protvar.cache.gets").tag("cache", "populationVariants")
+                .tag("tier", tier).tag("result", result).counter().count();
+    }
+
+    @Test
+    void singleLookupCached() throws Exception {
+        stubQueries();
+        PopulationRepo repo = repo(true);
+
+        List<Feature> variants = repo.getFeatures("P1", 5);
+        assertEquals(List.of("Gly", "Val"), variants.stream().map(f -> ((Variant) f).getAlternativeSequence()).toList());
+        assertEquals("Ala", ((Variant) variants.get(0)).getWildType());
+        assertEquals("5", ((Variant) variants.get(0)).getBegin());
+        assertThrows(UnsupportedOperationException.class, () -> variants.add(variants.get(0)));
+
+        assertSame(variants, repo.getFeatures("P1", 5));
+        verify(jdbc, times(1)).query(anyString(), any(SqlParameterSource.class), any(RowMapper.class));
+        assertEquals(1, gets("l1", "hit"));
+        assertEquals(1, gets("l1", "miss"));
+        assertEquals(2, meterRegistry.get("protvar.population.parsed").counter().count());
+    }
+
+    @Test
+    void positionWithoutVariantsCachedAsEmpty() throws Exception {
+        stubQueries();
+        PopulationRepo repo = repo(true);
+
+        assertEquals(List.of(), repo.getFeatures("P1", 6));
+        assertEquals(List.of(), repo.getFeatures("P1", 6));
+        assertEquals(Map.of(), repo.getFeatureMap(new String[]{"P1"}, new Integer[]{6}));
+        verify(jdbc, times(1)).query(anyString(), any(SqlParameterSource.class), any(RowMapper.class));
+        verify(jdbc, never()).query(anyString(), any(SqlParameterSource.class), any(ResultSetExtractor.class));
+        assertEquals(2, gets("l1", "hit"));
+    }
+
+    @Test
+    void batchLoadsOnlyMisses() throws Exception {
+        stubQueries();
+        PopulationRepo repo = repo(true);
+        List<Feature> p1 = repo.getFeatures("P1", 5);
+        repo.getFeatures("P1", 6);
+
+        Map<String, List<Feature>> featureMap = repo.getFeatureMap(
+                new String[]{"P1", "P1", "P2", "P2", "P3", null},
+                new Integer[]{5, 6, 7, 7, 1, 2});
+
+        SqlParameterSource batch = parameters.getValue();
+        assertArrayEquals(new String[]{"P2", "P3"}, (String[]) batch.getValue("accessions"));
+        assertArrayEquals(new Integer[]{7, 1}, (Integer[]) batch.getValue("positions"));
+        // empty positions are cached but left out of the map
+        assertEquals(2, featureMap.size());
+        assertSame(p1, featureMap.get("P1:5"));
+        assertEquals("Trp", ((Variant) featureMap.get("P2:7").get(0)).getAlternativeSequence());
+
+        // now all cached, including the miss
+        assertEquals(featureMap, repo.getFeatureMap(new String[]{"P1", "P2", "P3"}, new Integer[]{5, 7, 1}));
+        verify(jdbc, times(1)).query(anyString(), any(SqlParameterSource.class), any(ResultSetExtractor.class));
+    }
+
+    @Test
+    void l1Disabled() throws Exception {
+        stubQueries();
+        PopulationRepo repo = repo(false);
+
+        repo.getFeatures("P1", 5);
+        repo.getFeatures("P1", 5);
+        repo.getFeatureMap(new String[]{"P1"}, new Integer[]{5});
+        repo.getFeatureMap(new String[]{"P1"}, new Integer[]{5});
+        verify(jdbc, times(2)).query(anyString(), any(SqlParameterSource.class), any(RowMapper.class));
+        verify(jdbc, times(2)).query(anyString(), any(SqlParameterSource.class), any(ResultSetExtractor.class));
+        assertNull(meterRegistry.find("protvar.cache.gets").counter());
+    }
+}
@@ -0,0 +1,110 @@
+package uk.ac.ebi.protvar.repo;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import uk.ac.ebi.protvar.model.data.Base;
+import uk.ac.ebi.protvar.repo.VariantIdRepo.Source;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class VariantIdRepoTest {
+
+    private final NamedParameterJdbcTemplate jdbc = mock(NamedParameterJdbcTemplate.class);
+    private final VariantIdRepo repo = new VariantIdRepo(jdbc);
+
+    private final ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+    private final ArgumentCaptor<SqlParameterSource> parameters = ArgumentCaptor.forClass(SqlParameterSource.class);
+    // rows returned by the query: source, id, chr, pos, ref, alt
+    private List<Object[]> rows = List.of();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(repo, "dbsnpTable", "dbsnp_b156");
+        ReflectionTestUtils.setField(repo, "clinvarExtendedTable", "clinvar_extended");
+        ReflectionTestUtils.setField(repo, "cosmicTable", "cosmic_v103");
+        doAnswer(call -> {
+            RowCallbackHandler handler = call.getArgument(2);
+            for (Object[] row : rows) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getString("source")).thenReturn((String) row[0]);
+                when(rs.getString("id")).thenReturn((String) row[1]);
+                when(rs.getString("chr")).thenReturn((String) row[2]);
+                when(rs.getObject("pos", Integer.class)).thenReturn((Integer) row[3]);
+                when(rs.getString("ref")).thenReturn((String) row[4]);
+                when(rs.getString("alt")).thenReturn((String) row[5]);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbc).query(sql.capture(), parameters.capture(), any(RowCallbackHandler.class));
+    }
+
+    private static int branches(String sql) {
+        return (int) Pattern.compile("SELECT DISTINCT").matcher(sql).results().count();
+    }
+
+    @Test
+    void mixedBatch() {
+        rows = List.of(
+                new Object[]{"DBSNP", "rs1", "1", 100, "A", "G,T"},
+                new Object[]{"RCV", "RCV000000001", "2", 200, "C", "T"},
+                new Object[]{"RCV", "RCV000000001", "2", 201, "C", "A"});
+
+        Map<Source, Map<String, List<Base>>> result = repo.getByIds(Map.of(
+                Source.DBSNP, List.of("rs1", "rs2"),
+                Source.RCV, List.of("RCV000000001"),
+                Source.COSMIC, List.of()));
+
+        assertEquals(2, branches(sql.getValue()));
+        assertTrue(sql.getValue().contains("FROM dbsnp_b156 d WHERE d.id = ANY(:DBSNP)"));
+        assertTrue(sql.getValue().contains("unnest(c.rcvs)"));
+        assertFalse(sql.getValue().contains("cosmic_v103"));
+        assertEquals(Set.of("DBSNP", "RCV"), Set.of(parameters.getValue().getParameterNames()));
+        assertArrayEquals(new String[]{"rs1", "rs2"}, (String[]) parameters.getValue().getValue("DBSNP"));
+
+        assertEquals(Set.of(Source.DBSNP, Source.RCV), result.keySet());
+        assertEquals("G,T", result.get(Source.DBSNP).get("rs1").get(0).getAlt());
+        assertEquals(List.of(200, 201), result.get(Source.RCV).get("RCV000000001").stream().map(Base::getPos).toList());
+    }
+
+    @Test
+    void singleSourceBatch() {
+        rows = List.<Object[]>of(new Object[]{"COSMIC", "COSV55555555", "3", 300, "G", "A"});
+
+        Map<Source, Map<String, List<Base>>> result = repo.getByIds(Map.of(Source.COSMIC, List.of("COSV55555555")));
+
+        assertEquals(1, branches(sql.getValue()));
+        assertFalse(sql.getValue().contains("UNION ALL"));
+        assertFalse(sql.getValue().contains("unnest"));
+        assertTrue(sql.getValue().contains("FROM cosmic_v103 c WHERE c.id = ANY(:COSMIC)"));
+        assertEquals(Set.of("COSMIC"), Set.of(parameters.getValue().getParameterNames()));
+        assertEquals(300, result.get(Source.COSMIC).get("COSV55555555").get(0).getPos());
+    }
+
+    @Test
+    void nullPositionKept() {
+        rows = List.<Object[]>of(new Object[]{"DBSNP", "rs1", "1", null, "A", "G"});
+
+        Map<Source, Map<String, List<Base>>> result = repo.getByIds(Map.of(Source.DBSNP, List.of("rs1")));
+
+        assertNull(result.get(Source.DBSNP).get("rs1").get(0).getPos());
+    }
+
+    @Test
+    void noIdsNoQuery() {
+        assertTrue(repo.getByIds(Map.of(Source.RCV, List.of())).isEmpty());
+        verifyNoInteractions(jdbc);
+    }
+}
@@ -0,0 +1,98 @@
+package uk.ac.ebi.protvar.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import uk.ac.ebi.protvar.converter.FunctionalInfoConverter;
+import uk.ac.ebi.protvar.mapper.AnnotationFetcher;
+import uk.ac.ebi.protvar.mapper.FunctionalInfoEnricher;
+import uk.ac.ebi.protvar.model.AnnotationQuery;
+import uk.ac.ebi.protvar.model.response.FunctionalInfo;
+import uk.ac.ebi.protvar.model.response.PositionStructure;
+import uk.ac.ebi.protvar.model.response.StructureResidue;
+import uk.ac.ebi.protvar.repo.FunctionRepo;
+import uk.ac.ebi.uniprot.domain.entry.UPEntry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AnnotationServiceTest {
+
+    private final FunctionRepo functionRepo = mock(FunctionRepo.class);
+    private final FunctionalInfoConverter converter = mock(FunctionalInfoConverter.class);
+    private final FunctionalInfoEnricher enricher = mock(FunctionalInfoEnricher.class);
+    private final AnnotationFetcher annotationFetcher = mock(AnnotationFetcher.class);
+    private final StructureService structureService = mock(StructureService.class);
+    private final AnnotationService service = new AnnotationService(functionRepo, converter, enricher,
+            annotationFetcher, structureService);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "chunkSize", 2);
+    }
+
+    private static AnnotationQuery query(String accession, int position) {
+        return new AnnotationQuery(accession, position, null, null);
+    }
+
+    @Test
+    void structuresInOrderAcrossChunks() throws Exception {
+        when(structureService.getStr(anyString(), anyInt())).thenAnswer(call ->
+                List.of(new StructureResidue()));
+        List<AnnotationQuery> queries = List.of(query("P1", 3), query("P2", 1), query("P1", 3),
+                query("P3", 7), query("P1", 1));
+
+        List<PositionStructure> results = new ArrayList<>();
+        service.structures(queries, results::add);
+
+        assertEquals(List.of("P1:3", "P2:1", "P1:3", "P3:7", "P1:1"),
+                results.stream().map(r -> r.getAccession() + ":" + r.getPosition()).toList());
+        // one preload per chunk of 2
+        verify(structureService).preloadStructureCache(List.of("P1", "P2"));
+        verify(structureService).preloadStructureCache(List.of("P1", "P3"));
+        verify(structureService).preloadStructureCache(List.of("P1"));
+    }
+
+    @Test
+    void functionsSkipUnknownAccessions() throws Exception {
+        when(functionRepo.getHeader("P1")).thenReturn(mock(UPEntry.class));
+        when(functionRepo.getHeader("P3")).thenReturn(mock(UPEntry.class));
+        when(converter.convert(any(), anyList())).thenAnswer(call -> new FunctionalInfo());
+        List<AnnotationQuery> queries = AnnotationService.normalise(List.of(
+                new AnnotationQuery("P1", 10, "Arg", null), query("UNKNOWN", 5), query("P3", 2),
+                new AnnotationQuery("P1", 11, "w", null)));
+
+        List<FunctionalInfo> results = new ArrayList<>();
+        service.functions(queries, results::add);
+
+        assertEquals(List.of(10, 2, 11), results.stream().map(FunctionalInfo::getPosition).toList());
+        verify(enricher).enrich(same(results.get(0)), any(), eq("R"));
+        verify(enricher).enrich(same(results.get(1)), any(), isNull());
+        verify(enricher).enrich(same(results.get(2)), any(), eq("W"));
+        // header looked up once per accession per chunk
+        verify(functionRepo, times(1)).getHeader("UNKNOWN");
+        // chunk arrays hold the distinct positions of each chunk
+        verify(functionRepo).getFeatures(aryEq(new String[]{"P1", "UNKNOWN"}), aryEq(new Integer[]{10, 5}));
+        verify(functionRepo).getFeatures(aryEq(new String[]{"P3", "P1"}), aryEq(new Integer[]{2, 11}));
+    }
+
+    @Test
+    void normaliseRejectsInvalidEntries() {
+        assertEquals(List.of(new AnnotationQuery("P1", 1, "R", "14-89993420-A-C")),
+                AnnotationService.normalise(List.of(new AnnotationQuery("P1", 1, " arg ", " 14-89993420-A-C "))));
+        assertEquals(List.of(query("P1", 1)),
+                AnnotationService.normalise(List.of(new AnnotationQuery("P1", 1, "", " "))));
+
+        for (AnnotationQuery invalid : Arrays.asList(null, new AnnotationQuery(null, 1, null, null),
+                new AnnotationQuery("P1", null, null, null), new AnnotationQuery("P1", 1, "Xyz", null),
+                new AnnotationQuery("P1", 1, null, "not a variant"), new AnnotationQuery("P1", 1, null, "P22304 A205P"))) {
+            List<AnnotationQuery> queries = Arrays.asList(query("P1", 1), invalid);
+            assertThrows(IllegalArgumentException.class, () -> AnnotationService.normalise(queries), String.valueOf(invalid));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package uk.ac.ebi.protvar.service;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.Invocation;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import uk.ac.ebi.protvar.cache.AccessFrequencySketch;
+import uk.ac.ebi.protvar.cache.BatchCacheService;
+import uk.ac.ebi.protvar.config.WarmupProperties;
+import uk.ac.ebi.protvar.repo.FunctionRepo;
+import uk.ac.ebi.protvar.repo.InteractionRepo;
+import uk.ac.ebi.protvar.repo.PocketRepo;
+import uk.ac.ebi.protvar.repo.ScoreNewRepo;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CacheWarmupServiceTest {
+
+    private final WarmupProperties properties = new WarmupProperties();
+    private final AccessFrequencySketch sketch = new AccessFrequencySketch(10);
+    private final StringRedisTemplate redis = mock(StringRedisTemplate.class);
+    private final CacheWarmupService service = new CacheWarmupService(properties, sketch, redis,
+            mock(BatchCacheService.class), mock(StructureService.class), mock(FunctionRepo.class),
+            mock(PocketRepo.class), mock(InteractionRepo.class), mock(ScoreNewRepo.class));
+
+    @Test
+    void flushPassesWindowAndDecayToScript() {
+        sketch.record("P04637");
+        sketch.record("P04637");
+        sketch.record("P38398");
+        long before = System.currentTimeMillis();
+
+        service.flushFrequencies();
+
+        List<Invocation> calls = mockingDetails(redis).getInvocations().stream()
+                .filter(call -> call.getMethod().getName().equals("execute")).toList();
+        assertEquals(1, calls.size());
+        Object[] arguments = calls.get(0).getArguments();
+        assertEquals(List.of(CacheWarmupService.FREQUENCY_KEY, CacheWarmupService.DECAY_EPOCH_KEY), arguments[1]);
+
+        // now, half-life, rescale weight, max-tracked, initial epoch, then accession/count pairs
+        Object[] args = Arrays.copyOfRange(arguments, 2, arguments.length);
+        assertTrue(Long.parseLong((String) args[0]) >= before);
+        assertEquals(String.valueOf(properties.getHalfLife().toMillis()), args[1]);
+        assertEquals(CacheWarmupService.RESCALE_WEIGHT, Double.parseDouble((String) args[2]));
+        assertEquals(String.valueOf(properties.getMaxTracked()), args[3]);
+        assertEquals(String.valueOf(CacheWarmupService.INITIAL_DECAY_EPOCH), args[4]);
+        Map<Object, Object> window = new HashMap<>();
+        for (int i = 5; i < args.length; i += 2) window.put(args[i], args[i + 1]);
+        assertEquals(Map.of("P04637", "2", "P38398", "1"), window);
+    }
+
+    @Test
+    void emptyWindowNotFlushed() {
+        service.flushFrequencies();
+        verifyNoInteractions(redis);
+    }
+}
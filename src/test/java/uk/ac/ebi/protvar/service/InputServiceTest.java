@@ -0,0 +1,49 @@
+package uk.ac.ebi.protvar.service;
+
+import org.junit.jupiter.api.Test;
+import uk.ac.ebi.protvar.utils.ChecksumUtils;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InputServiceTest {
+
+    private static final String RAW = "# header\r\n19 1010539 G C,P80404 Gln56Arg\n\n  rs1042779   X 100 A T\u0085#comment\r";
+
+    @Test
+    void streamingNormaliseMatchesSplit() throws Exception {
+        List<String> streamed = new ArrayList<>();
+        InputService.normalizeInput(new StringReader(RAW), streamed::add);
+
+        assertEquals(List.of("19 1010539 G C", "P80404 Gln56Arg", "rs1042779", "X 100 A T"), streamed);
+        assertEquals(streamed, InputService.normalizeInput(RAW));
+    }
+
+    @Test
+    void chunkedNormaliseCarriesPartialLines() throws Exception {
+        // upload sessions: lines may span chunks, wherever the input is split
+        for (int split = 0; split <= RAW.length(); split++) {
+            List<String> lines = new ArrayList<>();
+            String carry = InputService.normalizeLines("", new StringReader(RAW.substring(0, split)), lines::add);
+            carry = InputService.normalizeLines(carry, new StringReader(RAW.substring(split)), lines::add);
+            InputService.emitLine(carry, lines::add);
+
+            assertEquals(InputService.normalizeInput(RAW), lines, "split at " + split);
+        }
+    }
+
+    @Test
+    void lineChecksumMatchesJoinedChecksum() {
+        List<String> lines = InputService.normalizeInput(RAW);
+        ChecksumUtils.LineChecksum checksum = new ChecksumUtils.LineChecksum();
+        lines.forEach(checksum::add);
+
+        // ids of inputs uploaded before streaming must not change
+        String joined = String.join("\n", lines);
+        assertEquals(ChecksumUtils.checksum(joined.getBytes(StandardCharsets.UTF_8)), checksum.checksum());
+    }
+}
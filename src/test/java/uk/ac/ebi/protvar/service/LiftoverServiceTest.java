@@ -0,0 +1,118 @@
+package uk.ac.ebi.protvar.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import uk.ac.ebi.protvar.fetcher.AssemblyMappingFetcher;
+import uk.ac.ebi.protvar.model.Coordinate;
+import uk.ac.ebi.protvar.model.response.AssemblyMapping;
+import uk.ac.ebi.protvar.types.Assembly;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class LiftoverServiceTest {
+
+    // GRCh37 position -> GRCh38 position and base
+    private static final Map<Integer, Coordinate> CROSSMAP = Map.of(
+            100, to(1100, "A"),  // same base
+            200, to(1200, "G"),  // base changed, not an ALT
+            300, to(1300, "T"),  // base changed to the ALT
+            400, to(1400, "C")); // base changed under a multi-base REF
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AssemblyMappingFetcher fetcher = mock(AssemblyMappingFetcher.class);
+    private final LiftoverService service = new LiftoverService(fetcher, objectMapper);
+
+    private static Coordinate to(int pos, String base) {
+        Coordinate coordinate = new Coordinate("1");
+        coordinate.setPos(pos);
+        coordinate.setBase(base);
+        return coordinate;
+    }
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ReflectionTestUtils.setField(service, "batchSize", 2);
+        doAnswer(call -> {
+            for (AssemblyMapping mapping : (List<AssemblyMapping>) call.getArgument(0)) {
+                if (mapping.getFrom() == null) continue;
+                Coordinate to = CROSSMAP.get(mapping.getFrom().getPos());
+                if (to == null) mapping.setError("No mapping found");
+                else mapping.setTo(to(to.getPos(), to.getBase()));
+            }
+            return null;
+        }).when(fetcher).lift(anyList(), eq(Assembly.GRCH37));
+    }
+
+    private String lift(String input, LiftoverService.Format format, long expectedLifted) throws Exception {
+        StringWriter out = new StringWriter();
+        assertEquals(expectedLifted, service.lift(new StringReader(input), Assembly.GRCH37, Assembly.GRCH38, format, out));
+        return out.toString();
+    }
+
+    @Test
+    void vcfPositionsAndRef() throws Exception {
+        String vcf = """
+                ##fileformat=VCFv4.2
+                #CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO
+                1\t100\trs1\tA\tG\t.\t.\t.
+                1\t200\t.\tA\tC\t.\t.\t.
+                1\t300\t.\tA\tT\t.\t.\t.
+                1\t400\t.\tAT\tA\t.\t.\t.
+                1\t500\t.\tA\tG\t.\t.\t.
+                1\t100\t.\tATC\tA\t.\t.\t.
+                """;
+        String expected = """
+                ##fileformat=VCFv4.2
+                ##liftover=GRCh37>GRCh38
+                #CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO
+                1\t1100\trs1\tA\tG\t.\t.\t.
+                1\t1200\t.\tG\tC\t.\t.\t.
+                1\t1100\t.\tATC\tA\t.\t.\t.
+                """;
+        // 300: new REF would equal ALT; 400: multi-base REF changed; 500: unmapped
+        assertEquals(expected, lift(vcf, LiftoverService.Format.VCF, 3));
+    }
+
+    @Test
+    void ndjsonLinePerInput() throws Exception {
+        String input = "1 100\n\n1\t200\t.\tA\tC\n1 500\nnot a coordinate\n1 300\n";
+        String[] lines = lift(input, LiftoverService.Format.NDJSON, 3).split("\n");
+        assertEquals(5, lines.length); // blank line skipped, batches of 2
+
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals("1 100", first.get("input").asText());
+        assertEquals(100, first.get("from").get("pos").asInt());
+        assertEquals(1100, first.get("to").get("pos").asInt());
+        assertEquals("A", first.get("to").get("base").asText());
+
+        JsonNode vcfRecord = objectMapper.readTree(lines[1]);
+        assertEquals(1200, vcfRecord.get("to").get("pos").asInt());
+        assertEquals("G", vcfRecord.get("to").get("base").asText());
+
+        assertEquals("No mapping found", objectMapper.readTree(lines[2]).get("error").asText());
+        assertEquals("Error parsing input", objectMapper.readTree(lines[3]).get("error").asText());
+        assertEquals(1300, objectMapper.readTree(lines[4]).get("to").get("pos").asInt());
+    }
+
+    @Test
+    void refLift() {
+        String[] snv = {"1", "200", ".", "a", "C"};
+        assertTrue(LiftoverService.liftRef(snv, "g"));
+        assertEquals("G", snv[3]);
+
+        assertFalse(LiftoverService.liftRef(new String[]{"1", "300", ".", "A", "C,T"}, "T"));
+        assertTrue(LiftoverService.liftRef(new String[]{"1", "300"}, "T"));
+        assertTrue(LiftoverService.liftRef(new String[]{"1", "300", ".", "A", "C"}, null));
+    }
+}
@@ -0,0 +1,165 @@
+package uk.ac.ebi.protvar.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+import uk.ac.ebi.protvar.JacksonConfig;
+import uk.ac.ebi.protvar.config.RetentionProperties;
+import uk.ac.ebi.protvar.input.GenomicVariant;
+import uk.ac.ebi.protvar.input.VariantInput;
+import uk.ac.ebi.protvar.input.parser.VariantParser;
+import uk.ac.ebi.protvar.mapper.InputMapper;
+import uk.ac.ebi.protvar.model.response.PrecomputeStatus;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * A page read from the precomputed mappings must render exactly as the
+ * same lines mapped live: the stored JSON (minus originalIndex) wrapped
+ * in PrecomputedInput, through the web ObjectMapper. A precompute lost
+ * with the in-process queue is queued again.
+ */
+class MappingPrecomputeServiceTest {
+
+    private static final List<String> LINES = List.of(
+            "19 1010539 G C", "X-54321-C-A", "P22304 A205P", "NM_017547.4:c.1289A>G",
+            "rs123456", "RCV000123456", "completely_invalid_format");
+
+    private final ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+    private final List<String> stored = new ArrayList<>();
+    private final ExecutorService executor = mock(ExecutorService.class);
+    private ValueOperations<String, Object> valueOps;
+    // status in Redis; READY over the stored lines when null
+    private PrecomputeStatus status;
+    private MappingPrecomputeService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        StringRedisTemplate redis = mock(StringRedisTemplate.class);
+        ListOperations<String, String> listOps = mock(ListOperations.class);
+        when(redis.opsForList()).thenReturn(listOps);
+        when(listOps.range(anyString(), anyLong(), anyLong())).thenAnswer(call -> {
+            long from = call.getArgument(1);
+            long to = Math.min(call.<Long>getArgument(2), stored.size() - 1);
+            return from > to ? List.of() : new ArrayList<>(stored.subList((int) from, (int) to + 1));
+        });
+
+        RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+        valueOps = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        when(valueOps.get(anyString())).thenAnswer(call -> status != null ? status : PrecomputeStatus.builder()
+                .state(PrecomputeStatus.State.READY)
+                .totalLines((long) stored.size())
+                .build());
+
+        service = new MappingPrecomputeService(mock(UploadCacheService.class), mock(InputMapper.class),
+                redis, redisTemplate, new RetentionProperties(), objectMapper);
+        ReflectionTestUtils.setField(service, "cacheVersion", "v1");
+        ReflectionTestUtils.setField(service, "executor", executor);
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "maxLines", 100_000L);
+        ReflectionTestUtils.setField(service, "leaseMinutes", 60L);
+    }
+
+    private static PrecomputeStatus running(Instant updatedAt) {
+        return PrecomputeStatus.builder()
+                .state(PrecomputeStatus.State.RUNNING)
+                .totalLines(7L)
+                .mappedLines(3L)
+                .startedAt(updatedAt.minus(Duration.ofMinutes(5)))
+                .updatedAt(updatedAt)
+                .build();
+    }
+
+    // Stands in for the core mapping: derived variants and messages on each line
+    private static List<VariantInput> mapped(List<String> lines) {
+        List<VariantInput> inputs = VariantParser.parse(lines);
+        for (VariantInput input : inputs) {
+            if (input.isValid()) {
+                input.getDerivedGenomicVariants().add(new GenomicVariant("19", 1010539, "G", "C"));
+                input.addInfo("mapped \"" + input.getInputStr() + "\"");
+            }
+        }
+        return inputs;
+    }
+
+    @Test
+    void precomputedPagesRenderAsLiveMapping() throws Exception {
+        for (VariantInput input : mapped(LINES)) {
+            stored.add(ReflectionTestUtils.invokeMethod(service, "toJson", input));
+        }
+
+        int pageSize = 3;
+        for (int page = 0; page * pageSize < LINES.size(); page++) {
+            List<String> pageLines = LINES.subList(page * pageSize, Math.min(LINES.size(), (page + 1) * pageSize));
+            // Live pages parse just the page's lines, so originalIndex restarts per page
+            String live = objectMapper.writeValueAsString(mapped(pageLines));
+
+            Page<VariantInput> precomputed = service.getPage("abc123", "38", page, pageSize);
+            assertNotNull(precomputed);
+            assertEquals(LINES.size(), precomputed.getTotalElements());
+            String json = objectMapper.writeValueAsString(precomputed.getContent());
+
+            assertEquals(objectMapper.readTree(live), objectMapper.readTree(json), "page " + page);
+            assertEquals(live, json, "page " + page);
+        }
+        assertNull(service.getPage("abc123", "38", 3, pageSize));
+    }
+
+    @Test
+    void precomputedInputWithoutOtherFields() throws Exception {
+        stored.add("{}");
+        Page<VariantInput> page = service.getPage("abc123", "38", 0, 10);
+        assertEquals("[{\"originalIndex\":0}]", objectMapper.writeValueAsString(page.getContent()));
+    }
+
+    @Test
+    void lostRunRequeuedWhenRead() {
+        status = running(Instant.now().minus(Duration.ofHours(2)));
+
+        PrecomputeStatus current = service.getStatus("abc123", "38");
+
+        assertEquals(PrecomputeStatus.State.QUEUED, current.getState());
+        assertEquals(7L, current.getTotalLines());
+        verify(valueOps).set(eq("v1::inputMappings::abc123::38::status"), same(current), any(Duration.class));
+        verify(executor).submit(any(Runnable.class));
+        assertNull(service.getPage("abc123", "38", 0, 10)); // still mapped live meanwhile
+    }
+
+    @Test
+    void runningWithinLeaseLeftAlone() {
+        status = running(Instant.now().minus(Duration.ofMinutes(10)));
+
+        assertSame(status, service.getStatus("abc123", "38"));
+        service.schedule("abc123", "38", 7);
+        verifyNoInteractions(executor);
+    }
+
+    @Test
+    void lostQueuedRescheduled() {
+        // written before updatedAt existed
+        status = PrecomputeStatus.builder()
+                .state(PrecomputeStatus.State.QUEUED)
+                .totalLines(7L)
+                .queuedAt(Instant.now().minus(Duration.ofDays(1)))
+                .build();
+
+        service.schedule("abc123", "38", 7);
+        verify(executor).submit(any(Runnable.class));
+    }
+}
@@ -0,0 +1,151 @@
+package uk.ac.ebi.protvar.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisListCommands;
+import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import uk.ac.ebi.protvar.config.RetentionProperties;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Range arithmetic of the list-backed input reads, against an in-memory
+ * stand-in for the Redis list commands (LLEN, LRANGE with inclusive,
+ * clamped and negative-from-the-end indexes).
+ */
+class UploadCacheServiceTest {
+
+    private static final String ID = "abc123";
+    private static final String KEY = "v1::inputLines::" + ID;
+
+    private final Map<String, List<String>> lists = new HashMap<>();
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("inputs");
+    private UploadCacheService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        StringRedisTemplate redis = mock(StringRedisTemplate.class);
+        ListOperations<String, String> listOps = mock(ListOperations.class);
+        when(redis.opsForList()).thenReturn(listOps);
+        when(listOps.size(anyString())).thenAnswer(call -> (long) list(call.getArgument(0)).size());
+        when(listOps.range(anyString(), anyLong(), anyLong())).thenAnswer(call ->
+                lrange(list(call.getArgument(0)), call.getArgument(1), call.getArgument(2)));
+
+        // Pipelined LLEN + LRANGE: run the callback, collecting each command's result
+        when(redis.executePipelined(any(RedisCallback.class))).thenAnswer(call -> {
+            List<Object> results = new ArrayList<>();
+            RedisConnection connection = mock(RedisConnection.class);
+            RedisListCommands listCommands = mock(RedisListCommands.class);
+            when(connection.listCommands()).thenReturn(listCommands);
+            when(listCommands.lLen(any())).thenAnswer(c -> {
+                results.add((long) list(key(c.getArgument(0))).size());
+                return null;
+            });
+            when(listCommands.lRange(any(), anyLong(), anyLong())).thenAnswer(c -> {
+                results.add(lrange(list(key(c.getArgument(0))), c.getArgument(1), c.getArgument(2)));
+                return null;
+            });
+            ((RedisCallback<Object>) call.getArgument(0)).doInRedis(connection);
+            return results;
+        });
+
+        service = new UploadCacheService(redis, cacheManager, new RetentionProperties());
+        ReflectionTestUtils.setField(service, "cacheVersion", "v1");
+    }
+
+    private List<String> list(String key) {
+        return lists.getOrDefault(key, List.of());
+    }
+
+    private static String key(byte[] key) {
+        return new String(key, StandardCharsets.UTF_8);
+    }
+
+    private static List<String> lrange(List<String> list, long start, long end) {
+        int n = list.size();
+        if (start < 0) start = Math.max(0, n + start);
+        if (end < 0) end = n + end;
+        end = Math.min(end, n - 1);
+        return start > end ? List.of() : new ArrayList<>(list.subList((int) start, (int) end + 1));
+    }
+
+    private static List<String> lines(int n) {
+        return IntStream.range(0, n).mapToObj(i -> "1 " + (1000 + i) + " A G").toList();
+    }
+
+    @Test
+    void inputSize() {
+        lists.put(KEY, lines(25));
+        assertEquals(25, service.getInputSize(ID));
+        assertEquals(0, service.getInputSize("unknown"));
+    }
+
+    @Test
+    void inputRangePages() {
+        List<String> all = lines(25);
+        lists.put(KEY, all);
+
+        UploadCacheService.InputRange first = service.getInputRange(ID, 0, 10);
+        assertEquals(all.subList(0, 10), first.lines());
+        assertEquals(25, first.total());
+
+        UploadCacheService.InputRange last = service.getInputRange(ID, 20, 10);
+        assertEquals(all.subList(20, 25), last.lines());
+        assertEquals(25, last.total());
+
+        UploadCacheService.InputRange past = service.getInputRange(ID, 30, 10);
+        assertTrue(past.lines().isEmpty());
+        assertEquals(25, past.total());
+    }
+
+    @Test
+    void inputRangeOfEmptyOrZeroCount() {
+        assertEquals(UploadCacheService.InputRange.EMPTY, service.getInputRange("unknown", 0, 10));
+
+        lists.put(KEY, lines(5));
+        UploadCacheService.InputRange none = service.getInputRange(ID, 0, 0);
+        assertTrue(none.lines().isEmpty()); // not LRANGE 0 -1, the whole list
+        assertEquals(5, none.total());
+    }
+
+    @Test
+    void legacyInputRange() {
+        List<String> all = lines(25);
+        cacheManager.getCache("inputs").put(ID, all);
+
+        assertEquals(25, service.getInputSize(ID));
+        assertEquals(all.subList(20, 25), service.getInputRange(ID, 20, 10).lines());
+        assertTrue(service.getInputRange(ID, 25, 10).lines().isEmpty());
+        assertEquals(25, service.getInputRange(ID, 25, 10).total());
+    }
+
+    @Test
+    void inputChunks() {
+        List<String> all = lines(25);
+        lists.put(KEY, all);
+
+        List<List<String>> chunks = service.streamInputChunks(ID, 10).toList();
+        assertEquals(List.of(10, 10, 5), chunks.stream().map(List::size).toList());
+        assertEquals(all, chunks.stream().flatMap(List::stream).toList());
+
+        lists.put(KEY, lines(20));
+        assertEquals(List.of(10, 10), service.streamInputChunks(ID, 10).map(List::size).toList());
+
+        assertEquals(0, service.streamInputChunks("unknown", 10).count());
+    }
+}
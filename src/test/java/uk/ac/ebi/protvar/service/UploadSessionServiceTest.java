@@ -0,0 +1,138 @@
+package uk.ac.ebi.protvar.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UploadSessionServiceTest {
+
+    private static final String KEY = "v1::uploadSessions::s1";
+
+    private StringRedisTemplate redis;
+    private HashOperations<String, String, String> hash;
+    private ValueOperations<String, String> values;
+    private ListOperations<String, String> lists;
+    private UploadCacheService cacheService;
+    private UploadSessionService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redis = mock(StringRedisTemplate.class);
+        hash = mock(HashOperations.class);
+        values = mock(ValueOperations.class);
+        lists = mock(ListOperations.class);
+        doReturn(hash).when(redis).opsForHash();
+        when(redis.opsForValue()).thenReturn(values);
+        when(redis.opsForList()).thenReturn(lists);
+        cacheService = mock(UploadCacheService.class);
+        service = new UploadSessionService(redis, cacheService, mock(InputService.class));
+        ReflectionTestUtils.setField(service, "cacheVersion", "v1");
+    }
+
+    @Test
+    void finaliseUnknownSession() {
+        when(hash.entries(KEY)).thenReturn(Map.of());
+        assertEquals(UploadSessionService.FinaliseStatus.UNKNOWN, service.finalise("s1").status());
+    }
+
+    @Test
+    void finaliseAlreadyFinalised() {
+        when(hash.entries(KEY)).thenReturn(Map.of("inputId", "abc123"));
+        UploadSessionService.FinaliseResult result = service.finalise("s1");
+        assertEquals(UploadSessionService.FinaliseStatus.FINALISED, result.status());
+        assertEquals("abc123", result.inputId());
+        verify(values, never()).setIfAbsent(anyString(), anyString(), any(Duration.class));
+    }
+
+    @Test
+    void finaliseWhileLocked() {
+        when(hash.entries(KEY)).thenReturn(Map.of("lines", "0"));
+        when(values.setIfAbsent(eq(KEY + "::lock"), anyString(), any(Duration.class))).thenReturn(false);
+        assertEquals(UploadSessionService.FinaliseStatus.BUSY, service.finalise("s1").status());
+        verify(redis, never()).delete(anyString());
+        verify(redis, never()).execute(any(RedisScript.class), anyList(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void lockReleasedWithOwnerToken() {
+        // expired between the first read and taking the lock
+        when(hash.entries(KEY)).thenReturn(Map.of("lines", "0"), Map.of());
+        ArgumentCaptor<String> token = ArgumentCaptor.forClass(String.class);
+        when(values.setIfAbsent(eq(KEY + "::lock"), token.capture(), any(Duration.class))).thenReturn(true);
+
+        assertEquals(UploadSessionService.FinaliseStatus.UNKNOWN, service.finalise("s1").status());
+        verify(redis).execute(any(RedisScript.class), eq(List.of(KEY + "::lock")), eq(token.getValue()));
+        verify(redis, never()).delete(anyString());
+    }
+
+    // two lines accepted, "last" carried over
+    private void openSession() {
+        when(hash.entries(KEY)).thenReturn(Map.of("lines", "2", "staging", "staging1", "carry", "last",
+                "digest", "d41d8cd98f00b204e9800998ecf8427e", "assembly", "", "created", "0"));
+        when(values.setIfAbsent(eq(KEY + "::lock"), anyString(), any(Duration.class))).thenReturn(true);
+    }
+
+    @Test
+    void finaliseRetryKeepsMovedInput() {
+        openSession();
+        when(cacheService.hasInput(anyString())).thenReturn(true);
+
+        UploadSessionService.FinaliseResult result = service.finalise("s1");
+
+        assertEquals(UploadSessionService.FinaliseStatus.FINALISED, result.status());
+        verify(cacheService).hasInput(result.inputId());
+        verify(cacheService, never()).resumeInput(anyString(), anyLong());
+        verify(redis).delete("staging1");
+        verify(hash).put(KEY, "inputId", result.inputId());
+    }
+
+    @Test
+    void finaliseRetryTrimsPushedCarry() {
+        openSession();
+        when(lists.size("staging1")).thenReturn(3L);
+        UploadCacheService.InputWriter writer = mock(UploadCacheService.InputWriter.class);
+        when(cacheService.resumeInput("staging1", 2)).thenReturn(writer);
+
+        UploadSessionService.FinaliseResult result = service.finalise("s1");
+
+        verify(lists).trim("staging1", 0, 1);
+        verify(writer).append(List.of("last"));
+        verify(writer).commit(result.inputId());
+        verify(hash).put(KEY, "inputId", result.inputId());
+    }
+
+    @Test
+    void abortWhileLocked() {
+        when(redis.hasKey(KEY)).thenReturn(true);
+        when(values.setIfAbsent(eq(KEY + "::lock"), anyString(), any(Duration.class))).thenReturn(false);
+        assertEquals(UploadSessionService.AbortStatus.BUSY, service.abort("s1"));
+        verify(redis, never()).delete(anyString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void abortDropsStagedLines() {
+        when(redis.hasKey(KEY)).thenReturn(true);
+        openSession();
+        assertEquals(UploadSessionService.AbortStatus.ABORTED, service.abort("s1"));
+        verify(redis).delete("staging1");
+        verify(redis).delete(KEY);
+        verify(redis).execute(any(RedisScript.class), eq(List.of(KEY + "::lock")), anyString());
+    }
+}
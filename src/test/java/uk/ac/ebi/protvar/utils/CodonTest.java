@@ -1,8 +1,12 @@
 package uk.ac.ebi.protvar.utils;
 
 import org.junit.jupiter.api.Test;
+import uk.ac.ebi.protvar.model.data.GenomeToProteinMapping;
 import uk.ac.ebi.protvar.types.AminoAcid;
 import uk.ac.ebi.protvar.types.Codon;
+import uk.ac.ebi.protvar.types.CodonTable;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 public class CodonTest {
 
@@ -73,4 +77,31 @@ public class CodonTest {
                 expectedNoChange == noChangeCount);
     }
 
+    @Test
+    void testCodonTableMatchesSubstitution() {
+        String[] dnaBases = {"A", "C", "G", "T"};
+        for (Codon ref : Codon.values()) {
+            for (int pos = 1; pos <= 3; pos++) {
+                for (String altBase : dnaBases) {
+                    for (boolean reverse : new boolean[]{false, true}) {
+                        GenomeToProteinMapping mapping = GenomeToProteinMapping.builder()
+                                .codon(ref.name()).codonPosition(pos).reverseStrand(reverse).build();
+                        Codon expected = Codon.valueOf(mapping.getAltCodon(altBase));
+
+                        CodonTable.Substitution substitution = CodonTable.get(ref.name().toLowerCase(), pos,
+                                altBase.charAt(0), reverse);
+                        assertEquals(expected, substitution.altCodon());
+                        assertEquals(expected.getAa(), substitution.altAA());
+                        assertEquals(AminoAcid.getConsequence(ref.getAa(), expected.getAa()),
+                                substitution.consequence());
+                    }
+                }
+            }
+        }
+        assertNull(CodonTable.get("AUG", 4, 'A', false));
+        assertNull(CodonTable.get("AUG", 1, 'N', false));
+        assertNull(CodonTable.codon("AXG"));
+        assertEquals(Codon.AUG, CodonTable.codon("ATG"));
+    }
+
 }
@@ -0,0 +1,56 @@
+package uk.ac.ebi.protvar.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenomicKeyTest {
+
+    @Test
+    void roundTrip() {
+        for (String chr : List.of("1", "9", "10", "22", "X", "Y", "MT")) {
+            long key = GenomicKey.of(chr, 248_956_422);
+            assertNotEquals(GenomicKey.NONE, key);
+            assertEquals(chr, GenomicKey.chromosome(key));
+            assertEquals(248_956_422, GenomicKey.position(key));
+        }
+    }
+
+    @Test
+    void caseInsensitive() {
+        assertEquals(GenomicKey.of("X", 100), GenomicKey.of("x", 100));
+        assertEquals(GenomicKey.of("MT", 100), GenomicKey.of("mt", 100));
+    }
+
+    @Test
+    void unknownChromosomeOrPosition() {
+        assertEquals(GenomicKey.NONE, GenomicKey.of(null, 1));
+        assertEquals(GenomicKey.NONE, GenomicKey.of("23", 1));
+        assertEquals(GenomicKey.NONE, GenomicKey.of("chr1", 1));
+        assertEquals(GenomicKey.NONE, GenomicKey.of("1", null));
+        assertEquals(GenomicKey.NONE, GenomicKey.of("1", -5));
+    }
+
+    @Test
+    void distinctKeysPerChromosome() {
+        assertNotEquals(GenomicKey.of("1", 12345), GenomicKey.of("2", 12345));
+        assertNotEquals(GenomicKey.of("1", 12345), GenomicKey.of("1", 12346));
+    }
+
+    @Test
+    void longKeyMapGrowsAndFindsAll() {
+        LongKeyMap<List<Integer>> map = new LongKeyMap<>(2);
+        for (int i = 1; i <= 10_000; i++) {
+            map.computeIfAbsent(GenomicKey.of("17", i), k -> new ArrayList<>()).add(i);
+        }
+        map.computeIfAbsent(GenomicKey.of("17", 42), k -> new ArrayList<>()).add(-42);
+
+        assertEquals(10_000, map.size());
+        assertEquals(List.of(42, -42), map.get(GenomicKey.of("17", 42)));
+        assertNull(map.get(GenomicKey.of("18", 42)));
+        assertNull(map.get(GenomicKey.NONE));
+    }
+}